@@ -0,0 +1,105 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.RuntimeService;
+import org.activiti.engine.delegate.event.ActivitiEvent;
+import org.activiti.engine.delegate.event.ActivitiEventListener;
+import org.activiti.engine.delegate.event.ActivitiEventType;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the async executor: every invocation starts a batch of process instances with an async task
+ * and waits until the async executor has executed all of their jobs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsyncJobBenchmark {
+
+  protected static final int JOBS_PER_INVOCATION = 100;
+
+  /** Maximum time to wait for the jobs of one invocation, after which the benchmark fails */
+  protected static final long JOB_TIMEOUT_SECONDS = 60L;
+
+  @Param({"2", "8"})
+  public int threadPoolSize;
+
+  protected ProcessEngine processEngine;
+  protected RuntimeService runtimeService;
+  protected final Semaphore executedJobs = new Semaphore(0);
+
+  @Setup
+  public void createProcessEngine() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = BenchmarkProcessEngines.createProcessEngineConfiguration("asyncJob");
+    processEngineConfiguration.setAsyncExecutorEnabled(true);
+    processEngineConfiguration.setAsyncExecutorActivate(true);
+    processEngineConfiguration.setAsyncExecutorCorePoolSize(threadPoolSize);
+    processEngineConfiguration.setAsyncExecutorMaxPoolSize(threadPoolSize);
+    processEngineConfiguration.setAsyncExecutorThreadPoolQueueSize(10 * JOBS_PER_INVOCATION);
+    processEngineConfiguration.setAsyncExecutorDefaultAsyncJobAcquireWaitTime(50);
+    processEngine = processEngineConfiguration.buildProcessEngine();
+    BenchmarkProcessEngines.deploy(processEngine, BenchmarkProcessEngines.ASYNC_TASK_PROCESS);
+
+    runtimeService = processEngine.getRuntimeService();
+    runtimeService.addEventListener(new ActivitiEventListener() {
+
+      public void onEvent(ActivitiEvent event) {
+        executedJobs.release();
+      }
+
+      public boolean isFailOnException() {
+        return false;
+      }
+
+    }, ActivitiEventType.JOB_EXECUTION_SUCCESS);
+  }
+
+  @TearDown
+  public void closeProcessEngine() {
+    processEngine.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(JOBS_PER_INVOCATION)
+  public void executeAsyncJobs() throws InterruptedException {
+    for (int i = 0; i < JOBS_PER_INVOCATION; i++) {
+      runtimeService.startProcessInstanceByKey(BenchmarkProcessEngines.ASYNC_TASK_PROCESS);
+    }
+    if (!executedJobs.tryAcquire(JOBS_PER_INVOCATION, JOB_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      throw new ActivitiException("Async jobs were not executed within " + JOB_TIMEOUT_SECONDS + " seconds");
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks;
+
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.activiti.engine.repository.DeploymentBuilder;
+
+/**
+ * Creates the process engines the benchmarks run against: an in-memory H2 database per benchmark,
+ * so the benchmarks don't see each other's data. The database uses multi-version concurrency,
+ * as H2 otherwise locks complete tables, which makes concurrent job execution deadlock.
+ */
+public class BenchmarkProcessEngines {
+
+  public static final String STRAIGHT_THROUGH_PROCESS = "straightThrough";
+  public static final String PARALLEL_GATEWAY_PROCESS = "parallelGateway";
+  public static final String MULTI_INSTANCE_PROCESS = "multiInstance";
+  public static final String USER_TASK_PROCESS = "userTask";
+  public static final String ASYNC_TASK_PROCESS = "asyncTask";
+
+  protected static final String RESOURCE_PATH = "org/activiti/benchmarks/";
+
+  /**
+   * @return a configuration without async executor and job executor, of which the engine still needs to be built
+   */
+  public static ProcessEngineConfigurationImpl createProcessEngineConfiguration(String name) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = new StandaloneInMemProcessEngineConfiguration();
+    processEngineConfiguration.setJdbcUrl("jdbc:h2:mem:activiti-benchmark-" + name + ";DB_CLOSE_DELAY=1000;MVCC=TRUE");
+    processEngineConfiguration.setDatabaseSchemaUpdate(ProcessEngineConfigurationImpl.DB_SCHEMA_UPDATE_CREATE_DROP);
+    processEngineConfiguration.setJobExecutorActivate(false);
+    return processEngineConfiguration;
+  }
+
+  public static ProcessEngine createProcessEngine(String name) {
+    return createProcessEngineConfiguration(name).buildProcessEngine();
+  }
+
+  public static void deploy(ProcessEngine processEngine, String... processDefinitionKeys) {
+    DeploymentBuilder deploymentBuilder = processEngine.getRepositoryService().createDeployment();
+    for (String processDefinitionKey : processDefinitionKeys) {
+      deploymentBuilder.addClasspathResource(getResourceName(processDefinitionKey));
+    }
+    deploymentBuilder.deploy();
+  }
+
+  public static String getResourceName(String processDefinitionKey) {
+    return RESOURCE_PATH + processDefinitionKey + ".bpmn20.xml";
+  }
+
+}
@@ -0,0 +1,150 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.bpmn.model.BpmnModel;
+import org.activiti.bpmn.model.EndEvent;
+import org.activiti.bpmn.model.FlowNode;
+import org.activiti.bpmn.model.GraphicInfo;
+import org.activiti.bpmn.model.Process;
+import org.activiti.bpmn.model.SequenceFlow;
+import org.activiti.bpmn.model.StartEvent;
+import org.activiti.bpmn.model.UserTask;
+import org.activiti.editor.language.json.converter.BpmnJsonConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Converts a generated sequence of user tasks, laid out in rows, to and from the json of the modeler.
+ * With 2500 tasks the model has 5003 shapes: the tasks, the start and end event and the sequence flows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BpmnJsonConverterBenchmark {
+
+  protected static final int TASKS_PER_ROW = 50;
+
+  @Param({"50", "2500"})
+  public int taskCount;
+
+  protected ObjectMapper objectMapper = new ObjectMapper();
+  protected BpmnModel model;
+  protected byte[] json;
+
+  @Setup
+  public void createModel() throws IOException {
+    model = createSequenceModel(taskCount);
+    json = convertToJsonStream();
+  }
+
+  @Benchmark
+  public byte[] convertToJsonTree() throws IOException {
+    return objectMapper.writeValueAsBytes(new BpmnJsonConverter().convertToJson(model));
+  }
+
+  @Benchmark
+  public byte[] convertToJsonStream() throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    new BpmnJsonConverter().convertToJson(model, outputStream);
+    return outputStream.toByteArray();
+  }
+
+  @Benchmark
+  public BpmnModel convertToBpmnModel() throws IOException {
+    return new BpmnJsonConverter().convertToBpmnModel(new ByteArrayInputStream(json));
+  }
+
+  protected BpmnModel createSequenceModel(int taskCount) {
+    BpmnModel model = new BpmnModel();
+    Process process = new Process();
+    process.setId("generated" + taskCount);
+    model.addProcess(process);
+
+    List<FlowNode> flowNodes = new ArrayList<FlowNode>();
+    StartEvent startEvent = new StartEvent();
+    startEvent.setId("start");
+    flowNodes.add(startEvent);
+    for (int i = 1; i <= taskCount; i++) {
+      UserTask userTask = new UserTask();
+      userTask.setId("task" + i);
+      userTask.setName("Task " + i);
+      userTask.setAssignee("kermit");
+      flowNodes.add(userTask);
+    }
+    EndEvent endEvent = new EndEvent();
+    endEvent.setId("end");
+    flowNodes.add(endEvent);
+
+    for (int i = 0; i < flowNodes.size(); i++) {
+      FlowNode flowNode = flowNodes.get(i);
+      process.addFlowElement(flowNode);
+      double size = (flowNode instanceof UserTask) ? 80.0 : 30.0;
+      model.addGraphicInfo(flowNode.getId(), createGraphicInfo(50.0 + (i % TASKS_PER_ROW) * 150.0, 50.0 + (i / TASKS_PER_ROW) * 150.0, size));
+    }
+
+    for (int i = 1; i < flowNodes.size(); i++) {
+      FlowNode source = flowNodes.get(i - 1);
+      FlowNode target = flowNodes.get(i);
+      SequenceFlow sequenceFlow = new SequenceFlow(source.getId(), target.getId());
+      sequenceFlow.setId("flow" + i);
+      source.getOutgoingFlows().add(sequenceFlow);
+      target.getIncomingFlows().add(sequenceFlow);
+      process.addFlowElement(sequenceFlow);
+
+      List<GraphicInfo> waypoints = new ArrayList<GraphicInfo>();
+      waypoints.add(center(model.getGraphicInfo(source.getId())));
+      waypoints.add(center(model.getGraphicInfo(target.getId())));
+      model.addFlowGraphicInfoList(sequenceFlow.getId(), waypoints);
+    }
+    return model;
+  }
+
+  protected GraphicInfo createGraphicInfo(double x, double y, double size) {
+    GraphicInfo graphicInfo = new GraphicInfo();
+    graphicInfo.setX(x);
+    graphicInfo.setY(y);
+    graphicInfo.setWidth(size);
+    graphicInfo.setHeight(size);
+    return graphicInfo;
+  }
+
+  protected GraphicInfo center(GraphicInfo graphicInfo) {
+    GraphicInfo center = new GraphicInfo();
+    center.setX(graphicInfo.getX() + graphicInfo.getWidth() / 2.0);
+    center.setY(graphicInfo.getY() + graphicInfo.getHeight() / 2.0);
+    return center;
+  }
+
+}
@@ -0,0 +1,136 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.bpmn.converter.BpmnXMLConverter;
+import org.activiti.bpmn.converter.util.InputStreamProvider;
+import org.activiti.bpmn.model.BpmnModel;
+import org.activiti.bpmn.model.EndEvent;
+import org.activiti.bpmn.model.FlowElement;
+import org.activiti.bpmn.model.Process;
+import org.activiti.bpmn.model.SequenceFlow;
+import org.activiti.bpmn.model.StartEvent;
+import org.activiti.bpmn.model.UserTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses BPMN 2.0 XML into a {@link BpmnModel} the way a deployment does, with and without schema validation.
+ * Next to the models of the other benchmarks, a generated sequence of 100 user tasks is parsed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BpmnXmlConverterBenchmark {
+
+  protected static final String GENERATED_PROCESS = "generated100";
+  protected static final int GENERATED_TASK_COUNT = 100;
+
+  @Param({BenchmarkProcessEngines.STRAIGHT_THROUGH_PROCESS, BenchmarkProcessEngines.PARALLEL_GATEWAY_PROCESS,
+    BenchmarkProcessEngines.MULTI_INSTANCE_PROCESS, GENERATED_PROCESS})
+  public String processDefinitionKey;
+
+  @Param({"false", "true"})
+  public boolean validateSchema;
+
+  protected InputStreamProvider inputStreamProvider;
+
+  @Setup
+  public void readXml() throws IOException {
+    final byte[] xml;
+    if (GENERATED_PROCESS.equals(processDefinitionKey)) {
+      xml = new BpmnXMLConverter().convertToXML(createSequenceModel(GENERATED_TASK_COUNT));
+    } else {
+      xml = readResource(BenchmarkProcessEngines.getResourceName(processDefinitionKey));
+    }
+    inputStreamProvider = new InputStreamProvider() {
+      public InputStream getInputStream() {
+        return new ByteArrayInputStream(xml);
+      }
+    };
+  }
+
+  @Benchmark
+  public BpmnModel parse() {
+    return new BpmnXMLConverter().convertToBpmnModel(inputStreamProvider, validateSchema, false);
+  }
+
+  protected byte[] readResource(String resourceName) throws IOException {
+    InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resourceName);
+    try {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, read);
+      }
+      return outputStream.toByteArray();
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  protected BpmnModel createSequenceModel(int taskCount) {
+    Process process = new Process();
+    process.setId(GENERATED_PROCESS);
+
+    StartEvent startEvent = new StartEvent();
+    startEvent.setId("start");
+    process.addFlowElement(startEvent);
+
+    FlowElement previous = startEvent;
+    for (int i = 1; i <= taskCount; i++) {
+      UserTask userTask = new UserTask();
+      userTask.setId("task" + i);
+      userTask.setName("Task " + i);
+      userTask.setAssignee("kermit");
+      process.addFlowElement(userTask);
+      addSequenceFlow(process, previous, userTask);
+      previous = userTask;
+    }
+
+    EndEvent endEvent = new EndEvent();
+    endEvent.setId("end");
+    process.addFlowElement(endEvent);
+    addSequenceFlow(process, previous, endEvent);
+
+    BpmnModel model = new BpmnModel();
+    model.addProcess(process);
+    return model;
+  }
+
+  protected void addSequenceFlow(Process process, FlowElement source, FlowElement target) {
+    SequenceFlow sequenceFlow = new SequenceFlow(source.getId(), target.getId());
+    sequenceFlow.setId("flow_" + source.getId() + "_" + target.getId());
+    process.addFlowElement(sequenceFlow);
+  }
+
+}
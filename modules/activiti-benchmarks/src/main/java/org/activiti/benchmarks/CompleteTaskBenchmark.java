@@ -0,0 +1,74 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.TaskService;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Completes the only user task of a process instance, which ends the process instance.
+ *
+ * Every invocation needs a new task, which is created in an invocation level setup:
+ * completing a task takes long enough for the timing overhead of such a setup to be negligible.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompleteTaskBenchmark {
+
+  protected ProcessEngine processEngine;
+  protected TaskService taskService;
+  protected String taskId;
+
+  @Setup
+  public void createProcessEngine() {
+    processEngine = BenchmarkProcessEngines.createProcessEngine("completeTask");
+    BenchmarkProcessEngines.deploy(processEngine, BenchmarkProcessEngines.USER_TASK_PROCESS);
+    taskService = processEngine.getTaskService();
+  }
+
+  @Setup(Level.Invocation)
+  public void createTask() {
+    ProcessInstance processInstance = processEngine.getRuntimeService().startProcessInstanceByKey(BenchmarkProcessEngines.USER_TASK_PROCESS);
+    taskId = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult().getId();
+  }
+
+  @TearDown
+  public void closeProcessEngine() {
+    processEngine.close();
+  }
+
+  @Benchmark
+  public void completeTask() {
+    taskService.complete(taskId);
+  }
+
+}
@@ -0,0 +1,137 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.ManagementService;
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.impl.db.DbSqlSession;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ByteArrayEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Executes a command that inserts N entities, which are written to the database
+ * when the {@link DbSqlSession} is flushed at the end of the command.
+ *
+ * The process engine is created once per trial. The inserted rows are deleted after every iteration,
+ * outside of the measurement, so the table doesn't grow over the iterations. They are deleted in chunks
+ * with a transaction per chunk, as committing the deletion of a complete iteration at once takes minutes
+ * with the multi-version concurrency of H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DbSqlSessionFlushBenchmark {
+
+  protected static final String BYTE_ARRAY_NAME = "benchmark";
+  protected static final int DELETE_CHUNK_SIZE = 1000;
+
+  @Param({"1", "10", "100", "1000"})
+  public int entityCount;
+
+  protected ProcessEngine processEngine;
+  protected ManagementService managementService;
+  protected Command<Void> insertCommand;
+
+  @Setup(Level.Trial)
+  public void createProcessEngine() {
+    processEngine = BenchmarkProcessEngines.createProcessEngine("flush");
+    managementService = processEngine.getManagementService();
+    insertCommand = new InsertByteArraysCmd(entityCount);
+  }
+
+  @TearDown(Level.Iteration)
+  public void deleteInsertedEntities() {
+    DeleteByteArraysCmd deleteCommand = new DeleteByteArraysCmd(DELETE_CHUNK_SIZE);
+    while (managementService.executeCommand(deleteCommand) > 0) {
+      // delete the next chunk
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void closeProcessEngine() {
+    processEngine.close();
+  }
+
+  @Benchmark
+  public void flush() {
+    managementService.executeCommand(insertCommand);
+  }
+
+  protected static class InsertByteArraysCmd implements Command<Void> {
+
+    protected int entityCount;
+
+    public InsertByteArraysCmd(int entityCount) {
+      this.entityCount = entityCount;
+    }
+
+    public Void execute(CommandContext commandContext) {
+      DbSqlSession dbSqlSession = commandContext.getDbSqlSession();
+      for (int i = 0; i < entityCount; i++) {
+        dbSqlSession.insert(new ByteArrayEntity(BYTE_ARRAY_NAME, new byte[64]));
+      }
+      return null;
+    }
+
+  }
+
+  /**
+   * Deletes at most maxResults of the inserted byte arrays with one statement,
+   * instead of loading and deleting them one by one.
+   */
+  protected static class DeleteByteArraysCmd implements Command<Integer> {
+
+    protected int maxResults;
+
+    public DeleteByteArraysCmd(int maxResults) {
+      this.maxResults = maxResults;
+    }
+
+    public Integer execute(CommandContext commandContext) {
+      try {
+        Statement statement = commandContext.getDbSqlSession().getSqlSession().getConnection().createStatement();
+        try {
+          return statement.executeUpdate("delete from ACT_GE_BYTEARRAY where NAME_ = '" + BYTE_ARRAY_NAME + "' limit " + maxResults);
+        } finally {
+          statement.close();
+        }
+      } catch (SQLException e) {
+        throw new ActivitiException("Couldn't delete the inserted byte arrays", e);
+      }
+    }
+
+  }
+
+}
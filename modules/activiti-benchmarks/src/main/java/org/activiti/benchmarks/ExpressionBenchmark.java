@@ -0,0 +1,106 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.delegate.Expression;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.el.NoExecutionVariableScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses and evaluates JUEL conditions, as used on sequence flows, through the expression manager of the engine.
+ *
+ * The identifiers of the conditions are resolved as configured beans instead of process variables,
+ * so that the evaluation doesn't depend on the database.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+  // The conditions are referenced by name, as JMH doesn't escape braces in the parameter values of its JSON result
+  protected static final Map<String, String> CONDITIONS = new HashMap<String, String>();
+
+  static {
+    CONDITIONS.put("comparison", "${amount > 100}");
+    CONDITIONS.put("conjunction", "${approved && amount > 100 && amount <= 1000}");
+    CONDITIONS.put("property", "${customer.category == 'gold'}");
+  }
+
+  @Param({"comparison", "conjunction", "property"})
+  public String conditionName;
+
+  protected String condition;
+  protected ProcessEngine processEngine;
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+  protected Expression expression;
+
+  @Setup
+  public void createExpression() {
+    Map<String, Object> customer = new HashMap<String, Object>();
+    customer.put("category", "gold");
+    Map<Object, Object> beans = new HashMap<Object, Object>();
+    beans.put("amount", 150);
+    beans.put("approved", Boolean.TRUE);
+    beans.put("customer", customer);
+
+    processEngineConfiguration = BenchmarkProcessEngines.createProcessEngineConfiguration("expression");
+    processEngineConfiguration.setBeans(beans);
+    processEngine = processEngineConfiguration.buildProcessEngine();
+    condition = CONDITIONS.get(conditionName);
+
+    // Expressions are evaluated against the process engine configuration of the current thread
+    Context.setProcessEngineConfiguration(processEngineConfiguration);
+    expression = processEngineConfiguration.getExpressionManager().createExpression(condition);
+    if (!Boolean.TRUE.equals(evaluateCondition())) {
+      throw new IllegalStateException("Condition " + condition + " does not evaluate to true");
+    }
+  }
+
+  @TearDown
+  public void closeProcessEngine() {
+    Context.removeProcessEngineConfiguration();
+    processEngine.close();
+  }
+
+  @Benchmark
+  public Expression parseCondition() {
+    return processEngineConfiguration.getExpressionManager().createExpression(condition);
+  }
+
+  @Benchmark
+  public Object evaluateCondition() {
+    return expression.getValue(NoExecutionVariableScope.getSharedInstance());
+  }
+
+}
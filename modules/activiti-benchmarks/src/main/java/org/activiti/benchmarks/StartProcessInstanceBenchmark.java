@@ -0,0 +1,68 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.RuntimeService;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Starts process instances that run to their end without wait state:
+ * a sequence of tasks, a parallel gateway with four branches and a parallel multi-instance task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StartProcessInstanceBenchmark {
+
+  @Param({BenchmarkProcessEngines.STRAIGHT_THROUGH_PROCESS, BenchmarkProcessEngines.PARALLEL_GATEWAY_PROCESS, BenchmarkProcessEngines.MULTI_INSTANCE_PROCESS})
+  public String processDefinitionKey;
+
+  protected ProcessEngine processEngine;
+  protected RuntimeService runtimeService;
+
+  @Setup
+  public void createProcessEngine() {
+    processEngine = BenchmarkProcessEngines.createProcessEngine("startProcessInstance");
+    BenchmarkProcessEngines.deploy(processEngine, processDefinitionKey);
+    runtimeService = processEngine.getRuntimeService();
+  }
+
+  @TearDown
+  public void closeProcessEngine() {
+    processEngine.close();
+  }
+
+  @Benchmark
+  public ProcessInstance startProcessInstanceByKey() {
+    return runtimeService.startProcessInstanceByKey(processDefinitionKey);
+  }
+
+}
@@ -0,0 +1,142 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.RuntimeService;
+import org.activiti.engine.impl.persistence.entity.VariableInstanceEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Sets and gets a process variable of every default variable type on a process instance that waits in a user task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableBenchmark {
+
+  protected static final String VARIABLE_NAME = "benchmarkVariable";
+
+  /** Longer than the maximum length of a string variable, which is stored in a byte array instead */
+  protected static final int LONG_VALUE_LENGTH = 5000;
+
+  @Param({"null", "string", "longString", "boolean", "short", "integer", "long", "date", "double",
+    "uuid", "json", "longJson", "bytes", "serializable"})
+  public String variableType;
+
+  protected ProcessEngine processEngine;
+  protected RuntimeService runtimeService;
+  protected String processInstanceId;
+  protected Object value;
+
+  @Setup
+  public void createProcessInstance() {
+    processEngine = BenchmarkProcessEngines.createProcessEngine("variable");
+    BenchmarkProcessEngines.deploy(processEngine, BenchmarkProcessEngines.USER_TASK_PROCESS);
+    runtimeService = processEngine.getRuntimeService();
+    processInstanceId = runtimeService.startProcessInstanceByKey(BenchmarkProcessEngines.USER_TASK_PROCESS).getId();
+
+    value = createValue(variableType);
+    runtimeService.setVariable(processInstanceId, VARIABLE_NAME, value);
+    VariableInstanceEntity variableInstance = (VariableInstanceEntity) runtimeService.getVariableInstance(processInstanceId, VARIABLE_NAME);
+    String storedType = variableInstance.getType().getTypeName();
+    if (!variableType.equals(storedType)) {
+      throw new IllegalStateException("Value for " + variableType + " is stored as " + storedType);
+    }
+  }
+
+  @TearDown
+  public void closeProcessEngine() {
+    processEngine.close();
+  }
+
+  @Benchmark
+  public void setVariable() {
+    runtimeService.setVariable(processInstanceId, VARIABLE_NAME, value);
+  }
+
+  @Benchmark
+  public Object getVariable() {
+    return runtimeService.getVariable(processInstanceId, VARIABLE_NAME);
+  }
+
+  protected Object createValue(String variableType) {
+    if ("null".equals(variableType)) {
+      return null;
+    } else if ("string".equals(variableType)) {
+      return "benchmark value";
+    } else if ("longString".equals(variableType)) {
+      return createLongString();
+    } else if ("boolean".equals(variableType)) {
+      return Boolean.TRUE;
+    } else if ("short".equals(variableType)) {
+      return Short.valueOf((short) 42);
+    } else if ("integer".equals(variableType)) {
+      return Integer.valueOf(42);
+    } else if ("long".equals(variableType)) {
+      return Long.valueOf(42L);
+    } else if ("date".equals(variableType)) {
+      return new Date();
+    } else if ("double".equals(variableType)) {
+      return Double.valueOf(4.2);
+    } else if ("uuid".equals(variableType)) {
+      return UUID.randomUUID();
+    } else if ("json".equals(variableType)) {
+      ObjectNode jsonValue = new ObjectMapper().createObjectNode();
+      jsonValue.put("name", "benchmark");
+      jsonValue.put("amount", 42);
+      return jsonValue;
+    } else if ("longJson".equals(variableType)) {
+      ObjectNode jsonValue = new ObjectMapper().createObjectNode();
+      jsonValue.put("description", createLongString());
+      return jsonValue;
+    } else if ("bytes".equals(variableType)) {
+      return new byte[1024];
+    } else if ("serializable".equals(variableType)) {
+      return new ArrayList<String>(Arrays.asList("a", "b", "c", "d", "e"));
+    }
+    throw new IllegalArgumentException("Unknown variable type " + variableType);
+  }
+
+  protected String createLongString() {
+    StringBuilder builder = new StringBuilder(LONG_VALUE_LENGTH);
+    for (int i = 0; i < LONG_VALUE_LENGTH; i++) {
+      builder.append((char) ('a' + i % 26));
+    }
+    return builder.toString();
+  }
+
+}
@@ -0,0 +1,40 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks.load;
+
+import org.activiti.benchmarks.BenchmarkProcessEngines;
+import org.activiti.engine.ProcessEngine;
+
+/**
+ * Completes the user task of a process instance, which ends the process instance.
+ */
+public class CompleteTaskWorkload implements Workload {
+
+  public String getName() {
+    return "complete";
+  }
+
+  public String getProcessDefinitionKey() {
+    return BenchmarkProcessEngines.USER_TASK_PROCESS;
+  }
+
+  public String prepare(ProcessEngine processEngine) {
+    String processInstanceId = processEngine.getRuntimeService().startProcessInstanceByKey(getProcessDefinitionKey()).getId();
+    return processEngine.getTaskService().createTaskQuery().processInstanceId(processInstanceId).singleResult().getId();
+  }
+
+  public void execute(ProcessEngine processEngine, String taskId) {
+    processEngine.getTaskService().complete(taskId);
+  }
+
+}
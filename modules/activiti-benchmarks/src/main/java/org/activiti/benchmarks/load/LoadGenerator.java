@@ -0,0 +1,291 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.activiti.benchmarks.BenchmarkProcessEngines;
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.metrics.CommandMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates a sustained, concurrent load on a process engine with a weighted mix of {@link Workload}s,
+ * and reports the throughput, the latency distribution, the optimistic locking conflicts,
+ * the SQL statements and the allocated bytes per operation in a {@link LoadReport}.
+ *
+ * Every thread picks its next workload with its own random generator, seeded from {@link #setSeed(long)},
+ * so two runs with the same configuration execute the same sequence of operations per thread.
+ * The load is generated for the warmup time first, of which the statistics are discarded, then for the measured duration.
+ *
+ * The statements are only counted when command metrics are enabled on the process engine,
+ * the allocated bytes only on JVMs that support thread allocation measurement.
+ */
+public class LoadGenerator {
+
+  private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+  protected ProcessEngine processEngine;
+  protected CommandMetrics commandMetrics;
+  protected ThreadMXBean threadMXBean;
+
+  protected List<Workload> workloads = new ArrayList<Workload>();
+  protected List<Integer> weights = new ArrayList<Integer>();
+  protected int totalWeight;
+
+  protected int threadCount = 4;
+  protected long warmupTimeInMillis = 10000;
+  protected long durationInMillis = 60000;
+  protected long seed = 42;
+
+  public LoadGenerator(ProcessEngine processEngine) {
+    this.processEngine = processEngine;
+    if (processEngine.getProcessEngineConfiguration() instanceof ProcessEngineConfigurationImpl) {
+      commandMetrics = ((ProcessEngineConfigurationImpl) processEngine.getProcessEngineConfiguration()).getCommandMetrics();
+    }
+    threadMXBean = ManagementFactory.getThreadMXBean();
+    if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+      if (sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+        sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+      }
+    }
+  }
+
+  /**
+   * Adds a workload to the mix: the workload is picked for weight / (sum of all weights) of the operations.
+   */
+  public LoadGenerator addWorkload(Workload workload, int weight) {
+    if (weight <= 0) {
+      throw new IllegalArgumentException("weight of workload " + workload.getName() + " must be positive: " + weight);
+    }
+    workloads.add(workload);
+    weights.add(weight);
+    totalWeight += weight;
+    return this;
+  }
+
+  public LoadReport run() {
+    if (workloads.isEmpty()) {
+      throw new IllegalStateException("no workloads added");
+    }
+    deployProcessDefinitions();
+
+    if (warmupTimeInMillis > 0) {
+      log.info("warming up for {} ms with {} threads", warmupTimeInMillis, threadCount);
+      runPhase(warmupTimeInMillis);
+    }
+
+    log.info("generating load for {} ms with {} threads", durationInMillis, threadCount);
+    long startTime = System.nanoTime();
+    List<OperationStatistics> statistics = runPhase(durationInMillis);
+    long elapsedMillis = (System.nanoTime() - startTime) / 1000000L;
+
+    return new LoadReport(threadCount, elapsedMillis, getWorkloadMix(), statistics);
+  }
+
+  protected void deployProcessDefinitions() {
+    Set<String> processDefinitionKeys = new LinkedHashSet<String>();
+    for (Workload workload : workloads) {
+      String processDefinitionKey = workload.getProcessDefinitionKey();
+      if (processDefinitionKey != null
+          && processEngine.getRepositoryService().createProcessDefinitionQuery().processDefinitionKey(processDefinitionKey).count() == 0) {
+        processDefinitionKeys.add(processDefinitionKey);
+      }
+    }
+    if (!processDefinitionKeys.isEmpty()) {
+      BenchmarkProcessEngines.deploy(processEngine, processDefinitionKeys.toArray(new String[processDefinitionKeys.size()]));
+    }
+  }
+
+  /**
+   * Runs all threads until the given time has elapsed and waits for them to finish their last operation.
+   */
+  protected List<OperationStatistics> runPhase(long timeInMillis) {
+    Map<Workload, OperationStatistics> statistics = new LinkedHashMap<Workload, OperationStatistics>();
+    for (Workload workload : workloads) {
+      statistics.put(workload, new OperationStatistics(workload.getName()));
+    }
+
+    long endTime = System.nanoTime() + timeInMillis * 1000000L;
+    List<Thread> threads = new ArrayList<Thread>(threadCount);
+    for (int i = 0; i < threadCount; i++) {
+      Thread thread = new Thread(new LoadThread(new Random(seed + i), endTime, statistics), "load-generator-" + i);
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("interrupted while waiting for the load generator threads", e);
+      }
+    }
+    return new ArrayList<OperationStatistics>(statistics.values());
+  }
+
+  protected Workload pickWorkload(Random random) {
+    int value = random.nextInt(totalWeight);
+    for (int i = 0; i < workloads.size(); i++) {
+      value -= weights.get(i);
+      if (value < 0) {
+        return workloads.get(i);
+      }
+    }
+    throw new IllegalStateException("weights changed during the run");
+  }
+
+  protected void executeOperation(Workload workload, OperationStatistics statistics) {
+    String preparedId;
+    try {
+      preparedId = workload.prepare(processEngine);
+    } catch (RuntimeException e) {
+      recordFailure(workload, statistics, e);
+      return;
+    }
+
+    long statementCountBefore = getStatementCount();
+    long allocatedBytesBefore = getAllocatedBytes();
+    long startTime = System.nanoTime();
+    try {
+      workload.execute(processEngine, preparedId);
+    } catch (RuntimeException e) {
+      recordFailure(workload, statistics, e);
+      return;
+    }
+    long durationMicros = (System.nanoTime() - startTime) / 1000L;
+    long allocatedBytesAfter = getAllocatedBytes();
+    long statementCountAfter = getStatementCount();
+
+    statistics.recordOperation(durationMicros,
+        statementCountBefore >= 0 ? statementCountAfter - statementCountBefore : -1,
+        allocatedBytesBefore >= 0 ? allocatedBytesAfter - allocatedBytesBefore : -1);
+  }
+
+  protected void recordFailure(Workload workload, OperationStatistics statistics, RuntimeException e) {
+    if (e instanceof ActivitiOptimisticLockingException) {
+      statistics.recordConflict();
+    } else {
+      statistics.recordError();
+      if (statistics.getErrorCount() == 1) {
+        log.warn("first error of workload " + workload.getName(), e);
+      }
+    }
+  }
+
+  /**
+   * @return the number of statements executed by the current thread, or -1 if command metrics are disabled
+   */
+  protected long getStatementCount() {
+    return commandMetrics != null ? commandMetrics.getCurrentThreadStatementCount() : -1;
+  }
+
+  /**
+   * @return the number of bytes allocated by the current thread, or -1 if not supported by the JVM
+   */
+  protected long getAllocatedBytes() {
+    if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  /**
+   * @return the workloads with their weight, for example start:4,complete:1
+   */
+  public String getWorkloadMix() {
+    StringBuilder strb = new StringBuilder();
+    for (int i = 0; i < workloads.size(); i++) {
+      if (i > 0) {
+        strb.append(",");
+      }
+      strb.append(workloads.get(i).getName()).append(":").append(weights.get(i));
+    }
+    return strb.toString();
+  }
+
+  protected class LoadThread implements Runnable {
+
+    protected Random random;
+    protected long endTime;
+    protected Map<Workload, OperationStatistics> statistics;
+
+    public LoadThread(Random random, long endTime, Map<Workload, OperationStatistics> statistics) {
+      this.random = random;
+      this.endTime = endTime;
+      this.statistics = statistics;
+    }
+
+    public void run() {
+      while (System.nanoTime() - endTime < 0) {
+        Workload workload = pickWorkload(random);
+        executeOperation(workload, statistics.get(workload));
+      }
+    }
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public ProcessEngine getProcessEngine() {
+    return processEngine;
+  }
+
+  public List<Workload> getWorkloads() {
+    return workloads;
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  public void setThreadCount(int threadCount) {
+    this.threadCount = threadCount;
+  }
+
+  public long getWarmupTimeInMillis() {
+    return warmupTimeInMillis;
+  }
+
+  public void setWarmupTimeInMillis(long warmupTimeInMillis) {
+    this.warmupTimeInMillis = warmupTimeInMillis;
+  }
+
+  public long getDurationInMillis() {
+    return durationInMillis;
+  }
+
+  public void setDurationInMillis(long durationInMillis) {
+    this.durationInMillis = durationInMillis;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public void setSeed(long seed) {
+    this.seed = seed;
+  }
+
+}
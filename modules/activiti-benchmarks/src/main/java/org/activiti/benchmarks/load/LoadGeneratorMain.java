@@ -0,0 +1,155 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks.load;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.activiti.benchmarks.BenchmarkProcessEngines;
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.ProcessEngineConfiguration;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+
+/**
+ * Runs the {@link LoadGenerator} from the command line. Options:
+ * <ul>
+ *   <li>--threads=4: the number of threads generating load</li>
+ *   <li>--warmup=10: the warmup time in seconds</li>
+ *   <li>--duration=60: the measured time in seconds</li>
+ *   <li>--mix=start:4,complete:4,signal:1,message:1,timer:1: the workloads and their weights</li>
+ *   <li>--seed=42: the seed of the random generators that pick the workloads</li>
+ *   <li>--config=activiti.cfg.xml: the classpath resource of the process engine configuration to run against,
+ *       by default an in-memory H2 database with command metrics and the async executor enabled.
+ *       The timer workload needs an active async executor</li>
+ *   <li>--csv=result.csv: a file to write the report to as CSV</li>
+ * </ul>
+ */
+public class LoadGeneratorMain {
+
+  protected static final String DEFAULT_MIX = "start:4,complete:4,signal:1,message:1,timer:1";
+
+  public static void main(String[] args) throws IOException {
+    int threadCount = 4;
+    long warmupSeconds = 10;
+    long durationSeconds = 60;
+    long seed = 42;
+    String mix = DEFAULT_MIX;
+    String config = null;
+    String csvFile = null;
+
+    for (String arg : args) {
+      int separatorIndex = arg.indexOf('=');
+      if (!arg.startsWith("--") || separatorIndex < 0) {
+        usage("invalid argument " + arg);
+        return;
+      }
+      String name = arg.substring(2, separatorIndex);
+      String value = arg.substring(separatorIndex + 1);
+      if ("threads".equals(name)) {
+        threadCount = Integer.parseInt(value);
+      } else if ("warmup".equals(name)) {
+        warmupSeconds = Long.parseLong(value);
+      } else if ("duration".equals(name)) {
+        durationSeconds = Long.parseLong(value);
+      } else if ("seed".equals(name)) {
+        seed = Long.parseLong(value);
+      } else if ("mix".equals(name)) {
+        mix = value;
+      } else if ("config".equals(name)) {
+        config = value;
+      } else if ("csv".equals(name)) {
+        csvFile = value;
+      } else {
+        usage("unknown option " + name);
+        return;
+      }
+    }
+
+    ProcessEngine processEngine = createProcessEngine(config);
+    try {
+      LoadGenerator loadGenerator = new LoadGenerator(processEngine);
+      loadGenerator.setThreadCount(threadCount);
+      loadGenerator.setWarmupTimeInMillis(warmupSeconds * 1000L);
+      loadGenerator.setDurationInMillis(durationSeconds * 1000L);
+      loadGenerator.setSeed(seed);
+      addWorkloads(loadGenerator, mix);
+
+      LoadReport report = loadGenerator.run();
+      report.print(System.out);
+      if (csvFile != null) {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(new File(csvFile)), "UTF-8");
+        try {
+          writer.write(report.toCsv());
+        } finally {
+          writer.close();
+        }
+      }
+    } finally {
+      processEngine.close();
+    }
+  }
+
+  protected static ProcessEngine createProcessEngine(String config) {
+    if (config != null) {
+      return ProcessEngineConfiguration.createProcessEngineConfigurationFromResource(config).buildProcessEngine();
+    }
+    ProcessEngineConfigurationImpl processEngineConfiguration = BenchmarkProcessEngines.createProcessEngineConfiguration("load");
+    processEngineConfiguration.setEnableCommandMetrics(true);
+    enableAsyncExecutor(processEngineConfiguration);
+    return processEngineConfiguration.buildProcessEngine();
+  }
+
+  /**
+   * Enables the async executor that fires the timers of the timer workload, acquiring the due timers without delay.
+   */
+  public static void enableAsyncExecutor(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    processEngineConfiguration.setAsyncExecutorEnabled(true);
+    processEngineConfiguration.setAsyncExecutorActivate(true);
+    processEngineConfiguration.setAsyncExecutorDefaultTimerJobAcquireWaitTime(50);
+  }
+
+  protected static void addWorkloads(LoadGenerator loadGenerator, String mix) {
+    for (String item : mix.split(",")) {
+      int separatorIndex = item.indexOf(':');
+      String name = separatorIndex < 0 ? item.trim() : item.substring(0, separatorIndex).trim();
+      int weight = separatorIndex < 0 ? 1 : Integer.parseInt(item.substring(separatorIndex + 1).trim());
+      loadGenerator.addWorkload(createWorkload(name), weight);
+    }
+  }
+
+  protected static Workload createWorkload(String name) {
+    if ("start".equals(name)) {
+      return new StartProcessWorkload();
+    } else if ("complete".equals(name)) {
+      return new CompleteTaskWorkload();
+    } else if ("signal".equals(name)) {
+      return new SignalWorkload();
+    } else if ("message".equals(name)) {
+      return new MessageWorkload();
+    } else if ("timer".equals(name)) {
+      return new TimerWorkload();
+    }
+    throw new IllegalArgumentException("unknown workload " + name + ", expected one of start, complete, signal, message, timer");
+  }
+
+  protected static void usage(String message) {
+    System.err.println(message);
+    System.err.println("usage: LoadGeneratorMain [--threads=4] [--warmup=10] [--duration=60] [--seed=42]"
+        + " [--mix=" + DEFAULT_MIX + "] [--config=<classpath resource>] [--csv=<file>]");
+    System.exit(1);
+  }
+
+}
@@ -0,0 +1,126 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks.load;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+
+import org.activiti.engine.impl.metrics.LatencyHistogram;
+
+/**
+ * The result of a run of the {@link LoadGenerator}: per workload the throughput, the latency percentiles in microseconds,
+ * the percentage of optimistic locking conflicts, the errors, the SQL statements and the allocated bytes per operation.
+ *
+ * Printed as a fixed table for humans and as CSV, so the results of two runs can be compared line by line.
+ */
+public class LoadReport {
+
+  protected static final String TABLE_HEADER_FORMAT = "%-10s %10s %10s %8s %8s %8s %8s %8s %9s %7s %9s %11s%n";
+  protected static final String TABLE_ROW_FORMAT = "%-10s %10d %10.1f %8d %8d %8d %8d %8d %8.2f%% %7d %9.1f %11.0f%n";
+  protected static final String CSV_HEADER = "operation,operations,throughput,mean,p50,p90,p99,max,conflict_rate,errors,statements_per_op,bytes_per_op";
+
+  protected int threadCount;
+  protected long durationInMillis;
+  protected String workloadMix;
+  protected List<OperationStatistics> operationStatistics;
+
+  public LoadReport(int threadCount, long durationInMillis, String workloadMix, List<OperationStatistics> operationStatistics) {
+    this.threadCount = threadCount;
+    this.durationInMillis = durationInMillis;
+    this.workloadMix = workloadMix;
+    this.operationStatistics = operationStatistics;
+  }
+
+  public long getTotalOperationCount() {
+    long total = 0;
+    for (OperationStatistics statistics : operationStatistics) {
+      total += statistics.getOperationCount();
+    }
+    return total;
+  }
+
+  /** The successful operations of all workloads per second */
+  public double getThroughput() {
+    return getThroughput(getTotalOperationCount());
+  }
+
+  public double getThroughput(OperationStatistics statistics) {
+    return getThroughput(statistics.getOperationCount());
+  }
+
+  protected double getThroughput(long operationCount) {
+    return durationInMillis == 0 ? 0.0 : operationCount * 1000.0 / durationInMillis;
+  }
+
+  public void print(PrintStream out) {
+    out.printf(Locale.US, "threads: %d, duration: %.1f s, mix: %s, throughput: %.1f ops/s%n",
+        threadCount, durationInMillis / 1000.0, workloadMix, getThroughput());
+    out.printf(Locale.US, TABLE_HEADER_FORMAT,
+        "operation", "ops", "ops/s", "mean us", "p50 us", "p90 us", "p99 us", "max us", "conflicts", "errors", "stmts/op", "bytes/op");
+    for (OperationStatistics statistics : operationStatistics) {
+      LatencyHistogram latency = statistics.getLatency();
+      out.printf(Locale.US, TABLE_ROW_FORMAT,
+          statistics.getName(),
+          statistics.getOperationCount(),
+          getThroughput(statistics),
+          Math.round(latency.getMean()),
+          latency.getValueAtPercentile(50.0),
+          latency.getValueAtPercentile(90.0),
+          latency.getValueAtPercentile(99.0),
+          latency.getMaxValue(),
+          statistics.getConflictRate(),
+          statistics.getErrorCount(),
+          statistics.getStatementsPerOperation(),
+          statistics.getAllocatedBytesPerOperation());
+    }
+  }
+
+  public String toCsv() {
+    StringBuilder strb = new StringBuilder(CSV_HEADER).append("\n");
+    for (OperationStatistics statistics : operationStatistics) {
+      LatencyHistogram latency = statistics.getLatency();
+      strb.append(String.format(Locale.US, "%s,%d,%.1f,%d,%d,%d,%d,%d,%.2f,%d,%.1f,%.0f%n",
+          statistics.getName(),
+          statistics.getOperationCount(),
+          getThroughput(statistics),
+          Math.round(latency.getMean()),
+          latency.getValueAtPercentile(50.0),
+          latency.getValueAtPercentile(90.0),
+          latency.getValueAtPercentile(99.0),
+          latency.getMaxValue(),
+          statistics.getConflictRate(),
+          statistics.getErrorCount(),
+          statistics.getStatementsPerOperation(),
+          statistics.getAllocatedBytesPerOperation()));
+    }
+    return strb.toString();
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  public long getDurationInMillis() {
+    return durationInMillis;
+  }
+
+  public String getWorkloadMix() {
+    return workloadMix;
+  }
+
+  public List<OperationStatistics> getOperationStatistics() {
+    return operationStatistics;
+  }
+
+}
@@ -0,0 +1,98 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.activiti.engine.impl.metrics.LatencyHistogram;
+
+/**
+ * The statistics of one {@link Workload} during a run of the {@link LoadGenerator}.
+ * Updated concurrently by all threads of the load generator.
+ */
+public class OperationStatistics {
+
+  protected final String name;
+  protected final LatencyHistogram latency = new LatencyHistogram();
+  protected final AtomicLong conflictCount = new AtomicLong();
+  protected final AtomicLong errorCount = new AtomicLong();
+  protected final AtomicLong statementCount = new AtomicLong();
+  protected final AtomicLong allocatedBytes = new AtomicLong();
+
+  public OperationStatistics(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @param statements the number of statements executed by the operation, or -1 if not measured
+   * @param bytes the number of bytes allocated by the operation, or -1 if not measured
+   */
+  public void recordOperation(long durationMicros, long statements, long bytes) {
+    latency.recordValue(durationMicros);
+    if (statements >= 0) {
+      statementCount.addAndGet(statements);
+    }
+    if (bytes >= 0) {
+      allocatedBytes.addAndGet(bytes);
+    }
+  }
+
+  public void recordConflict() {
+    conflictCount.incrementAndGet();
+  }
+
+  public void recordError() {
+    errorCount.incrementAndGet();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /** The latency of the successful operations, in microseconds */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /** The number of successful operations */
+  public long getOperationCount() {
+    return latency.getTotalCount();
+  }
+
+  /** The number of operations that failed with an optimistic locking exception */
+  public long getConflictCount() {
+    return conflictCount.get();
+  }
+
+  /** The number of operations that failed with any other exception */
+  public long getErrorCount() {
+    return errorCount.get();
+  }
+
+  /** The percentage of the executed operations that failed with an optimistic locking exception */
+  public double getConflictRate() {
+    long attempts = getOperationCount() + getConflictCount() + getErrorCount();
+    return attempts == 0 ? 0.0 : 100.0 * getConflictCount() / attempts;
+  }
+
+  public double getStatementsPerOperation() {
+    long operations = getOperationCount();
+    return operations == 0 ? 0.0 : (double) statementCount.get() / operations;
+  }
+
+  public double getAllocatedBytesPerOperation() {
+    long operations = getOperationCount();
+    return operations == 0 ? 0.0 : (double) allocatedBytes.get() / operations;
+  }
+
+}
@@ -0,0 +1,46 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks.load;
+
+import org.activiti.engine.ProcessEngine;
+
+/**
+ * Signals the execution of a process instance that waits in an intermediate signal catch event.
+ */
+public class SignalWorkload implements Workload {
+
+  public static final String PROCESS_DEFINITION_KEY = "signalCatch";
+  public static final String SIGNAL_NAME = "loadSignal";
+
+  public String getName() {
+    return "signal";
+  }
+
+  public String getProcessDefinitionKey() {
+    return PROCESS_DEFINITION_KEY;
+  }
+
+  public String prepare(ProcessEngine processEngine) {
+    String processInstanceId = processEngine.getRuntimeService().startProcessInstanceByKey(PROCESS_DEFINITION_KEY).getId();
+    return processEngine.getRuntimeService().createExecutionQuery()
+        .processInstanceId(processInstanceId)
+        .signalEventSubscriptionName(SIGNAL_NAME)
+        .singleResult()
+        .getId();
+  }
+
+  public void execute(ProcessEngine processEngine, String executionId) {
+    processEngine.getRuntimeService().signalEventReceived(SIGNAL_NAME, executionId);
+  }
+
+}
@@ -0,0 +1,39 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks.load;
+
+import org.activiti.benchmarks.BenchmarkProcessEngines;
+import org.activiti.engine.ProcessEngine;
+
+/**
+ * Starts a process instance that runs to its end without wait state.
+ */
+public class StartProcessWorkload implements Workload {
+
+  public String getName() {
+    return "start";
+  }
+
+  public String getProcessDefinitionKey() {
+    return BenchmarkProcessEngines.STRAIGHT_THROUGH_PROCESS;
+  }
+
+  public String prepare(ProcessEngine processEngine) {
+    return null;
+  }
+
+  public void execute(ProcessEngine processEngine, String preparedId) {
+    processEngine.getRuntimeService().startProcessInstanceByKey(getProcessDefinitionKey());
+  }
+
+}
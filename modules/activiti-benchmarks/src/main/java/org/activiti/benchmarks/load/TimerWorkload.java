@@ -0,0 +1,178 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks.load;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.delegate.event.ActivitiEntityEvent;
+import org.activiti.engine.delegate.event.ActivitiEvent;
+import org.activiti.engine.delegate.event.ActivitiEventListener;
+import org.activiti.engine.delegate.event.ActivitiEventType;
+import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
+import org.activiti.engine.impl.cfg.TransactionListener;
+import org.activiti.engine.impl.cfg.TransactionState;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.runtime.Clock;
+import org.activiti.engine.runtime.Job;
+
+/**
+ * Fires the timer of a process instance that waits in an intermediate timer catch event.
+ *
+ * Every operation starts a process instance of which the timer is due shortly after, and the preparation
+ * waits until the timer is due. The operation then waits until the async executor has executed the timer job
+ * and committed its transaction, so the measured latency is the time from the due date until the timer has fired,
+ * including its acquisition by the async executor. The clock of the process engine is never moved, so the operations
+ * of several threads don't affect each other or the other workloads, but it must follow the real time.
+ * 
+ * The process engine needs an active async executor, of which the statements aren't counted for the operation.
+ */
+public class TimerWorkload implements Workload {
+
+  public static final String PROCESS_DEFINITION_KEY = "timerCatch";
+
+  /** Maximum time to wait for the async executor to fire a timer, after which the operation fails */
+  protected static final long TIMER_TIMEOUT_SECONDS = 60L;
+
+  /** The time between the start of a process instance and the due date of its timer */
+  protected long timerDelayInMillis = 200L;
+
+  protected ProcessEngine listenedProcessEngine;
+  protected ConcurrentMap<String, Date> dueDates = new ConcurrentHashMap<String, Date>();
+  protected ConcurrentMap<String, CountDownLatch> executedTimers = new ConcurrentHashMap<String, CountDownLatch>();
+
+  public String getName() {
+    return "timer";
+  }
+
+  public String getProcessDefinitionKey() {
+    return PROCESS_DEFINITION_KEY;
+  }
+
+  public String prepare(ProcessEngine processEngine) {
+    addTimerListener(processEngine);
+
+    Clock clock = processEngine.getProcessEngineConfiguration().getClock();
+    Date dueDate = new Date(clock.getCurrentTime().getTime() + timerDelayInMillis);
+    String processInstanceId = processEngine.getRuntimeService()
+        .startProcessInstanceByKey(PROCESS_DEFINITION_KEY, Collections.<String, Object>singletonMap("dueDate", dueDate))
+        .getId();
+    Job timer = processEngine.getManagementService().createJobQuery()
+        .processInstanceId(processInstanceId)
+        .timers()
+        .singleResult();
+    dueDates.put(timer.getId(), timer.getDuedate());
+    waitUntilDue(clock, timer);
+    return timer.getId();
+  }
+
+  /**
+   * Waits until the timer is due, so the measurement of the operation starts when the timer can be acquired.
+   */
+  protected void waitUntilDue(Clock clock, Job timer) {
+    long millisUntilDue = timer.getDuedate().getTime() - clock.getCurrentTime().getTime();
+    if (millisUntilDue <= 0) {
+      dueDates.remove(timer.getId());
+      throw new ActivitiException("Timer " + timer.getId() + " was due before its operation started, the timer delay of "
+          + timerDelayInMillis + " ms is too short");
+    }
+    try {
+      Thread.sleep(millisUntilDue);
+    } catch (InterruptedException e) {
+      dueDates.remove(timer.getId());
+      Thread.currentThread().interrupt();
+      throw new ActivitiException("interrupted while waiting until timer " + timer.getId() + " is due", e);
+    }
+  }
+
+  public void execute(ProcessEngine processEngine, String jobId) {
+    CountDownLatch executedTimer = getExecutedTimer(jobId);
+    try {
+      dueDates.remove(jobId);
+      if (!executedTimer.await(TIMER_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        throw new ActivitiException("Timer " + jobId + " was not fired within " + TIMER_TIMEOUT_SECONDS + " seconds");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ActivitiException("interrupted while waiting for timer " + jobId, e);
+    } finally {
+      executedTimers.remove(jobId);
+    }
+  }
+
+  protected CountDownLatch getExecutedTimer(String jobId) {
+    CountDownLatch executedTimer = executedTimers.get(jobId);
+    if (executedTimer == null) {
+      CountDownLatch newExecutedTimer = new CountDownLatch(1);
+      executedTimer = executedTimers.putIfAbsent(jobId, newExecutedTimer);
+      if (executedTimer == null) {
+        executedTimer = newExecutedTimer;
+      }
+    }
+    return executedTimer;
+  }
+
+  /**
+   * Listens to the executed jobs of the process engine, to release the operation waiting for it
+   * once the job is committed.
+   */
+  protected synchronized void addTimerListener(ProcessEngine processEngine) {
+    if (listenedProcessEngine == processEngine) {
+      return;
+    }
+    AsyncExecutor asyncExecutor = processEngine.getProcessEngineConfiguration().getAsyncExecutor();
+    if (asyncExecutor == null || !asyncExecutor.isActive()) {
+      throw new IllegalStateException("the timer workload needs a process engine with an active async executor");
+    }
+
+    processEngine.getRuntimeService().addEventListener(new ActivitiEventListener() {
+
+      public void onEvent(ActivitiEvent event) {
+        final String jobId = ((Job) ((ActivitiEntityEvent) event).getEntity()).getId();
+        // a job of another workload or of a timer that is already timed out
+        if (!dueDates.containsKey(jobId) && !executedTimers.containsKey(jobId)) {
+          return;
+        }
+        Context.getCommandContext().getTransactionContext().addTransactionListener(TransactionState.COMMITTED, new TransactionListener() {
+          public void execute(CommandContext commandContext) {
+            getExecutedTimer(jobId).countDown();
+          }
+        });
+      }
+
+      public boolean isFailOnException() {
+        return false;
+      }
+
+    }, ActivitiEventType.JOB_EXECUTION_SUCCESS);
+    listenedProcessEngine = processEngine;
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public long getTimerDelayInMillis() {
+    return timerDelayInMillis;
+  }
+
+  public void setTimerDelayInMillis(long timerDelayInMillis) {
+    this.timerDelayInMillis = timerDelayInMillis;
+  }
+
+}
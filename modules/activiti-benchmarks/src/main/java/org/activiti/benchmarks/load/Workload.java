@@ -0,0 +1,41 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks.load;
+
+import org.activiti.engine.ProcessEngine;
+
+/**
+ * One type of operation of the {@link LoadGenerator}. Implementations are shared by all threads of the load generator.
+ */
+public interface Workload {
+
+  /** The name of the operation in the {@link LoadReport} */
+  String getName();
+
+  /** The key of the process definition this workload operates on, which is deployed before the load is generated */
+  String getProcessDefinitionKey();
+
+  /**
+   * Prepares one operation, for example by starting the process instance of which a task is completed.
+   * The preparation is not measured.
+   * @return the id of the object the operation is executed on, or null if the operation needs no preparation
+   */
+  String prepare(ProcessEngine processEngine);
+
+  /**
+   * Executes the measured operation.
+   * @param preparedId the id returned by {@link #prepare(ProcessEngine)}
+   */
+  void execute(ProcessEngine processEngine, String preparedId);
+
+}
@@ -0,0 +1,83 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.benchmarks.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.activiti.benchmarks.BenchmarkProcessEngines;
+import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LoadGeneratorTest {
+
+  protected ProcessEngine processEngine;
+
+  @Before
+  public void createProcessEngine() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = BenchmarkProcessEngines.createProcessEngineConfiguration("load-generator-test");
+    processEngineConfiguration.setEnableCommandMetrics(true);
+    LoadGeneratorMain.enableAsyncExecutor(processEngineConfiguration);
+    processEngine = processEngineConfiguration.buildProcessEngine();
+  }
+
+  @After
+  public void closeProcessEngine() {
+    processEngine.close();
+  }
+
+  @Test
+  public void testAllWorkloads() {
+    LoadGenerator loadGenerator = new LoadGenerator(processEngine)
+        .addWorkload(new StartProcessWorkload(), 2)
+        .addWorkload(new CompleteTaskWorkload(), 1)
+        .addWorkload(new SignalWorkload(), 1)
+        .addWorkload(new MessageWorkload(), 1)
+        .addWorkload(new TimerWorkload(), 1);
+    loadGenerator.setThreadCount(2);
+    loadGenerator.setWarmupTimeInMillis(0);
+    loadGenerator.setDurationInMillis(2000);
+
+    LoadReport report = loadGenerator.run();
+
+    assertEquals("start:2,complete:1,signal:1,message:1,timer:1", report.getWorkloadMix());
+    assertEquals(5, report.getOperationStatistics().size());
+    for (OperationStatistics statistics : report.getOperationStatistics()) {
+      assertEquals(statistics.getName(), 0, statistics.getErrorCount());
+      assertTrue(statistics.getName(), statistics.getOperationCount() > 0);
+      if (!"timer".equals(statistics.getName())) {
+        // the statements of the timer are executed by the async executor
+        assertTrue(statistics.getName(), statistics.getStatementsPerOperation() > 0);
+      } else {
+        // measured from the due date, so it includes the acquisition and execution of every timer
+        assertTrue(statistics.getLatency().toString(), statistics.getLatency().getMean() >= 1000.0);
+      }
+    }
+    assertTrue(report.getThroughput() > 0);
+
+    // all process instances that were prepared and operated on have ended
+    assertEquals(0, processEngine.getRuntimeService().createProcessInstanceQuery().count());
+
+    ByteArrayOutputStream table = new ByteArrayOutputStream();
+    report.print(new PrintStream(table));
+    assertTrue(table.toString().contains("complete"));
+    assertEquals(6, report.toCsv().split("\n").length);
+  }
+
+}
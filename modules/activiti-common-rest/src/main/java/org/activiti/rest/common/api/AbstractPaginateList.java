@@ -26,6 +26,17 @@ import org.activiti.engine.query.QueryProperty;
  */
 public abstract class AbstractPaginateList {
 
+  /** The total is counted, unless it follows from the page: the default */
+  public static final String TOTAL_EXACT = "exact";
+  /** The total may be a count cached in the {@link QueryCountCache} */
+  public static final String TOTAL_ESTIMATE = "estimate";
+  /** The total is not counted, clients page with the hasMore flag of the response: the total is -1 unless it follows from the page */
+  public static final String TOTAL_NONE = "none";
+
+  protected static QueryCountCache defaultQueryCountCache = new QueryCountCache();
+
+  protected QueryCountCache queryCountCache = defaultQueryCountCache;
+
 	/**
    * uses the pagination parameters form the request and makes sure to order the result and set all pagination
    * attributes for the response to render
@@ -60,6 +71,10 @@ public abstract class AbstractPaginateList {
   	if (paginateRequest.getSort() == null) {
   		paginateRequest.setSort(requestParams.get("sort"));
   	}
+  	
+  	if (paginateRequest.getTotal() == null) {
+  		paginateRequest.setTotal(requestParams.get("total"));
+  	}
       
   	// Use defaults for paging, if not set in the PaginationRequest, nor in the URL
   	Integer start = paginateRequest.getStart();
@@ -80,6 +95,12 @@ public abstract class AbstractPaginateList {
     if(order == null) {
       order = "asc";
     }
+    String total = paginateRequest.getTotal();
+    if (total == null) {
+      total = TOTAL_EXACT;
+    } else if (!TOTAL_EXACT.equals(total) && !TOTAL_ESTIMATE.equals(total) && !TOTAL_NONE.equals(total)) {
+      throw new ActivitiIllegalArgumentException("Value for param 'total' is not valid : '" + total + "', must be 'exact', 'estimate' or 'none'");
+    }
 
     // Sort order
     if (sort != null && !properties.isEmpty()) {
@@ -99,17 +120,49 @@ public abstract class AbstractPaginateList {
       }
     }
 
-    // Get result and set pagination parameters
-    List list = processList(query.listPage(start, size));
+    // The count cache key must be taken before the query is executed, which changes its state
+    String countCacheKey = TOTAL_ESTIMATE.equals(total) ? queryCountCache.getKey(query) : null;
+
+    // Get result and set pagination parameters, one more result is fetched to know if there is a next page
+    List page = query.listPage(start, size < Integer.MAX_VALUE ? size + 1 : size);
+    boolean hasMore = page.size() > size;
+    if (hasMore) {
+      page = page.subList(0, size);
+    }
+    List list = processList(page);
     DataResponse response = new DataResponse();
     response.setStart(start);
     response.setSize(list.size()); 
     response.setSort(sort);
     response.setOrder(order);
-    response.setTotal(query.count());
+    response.setHasMore(hasMore);
+    response.setTotal(getTotal(query, total, countCacheKey, start, page.size(), hasMore));
     response.setData(list);
     return response;
   }
+
+  /**
+   * The count query is only executed when the total doesn't follow from the page itself:
+   * when there are more results, or when the page is empty because start is beyond the last result.
+   */
+  @SuppressWarnings("rawtypes")
+  protected long getTotal(Query query, String total, String countCacheKey, int start, int pageSize, boolean hasMore) {
+    if (!hasMore && (pageSize > 0 || start == 0)) {
+      return start + pageSize;
+    }
+    if (TOTAL_NONE.equals(total)) {
+      return -1;
+    }
+    if (countCacheKey == null) {
+      return query.count();
+    }
+    Long count = queryCountCache.getCount(countCacheKey);
+    if (count == null) {
+      count = query.count();
+      queryCountCache.putCount(countCacheKey, count);
+    }
+    return count;
+  }
   
   
   /**
@@ -130,4 +183,20 @@ public abstract class AbstractPaginateList {
   
   @SuppressWarnings("rawtypes")
   protected abstract List processList(List list);
+
+  public QueryCountCache getQueryCountCache() {
+    return queryCountCache;
+  }
+
+  public AbstractPaginateList setQueryCountCache(QueryCountCache queryCountCache) {
+    this.queryCountCache = queryCountCache;
+    return this;
+  }
+
+  /**
+   * @return the count cache shared by all paginated lists, of which the time to live can be configured
+   */
+  public static QueryCountCache getDefaultQueryCountCache() {
+    return defaultQueryCountCache;
+  }
 }
@@ -24,6 +24,7 @@ public class DataResponse {
   String sort;
   String order;
   int size;
+  boolean hasMore;
 
   public Object getData() {
     return data;
@@ -34,6 +35,9 @@ public class DataResponse {
     return this;
   }
 
+  /**
+   * @return the total number of results, an estimate of it for total=estimate, or -1 for total=none when it doesn't follow from the page
+   */
   public long getTotal() {
     return total;
   }
@@ -73,4 +77,15 @@ public class DataResponse {
   public void setSize(int size) {
     this.size = size;
   }
+
+  /**
+   * @return true if there are results after this page, which is known without counting the total
+   */
+  public boolean isHasMore() {
+    return hasMore;
+  }
+
+  public void setHasMore(boolean hasMore) {
+    this.hasMore = hasMore;
+  }
 }
@@ -28,6 +28,8 @@ public class PaginateRequest {
 	protected String sort;
 	
 	protected String order;
+	
+	protected String total;
 
 	public Integer getStart() {
 		return start;
@@ -60,4 +62,12 @@ public class PaginateRequest {
 	public void setOrder(String order) {
 		this.order = order;
 	}
+
+	public String getTotal() {
+		return total;
+	}
+
+	public void setTotal(String total) {
+		this.total = total;
+	}
 }
@@ -0,0 +1,143 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.rest.common.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.activiti.engine.query.Query;
+
+/**
+ * Caches the total counts of paginated queries for a short time, so clients that poll the same query
+ * (like dashboards) don't execute the count query on every request. Used for requests with total=estimate.
+ *
+ * A query is identified by its class and its serialized criteria, which don't include the paging parameters.
+ * Queries with criteria that are not serializable are not cached.
+ */
+public class QueryCountCache {
+
+  protected long timeToLiveInMillis = 5000;
+  protected int maxEntries = 1000;
+
+  protected ConcurrentMap<String, CachedCount> counts = new ConcurrentHashMap<String, CachedCount>();
+
+  /**
+   * @return the key identifying the criteria of the query, or null if the query can't be cached
+   */
+  @SuppressWarnings("rawtypes")
+  public String getKey(Query query) {
+    if (!(query instanceof Serializable)) {
+      return null;
+    }
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(bytes);
+      out.writeObject(query);
+      out.close();
+
+      byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes.toByteArray());
+      StringBuilder key = new StringBuilder(query.getClass().getName()).append(':');
+      for (byte b : digest) {
+        key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return key.toString();
+
+    } catch (IOException e) {
+      // a query variable value is not serializable
+      return null;
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the count cached for the key at most timeToLiveInMillis ago, or null
+   */
+  public Long getCount(String key) {
+    CachedCount cachedCount = counts.get(key);
+    if (cachedCount == null) {
+      return null;
+    }
+    if (getCurrentTime() - cachedCount.time > timeToLiveInMillis) {
+      counts.remove(key, cachedCount);
+      return null;
+    }
+    return cachedCount.count;
+  }
+
+  public void putCount(String key, long count) {
+    if (counts.size() >= maxEntries) {
+      removeExpiredCounts();
+      if (counts.size() >= maxEntries) {
+        // all entries are recent: a lot of different queries are polled, caching doesn't help
+        counts.clear();
+      }
+    }
+    counts.put(key, new CachedCount(count, getCurrentTime()));
+  }
+
+  protected void removeExpiredCounts() {
+    long now = getCurrentTime();
+    Iterator<Map.Entry<String, CachedCount>> entries = counts.entrySet().iterator();
+    while (entries.hasNext()) {
+      if (now - entries.next().getValue().time > timeToLiveInMillis) {
+        entries.remove();
+      }
+    }
+  }
+
+  public void clear() {
+    counts.clear();
+  }
+
+  protected long getCurrentTime() {
+    return System.currentTimeMillis();
+  }
+
+  public long getTimeToLiveInMillis() {
+    return timeToLiveInMillis;
+  }
+
+  public void setTimeToLiveInMillis(long timeToLiveInMillis) {
+    this.timeToLiveInMillis = timeToLiveInMillis;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public void setMaxEntries(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  protected static class CachedCount {
+
+    protected final long count;
+    protected final long time;
+
+    public CachedCount(long count, long time) {
+      this.count = count;
+      this.time = time;
+    }
+  }
+
+}
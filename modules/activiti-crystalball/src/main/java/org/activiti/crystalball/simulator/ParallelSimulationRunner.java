@@ -0,0 +1,137 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.crystalball.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.activiti.crystalball.simulator.impl.MapVariableScope;
+import org.activiti.engine.delegate.VariableScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.FactoryBean;
+
+/**
+ * Executes independent simulation runs in parallel, e.g. the runs of a parameter sweep
+ * or the replications of a what-if experiment, and aggregates their results.
+ *
+ * Every run is created by the simulation run factory and must have its own process engine,
+ * database and clock: the engines run concurrently, so they can't share an in-memory
+ * database or a {@link org.activiti.engine.impl.util.DefaultClockImpl}, which keeps the time
+ * JVM-wide. Use {@link org.activiti.crystalball.simulator.impl.clock.SimulationClock} instead.
+ * The factory itself is called by one thread at a time.
+ */
+public class ParallelSimulationRunner {
+
+  private static Logger log = LoggerFactory.getLogger(ParallelSimulationRunner.class);
+
+  protected final FactoryBean<SimulationRun> simulationRunFactory;
+  protected final int threadCount;
+
+  public ParallelSimulationRunner(FactoryBean<SimulationRun> simulationRunFactory, int threadCount) {
+    if (threadCount < 1) {
+      throw new IllegalArgumentException("threadCount must be at least 1");
+    }
+    this.simulationRunFactory = simulationRunFactory;
+    this.threadCount = threadCount;
+  }
+
+  /**
+   * Executes the given number of runs, each with an empty variable scope.
+   */
+  public SimulationResults execute(int runCount) {
+    List<VariableScope> runVariables = new ArrayList<VariableScope>(runCount);
+    for (int i = 0; i < runCount; i++) {
+      runVariables.add(new MapVariableScope());
+    }
+    return execute(runVariables);
+  }
+
+  /**
+   * Executes one run per variable scope. The scope holds the input variables of the run
+   * and receives the variables it produces.
+   *
+   * @return the results of all runs, in the order of the given variable scopes
+   */
+  public SimulationResults execute(List<? extends VariableScope> runVariables) {
+    long startTime = System.currentTimeMillis();
+    ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(threadCount, runVariables.size())));
+    try {
+      List<Future<SimulationRunResult>> futures = new ArrayList<Future<SimulationRunResult>>(runVariables.size());
+      for (int i = 0; i < runVariables.size(); i++) {
+        final int runIndex = i;
+        final VariableScope variables = runVariables.get(i);
+        futures.add(executorService.submit(new Callable<SimulationRunResult>() {
+          public SimulationRunResult call() {
+            return executeSimulationRun(runIndex, variables);
+          }
+        }));
+      }
+
+      List<SimulationRunResult> runResults = new ArrayList<SimulationRunResult>(futures.size());
+      for (Future<SimulationRunResult> future : futures) {
+        runResults.add(future.get());
+      }
+      return new SimulationResults(runResults, System.currentTimeMillis() - startTime);
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CrystalballException("Interrupted while waiting for the simulation runs", e);
+    } catch (ExecutionException e) {
+      throw new CrystalballException("Simulation run failed", e.getCause());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  protected SimulationRunResult executeSimulationRun(int runIndex, VariableScope variables) {
+    long startTime = System.currentTimeMillis();
+    SimulationRun simulationRun = null;
+    try {
+      simulationRun = createSimulationRun();
+      simulationRun.execute(variables);
+      return new SimulationRunResult(runIndex, variables, System.currentTimeMillis() - startTime, null);
+
+    } catch (Exception e) {
+      log.warn("Simulation run " + runIndex + " failed", e);
+      closeAfterFailure(simulationRun);
+      return new SimulationRunResult(runIndex, variables, System.currentTimeMillis() - startTime, e);
+    }
+  }
+
+  protected SimulationRun createSimulationRun() throws Exception {
+    synchronized (simulationRunFactory) {
+      return simulationRunFactory.getObject();
+    }
+  }
+
+  /**
+   * A failed run isn't closed by its execute method, which leaves its process engine
+   * and context behind on the pool thread.
+   */
+  protected void closeAfterFailure(SimulationRun simulationRun) {
+    if (simulationRun instanceof SimulationDebugger) {
+      try {
+        ((SimulationDebugger) simulationRun).close();
+      } catch (Exception e) {
+        log.debug("Unable to close failed simulation run", e);
+      }
+    }
+  }
+
+}
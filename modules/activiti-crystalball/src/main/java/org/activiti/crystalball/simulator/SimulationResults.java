@@ -0,0 +1,80 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.crystalball.simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The results of the simulation runs executed by the {@link ParallelSimulationRunner}.
+ */
+public class SimulationResults {
+
+  protected final List<SimulationRunResult> runResults;
+  protected final long wallClockTime;
+
+  public SimulationResults(List<SimulationRunResult> runResults, long wallClockTime) {
+    this.runResults = Collections.unmodifiableList(runResults);
+    this.wallClockTime = wallClockTime;
+  }
+
+  public List<SimulationRunResult> getRunResults() {
+    return runResults;
+  }
+
+  public List<SimulationRunResult> getSuccessfulRuns() {
+    List<SimulationRunResult> successfulRuns = new ArrayList<SimulationRunResult>();
+    for (SimulationRunResult runResult : runResults) {
+      if (runResult.isSuccessful()) {
+        successfulRuns.add(runResult);
+      }
+    }
+    return successfulRuns;
+  }
+
+  public List<SimulationRunResult> getFailedRuns() {
+    List<SimulationRunResult> failedRuns = new ArrayList<SimulationRunResult>();
+    for (SimulationRunResult runResult : runResults) {
+      if (!runResult.isSuccessful()) {
+        failedRuns.add(runResult);
+      }
+    }
+    return failedRuns;
+  }
+
+  /**
+   * @return statistics of the numeric values of the given variable over all successful runs.
+   *         Runs in which the variable isn't set or isn't a number are left out.
+   */
+  public SimulationStatistics getStatistics(String variableName) {
+    SimulationStatistics statistics = new SimulationStatistics(variableName);
+    for (SimulationRunResult runResult : runResults) {
+      if (runResult.isSuccessful()) {
+        Object value = runResult.getVariables().getVariable(variableName);
+        if (value instanceof Number) {
+          statistics.addValue(((Number) value).doubleValue());
+        }
+      }
+    }
+    return statistics;
+  }
+
+  /**
+   * @return the time in milliseconds it took to execute all runs
+   */
+  public long getWallClockTime() {
+    return wallClockTime;
+  }
+
+}
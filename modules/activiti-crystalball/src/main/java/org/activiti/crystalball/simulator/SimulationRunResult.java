@@ -0,0 +1,63 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.crystalball.simulator;
+
+import org.activiti.engine.delegate.VariableScope;
+
+/**
+ * The outcome of one simulation run executed by the {@link ParallelSimulationRunner}.
+ */
+public class SimulationRunResult {
+
+  protected final int runIndex;
+  protected final VariableScope variables;
+  protected final long duration;
+  protected final Exception exception;
+
+  public SimulationRunResult(int runIndex, VariableScope variables, long duration, Exception exception) {
+    this.runIndex = runIndex;
+    this.variables = variables;
+    this.duration = duration;
+    this.exception = exception;
+  }
+
+  /**
+   * @return the position of the run in the list of runs passed to the runner
+   */
+  public int getRunIndex() {
+    return runIndex;
+  }
+
+  /**
+   * @return the input variables of the run and the variables it produced
+   */
+  public VariableScope getVariables() {
+    return variables;
+  }
+
+  /**
+   * @return wall-clock time of the run in milliseconds, including the creation of its process engine
+   */
+  public long getDuration() {
+    return duration;
+  }
+
+  public Exception getException() {
+    return exception;
+  }
+
+  public boolean isSuccessful() {
+    return exception == null;
+  }
+
+}
@@ -0,0 +1,90 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.crystalball.simulator;
+
+/**
+ * Count, minimum, maximum, mean and standard deviation of the values of one variable
+ * over a number of simulation runs.
+ */
+public class SimulationStatistics {
+
+  protected final String variableName;
+  protected long count;
+  protected double min = Double.NaN;
+  protected double max = Double.NaN;
+  protected double mean = Double.NaN;
+  // sum of the squared differences from the mean, updated with Welford's method
+  protected double squaredDifferences;
+
+  public SimulationStatistics(String variableName) {
+    this.variableName = variableName;
+  }
+
+  public void addValue(double value) {
+    count++;
+    if (count == 1) {
+      min = value;
+      max = value;
+      mean = value;
+      return;
+    }
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    double difference = value - mean;
+    mean += difference / count;
+    squaredDifferences += difference * (value - mean);
+  }
+
+  public String getVariableName() {
+    return variableName;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return the minimum, or NaN when there are no values
+   */
+  public double getMin() {
+    return min;
+  }
+
+  /**
+   * @return the maximum, or NaN when there are no values
+   */
+  public double getMax() {
+    return max;
+  }
+
+  /**
+   * @return the mean, or NaN when there are no values
+   */
+  public double getMean() {
+    return mean;
+  }
+
+  /**
+   * @return the sample standard deviation, or NaN when there are less than two values
+   */
+  public double getStandardDeviation() {
+    return count < 2 ? Double.NaN : Math.sqrt(squaredDifferences / (count - 1));
+  }
+
+  @Override
+  public String toString() {
+    return variableName + "[count=" + count + ", min=" + min + ", max=" + max + ", mean=" + mean
+        + ", standardDeviation=" + getStandardDeviation() + "]";
+  }
+
+}
@@ -0,0 +1,259 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.crystalball.simulator.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.activiti.engine.delegate.VariableScope;
+import org.activiti.engine.impl.persistence.entity.VariableInstance;
+
+/**
+ * Variable scope which keeps its variables in a map, without any persistence. Used to pass
+ * the input variables to a simulation run and to collect the variables it produces.
+ * There are no parent scopes, so the local variables are the same as the variables.
+ */
+public class MapVariableScope implements VariableScope {
+
+  protected final Map<String, Object> variables = new LinkedHashMap<String, Object>();
+
+  public MapVariableScope() {
+  }
+
+  public MapVariableScope(Map<String, ? extends Object> variables) {
+    if (variables != null) {
+      this.variables.putAll(variables);
+    }
+  }
+
+  @Override
+  public Map<String, Object> getVariables() {
+    return new HashMap<String, Object>(variables);
+  }
+
+  @Override
+  public Map<String, VariableInstance> getVariableInstances() {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public Map<String, Object> getVariables(Collection<String> variableNames) {
+    Map<String, Object> result = new HashMap<String, Object>();
+    for (String variableName : variableNames) {
+      if (variables.containsKey(variableName)) {
+        result.put(variableName, variables.get(variableName));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public Map<String, VariableInstance> getVariableInstances(Collection<String> variableNames) {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public Map<String, Object> getVariables(Collection<String> variableNames, boolean fetchAllVariables) {
+    return getVariables(variableNames);
+  }
+
+  @Override
+  public Map<String, VariableInstance> getVariableInstances(Collection<String> variableNames, boolean fetchAllVariables) {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public Map<String, Object> getVariablesLocal() {
+    return getVariables();
+  }
+
+  @Override
+  public Map<String, VariableInstance> getVariableInstancesLocal() {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public Map<String, Object> getVariablesLocal(Collection<String> variableNames) {
+    return getVariables(variableNames);
+  }
+
+  @Override
+  public Map<String, VariableInstance> getVariableInstancesLocal(Collection<String> variableNames) {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public Map<String, Object> getVariablesLocal(Collection<String> variableNames, boolean fetchAllVariables) {
+    return getVariables(variableNames);
+  }
+
+  @Override
+  public Map<String, VariableInstance> getVariableInstancesLocal(Collection<String> variableNames, boolean fetchAllVariables) {
+    return Collections.emptyMap();
+  }
+
+  @Override
+  public Object getVariable(String variableName) {
+    return variables.get(variableName);
+  }
+
+  @Override
+  public VariableInstance getVariableInstance(String variableName) {
+    return null;
+  }
+
+  @Override
+  public Object getVariable(String variableName, boolean fetchAllVariables) {
+    return getVariable(variableName);
+  }
+
+  @Override
+  public VariableInstance getVariableInstance(String variableName, boolean fetchAllVariables) {
+    return null;
+  }
+
+  @Override
+  public Object getVariableLocal(String variableName) {
+    return getVariable(variableName);
+  }
+
+  @Override
+  public VariableInstance getVariableInstanceLocal(String variableName) {
+    return null;
+  }
+
+  @Override
+  public Object getVariableLocal(String variableName, boolean fetchAllVariables) {
+    return getVariable(variableName);
+  }
+
+  @Override
+  public VariableInstance getVariableInstanceLocal(String variableName, boolean fetchAllVariables) {
+    return null;
+  }
+
+  @Override
+  public <T> T getVariable(String variableName, Class<T> variableClass) {
+    return variableClass.cast(getVariable(variableName));
+  }
+
+  @Override
+  public <T> T getVariableLocal(String variableName, Class<T> variableClass) {
+    return getVariable(variableName, variableClass);
+  }
+
+  @Override
+  public Set<String> getVariableNames() {
+    return new HashSet<String>(variables.keySet());
+  }
+
+  @Override
+  public Set<String> getVariableNamesLocal() {
+    return getVariableNames();
+  }
+
+  @Override
+  public void setVariable(String variableName, Object value) {
+    variables.put(variableName, value);
+  }
+
+  @Override
+  public void setVariable(String variableName, Object value, boolean fetchAllVariables) {
+    setVariable(variableName, value);
+  }
+
+  @Override
+  public Object setVariableLocal(String variableName, Object value) {
+    return variables.put(variableName, value);
+  }
+
+  @Override
+  public Object setVariableLocal(String variableName, Object value, boolean fetchAllVariables) {
+    return setVariableLocal(variableName, value);
+  }
+
+  @Override
+  public void setVariables(Map<String, ? extends Object> variables) {
+    if (variables != null) {
+      this.variables.putAll(variables);
+    }
+  }
+
+  @Override
+  public void setVariablesLocal(Map<String, ? extends Object> variables) {
+    setVariables(variables);
+  }
+
+  @Override
+  public boolean hasVariables() {
+    return !variables.isEmpty();
+  }
+
+  @Override
+  public boolean hasVariablesLocal() {
+    return hasVariables();
+  }
+
+  @Override
+  public boolean hasVariable(String variableName) {
+    return variables.containsKey(variableName);
+  }
+
+  @Override
+  public boolean hasVariableLocal(String variableName) {
+    return hasVariable(variableName);
+  }
+
+  @Override
+  public void createVariableLocal(String variableName, Object value) {
+    setVariable(variableName, value);
+  }
+
+  @Override
+  public void removeVariable(String variableName) {
+    variables.remove(variableName);
+  }
+
+  @Override
+  public void removeVariableLocal(String variableName) {
+    removeVariable(variableName);
+  }
+
+  @Override
+  public void removeVariables(Collection<String> variableNames) {
+    for (String variableName : variableNames) {
+      variables.remove(variableName);
+    }
+  }
+
+  @Override
+  public void removeVariablesLocal(Collection<String> variableNames) {
+    removeVariables(variableNames);
+  }
+
+  @Override
+  public void removeVariables() {
+    variables.clear();
+  }
+
+  @Override
+  public void removeVariablesLocal() {
+    removeVariables();
+  }
+
+}
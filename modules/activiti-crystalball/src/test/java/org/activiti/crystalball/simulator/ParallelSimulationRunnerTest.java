@@ -0,0 +1,160 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.crystalball.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.activiti.crystalball.simulator.impl.MapVariableScope;
+import org.activiti.crystalball.simulator.impl.clock.SimulationClock;
+import org.activiti.engine.ProcessEngineConfiguration;
+import org.activiti.engine.delegate.VariableScope;
+import org.activiti.engine.impl.ProcessEngineImpl;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.activiti.engine.runtime.Clock;
+import org.junit.Test;
+import org.springframework.beans.factory.FactoryBean;
+
+public class ParallelSimulationRunnerTest {
+
+  private static final String USERTASK_PROCESS = "org/activiti/crystalball/simulator/impl/playback/PlaybackProcessStartTest.testUserTask.bpmn20.xml";
+  private static final String START_PROCESSES_EVENT_TYPE = "START_PROCESSES";
+  private static final long EVENT_TIME = 1000L;
+
+  @Test
+  public void testParameterSweep() {
+    List<VariableScope> runVariables = new ArrayList<VariableScope>();
+    for (int processInstanceCount = 1; processInstanceCount <= 6; processInstanceCount++) {
+      runVariables.add(new MapVariableScope(Collections.singletonMap("processInstanceCount", processInstanceCount)));
+    }
+    // the last run fails
+    runVariables.add(new MapVariableScope(Collections.singletonMap("processInstanceCount", -1)));
+
+    ParallelSimulationRunner runner = new ParallelSimulationRunner(new SimulationRunFactory(), 3);
+    SimulationResults results = runner.execute(runVariables);
+
+    assertEquals(7, results.getRunResults().size());
+    assertEquals(6, results.getSuccessfulRuns().size());
+    assertEquals(1, results.getFailedRuns().size());
+    SimulationRunResult failedRun = results.getFailedRuns().get(0);
+    assertEquals(6, failedRun.getRunIndex());
+    assertNotNull(failedRun.getException());
+
+    Set<Object> engineNames = new HashSet<Object>();
+    for (SimulationRunResult runResult : results.getSuccessfulRuns()) {
+      VariableScope variables = runResult.getVariables();
+      // every run has its own database and clock
+      assertEquals(((Number) variables.getVariable("processInstanceCount")).longValue(), variables.getVariable("openTasks"));
+      assertEquals(EVENT_TIME, variables.getVariable("simulationTime"));
+      engineNames.add(variables.getVariable("engineName"));
+    }
+    assertEquals(6, engineNames.size());
+
+    SimulationStatistics statistics = results.getStatistics("openTasks");
+    assertEquals(6, statistics.getCount());
+    assertEquals(1.0, statistics.getMin(), 0.0);
+    assertEquals(6.0, statistics.getMax(), 0.0);
+    assertEquals(3.5, statistics.getMean(), 0.000001);
+    assertEquals(1.870829, statistics.getStandardDeviation(), 0.000001);
+
+    assertEquals(0, results.getStatistics("unknown").getCount());
+    assertTrue(Double.isNaN(results.getStatistics("unknown").getMean()));
+  }
+
+  @Test
+  public void testReplications() {
+    ParallelSimulationRunner runner = new ParallelSimulationRunner(new SimulationRunFactory(), 2);
+    SimulationResults results = runner.execute(4);
+    assertEquals(4, results.getSuccessfulRuns().size());
+    assertTrue(results.getFailedRuns().isEmpty());
+    SimulationStatistics statistics = results.getStatistics("openTasks");
+    assertEquals(4, statistics.getCount());
+    assertEquals(1.0, statistics.getMean(), 0.0);
+    assertEquals(0.0, statistics.getStandardDeviation(), 0.0);
+  }
+
+  protected static class SimulationRunFactory implements FactoryBean<SimulationRun> {
+
+    protected final AtomicInteger runCounter = new AtomicInteger();
+
+    @Override
+    public SimulationRun getObject() {
+      int run = runCounter.incrementAndGet();
+      Clock clock = new SimulationClock();
+      ProcessEngineConfigurationImpl configuration = new StandaloneInMemProcessEngineConfiguration();
+      configuration.setProcessEngineName("parallel-simulation-" + run);
+      configuration.setJdbcUrl("jdbc:h2:mem:parallel-simulation-" + run);
+      configuration.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_CREATE_DROP);
+      configuration.setClock(clock);
+
+      PriorityQueueEventCalendar eventCalendar = new PriorityQueueEventCalendar(clock, new SimulationEventComparator());
+      eventCalendar.addEvent(new SimulationEvent.Builder(START_PROCESSES_EVENT_TYPE).simulationTime(EVENT_TIME).build());
+
+      Map<String, SimulationEventHandler> handlers = new HashMap<String, SimulationEventHandler>();
+      handlers.put(START_PROCESSES_EVENT_TYPE, new StartProcessesEventHandler());
+      return new SimpleSimulationRun.Builder()
+          .processEngine((ProcessEngineImpl) configuration.buildProcessEngine())
+          .eventCalendar(eventCalendar)
+          .eventHandlers(handlers)
+          .build();
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+      return SimpleSimulationRun.class;
+    }
+
+    @Override
+    public boolean isSingleton() {
+      return false;
+    }
+  }
+
+  protected static class StartProcessesEventHandler implements SimulationEventHandler {
+
+    @Override
+    public void init() {
+    }
+
+    @Override
+    public void handle(SimulationEvent event) {
+      VariableScope execution = SimulationRunContext.getExecution();
+      Integer processInstanceCount = (Integer) execution.getVariable("processInstanceCount");
+      if (processInstanceCount == null) {
+        processInstanceCount = 1;
+      } else if (processInstanceCount < 0) {
+        throw new IllegalArgumentException("processInstanceCount must not be negative");
+      }
+
+      SimulationRunContext.getRepositoryService().createDeployment().addClasspathResource(USERTASK_PROCESS).deploy();
+      for (int i = 0; i < processInstanceCount; i++) {
+        SimulationRunContext.getRuntimeService().startProcessInstanceByKey("oneTaskProcess");
+      }
+
+      execution.setVariable("openTasks", SimulationRunContext.getTaskService().createTaskQuery().count());
+      execution.setVariable("simulationTime", SimulationRunContext.getClock().getCurrentTime().getTime());
+      execution.setVariable("engineName", SimulationRunContext.getProcessEngine().getName());
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.crystalball.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.activiti.crystalball.simulator.impl.clock.SimulationClock;
+import org.activiti.engine.runtime.Clock;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PriorityQueueEventCalendarTest {
+
+  protected Comparator<SimulationEvent> comparator = new SimulationEventComparator();
+  protected Clock clock = new SimulationClock();
+
+  @Before
+  public void setUp() {
+    this.clock.setCurrentTime(new Date(0));
+  }
+
+  @Test
+  public void testIsEmpty() {
+    EventCalendar calendar = new PriorityQueueEventCalendar(clock, comparator);
+    assertTrue(calendar.isEmpty());
+    assertNull(calendar.peekFirstEvent());
+    assertNull(calendar.removeFirstEvent());
+  }
+
+  @Test
+  public void testAddEventsAndRemoveFirst() {
+    SimulationEvent event1 = new SimulationEvent.Builder("any type").simulationTime(1).build();
+    SimulationEvent event2 = new SimulationEvent.Builder("any type").simulationTime(2).build();
+    EventCalendar calendar = new PriorityQueueEventCalendar(clock, comparator);
+
+    calendar.addEvent(event2);
+    calendar.addEvent(event1);
+    calendar.addEvent(event1);
+
+    assertSame(event1, calendar.peekFirstEvent());
+    assertSame(event1, calendar.removeFirstEvent());
+    assertSame(event1, calendar.removeFirstEvent());
+    assertSame(event2, calendar.removeFirstEvent());
+    assertTrue(calendar.isEmpty());
+  }
+
+  @Test
+  public void testEqualEventsInInsertionOrder() {
+    SimulationEvent first = new SimulationEvent.Builder("first").simulationTime(5).build();
+    SimulationEvent second = new SimulationEvent.Builder("second").simulationTime(5).build();
+    SimulationEvent system = new SimulationEvent.Builder("system").simulationTime(5).priority(SimulationEvent.PRIORITY_SYSTEM).build();
+    EventCalendar calendar = new PriorityQueueEventCalendar(clock, comparator);
+
+    calendar.addEvent(first);
+    calendar.addEvent(second);
+    calendar.addEvent(system);
+
+    List<SimulationEvent> events = calendar.getEvents();
+    assertEquals(3, events.size());
+    assertSame(system, events.get(0));
+
+    assertSame(system, calendar.removeFirstEvent());
+    assertSame(first, calendar.removeFirstEvent());
+    assertSame(second, calendar.removeFirstEvent());
+  }
+
+  @Test
+  public void testSameOrderAsSimpleEventCalendar() {
+    EventCalendar simpleCalendar = new SimpleEventCalendar(clock, comparator);
+    EventCalendar calendar = new PriorityQueueEventCalendar(clock, comparator);
+
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      SimulationEvent event = new SimulationEvent.Builder("event" + i).simulationTime(random.nextInt(100))
+          .priority(random.nextInt(3)).build();
+      simpleCalendar.addEvent(event);
+      calendar.addEvent(event);
+    }
+
+    List<SimulationEvent> expected = new ArrayList<SimulationEvent>();
+    List<SimulationEvent> actual = new ArrayList<SimulationEvent>();
+    while (!simpleCalendar.isEmpty()) {
+      expected.add(simpleCalendar.removeFirstEvent());
+      actual.add(calendar.removeFirstEvent());
+    }
+    assertEquals(expected, actual);
+    assertTrue(calendar.isEmpty());
+  }
+
+  @Test
+  public void testClear() {
+    EventCalendar calendar = new PriorityQueueEventCalendar(clock, comparator);
+    calendar.addEvent(new SimulationEvent.Builder("any type").simulationTime(1).build());
+
+    calendar.clear();
+    assertTrue(calendar.isEmpty());
+    assertNull(calendar.removeFirstEvent());
+  }
+
+  @Test
+  public void testRunEventFromPast() {
+    EventCalendar calendar = new PriorityQueueEventCalendar(clock, comparator);
+    calendar.addEvent(new SimulationEvent.Builder("any type").simulationTime(1).build());
+    this.clock.setCurrentTime(new Date(2));
+    try {
+      calendar.removeFirstEvent();
+      fail("RuntimeException expected");
+    } catch (RuntimeException e) {
+      // expected
+    }
+  }
+}
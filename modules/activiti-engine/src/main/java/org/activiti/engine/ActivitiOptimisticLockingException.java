@@ -23,9 +23,32 @@ package org.activiti.engine;
 public class ActivitiOptimisticLockingException extends ActivitiException {
 
   private static final long serialVersionUID = 1L;
+  
+  protected Class<?> entityClass;
+  protected String processInstanceId;
 
   public ActivitiOptimisticLockingException(String message) {
     super(message);
   }
+  
+  public ActivitiOptimisticLockingException(String message, Class<?> entityClass, String processInstanceId) {
+    super(message);
+    this.entityClass = entityClass;
+    this.processInstanceId = processInstanceId;
+  }
+  
+  /**
+   * @return the class of the entity that was changed concurrently, or null if it is not known.
+   */
+  public Class<?> getEntityClass() {
+    return entityClass;
+  }
+  
+  /**
+   * @return the process instance the concurrently changed entity belongs to, or null if it is not known.
+   */
+  public String getProcessInstanceId() {
+    return processInstanceId;
+  }
 
 }
@@ -22,6 +22,7 @@ import org.activiti.engine.history.HistoricDetail;
 import org.activiti.engine.history.HistoricDetailQuery;
 import org.activiti.engine.history.HistoricIdentityLink;
 import org.activiti.engine.history.HistoricProcessInstance;
+import org.activiti.engine.history.HistoricProcessInstanceDeleteBuilder;
 import org.activiti.engine.history.HistoricProcessInstanceQuery;
 import org.activiti.engine.history.HistoricTaskInstance;
 import org.activiti.engine.history.HistoricTaskInstanceQuery;
@@ -85,6 +86,12 @@ public interface HistoryService {
    * historic details (variable updates, form properties) are deleted as well.
    */
   void deleteHistoricProcessInstance(String processInstanceId);
+  
+  /**
+   * Creates a builder to delete the history of all finished process instances matching criteria,
+   * such as the end time, the process definition key or the tenant.
+   */
+  HistoricProcessInstanceDeleteBuilder createHistoricProcessInstanceDeleteBuilder();
 
   /**
    * creates a native query to search for {@link HistoricProcessInstance}s via SQL
@@ -23,6 +23,7 @@ import org.activiti.engine.impl.interceptor.CommandConfig;
 import org.activiti.engine.management.TableMetaData;
 import org.activiti.engine.management.TablePage;
 import org.activiti.engine.management.TablePageQuery;
+import org.activiti.engine.runtime.JobBatchBuilder;
 import org.activiti.engine.runtime.JobQuery;
 
 
@@ -68,6 +69,13 @@ public interface ManagementService {
    */
   JobQuery createJobQuery();
   
+  /**
+   * Returns a new {@link JobBatchBuilder} that sets the retries of, or deletes, 
+   * all jobs matching the given query in bulk.
+   * @param jobQuery query created with {@link #createJobQuery()}, cannot be null.
+   */
+  JobBatchBuilder createJobBatchBuilder(JobQuery jobQuery);
+  
   /** 
    * Forced synchronous execution of a job (eg. for administation or testing)
    * The job will be executed, even if the process definition and/or the process instance
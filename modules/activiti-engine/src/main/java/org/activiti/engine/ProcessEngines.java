@@ -136,14 +136,14 @@ public abstract class ProcessEngines {
    * available for this process engine. An engine that is registered will be closed
    * when the {@link ProcessEngines#destroy()} is called.
    */
-  public static void registerProcessEngine(ProcessEngine processEngine) {
+  public synchronized static void registerProcessEngine(ProcessEngine processEngine) {
     processEngines.put(processEngine.getName(), processEngine);
   }
   
   /**
    * Unregisters the given process engine.
    */
-  public static void unregister(ProcessEngine processEngine) {
+  public synchronized static void unregister(ProcessEngine processEngine) {
     processEngines.remove(processEngine.getName());
   }
 
@@ -219,7 +219,7 @@ public abstract class ProcessEngines {
 
   /** obtain a process engine by name.  
    * @param processEngineName is the name of the process engine or null for the default process engine.  */
-  public static ProcessEngine getProcessEngine(String processEngineName) {
+  public synchronized static ProcessEngine getProcessEngine(String processEngineName) {
     if (!isInitialized()) {
       init();
     }
@@ -228,7 +228,7 @@ public abstract class ProcessEngines {
   
   /** retries to initialize a process engine that previously failed.
    */
-  public static ProcessEngineInfo retry(String resourceUrl) {
+  public synchronized static ProcessEngineInfo retry(String resourceUrl) {
     log.debug("retying initializing of resource {}", resourceUrl);
     try {
       return initProcessEnginFromResource(new URL(resourceUrl));
@@ -238,10 +238,10 @@ public abstract class ProcessEngines {
   }
   
   /** provides access to process engine to application clients in a 
-   * managed server environment.  
+   * managed server environment. Returns a copy, as engines can be registered concurrently.
    */
-  public static Map<String, ProcessEngine> getProcessEngines() {
-    return processEngines;
+  public synchronized static Map<String, ProcessEngine> getProcessEngines() {
+    return new HashMap<String, ProcessEngine>(processEngines);
   }
   
   /** closes all process engines.  This method should be called when the server shuts down. */
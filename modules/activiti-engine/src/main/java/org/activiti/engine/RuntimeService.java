@@ -27,6 +27,7 @@ import org.activiti.engine.runtime.ExecutionQuery;
 import org.activiti.engine.runtime.NativeExecutionQuery;
 import org.activiti.engine.runtime.NativeProcessInstanceQuery;
 import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.runtime.ProcessInstanceBatchBuilder;
 import org.activiti.engine.runtime.ProcessInstanceBuilder;
 import org.activiti.engine.runtime.ProcessInstanceQuery;
 import org.activiti.engine.task.Event;
@@ -1180,5 +1181,11 @@ public interface RuntimeService {
   
   /**Create a ProcessInstanceBuilder*/
   ProcessInstanceBuilder createProcessInstanceBuilder();
+  
+  /**
+   * Create a {@link ProcessInstanceBatchBuilder}, to start many process instances of the same 
+   * process definition in chunked transactions.
+   */
+  ProcessInstanceBatchBuilder createProcessInstanceBatchBuilder();
     
 }
\ No newline at end of file
@@ -26,6 +26,7 @@ import org.activiti.engine.task.IdentityLink;
 import org.activiti.engine.task.IdentityLinkType;
 import org.activiti.engine.task.NativeTaskQuery;
 import org.activiti.engine.task.Task;
+import org.activiti.engine.task.TaskBatchResult;
 import org.activiti.engine.task.TaskQuery;
 
 /** Service which provides access to {@link Task} and form related operations.
@@ -199,6 +200,25 @@ public interface TaskService {
    * @throws ActivitiObjectNotFoundException when no task exists with the given id.
    */
   void complete(String taskId, Map<String, Object> variables, boolean localScope);
+  
+  /**
+   * Claims the given tasks for the user, in chunks of which each is claimed in its own transaction.
+   * When a task of a chunk can't be claimed, the other tasks of that chunk are claimed one by one.
+   * @param taskIds the ids of the tasks to claim, cannot be null.
+   * @param userId user that claims the tasks. When userId is null the tasks are unclaimed.
+   * @return the outcome for every task, in the order of the given task ids. A task that is already 
+   *         claimed by another user fails with an {@link ActivitiTaskAlreadyClaimedException}.
+   */
+  List<TaskBatchResult> claimTasks(List<String> taskIds, String userId);
+  
+  /**
+   * Completes the given tasks, in chunks of which each is completed in its own transaction.
+   * When a task of a chunk can't be completed, the other tasks of that chunk are completed one by one.
+   * @param taskIds the ids of the tasks to complete, cannot be null.
+   * @param variables task parameters, set on every task. May be null or empty.
+   * @return the outcome for every task, in the order of the given task ids.
+   */
+  List<TaskBatchResult> completeTasks(List<String> taskIds, Map<String, Object> variables);
 
   /**
    * Changes the assignee of the given task to the given userId.
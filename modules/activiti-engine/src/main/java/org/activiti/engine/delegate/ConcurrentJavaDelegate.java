@@ -0,0 +1,42 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.delegate;
+
+import java.util.Map;
+
+
+/**
+ * Java delegation for a service task of which the work can run on another thread than 
+ * the one executing the process, so that the service tasks of the branches of a parallel 
+ * gateway (or the instances of a parallel multi instance) run at the same time, 
+ * within the same transaction.
+ * 
+ * Implementing this interface marks the service task as safe to run concurrently: 
+ * the delegate has no access to the execution or to the engine services. It gets a copy of 
+ * the process variables and returns the variables to set. These are set, and the process continues, 
+ * in the thread executing the process. Service tasks that run concurrently must not write
+ * the same variables. A single instance of the class is used for all executions, so it must be thread-safe.
+ * 
+ * The work only runs concurrently when enabled with 
+ * ProcessEngineConfigurationImpl.setEnableConcurrentServiceTasks(true). Otherwise, it runs in the thread 
+ * executing the process, like a {@link JavaDelegate}.
+ */
+public interface ConcurrentJavaDelegate {
+  
+  /**
+   * @param variables a read-only copy of the variables visible from the execution of the service task
+   * @return the variables to set on the execution, may be null
+   */
+  Map<String, Object> execute(Map<String, Object> variables) throws Exception;
+
+}
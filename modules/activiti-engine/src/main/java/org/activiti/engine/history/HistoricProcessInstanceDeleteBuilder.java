@@ -0,0 +1,48 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.history;
+
+import java.util.Date;
+
+/**
+ * Deletes the history of finished process instances matching the given criteria, in chunks 
+ * of which each is deleted in its own transaction. Sub process instances are deleted together with 
+ * their super process instance.
+ */
+public interface HistoricProcessInstanceDeleteBuilder {
+  
+  /** Only delete historic process instances that finished before the given date. */
+  HistoricProcessInstanceDeleteBuilder finishedBefore(Date finishedBefore);
+  
+  /** Only delete historic process instances of process definitions with the given key. */
+  HistoricProcessInstanceDeleteBuilder processDefinitionKey(String processDefinitionKey);
+  
+  /** Only delete historic process instances of the given tenant. */
+  HistoricProcessInstanceDeleteBuilder tenantId(String tenantId);
+  
+  /** The number of historic process instances deleted in one transaction. By default: 100. */
+  HistoricProcessInstanceDeleteBuilder chunkSize(int chunkSize);
+  
+  /**
+   * Deletes the matching historic process instances, chunk after chunk. 
+   * @return the number of matching historic process instances that were deleted
+   */
+  long delete();
+  
+  /**
+   * Schedules a job that deletes the matching historic process instances. Every chunk is deleted
+   * by its own job, so a failure only causes the current chunk to be retried. 
+   */
+  void deleteAsync();
+
+}
@@ -255,6 +255,14 @@ public interface HistoricProcessInstanceQuery extends Query<HistoricProcessInsta
    */
   HistoricProcessInstanceQuery includeProcessVariables();
   
+  /**
+   * Include only the process variables with the given names in the process query result.
+   * The variables are fetched with a separate query for all process instances of the result,
+   * so contrary to {@link #includeProcessVariables()} the paging of the result is not affected.
+   * @param variableNames cannot be null or empty.
+   */
+  HistoricProcessInstanceQuery includeProcessVariables(String... variableNames);
+  
   /**
    * Only select process instances that failed due to an exception happening during a job execution.
    */
@@ -284,4 +292,18 @@ public interface HistoricProcessInstanceQuery extends Query<HistoricProcessInsta
    * Instruct localization to fallback to more general locales including the default locale of the JVM if the specified locale is not found. 
    */
   HistoricProcessInstanceQuery withLocalizationFallback();
+  
+  /**
+   * Executes the query and returns at most <code>pageSize</code> results that come directly after the
+   * result with the given order value and id. Contrary to {@link #listPage(int, int)}, the database doesn't need 
+   * to skip all results of the previous pages, so this should be used to page through large results.
+   * 
+   * Only one order property (without null handling) can be used, the id is always used as secondary order.
+   * When no order property is set, the results are ordered by id and the lastSortValue is ignored.
+   * Results without a value for the order property come last in ascending and first in descending order.
+   * 
+   * @param lastSortValue value of the order property of the last result of the previous page, can be null
+   * @param lastId id of the last result of the previous page, or null to fetch the first page
+   */
+  List<HistoricProcessInstance> listAfter(Object lastSortValue, String lastId, int pageSize);
 }
@@ -26,6 +26,7 @@ import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
 import org.activiti.engine.query.Query;
 import org.activiti.engine.query.QueryProperty;
+import org.activiti.engine.query.QueryResultHandler;
 
 
 /**
@@ -41,12 +42,13 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
   public static final String SORTORDER_DESC = "desc";
   
   private static enum ResultType {
-    LIST, LIST_PAGE, SINGLE_RESULT, COUNT
+    LIST, LIST_PAGE, SINGLE_RESULT, COUNT, STREAM
   }
   
     
   protected transient CommandExecutor commandExecutor;
   protected transient CommandContext commandContext;
+  protected transient QueryResultHandler<? super U> resultHandler;
   
   protected String databaseType;
   
@@ -62,6 +64,19 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
   
   protected NullHandlingOnOrder nullHandlingOnOrder;
   
+  // first order property and the number of order properties, needed for keyset pagination
+  protected String firstOrderColumn;
+  protected Direction firstOrderDirection;
+  protected int orderPropertyCount;
+  protected boolean orderWithNullHandling;
+  
+  // only set while executing a keyset paginated query, see listPageAfter
+  protected String keysetColumn;
+  protected String keysetOperator;
+  protected Object keysetSortValue;
+  protected String keysetId;
+  protected boolean keysetNullsLast;
+  
   protected AbstractQuery() {
     parameter = this;
   }
@@ -111,6 +126,14 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
       throw new ActivitiIllegalArgumentException("You should call any of the orderBy methods first before specifying a direction");
     }
     addOrder(orderProperty.getName(), direction.getName(), nullHandlingOnOrder);
+    if (orderPropertyCount == 0) {
+      firstOrderColumn = orderProperty.getName();
+      firstOrderDirection = direction;
+    }
+    orderPropertyCount++;
+    if (nullHandlingOnOrder != null) {
+      orderWithNullHandling = true;
+    }
     orderProperty = null;
     nullHandlingOnOrder = null;
     return (T) this;
@@ -151,6 +174,107 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
     return executeList(Context.getCommandContext(), new Page(firstResult, maxResults));
   }
   
+  /**
+   * Keyset (seek) pagination: returns the page of maximum pageSize results that directly follows the result 
+   * with the given sort value and id, by adding a "(sortColumn, ID_) > (lastSortValue, lastId)" condition 
+   * to the query instead of skipping a number of rows. Unlike {@link #listPage(int, int)}, the cost doesn't 
+   * grow with the position of the page in the result.
+   * 
+   * The query can be ordered on at most one property (without null handling), which must be a column of the queried table.
+   * The id is always added as the last order column, to have a unique sort key. When no order property is set, the results
+   * are ordered by id only and lastSortValue is ignored. Results without a value for the order property come last in 
+   * ascending and first in descending order, on every database.
+   * 
+   * @param lastSortValue the value of the order property of the last result of the previous page, which can be null
+   * @param lastId the id of the last result of the previous page, or null to fetch the first page
+   */
+  protected List<U> listPageAfter(final Object lastSortValue, final String lastId, final int pageSize) {
+    checkQueryOk();
+    if (orderPropertyCount > 1 || orderWithNullHandling) {
+      throw new ActivitiIllegalArgumentException("Keyset pagination only supports ordering on one property, without null handling");
+    }
+    
+    // executed as a separate command, as the null handling of the order depends on the database type
+    if (commandExecutor!=null) {
+      return commandExecutor.execute(new Command<List<U>>() {
+        public List<U> execute(CommandContext commandContext) {
+          return executeListPageAfter(commandContext, lastSortValue, lastId, pageSize);
+        }
+      });
+    }
+    return executeListPageAfter(Context.getCommandContext(), lastSortValue, lastId, pageSize);
+  }
+  
+  protected List<U> executeListPageAfter(CommandContext commandContext, Object lastSortValue, String lastId, int pageSize) {
+    if (databaseType == null) {
+      databaseType = commandContext.getProcessEngineConfiguration().getDatabaseType();
+    }
+    
+    String idColumn = getKeysetIdColumn();
+    String sortColumn = null;
+    Direction sortDirection = Direction.ASCENDING;
+    if (orderPropertyCount == 1) {
+      sortDirection = firstOrderDirection;
+      if (!idColumn.equals(firstOrderColumn)) {
+        if (!firstOrderColumn.startsWith("RES.")) {
+          throw new ActivitiIllegalArgumentException("Keyset pagination is not supported when ordering on " + firstOrderColumn);
+        }
+        sortColumn = firstOrderColumn;
+      }
+    }
+    boolean nullsLast = !SORTORDER_DESC.equals(sortDirection.getName());
+    
+    String originalOrderBy = orderBy;
+    orderBy = null;
+    if (sortColumn != null) {
+      // the keyset condition relies on the position of the nulls, which differs between databases by default
+      addOrder(sortColumn, sortDirection.getName(), nullsLast ? NullHandlingOnOrder.NULLS_LAST : NullHandlingOnOrder.NULLS_FIRST);
+    }
+    addOrder(idColumn, sortDirection.getName(), null);
+    if (lastId != null) {
+      keysetColumn = sortColumn;
+      keysetOperator = nullsLast ? ">" : "<";
+      keysetSortValue = lastSortValue;
+      keysetId = lastId;
+      keysetNullsLast = nullsLast;
+    }
+    
+    this.firstResult = 0;
+    this.maxResults = pageSize;
+    this.resultType = ResultType.LIST_PAGE;
+    try {
+      return executeList(commandContext, new Page(0, pageSize));
+    } finally {
+      orderBy = originalOrderBy;
+      keysetColumn = null;
+      keysetOperator = null;
+      keysetSortValue = null;
+      keysetId = null;
+      keysetNullsLast = false;
+    }
+  }
+  
+  /**
+   * @return the id column of the queried table, used as tie breaker for keyset pagination
+   */
+  public String getKeysetIdColumn() {
+    return "RES.ID_";
+  }
+  
+  public void stream(QueryResultHandler<? super U> resultHandler) {
+    this.resultType = ResultType.STREAM;
+    try {
+      if (commandExecutor!=null) {
+        this.resultHandler = resultHandler;
+        commandExecutor.execute(this);
+      } else {
+        executeStream(Context.getCommandContext(), resultHandler);
+      }
+    } finally {
+      this.resultHandler = null;
+    }
+  }
+  
   public long count() {
     this.resultType = ResultType.COUNT;
     if (commandExecutor!=null) {
@@ -166,6 +290,9 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
       return executeSingleResult(commandContext);
     } else if (resultType==ResultType.LIST_PAGE) {
       return executeList(commandContext, null);
+    } else if (resultType==ResultType.STREAM) {
+      executeStream(commandContext, resultHandler);
+      return null;
     } else {
       return executeCount(commandContext);
     }
@@ -179,6 +306,17 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
    */
   public abstract List<U> executeList(CommandContext commandContext, Page page);
   
+  /**
+   * Executes the query and hands the results one by one to the handler. 
+   * By default the results are fetched as a list first, queries that are typically used for large results 
+   * override this to read the results from the database one at a time.
+   */
+  public void executeStream(CommandContext commandContext, QueryResultHandler<? super U> resultHandler) {
+    for (U result : executeList(commandContext, null)) {
+      resultHandler.handleResult(result);
+    }
+  }
+  
   public U executeSingleResult(CommandContext commandContext) {
     List<U> results = executeList(commandContext, null);
     if (results.size() == 1) {
@@ -258,6 +396,26 @@ public abstract class AbstractQuery<T extends Query<?,?>, U> extends ListQueryPa
 		return databaseType;
 	}
 
+  public String getKeysetColumn() {
+    return keysetColumn;
+  }
+
+  public String getKeysetOperator() {
+    return keysetOperator;
+  }
+
+  public Object getKeysetSortValue() {
+    return keysetSortValue;
+  }
+
+  public String getKeysetId() {
+    return keysetId;
+  }
+
+  public boolean isKeysetNullsLast() {
+    return keysetNullsLast;
+  }
+
 	public void setDatabaseType(String databaseType) {
 		this.databaseType = databaseType;
 	}
@@ -13,6 +13,7 @@
 
 package org.activiti.engine.impl;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,7 +21,9 @@ import java.util.Map;
 /**
  * @author Tom Baeyens
  */
-public class Direction {
+public class Direction implements Serializable {
+
+  private static final long serialVersionUID = 1L;
 
   private static final Map<String, Direction> directions = new HashMap<String, Direction>();
 
@@ -41,4 +44,9 @@ public class Direction {
   public static Direction findByName(String directionName) {
     return directions.get(directionName);
   }
+  
+  protected Object readResolve() {
+    Direction direction = findByName(name);
+    return direction != null ? direction : this;
+  }
 }
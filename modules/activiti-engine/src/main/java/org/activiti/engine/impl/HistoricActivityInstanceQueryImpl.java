@@ -20,6 +20,7 @@ import org.activiti.engine.history.HistoricActivityInstance;
 import org.activiti.engine.history.HistoricActivityInstanceQuery;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.query.QueryResultHandler;
 
 
 /**
@@ -70,6 +71,14 @@ public class HistoricActivityInstanceQueryImpl extends AbstractQuery<HistoricAct
       .findHistoricActivityInstancesByQueryCriteria(this, page);
   }
   
+  @Override
+  public void executeStream(CommandContext commandContext, QueryResultHandler<? super HistoricActivityInstance> resultHandler) {
+    checkQueryOk();
+    commandContext
+      .getHistoricActivityInstanceEntityManager()
+      .findHistoricActivityInstancesByQueryCriteria(this, resultHandler);
+  }
+  
   public HistoricActivityInstanceQueryImpl processInstanceId(String processInstanceId) {
     this.processInstanceId = processInstanceId;
     return this;
@@ -24,6 +24,7 @@ import org.activiti.engine.impl.variable.HistoricJPAEntityListVariableType;
 import org.activiti.engine.impl.variable.HistoricJPAEntityVariableType;
 import org.activiti.engine.impl.variable.JPAEntityListVariableType;
 import org.activiti.engine.impl.variable.JPAEntityVariableType;
+import org.activiti.engine.query.QueryResultHandler;
 
 
 /**
@@ -111,33 +112,47 @@ public class HistoricDetailQueryImpl extends AbstractQuery<HistoricDetailQuery,
       .getHistoricDetailEntityManager()
       .findHistoricDetailsByQueryCriteria(this, page);
     
-    HistoricDetailVariableInstanceUpdateEntity varUpdate = null;
     if (historicDetails!=null) {
       for (HistoricDetail historicDetail: historicDetails) {
-        if (historicDetail instanceof HistoricDetailVariableInstanceUpdateEntity) {
-          varUpdate = (HistoricDetailVariableInstanceUpdateEntity)historicDetail;
-          
-          // Touch byte-array to ensure initialized inside context
-          // TODO there should be a generic way to initialize variable values
-          varUpdate.getBytes();
-          
-          // ACT-863: EntityManagerFactorySession instance needed for fetching value, touch while inside context to store
-          // cached value
-          if (varUpdate.getVariableType() instanceof JPAEntityVariableType) {
-            // Use HistoricJPAEntityVariableType to force caching of value to return from query
-            varUpdate.setVariableType(HistoricJPAEntityVariableType.getSharedInstance());
-            varUpdate.getValue();
-          } else if (varUpdate.getVariableType() instanceof JPAEntityListVariableType) {
-            // Use HistoricJPAEntityListVariableType to force caching of list to return from query
-            varUpdate.setVariableType(HistoricJPAEntityListVariableType.getSharedInstance());
-            varUpdate.getValue();
-          }
-        }
+        initializeHistoricDetail(historicDetail);
       }
     }
     return historicDetails;
   }
   
+  @Override
+  public void executeStream(CommandContext commandContext, final QueryResultHandler<? super HistoricDetail> resultHandler) {
+    checkQueryOk();
+    commandContext.getHistoricDetailEntityManager().findHistoricDetailsByQueryCriteria(this, new QueryResultHandler<HistoricDetail>() {
+      public void handleResult(HistoricDetail historicDetail) {
+        initializeHistoricDetail(historicDetail);
+        resultHandler.handleResult(historicDetail);
+      }
+    });
+  }
+  
+  protected void initializeHistoricDetail(HistoricDetail historicDetail) {
+    if (historicDetail instanceof HistoricDetailVariableInstanceUpdateEntity) {
+      HistoricDetailVariableInstanceUpdateEntity varUpdate = (HistoricDetailVariableInstanceUpdateEntity)historicDetail;
+      
+      // Touch byte-array to ensure initialized inside context
+      // TODO there should be a generic way to initialize variable values
+      varUpdate.getBytes();
+      
+      // ACT-863: EntityManagerFactorySession instance needed for fetching value, touch while inside context to store
+      // cached value
+      if (varUpdate.getVariableType() instanceof JPAEntityVariableType) {
+        // Use HistoricJPAEntityVariableType to force caching of value to return from query
+        varUpdate.setVariableType(HistoricJPAEntityVariableType.getSharedInstance());
+        varUpdate.getValue();
+      } else if (varUpdate.getVariableType() instanceof JPAEntityListVariableType) {
+        // Use HistoricJPAEntityListVariableType to force caching of list to return from query
+        varUpdate.setVariableType(HistoricJPAEntityListVariableType.getSharedInstance());
+        varUpdate.getValue();
+      }
+    }
+  }
+  
   // order by /////////////////////////////////////////////////////////////////
   
   public HistoricDetailQueryImpl orderByProcessInstanceId() {
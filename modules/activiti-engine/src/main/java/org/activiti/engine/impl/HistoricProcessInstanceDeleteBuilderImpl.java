@@ -0,0 +1,99 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import org.activiti.engine.ActivitiIllegalArgumentException;
+import org.activiti.engine.history.HistoricProcessInstanceDeleteBuilder;
+import org.activiti.engine.impl.cmd.DeleteHistoricProcessInstancesCmd;
+import org.activiti.engine.impl.cmd.ScheduleHistoricProcessInstanceDeletionCmd;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+
+public class HistoricProcessInstanceDeleteBuilderImpl implements HistoricProcessInstanceDeleteBuilder, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected transient CommandExecutor commandExecutor;
+  
+  protected Date finishedBefore;
+  protected String processDefinitionKey;
+  protected String tenantId;
+  protected int chunkSize;
+  
+  public HistoricProcessInstanceDeleteBuilderImpl(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+  
+  public HistoricProcessInstanceDeleteBuilderImpl(CommandExecutor commandExecutor, int chunkSize) {
+    this.commandExecutor = commandExecutor;
+    this.chunkSize = chunkSize;
+  }
+
+  public HistoricProcessInstanceDeleteBuilder finishedBefore(Date finishedBefore) {
+    this.finishedBefore = finishedBefore;
+    return this;
+  }
+
+  public HistoricProcessInstanceDeleteBuilder processDefinitionKey(String processDefinitionKey) {
+    this.processDefinitionKey = processDefinitionKey;
+    return this;
+  }
+
+  public HistoricProcessInstanceDeleteBuilder tenantId(String tenantId) {
+    this.tenantId = tenantId;
+    return this;
+  }
+
+  public HistoricProcessInstanceDeleteBuilder chunkSize(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new ActivitiIllegalArgumentException("chunkSize must be positive");
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  public long delete() {
+    long nrOfDeletedInstances = 0;
+    int nrOfDeletedInstancesInChunk;
+    do {
+      nrOfDeletedInstancesInChunk = commandExecutor.execute(new DeleteHistoricProcessInstancesCmd(this));
+      nrOfDeletedInstances += nrOfDeletedInstancesInChunk;
+    } while (nrOfDeletedInstancesInChunk == chunkSize);
+    return nrOfDeletedInstances;
+  }
+
+  public void deleteAsync() {
+    commandExecutor.execute(new ScheduleHistoricProcessInstanceDeletionCmd(this, 0));
+  }
+  
+  // getters //////////////////////////////////////////////////////////
+
+  public Date getFinishedBefore() {
+    return finishedBefore;
+  }
+
+  public String getProcessDefinitionKey() {
+    return processDefinitionKey;
+  }
+
+  public String getTenantId() {
+    return tenantId;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+}
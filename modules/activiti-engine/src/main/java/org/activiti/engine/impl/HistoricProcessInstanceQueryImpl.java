@@ -14,6 +14,7 @@
 package org.activiti.engine.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -26,7 +27,10 @@ import org.activiti.engine.history.HistoricProcessInstanceQuery;
 import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.HistoricProcessInstanceEntity;
+import org.activiti.engine.impl.persistence.entity.HistoricVariableInstanceEntity;
 import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.activiti.engine.query.QueryResultHandler;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -67,6 +71,7 @@ public class HistoricProcessInstanceQueryImpl extends AbstractVariableQueryImpl<
   protected Set<String> processInstanceIds;
   protected String involvedUser;
   protected boolean includeProcessVariables;
+  protected List<String> includedProcessVariableNames;
   protected boolean withJobException;
   protected String tenantId;
   protected String tenantIdLike;
@@ -323,6 +328,14 @@ public class HistoricProcessInstanceQueryImpl extends AbstractVariableQueryImpl<
     return this;
   }
   
+  public HistoricProcessInstanceQuery includeProcessVariables(String... variableNames) {
+    if (variableNames == null || variableNames.length == 0) {
+      throw new ActivitiIllegalArgumentException("Variable names is null or empty");
+    }
+    this.includedProcessVariableNames = Arrays.asList(variableNames);
+    return this;
+  }
+  
   public HistoricProcessInstanceQuery withJobException() {
     this.withJobException = true;
     return this;
@@ -577,6 +590,10 @@ public class HistoricProcessInstanceQueryImpl extends AbstractVariableQueryImpl<
       .findHistoricProcessInstanceCountByQueryCriteria(this);
   }
 
+  public List<HistoricProcessInstance> listAfter(Object lastSortValue, String lastId, int pageSize) {
+    return listPageAfter(lastSortValue, lastId, pageSize);
+  }
+
   public List<HistoricProcessInstance> executeList(CommandContext commandContext, Page page) {
     checkQueryOk();
     ensureVariablesInitialized();
@@ -590,10 +607,42 @@ public class HistoricProcessInstanceQueryImpl extends AbstractVariableQueryImpl<
     for (HistoricProcessInstance processInstance : results) {
       localize(processInstance, commandContext);
     }
+    if (includedProcessVariableNames != null && !includeProcessVariables) {
+      fetchIncludedProcessVariables(commandContext, results);
+    }
     
     return results;
   }
+  
+  @Override
+  public void executeStream(final CommandContext commandContext, final QueryResultHandler<? super HistoricProcessInstance> resultHandler) {
+    if (includeProcessVariables || includedProcessVariableNames != null) {
+      // the variables are added to the complete result, which can't be combined with streaming
+      super.executeStream(commandContext, resultHandler);
+      return;
+    }
+    
+    checkQueryOk();
+    ensureVariablesInitialized();
+    commandContext.getHistoricProcessInstanceEntityManager().findHistoricProcessInstancesByQueryCriteria(this, new QueryResultHandler<HistoricProcessInstance>() {
+      public void handleResult(HistoricProcessInstance processInstance) {
+        localize(processInstance, commandContext);
+        resultHandler.handleResult(processInstance);
+      }
+    });
+  }
 
+  protected void fetchIncludedProcessVariables(CommandContext commandContext, List<HistoricProcessInstance> results) {
+    new IncludedProcessVariablesFetcher.HistoricVariables<HistoricProcessInstance>(includedProcessVariableNames) {
+      protected String getProcessInstanceId(HistoricProcessInstance result) {
+        return result.getId();
+      }
+      protected List<HistoricVariableInstanceEntity> getQueryVariables(HistoricProcessInstance result) {
+        return ((HistoricProcessInstanceEntity) result).getQueryVariables();
+      }
+    }.fetchVariables(commandContext, results);
+  }
+  
   protected void localize(HistoricProcessInstance processInstance, CommandContext commandContext) {
     processInstance.setLocalizedName(null);
     processInstance.setLocalizedDescription(null);
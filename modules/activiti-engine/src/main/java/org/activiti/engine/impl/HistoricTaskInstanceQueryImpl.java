@@ -14,6 +14,7 @@
 package org.activiti.engine.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -24,9 +25,14 @@ import org.activiti.engine.history.HistoricTaskInstance;
 import org.activiti.engine.history.HistoricTaskInstanceQuery;
 import org.activiti.engine.identity.Group;
 import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.identity.GroupMembershipCache;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.GroupIdentityManager;
+import org.activiti.engine.impl.persistence.entity.HistoricTaskInstanceEntity;
+import org.activiti.engine.impl.persistence.entity.HistoricVariableInstanceEntity;
 import org.activiti.engine.impl.variable.VariableTypes;
+import org.activiti.engine.query.QueryResultHandler;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -104,6 +110,7 @@ public class HistoricTaskInstanceQueryImpl extends AbstractVariableQueryImpl<His
   protected boolean withLocalizationFallback;
   protected boolean includeTaskLocalVariables = false;
   protected boolean includeProcessVariables = false;
+  protected List<String> includedProcessVariableNames;
   protected List<HistoricTaskInstanceQueryImpl> orQueryObjects = new ArrayList<HistoricTaskInstanceQueryImpl>();
   protected HistoricTaskInstanceQueryImpl currentOrQueryObject = null;
   protected boolean inOrStatement = false;
@@ -129,6 +136,10 @@ public class HistoricTaskInstanceQueryImpl extends AbstractVariableQueryImpl<His
       .findHistoricTaskInstanceCountByQueryCriteria(this);
   }
 
+  public List<HistoricTaskInstance> listAfter(Object lastSortValue, String lastId, int pageSize) {
+    return listPageAfter(lastSortValue, lastId, pageSize);
+  }
+
   @Override
   public List<HistoricTaskInstance> executeList(CommandContext commandContext, Page page) {
     ensureVariablesInitialized();
@@ -148,11 +159,43 @@ public class HistoricTaskInstanceQueryImpl extends AbstractVariableQueryImpl<His
       for (HistoricTaskInstance task : tasks) {
         localize(task);
       }
+      if (includedProcessVariableNames != null && !includeProcessVariables) {
+        fetchIncludedProcessVariables(commandContext, tasks);
+      }
     }
     
     return tasks;
   }
   
+  @Override
+  public void executeStream(CommandContext commandContext, final QueryResultHandler<? super HistoricTaskInstance> resultHandler) {
+    if (includeTaskLocalVariables || includeProcessVariables || includedProcessVariableNames != null) {
+      // the variables are added to the complete result, which can't be combined with streaming
+      super.executeStream(commandContext, resultHandler);
+      return;
+    }
+    
+    ensureVariablesInitialized();
+    checkQueryOk();
+    commandContext.getHistoricTaskInstanceEntityManager().findHistoricTaskInstancesByQueryCriteria(this, new QueryResultHandler<HistoricTaskInstance>() {
+      public void handleResult(HistoricTaskInstance task) {
+        localize(task);
+        resultHandler.handleResult(task);
+      }
+    });
+  }
+  
+  protected void fetchIncludedProcessVariables(CommandContext commandContext, List<HistoricTaskInstance> results) {
+    new IncludedProcessVariablesFetcher.HistoricVariables<HistoricTaskInstance>(includedProcessVariableNames) {
+      protected String getProcessInstanceId(HistoricTaskInstance result) {
+        return result.getProcessInstanceId();
+      }
+      protected List<HistoricVariableInstanceEntity> getQueryVariables(HistoricTaskInstance result) {
+        return ((HistoricTaskInstanceEntity) result).getQueryVariables();
+      }
+    }.fetchVariables(commandContext, results);
+  }
+  
   protected void localize(HistoricTaskInstance task) {
     task.setLocalizedName(null);
     task.setLocalizedDescription(null);
@@ -1099,6 +1142,14 @@ public class HistoricTaskInstanceQueryImpl extends AbstractVariableQueryImpl<His
     return this;
   }
   
+  public HistoricTaskInstanceQuery includeProcessVariables(String... variableNames) {
+    if (variableNames == null || variableNames.length == 0) {
+      throw new ActivitiIllegalArgumentException("Variable names is null or empty");
+    }
+    this.includedProcessVariableNames = Arrays.asList(variableNames);
+    return this;
+  }
+  
   public HistoricTaskInstanceQuery or() {
     if (inOrStatement) {
       throw new ActivitiException("the query is already in an or statement");
@@ -1265,10 +1316,13 @@ public class HistoricTaskInstanceQueryImpl extends AbstractVariableQueryImpl<His
   protected List<String> getGroupsForCandidateUser(String candidateUser) {
     // TODO: Discuss about removing this feature? Or document it properly and maybe recommend to not use it
     // and explain alternatives
-    List<Group> groups = Context
-      .getCommandContext()
-      .getGroupIdentityManager()
-      .findGroupsByUser(candidateUser);
+    GroupIdentityManager groupIdentityManager = Context.getCommandContext().getGroupIdentityManager();
+    GroupMembershipCache groupMembershipCache = Context.getProcessEngineConfiguration().getGroupMembershipCache();
+    if (groupMembershipCache != null) {
+      return groupMembershipCache.getGroupIds(candidateUser, groupIdentityManager);
+    }
+    
+    List<Group> groups = groupIdentityManager.findGroupsByUser(candidateUser);
     List<String> groupIds = new ArrayList<String>();
     for (Group group : groups) {
       groupIds.add(group.getId());
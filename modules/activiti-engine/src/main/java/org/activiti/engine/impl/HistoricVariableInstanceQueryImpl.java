@@ -26,6 +26,7 @@ import org.activiti.engine.impl.variable.CacheableVariable;
 import org.activiti.engine.impl.variable.JPAEntityListVariableType;
 import org.activiti.engine.impl.variable.JPAEntityVariableType;
 import org.activiti.engine.impl.variable.VariableTypes;
+import org.activiti.engine.query.QueryResultHandler;
 
 /**
  * @author Christian Lipphardt (camunda)
@@ -196,21 +197,40 @@ public class HistoricVariableInstanceQueryImpl extends AbstractQuery<HistoricVar
     
     if (excludeVariableInitialization == false) {
       for (HistoricVariableInstance historicVariableInstance: historicVariableInstances) {
-        if (historicVariableInstance instanceof HistoricVariableInstanceEntity) {
-          HistoricVariableInstanceEntity variableEntity = (HistoricVariableInstanceEntity) historicVariableInstance;
-          if(variableEntity != null && variableEntity.getVariableType() != null) {
-            variableEntity.getValue();
-            
-            // make sure JPA entities are cached for later retrieval
-            if (JPAEntityVariableType.TYPE_NAME.equals(variableEntity.getVariableType().getTypeName()) || JPAEntityListVariableType.TYPE_NAME.equals(variableEntity.getVariableType().getTypeName())) {
-              ((CacheableVariable) variableEntity.getVariableType()).setForceCacheable(true);
-            }
-          }
-        }
+        initializeVariable(historicVariableInstance);
       }
     }
     return historicVariableInstances;
   }
+  
+  @Override
+  public void executeStream(CommandContext commandContext, final QueryResultHandler<? super HistoricVariableInstance> resultHandler) {
+    checkQueryOk();
+    ensureVariablesInitialized();
+    
+    commandContext.getHistoricVariableInstanceEntityManager().findHistoricVariableInstancesByQueryCriteria(this, new QueryResultHandler<HistoricVariableInstance>() {
+      public void handleResult(HistoricVariableInstance historicVariableInstance) {
+        if (excludeVariableInitialization == false) {
+          initializeVariable(historicVariableInstance);
+        }
+        resultHandler.handleResult(historicVariableInstance);
+      }
+    });
+  }
+  
+  protected void initializeVariable(HistoricVariableInstance historicVariableInstance) {
+    if (historicVariableInstance instanceof HistoricVariableInstanceEntity) {
+      HistoricVariableInstanceEntity variableEntity = (HistoricVariableInstanceEntity) historicVariableInstance;
+      if(variableEntity != null && variableEntity.getVariableType() != null) {
+        variableEntity.getValue();
+        
+        // make sure JPA entities are cached for later retrieval
+        if (JPAEntityVariableType.TYPE_NAME.equals(variableEntity.getVariableType().getTypeName()) || JPAEntityListVariableType.TYPE_NAME.equals(variableEntity.getVariableType().getTypeName())) {
+          ((CacheableVariable) variableEntity.getVariableType()).setForceCacheable(true);
+        }
+      }
+    }
+  }
 
   // order by /////////////////////////////////////////////////////////////////
 
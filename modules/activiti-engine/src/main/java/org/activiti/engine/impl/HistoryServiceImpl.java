@@ -20,6 +20,7 @@ import org.activiti.engine.HistoryService;
 import org.activiti.engine.history.HistoricActivityInstanceQuery;
 import org.activiti.engine.history.HistoricDetailQuery;
 import org.activiti.engine.history.HistoricIdentityLink;
+import org.activiti.engine.history.HistoricProcessInstanceDeleteBuilder;
 import org.activiti.engine.history.HistoricProcessInstanceQuery;
 import org.activiti.engine.history.HistoricTaskInstanceQuery;
 import org.activiti.engine.history.HistoricVariableInstanceQuery;
@@ -86,6 +87,10 @@ public class HistoryServiceImpl extends ServiceImpl implements HistoryService {
   public void deleteHistoricProcessInstance(String processInstanceId) {
     commandExecutor.execute(new DeleteHistoricProcessInstanceCmd(processInstanceId));
   }
+  
+  public HistoricProcessInstanceDeleteBuilder createHistoricProcessInstanceDeleteBuilder() {
+    return new HistoricProcessInstanceDeleteBuilderImpl(commandExecutor, processEngineConfiguration.getHistoryCleanupChunkSize());
+  }
 
   public NativeHistoricProcessInstanceQuery createNativeHistoricProcessInstanceQuery() {
     return new NativeHistoricProcessInstanceQueryImpl(commandExecutor);
@@ -0,0 +1,110 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.HistoricVariableInstanceEntity;
+import org.activiti.engine.impl.persistence.entity.VariableInstanceEntity;
+
+/**
+ * Fetches the process variables named in includeProcessVariables(String...) of a query for all of its results
+ * with a single set-based query, instead of joining them into the result rows, and adds them to the query
+ * variables of the results.
+ * 
+ * @param <R> the type of the query results
+ * @param <V> the type of the fetched variables
+ */
+public abstract class IncludedProcessVariablesFetcher<R, V> {
+  
+  protected Collection<String> variableNames;
+  
+  public IncludedProcessVariablesFetcher(Collection<String> variableNames) {
+    this.variableNames = variableNames;
+  }
+  
+  public void fetchVariables(CommandContext commandContext, List<R> results) {
+    Map<String, List<R>> resultsByProcessInstanceId = new HashMap<String, List<R>>();
+    for (R result : results) {
+      String processInstanceId = getProcessInstanceId(result);
+      if (processInstanceId != null) {
+        List<R> processInstanceResults = resultsByProcessInstanceId.get(processInstanceId);
+        if (processInstanceResults == null) {
+          processInstanceResults = new ArrayList<R>();
+          resultsByProcessInstanceId.put(processInstanceId, processInstanceResults);
+        }
+        processInstanceResults.add(result);
+      }
+    }
+    
+    if (!resultsByProcessInstanceId.isEmpty()) {
+      for (V variable : findVariables(commandContext, resultsByProcessInstanceId.keySet())) {
+        for (R result : resultsByProcessInstanceId.get(getVariableProcessInstanceId(variable))) {
+          getQueryVariables(result).add(variable);
+        }
+      }
+    }
+  }
+  
+  protected abstract String getProcessInstanceId(R result);
+  
+  protected abstract List<V> getQueryVariables(R result);
+  
+  protected abstract List<V> findVariables(CommandContext commandContext, Collection<String> processInstanceIds);
+  
+  protected abstract String getVariableProcessInstanceId(V variable);
+  
+  /**
+   * Fetches the variables of running process instances.
+   */
+  public abstract static class RuntimeVariables<R> extends IncludedProcessVariablesFetcher<R, VariableInstanceEntity> {
+    
+    public RuntimeVariables(Collection<String> variableNames) {
+      super(variableNames);
+    }
+    
+    protected List<VariableInstanceEntity> findVariables(CommandContext commandContext, Collection<String> processInstanceIds) {
+      return commandContext.getVariableInstanceEntityManager()
+          .findProcessVariableInstancesByProcessInstanceIdsAndNames(processInstanceIds, variableNames);
+    }
+    
+    protected String getVariableProcessInstanceId(VariableInstanceEntity variable) {
+      return variable.getExecutionId();
+    }
+  }
+  
+  /**
+   * Fetches the historic variables of process instances.
+   */
+  public abstract static class HistoricVariables<R> extends IncludedProcessVariablesFetcher<R, HistoricVariableInstanceEntity> {
+    
+    public HistoricVariables(Collection<String> variableNames) {
+      super(variableNames);
+    }
+    
+    protected List<HistoricVariableInstanceEntity> findVariables(CommandContext commandContext, Collection<String> processInstanceIds) {
+      return commandContext.getHistoricVariableInstanceEntityManager()
+          .findHistoricProcessVariableInstancesByProcessInstanceIdsAndNames(processInstanceIds, variableNames);
+    }
+    
+    protected String getVariableProcessInstanceId(HistoricVariableInstanceEntity variable) {
+      return variable.getExecutionId();
+    }
+  }
+
+}
@@ -0,0 +1,82 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.activiti.engine.ActivitiIllegalArgumentException;
+import org.activiti.engine.impl.cmd.DeleteJobsCmd;
+import org.activiti.engine.impl.cmd.GetJobIdsCmd;
+import org.activiti.engine.impl.cmd.SetJobsRetriesCmd;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.runtime.JobBatchBuilder;
+
+public class JobBatchBuilderImpl implements JobBatchBuilder {
+  
+  protected CommandExecutor commandExecutor;
+  
+  protected JobQueryImpl jobQuery;
+  protected int chunkSize;
+  protected Long dueDateInterval;
+  
+  public JobBatchBuilderImpl(CommandExecutor commandExecutor, JobQueryImpl jobQuery, int chunkSize) {
+    if (jobQuery == null) {
+      throw new ActivitiIllegalArgumentException("jobQuery is null");
+    }
+    this.commandExecutor = commandExecutor;
+    this.jobQuery = jobQuery;
+    this.chunkSize = chunkSize;
+  }
+
+  public JobBatchBuilder chunkSize(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new ActivitiIllegalArgumentException("chunkSize must be positive");
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  public JobBatchBuilder staggerDueDates(long intervalInMillis) {
+    if (intervalInMillis < 0) {
+      throw new ActivitiIllegalArgumentException("intervalInMillis must not be negative");
+    }
+    this.dueDateInterval = intervalInMillis;
+    return this;
+  }
+
+  public long setRetries(int retries) {
+    if (retries < 0) {
+      throw new ActivitiIllegalArgumentException("The number of job retries must be a non-negative Integer, but '" + retries + "' has been provided.");
+    }
+    List<String> jobIds = commandExecutor.execute(new GetJobIdsCmd(jobQuery));
+    long nrOfUpdatedJobs = 0;
+    for (int fromIndex = 0; fromIndex < jobIds.size(); fromIndex += chunkSize) {
+      List<String> chunk = new ArrayList<String>(jobIds.subList(fromIndex, Math.min(fromIndex + chunkSize, jobIds.size())));
+      Long dueDateDelay = dueDateInterval != null ? (fromIndex / chunkSize) * dueDateInterval : null;
+      nrOfUpdatedJobs += commandExecutor.execute(new SetJobsRetriesCmd(chunk, retries, dueDateDelay));
+    }
+    return nrOfUpdatedJobs;
+  }
+
+  public long delete() {
+    List<String> jobIds = commandExecutor.execute(new GetJobIdsCmd(jobQuery));
+    long nrOfDeletedJobs = 0;
+    for (int fromIndex = 0; fromIndex < jobIds.size(); fromIndex += chunkSize) {
+      List<String> chunk = new ArrayList<String>(jobIds.subList(fromIndex, Math.min(fromIndex + chunkSize, jobIds.size())));
+      nrOfDeletedJobs += commandExecutor.execute(new DeleteJobsCmd(chunk));
+    }
+    return nrOfDeletedJobs;
+  }
+
+}
@@ -19,6 +19,7 @@ import java.util.Map;
 import org.activiti.engine.ActivitiIllegalArgumentException;
 import org.activiti.engine.ManagementService;
 import org.activiti.engine.event.EventLogEntry;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.cmd.CancelJobCmd;
 import org.activiti.engine.impl.cmd.CustomSqlExecution;
 import org.activiti.engine.impl.cmd.DeleteEventLogEntry;
@@ -38,6 +39,7 @@ import org.activiti.engine.impl.interceptor.CommandConfig;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.management.TableMetaData;
 import org.activiti.engine.management.TablePageQuery;
+import org.activiti.engine.runtime.JobBatchBuilder;
 import org.activiti.engine.runtime.JobQuery;
 
 
@@ -48,6 +50,14 @@ import org.activiti.engine.runtime.JobQuery;
  * @author Saeid Mizaei
  */
 public class ManagementServiceImpl extends ServiceImpl implements ManagementService {
+  
+  public ManagementServiceImpl() {
+    
+  }
+  
+  public ManagementServiceImpl(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    super(processEngineConfiguration);
+  }
 
   public Map<String, Long> getTableCount() {
     return commandExecutor.execute(new GetTableCountCmd());
@@ -80,6 +90,12 @@ public class ManagementServiceImpl extends ServiceImpl implements ManagementServ
   public JobQuery createJobQuery() {
     return new JobQueryImpl(commandExecutor);
   }
+  
+  public JobBatchBuilder createJobBatchBuilder(JobQuery jobQuery) {
+    int chunkSize = processEngineConfiguration != null ? processEngineConfiguration.getBatchOperationChunkSize() 
+            : ProcessEngineConfigurationImpl.DEFAULT_BATCH_OPERATION_CHUNK_SIZE;
+    return new JobBatchBuilderImpl(commandExecutor, (JobQueryImpl) jobQuery, chunkSize);
+  }
 
   public String getJobExceptionStacktrace(String jobId) {
     return commandExecutor.execute(new GetJobExceptionStacktraceCmd(jobId));
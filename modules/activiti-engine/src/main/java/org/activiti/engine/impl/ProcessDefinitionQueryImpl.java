@@ -21,6 +21,7 @@ import org.activiti.engine.ActivitiException;
 import org.activiti.engine.ActivitiIllegalArgumentException;
 import org.activiti.engine.identity.Group;
 import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.identity.GroupMembershipCache;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
 import org.activiti.engine.impl.persistence.entity.SuspensionState;
@@ -289,6 +290,10 @@ public class ProcessDefinitionQueryImpl extends AbstractQuery<ProcessDefinitionQ
     // Simmilar behaviour as the TaskQuery.taskCandidateUser() which includes the groups the candidate
     // user is part of
     if(authorizationUserId != null) {
+      GroupMembershipCache groupMembershipCache = Context.getProcessEngineConfiguration().getGroupMembershipCache();
+      if (groupMembershipCache != null) {
+        return groupMembershipCache.getGroupIds(authorizationUserId, Context.getCommandContext().getGroupIdentityManager());
+      }
       List<Group> groups = Context
               .getCommandContext()
               .getGroupIdentityManager()
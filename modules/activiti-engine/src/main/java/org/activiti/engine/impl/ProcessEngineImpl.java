@@ -12,8 +12,10 @@
  */
 package org.activiti.engine.impl;
 
+import java.sql.SQLException;
 import java.util.Map;
 
+import org.activiti.engine.ActivitiOptimisticLockingException;
 import org.activiti.engine.DynamicBpmnService;
 import org.activiti.engine.FormService;
 import org.activiti.engine.HistoryService;
@@ -29,10 +31,12 @@ import org.activiti.engine.delegate.event.impl.ActivitiEventBuilder;
 import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.cfg.TransactionContextFactory;
+import org.activiti.engine.impl.cmd.ScheduleHistoryCleanupCmd;
 import org.activiti.engine.impl.el.ExpressionManager;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
 import org.activiti.engine.impl.interceptor.SessionFactory;
 import org.activiti.engine.impl.jobexecutor.JobExecutor;
+import org.apache.ibatis.exceptions.PersistenceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,6 +82,10 @@ public class ProcessEngineImpl implements ProcessEngine {
     this.transactionContextFactory = processEngineConfiguration.getTransactionContextFactory();
     
     commandExecutor.execute(processEngineConfiguration.getSchemaCommandConfig(), new SchemaOperationsProcessEngineBuild());
+    
+    if (processEngineConfiguration.getHistoryRetentionPolicies() != null && !processEngineConfiguration.getHistoryRetentionPolicies().isEmpty()) {
+      scheduleHistoryCleanup();
+    }
 
     if (name == null) {
       log.info("default activiti ProcessEngine created");
@@ -103,6 +111,41 @@ public class ProcessEngineImpl implements ProcessEngine {
     		ActivitiEventBuilder.createGlobalEvent(ActivitiEventType.ENGINE_CREATED));
   }
   
+  protected void scheduleHistoryCleanup() {
+    try {
+      commandExecutor.execute(new ScheduleHistoryCleanupCmd(0, true));
+    } catch (ActivitiOptimisticLockingException e) {
+      scheduleHistoryCleanupAgain(e);
+    } catch (PersistenceException e) {
+      if (!isConstraintViolation(e)) {
+        throw e;
+      }
+      scheduleHistoryCleanupAgain(e);
+    }
+  }
+  
+  protected void scheduleHistoryCleanupAgain(RuntimeException e) {
+    // another process engine scheduled the timer at the same time: once its transaction 
+    // is committed, the timer it scheduled is found and no second one is created
+    log.info("Scheduling the history cleanup timer failed, checking again: {}", e.getMessage());
+    commandExecutor.execute(new ScheduleHistoryCleanupCmd(0, true));
+  }
+  
+  /**
+   * Returns true if the exception is caused by an integrity constraint violation, the SQL state class 23.
+   */
+  protected boolean isConstraintViolation(Throwable exception) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException) {
+        String sqlState = ((SQLException) cause).getSQLState();
+        if (sqlState != null && sqlState.startsWith("23")) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+  
   public void close() {
     ProcessEngines.unregister(this);
     if (jobExecutor != null && jobExecutor.isActive()) {
@@ -112,6 +155,11 @@ public class ProcessEngineImpl implements ProcessEngine {
     if (asyncExecutor != null && asyncExecutor.isActive()) {
       asyncExecutor.shutdown();
     }
+    
+    if (processEngineConfiguration.isShutdownConcurrentServiceTaskExecutorService() 
+            && processEngineConfiguration.getConcurrentServiceTaskExecutorService() != null) {
+      processEngineConfiguration.getConcurrentServiceTaskExecutorService().shutdown();
+    }
 
     commandExecutor.execute(processEngineConfiguration.getSchemaCommandConfig(), new SchemaOperationProcessEngineClose());
     
@@ -15,6 +15,7 @@ package org.activiti.engine.impl;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
@@ -26,6 +27,7 @@ import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
 import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
 import org.activiti.engine.impl.persistence.entity.SuspensionState;
+import org.activiti.engine.impl.persistence.entity.VariableInstanceEntity;
 import org.activiti.engine.runtime.ProcessInstance;
 import org.activiti.engine.runtime.ProcessInstanceQuery;
 
@@ -63,6 +65,7 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
   protected String involvedUser;
   protected SuspensionState suspensionState;
   protected boolean includeProcessVariables;
+  protected List<String> includedProcessVariableNames;
   protected boolean withJobException;
   protected String name;
   protected String nameLike;
@@ -362,6 +365,14 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
     return this;
   }
   
+  public ProcessInstanceQuery includeProcessVariables(String... variableNames) {
+    if (variableNames == null || variableNames.length == 0) {
+      throw new ActivitiIllegalArgumentException("Variable names is null or empty");
+    }
+    this.includedProcessVariableNames = Arrays.asList(variableNames);
+    return this;
+  }
+  
   public ProcessInstanceQuery withJobException() {
     this.withJobException = true;
     return this;
@@ -577,6 +588,10 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
       .findProcessInstanceCountByQueryCriteria(this);
   }
 
+  public List<ProcessInstance> listAfter(Object lastSortValue, String lastId, int pageSize) {
+    return listPageAfter(lastSortValue, lastId, pageSize);
+  }
+
   public List<ProcessInstance> executeList(CommandContext commandContext, Page page) {
     checkQueryOk();
     ensureVariablesInitialized();
@@ -590,6 +605,9 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
     for (ProcessInstance processInstance : processInstances) {
       localize(processInstance);
     }
+    if (includedProcessVariableNames != null && !includeProcessVariables) {
+      fetchIncludedProcessVariables(commandContext, processInstances);
+    }
     
     return processInstances;
   }
@@ -603,6 +621,17 @@ public class ProcessInstanceQueryImpl extends AbstractVariableQueryImpl<ProcessI
     }
   }
   
+  protected void fetchIncludedProcessVariables(CommandContext commandContext, List<ProcessInstance> results) {
+    new IncludedProcessVariablesFetcher.RuntimeVariables<ProcessInstance>(includedProcessVariableNames) {
+      protected String getProcessInstanceId(ProcessInstance result) {
+        return result.getId();
+      }
+      protected List<VariableInstanceEntity> getQueryVariables(ProcessInstance result) {
+        return ((ExecutionEntity) result).getQueryVariables();
+      }
+    }.fetchVariables(commandContext, results);
+  }
+  
   protected void localize(ProcessInstance processInstance) {
     ExecutionEntity processInstanceExecution = (ExecutionEntity) processInstance;
     processInstanceExecution.setLocalizedName(null);
@@ -24,6 +24,7 @@ import org.activiti.engine.delegate.event.ActivitiEvent;
 import org.activiti.engine.delegate.event.ActivitiEventListener;
 import org.activiti.engine.delegate.event.ActivitiEventType;
 import org.activiti.engine.form.FormData;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.cmd.ActivateProcessInstanceCmd;
 import org.activiti.engine.impl.cmd.AddEventListenerCommand;
 import org.activiti.engine.impl.cmd.AddIdentityLinkForProcessInstanceCmd;
@@ -51,11 +52,13 @@ import org.activiti.engine.impl.cmd.StartProcessInstanceByMessageCmd;
 import org.activiti.engine.impl.cmd.StartProcessInstanceCmd;
 import org.activiti.engine.impl.cmd.SuspendProcessInstanceCmd;
 import org.activiti.engine.impl.persistence.entity.VariableInstance;
+import org.activiti.engine.impl.runtime.ProcessInstanceBatchBuilderImpl;
 import org.activiti.engine.impl.runtime.ProcessInstanceBuilderImpl;
 import org.activiti.engine.runtime.ExecutionQuery;
 import org.activiti.engine.runtime.NativeExecutionQuery;
 import org.activiti.engine.runtime.NativeProcessInstanceQuery;
 import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.runtime.ProcessInstanceBatchBuilder;
 import org.activiti.engine.runtime.ProcessInstanceBuilder;
 import org.activiti.engine.runtime.ProcessInstanceQuery;
 import org.activiti.engine.task.Event;
@@ -68,6 +71,14 @@ import org.activiti.engine.task.IdentityLinkType;
  */
 public class RuntimeServiceImpl extends ServiceImpl implements RuntimeService {
   
+  public RuntimeServiceImpl() {
+    
+  }
+  
+  public RuntimeServiceImpl(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    super(processEngineConfiguration);
+  }
+  
   public ProcessInstance startProcessInstanceByKey(String processDefinitionKey) {
     return commandExecutor.execute(new StartProcessInstanceCmd<ProcessInstance>(processDefinitionKey, null, null, null));
   }
@@ -459,4 +470,10 @@ public class RuntimeServiceImpl extends ServiceImpl implements RuntimeService {
   public ProcessInstance startProcessInstance(ProcessInstanceBuilderImpl processInstanceBuilder){
     return commandExecutor.execute(new StartProcessInstanceCmd<ProcessInstance>(processInstanceBuilder));
   }
+  
+  public ProcessInstanceBatchBuilder createProcessInstanceBatchBuilder() {
+    int chunkSize = processEngineConfiguration != null ? processEngineConfiguration.getBatchOperationChunkSize() 
+            : ProcessEngineConfigurationImpl.DEFAULT_BATCH_OPERATION_CHUNK_SIZE;
+    return new ProcessInstanceBatchBuilderImpl(commandExecutor, chunkSize);
+  }
 }
@@ -13,6 +13,7 @@
 package org.activiti.engine.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -21,9 +22,13 @@ import org.activiti.engine.ActivitiIllegalArgumentException;
 import org.activiti.engine.DynamicBpmnConstants;
 import org.activiti.engine.identity.Group;
 import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.identity.GroupMembershipCache;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.GroupIdentityManager;
 import org.activiti.engine.impl.persistence.entity.SuspensionState;
+import org.activiti.engine.impl.persistence.entity.TaskEntity;
+import org.activiti.engine.impl.persistence.entity.VariableInstanceEntity;
 import org.activiti.engine.impl.variable.VariableTypes;
 import org.activiti.engine.task.DelegationState;
 import org.activiti.engine.task.Task;
@@ -101,6 +106,7 @@ public class TaskQueryImpl extends AbstractVariableQueryImpl<TaskQuery, Task> im
   protected boolean excludeSubtasks = false;
   protected boolean includeTaskLocalVariables = false;
   protected boolean includeProcessVariables = false;
+  protected List<String> includedProcessVariableNames;
   protected String userIdForCandidateAndAssignee;
   protected boolean bothCandidateAndAssigned = false;
   protected String locale;
@@ -1093,6 +1099,14 @@ public class TaskQueryImpl extends AbstractVariableQueryImpl<TaskQuery, Task> im
     return this;
   }
 
+  public TaskQuery includeProcessVariables(String... variableNames) {
+    if (variableNames == null || variableNames.length == 0) {
+      throw new ActivitiIllegalArgumentException("Variable names is null or empty");
+    }
+    this.includedProcessVariableNames = Arrays.asList(variableNames);
+    return this;
+  }
+
   public List<String> getCandidateGroups() {
     if (candidateGroup != null) {
       List<String> candidateGroupList = new ArrayList<String>(1);
@@ -1111,10 +1125,13 @@ public class TaskQueryImpl extends AbstractVariableQueryImpl<TaskQuery, Task> im
   protected List<String> getGroupsForCandidateUser(String candidateUser) {
     // TODO: Discuss about removing this feature? Or document it properly and maybe recommend to not use it
     // and explain alternatives
-    List<Group> groups = Context
-      .getCommandContext()
-      .getGroupIdentityManager()
-      .findGroupsByUser(candidateUser);
+    GroupIdentityManager groupIdentityManager = Context.getCommandContext().getGroupIdentityManager();
+    GroupMembershipCache groupMembershipCache = Context.getProcessEngineConfiguration().getGroupMembershipCache();
+    if (groupMembershipCache != null) {
+      return groupMembershipCache.getGroupIds(candidateUser, groupIdentityManager);
+    }
+    
+    List<Group> groups = groupIdentityManager.findGroupsByUser(candidateUser);
     List<String> groupIds = new ArrayList<String>();
     for (Group group : groups) {
       groupIds.add(group.getId());
@@ -1240,6 +1257,10 @@ public class TaskQueryImpl extends AbstractVariableQueryImpl<TaskQuery, Task> im
     return specialOrderBy;
   }
   
+  public List<Task> listAfter(Object lastSortValue, String lastId, int pageSize) {
+    return listPageAfter(lastSortValue, lastId, pageSize);
+  }
+
   //results ////////////////////////////////////////////////////////////////
 
   public List<Task> executeList(CommandContext commandContext, Page page) {
@@ -1260,6 +1281,9 @@ public class TaskQueryImpl extends AbstractVariableQueryImpl<TaskQuery, Task> im
       for (Task task : tasks) {
         localize(task);
       }
+      if (includedProcessVariableNames != null && !includeProcessVariables) {
+        fetchIncludedProcessVariables(commandContext, tasks);
+      }
     }
     
     return tasks;
@@ -1273,6 +1297,17 @@ public class TaskQueryImpl extends AbstractVariableQueryImpl<TaskQuery, Task> im
       .findTaskCountByQueryCriteria(this);
   }
 
+  protected void fetchIncludedProcessVariables(CommandContext commandContext, List<Task> results) {
+    new IncludedProcessVariablesFetcher.RuntimeVariables<Task>(includedProcessVariableNames) {
+      protected String getProcessInstanceId(Task result) {
+        return result.getProcessInstanceId();
+      }
+      protected List<VariableInstanceEntity> getQueryVariables(Task result) {
+        return ((TaskEntity) result).getQueryVariables();
+      }
+    }.fetchVariables(commandContext, results);
+  }
+  
   protected void localize(Task task) {
     task.setLocalizedName(null);
     task.setLocalizedDescription(null);
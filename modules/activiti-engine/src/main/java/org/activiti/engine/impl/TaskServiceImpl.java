@@ -26,7 +26,9 @@ import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.cmd.AddCommentCmd;
 import org.activiti.engine.impl.cmd.AddIdentityLinkCmd;
 import org.activiti.engine.impl.cmd.ClaimTaskCmd;
+import org.activiti.engine.impl.cmd.ClaimTasksCmd;
 import org.activiti.engine.impl.cmd.CompleteTaskCmd;
+import org.activiti.engine.impl.cmd.CompleteTasksCmd;
 import org.activiti.engine.impl.cmd.CreateAttachmentCmd;
 import org.activiti.engine.impl.cmd.DelegateTaskCmd;
 import org.activiti.engine.impl.cmd.DeleteAttachmentCmd;
@@ -57,6 +59,8 @@ import org.activiti.engine.impl.cmd.SaveTaskCmd;
 import org.activiti.engine.impl.cmd.SetTaskDueDateCmd;
 import org.activiti.engine.impl.cmd.SetTaskPriorityCmd;
 import org.activiti.engine.impl.cmd.SetTaskVariablesCmd;
+import org.activiti.engine.impl.cmd.TaskBatchCmd;
+import org.activiti.engine.impl.task.TaskBatchResultImpl;
 import org.activiti.engine.task.Attachment;
 import org.activiti.engine.task.Comment;
 import org.activiti.engine.task.Event;
@@ -64,6 +68,7 @@ import org.activiti.engine.task.IdentityLink;
 import org.activiti.engine.task.IdentityLinkType;
 import org.activiti.engine.task.NativeTaskQuery;
 import org.activiti.engine.task.Task;
+import org.activiti.engine.task.TaskBatchResult;
 import org.activiti.engine.task.TaskQuery;
 
 
@@ -182,6 +187,46 @@ public class TaskServiceImpl extends ServiceImpl implements TaskService {
   public void complete(String taskId, Map<String, Object> variables,boolean localScope) {
   	commandExecutor.execute(new CompleteTaskCmd(taskId, variables, localScope));
   }
+  
+  public List<TaskBatchResult> claimTasks(List<String> taskIds, String userId) {
+    return executeTaskBatch(new ClaimTasksCmd(taskIds, userId));
+  }
+  
+  public List<TaskBatchResult> completeTasks(List<String> taskIds, Map<String, Object> variables) {
+    return executeTaskBatch(new CompleteTasksCmd(taskIds, variables));
+  }
+  
+  /**
+   * Executes the batch command chunk by chunk. When a chunk fails, its tasks are processed again 
+   * one by one, each in its own transaction, to find out which tasks fail.
+   */
+  protected List<TaskBatchResult> executeTaskBatch(TaskBatchCmd taskBatchCmd) {
+    List<String> taskIds = taskBatchCmd.getTaskIds();
+    int chunkSize = processEngineConfiguration != null ? processEngineConfiguration.getBatchOperationChunkSize() 
+            : ProcessEngineConfigurationImpl.DEFAULT_BATCH_OPERATION_CHUNK_SIZE;
+    
+    List<TaskBatchResult> results = new ArrayList<TaskBatchResult>(taskIds.size());
+    for (int fromIndex = 0; fromIndex < taskIds.size(); fromIndex += chunkSize) {
+      List<String> chunk = new ArrayList<String>(taskIds.subList(fromIndex, Math.min(fromIndex + chunkSize, taskIds.size())));
+      try {
+        commandExecutor.execute(taskBatchCmd.forTaskIds(chunk));
+        for (String taskId : chunk) {
+          results.add(new TaskBatchResultImpl(taskId, null));
+        }
+        
+      } catch (RuntimeException e) {
+        for (String taskId : chunk) {
+          try {
+            commandExecutor.execute(taskBatchCmd.createTaskCmd(taskId));
+            results.add(new TaskBatchResultImpl(taskId, null));
+          } catch (RuntimeException taskException) {
+            results.add(new TaskBatchResultImpl(taskId, taskException));
+          }
+        }
+      }
+    }
+    return results;
+  }
 
   public void delegateTask(String taskId, String userId) {
     commandExecutor.execute(new DelegateTaskCmd(taskId, userId));
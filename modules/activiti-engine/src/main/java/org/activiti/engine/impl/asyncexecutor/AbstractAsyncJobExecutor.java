@@ -12,14 +12,19 @@
  */
 package org.activiti.engine.impl.asyncexecutor;
 
+import java.util.Date;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.UUID;
 
 import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.interceptor.Command;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics;
+import org.activiti.engine.impl.metrics.DefaultAsyncExecutorMetrics;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.runtime.ClockReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +47,8 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
   protected Thread asyncJobAcquisitionThread;
   protected AcquireTimerJobsRunnable timerJobRunnable;
   protected AcquireAsyncJobsDueRunnable asyncJobsDueRunnable;
+  protected Thread timerJobWheelThread;
+  protected TimerJobWheel timerJobWheel;
   
   protected ExecuteAsyncRunnableFactory executeAsyncRunnableFactory;
   
@@ -59,6 +66,25 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
   protected int asyncJobLockTimeInMillis = 5 * 60 * 1000;
   protected int retryWaitTimeInMillis = 500;
   
+  /**
+   * Timer jobs that are due within this amount of time (in milliseconds) are acquired ahead of their due date
+   * and kept in memory, in the {@link TimerJobWheel}, until they are due. Should be larger than
+   * the timer acquire wait time, so that every timer is in the wheel before it becomes due.
+   * Default setting is 0, meaning timer jobs are only acquired once they are due.
+   */
+  protected int timerLookAheadTimeInMillis = 0;
+  
+  /** The precision (in milliseconds) with which timer jobs in the {@link TimerJobWheel} fire */
+  protected long timerWheelTickDurationInMillis = 100L;
+  
+  /** The number of buckets of the {@link TimerJobWheel} */
+  protected int timerWheelSize = 512;
+  
+  protected ClockReader clockReader;
+  
+  /** The registry in which job acquisition and execution is recorded. Default a {@link DefaultAsyncExecutorMetrics} */
+  protected AsyncExecutorMetrics asyncExecutorMetrics;
+  
   // Job queue used when async executor is not yet started and jobs are already added.
   // This is mainly used for testing purpose.
   protected LinkedList<JobEntity> temporaryJobQueue = new LinkedList<JobEntity>();
@@ -70,6 +96,7 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
       Runnable runnable = createRunnableForJob(job);
       boolean result = executeAsyncJob(runnable);
       if (!result) {
+        asyncExecutorMetrics.recordRejectedJob();
         doUnlockJob(job);
       }
       return result; // false indicates that the job was rejected.
@@ -80,6 +107,27 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
   }
 
   protected abstract boolean executeAsyncJob(Runnable runnable);
+  
+  public boolean scheduleTimerJob(JobEntity job) {
+    long delay = 0L;
+    if (job.getDuedate() != null) {
+      delay = job.getDuedate().getTime() - getCurrentTime().getTime();
+    }
+    
+    // Only the id of a job is kept in the wheel: the job is read again and locked when it fires
+    TimerJobWheel wheel = timerJobWheel;
+    if (delay <= 0L && job.getLockOwner() != null) {
+      return executeAsyncJob(job);
+    } else if (isActive && wheel != null) {
+      wheel.schedule(job.getId(), delay);
+      return true;
+    } else {
+      if (job.getLockOwner() != null) {
+        doUnlockTimerJob(job.getId());
+      }
+      return false;
+    }
+  }
 
   protected void doUnlockJob(final JobEntity job) {
     // The job will now be 'unlocked', meaning that the lock owner/time is set to null,
@@ -106,8 +154,29 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
     commandContext.getJobEntityManager().unacquireJob(job.getId());
   }
   
+  protected void doUnlockTimerJob(final String jobId) {
+    // Contrary to unlocking a job, the due date must be kept here: the timer is not due yet
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext != null) {
+      commandContext.getJobEntityManager().unlockTimerJob(jobId, lockOwner);
+    } else {
+      commandExecutor.execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          commandContext.getJobEntityManager().unlockTimerJob(jobId, lockOwner);
+          return null;
+        }
+      });
+    }
+  }
+  
   protected Runnable createRunnableForJob(JobEntity job) {
-    return executeAsyncRunnableFactory.createExecuteAsyncRunnable(job, commandExecutor);
+    Runnable runnable = executeAsyncRunnableFactory.createExecuteAsyncRunnable(job, commandExecutor);
+    if (runnable instanceof ExecuteAsyncRunnable) {
+      ExecuteAsyncRunnable executeAsyncRunnable = (ExecuteAsyncRunnable) runnable;
+      executeAsyncRunnable.setAsyncExecutorMetrics(asyncExecutorMetrics);
+      executeAsyncRunnable.setClockReader(clockReader);
+    }
+    return runnable;
   }
   
   /** Starts the async executor */
@@ -119,6 +188,7 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
     log.info("Starting up the default async job executor [{}].", getClass().getName());
     initialize();
     startExecutingAsyncJobs();
+    startTimerJobWheel();
     
     isActive = true;
         
@@ -139,6 +209,12 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
     if (executeAsyncRunnableFactory == null) {
       executeAsyncRunnableFactory = new DefaultExecuteAsyncRunnableFactory();
     }
+    if (asyncExecutorMetrics == null) {
+      asyncExecutorMetrics = new DefaultAsyncExecutorMetrics();
+    }
+    if (timerJobWheel == null && timerLookAheadTimeInMillis > 0) {
+      timerJobWheel = new TimerJobWheel(this, timerWheelTickDurationInMillis, timerWheelSize);
+    }
   }
   
   /** Shuts down the whole job executor */
@@ -149,6 +225,7 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
     log.info("Shutting down the default async job executor [{}].", getClass().getName());
     timerJobRunnable.stop();
     asyncJobsDueRunnable.stop();
+    stopTimerJobWheel();
     stopExecutingAsyncJobs();
     
     timerJobRunnable = null;
@@ -191,6 +268,48 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
     asyncJobAcquisitionThread = null;
   }
   
+  /** Starts the thread of the timer job wheel, if timer look-ahead is enabled */
+  protected void startTimerJobWheel() {
+    if (timerJobWheel != null) {
+      if (timerJobWheelThread == null) {
+        timerJobWheelThread = new Thread(timerJobWheel);
+      }
+      timerJobWheelThread.start();
+    }
+  }
+  
+  /** Stops the timer job wheel and releases the timer jobs that did not fire yet */
+  protected void stopTimerJobWheel() {
+    if (timerJobWheel == null) {
+      return;
+    }
+    
+    timerJobWheel.stop();
+    try {
+      if (timerJobWheelThread != null) {
+        timerJobWheelThread.join();
+      }
+    } catch (InterruptedException e) {
+      log.warn("Interrupted while waiting for the timer job wheel thread to terminate", e);
+    }
+    
+    List<String> pendingTimerJobIds = timerJobWheel.drain();
+    for (String jobId : pendingTimerJobIds) {
+      try {
+        doUnlockTimerJob(jobId);
+      } catch (Throwable e) {
+        log.warn("Could not unlock timer job " + jobId + ", it will be acquired again after its lock expires", e);
+      }
+    }
+    
+    timerJobWheelThread = null;
+    timerJobWheel = null;
+  }
+  
+  protected Date getCurrentTime() {
+    return clockReader != null ? clockReader.getCurrentTime() : new Date();
+  }
+  
   /* getters and setters */ 
   
   public CommandExecutor getCommandExecutor() {
@@ -301,6 +420,42 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
     this.retryWaitTimeInMillis = retryWaitTimeInMillis;
   }
 
+  public int getTimerLookAheadTimeInMillis() {
+    return timerLookAheadTimeInMillis;
+  }
+
+  public void setTimerLookAheadTimeInMillis(int timerLookAheadTimeInMillis) {
+    this.timerLookAheadTimeInMillis = timerLookAheadTimeInMillis;
+  }
+
+  public long getTimerWheelTickDurationInMillis() {
+    return timerWheelTickDurationInMillis;
+  }
+
+  public void setTimerWheelTickDurationInMillis(long timerWheelTickDurationInMillis) {
+    this.timerWheelTickDurationInMillis = timerWheelTickDurationInMillis;
+  }
+
+  public int getTimerWheelSize() {
+    return timerWheelSize;
+  }
+
+  public void setTimerWheelSize(int timerWheelSize) {
+    this.timerWheelSize = timerWheelSize;
+  }
+
+  public TimerJobWheel getTimerJobWheel() {
+    return timerJobWheel;
+  }
+
+  public ClockReader getClockReader() {
+    return clockReader;
+  }
+
+  public void setClockReader(ClockReader clockReader) {
+    this.clockReader = clockReader;
+  }
+
   public ExecuteAsyncRunnableFactory getExecuteAsyncRunnableFactory() {
     return executeAsyncRunnableFactory;
   }
@@ -308,4 +463,12 @@ public abstract class AbstractAsyncJobExecutor implements AsyncExecutor {
   public void setExecuteAsyncRunnableFactory(ExecuteAsyncRunnableFactory executeAsyncRunnableFactory) {
     this.executeAsyncRunnableFactory = executeAsyncRunnableFactory;
   }
+
+  public AsyncExecutorMetrics getAsyncExecutorMetrics() {
+    return asyncExecutorMetrics;
+  }
+
+  public void setAsyncExecutorMetrics(AsyncExecutorMetrics asyncExecutorMetrics) {
+    this.asyncExecutorMetrics = asyncExecutorMetrics;
+  }
 }
@@ -17,6 +17,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.activiti.engine.ActivitiOptimisticLockingException;
 import org.activiti.engine.impl.cmd.AcquireAsyncJobsDueCmd;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics.AcquisitionType;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +65,7 @@ public class AcquireAsyncJobsDueRunnable implements Runnable {
         // Otherwise, we set the wait time to 0, as to query again immediately.
         millisToWait = asyncExecutor.getDefaultAsyncJobAcquireWaitTimeInMillis();
         int jobsAcquired = acquiredJobs.size();
+        asyncExecutor.getAsyncExecutorMetrics().recordAcquisition(AcquisitionType.ASYNC, jobsAcquired);
         if (jobsAcquired >= asyncExecutor.getMaxAsyncJobsDuePerAcquisition()) {
           millisToWait = 0; 
         }
@@ -74,6 +76,7 @@ public class AcquireAsyncJobsDueRunnable implements Runnable {
         }
 
       } catch (ActivitiOptimisticLockingException optimisticLockingException) { 
+        asyncExecutor.getAsyncExecutorMetrics().recordAcquisitionConflict(AcquisitionType.ASYNC);
         if (log.isDebugEnabled()) {
           log.debug("Optimistic locking exception during async job acquisition. If you have multiple async executors running against the same database, " +
               "this exception means that this thread tried to acquire a due async job, which already was acquired by another async executor acquisition thread." +
@@ -17,6 +17,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.activiti.engine.ActivitiOptimisticLockingException;
 import org.activiti.engine.impl.cmd.AcquireTimerJobsCmd;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics.AcquisitionType;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,13 +50,16 @@ public class AcquireTimerJobsRunnable implements Runnable {
     while (!isInterrupted) {
       
       try {
+        int lookAheadTimeInMillis = asyncExecutor.getTimerLookAheadTimeInMillis();
         AcquiredJobEntities acquiredJobs = commandExecutor.execute(new AcquireTimerJobsCmd(
             asyncExecutor.getLockOwner(), asyncExecutor.getTimerLockTimeInMillis(), 
-            asyncExecutor.getMaxTimerJobsPerAcquisition()));
+            asyncExecutor.getMaxTimerJobsPerAcquisition(), lookAheadTimeInMillis));
         
         boolean allJobsSuccessfullyOffered = true; 
         for (JobEntity job : acquiredJobs.getJobs()) {
-          boolean jobSuccessFullyOffered = asyncExecutor.executeAsyncJob(job);
+          
+          // With look-ahead, acquired timers can still be in the future: these are kept in memory until due
+          boolean jobSuccessFullyOffered = lookAheadTimeInMillis > 0 ? asyncExecutor.scheduleTimerJob(job) : asyncExecutor.executeAsyncJob(job);
           if (!jobSuccessFullyOffered) {
             allJobsSuccessfullyOffered = false;
           }
@@ -64,6 +68,7 @@ public class AcquireTimerJobsRunnable implements Runnable {
         // if all jobs were executed
         millisToWait = asyncExecutor.getDefaultTimerJobAcquireWaitTimeInMillis();
         int jobsAcquired = acquiredJobs.size();
+        asyncExecutor.getAsyncExecutorMetrics().recordAcquisition(AcquisitionType.TIMER, jobsAcquired);
         if (jobsAcquired >= asyncExecutor.getMaxTimerJobsPerAcquisition()) {
           millisToWait = 0; 
         }
@@ -74,6 +79,7 @@ public class AcquireTimerJobsRunnable implements Runnable {
         }
 
       } catch (ActivitiOptimisticLockingException optimisticLockingException) { 
+        asyncExecutor.getAsyncExecutorMetrics().recordAcquisitionConflict(AcquisitionType.TIMER);
         if (log.isDebugEnabled()) {
           log.debug("Optimistic locking exception during timer job acquisition. If you have multiple timer executors running against the same database, " +
               "this exception means that this thread tried to acquire a timer job, which already was acquired by another timer executor acquisition thread." +
@@ -13,6 +13,7 @@
 package org.activiti.engine.impl.asyncexecutor;
 
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
 
 /**
@@ -38,6 +39,15 @@ public interface AsyncExecutor {
    */
   boolean executeAsyncJob(JobEntity job);
   
+  /**
+   * Offers a timer {@link JobEntity}, which is due soon, to this {@link AsyncExecutor} instance. 
+   * The job will be read again and executed once its due date is reached, unless it has been locked
+   * by another {@link AsyncExecutor} in the meantime. Jobs which are already due and locked by this
+   * {@link AsyncExecutor} are executed right away.
+   * If the offering does not work for some reason, false will be returned and the job is unlocked again.
+   */
+  boolean scheduleTimerJob(JobEntity job);
+  
   
   /* Getters and Setters */
   
@@ -81,8 +91,18 @@ public interface AsyncExecutor {
   
   void setMaxTimerJobsPerAcquisition(int maxJobs);
   
+  int getTimerLookAheadTimeInMillis();
+  
+  void setTimerLookAheadTimeInMillis(int lookAheadTimeInMillis);
+  
   int getRetryWaitTimeInMillis();
   
   void setRetryWaitTimeInMillis(int retryWaitTimeInMillis);
   
+  /**
+   * Returns the registry in which the job acquisition and execution of this {@link AsyncExecutor} is recorded.
+   * Only available once the {@link AsyncExecutor} is started.
+   */
+  AsyncExecutorMetrics getAsyncExecutorMetrics();
+  
 }
@@ -62,10 +62,6 @@ public class DefaultAsyncJobExecutor extends AbstractAsyncJobExecutor {
     }
   }
   
-  protected Runnable createRunnableForJob(final JobEntity job) {
-    return executeAsyncRunnableFactory.createExecuteAsyncRunnable(job, commandExecutor);
-  }
- 
   protected void unlockJob(final JobEntity job, CommandContext commandContext) {
     commandContext.getJobEntityManager().unacquireJob(job.getId());
   }
@@ -106,6 +102,23 @@ public class DefaultAsyncJobExecutor extends AbstractAsyncJobExecutor {
     executorService = null;
   }
   
+  /**
+   * @return the number of jobs waiting in the queue of the thread pool, 0 if the async executor is not started
+   */
+  public int getThreadPoolQueueDepth() {
+    BlockingQueue<Runnable> queue = threadPoolQueue;
+    return queue != null ? queue.size() : 0;
+  }
+  
+  /**
+   * @return the number of threads that are executing jobs, 0 if the async executor is not started
+   *         or if a custom executor service is used
+   */
+  public int getActiveThreadCount() {
+    ExecutorService executor = executorService;
+    return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getActiveCount() : 0;
+  }
+  
   public int getQueueSize() {
     return queueSize;
   }
@@ -24,7 +24,9 @@ import org.activiti.engine.impl.interceptor.CommandConfig;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
 import org.activiti.engine.impl.jobexecutor.FailedJobCommandFactory;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.runtime.ClockReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +40,8 @@ public class ExecuteAsyncRunnable implements Runnable {
 
   protected JobEntity job;
   protected CommandExecutor commandExecutor;
+  protected AsyncExecutorMetrics asyncExecutorMetrics;
+  protected ClockReader clockReader;
 
   public ExecuteAsyncRunnable(JobEntity job, CommandExecutor commandExecutor) {
     this.job = job;
@@ -91,11 +95,16 @@ public class ExecuteAsyncRunnable implements Runnable {
   }
   
   protected void executeJob() {
+    long waitTimeInMillis = getWaitTimeInMillis();
+    long startTime = System.nanoTime();
     try {
       commandExecutor.execute(new ExecuteAsyncJobCmd(job));
+      recordJobExecution(waitTimeInMillis, startTime, false);
       
     } catch (final ActivitiOptimisticLockingException e) {
       
+      // the failure handling isn't part of the duration of the job
+      recordJobExecution(waitTimeInMillis, startTime, true);
       handleFailedJob(e);
       
       if (log.isDebugEnabled()) {
@@ -107,6 +116,7 @@ public class ExecuteAsyncRunnable implements Runnable {
       }
       
     } catch (Throwable exception) {
+      recordJobExecution(waitTimeInMillis, startTime, true);
       handleFailedJob(exception);
        
       // Finally, Throw the exception to indicate the ExecuteAsyncJobCmd failed
@@ -114,6 +124,31 @@ public class ExecuteAsyncRunnable implements Runnable {
       log.error(message, exception);
     }
   }
+  
+  protected void recordJobExecution(long waitTimeInMillis, long startTime, boolean failed) {
+    if (asyncExecutorMetrics != null) {
+      asyncExecutorMetrics.recordJobExecution(job.getJobHandlerType(), waitTimeInMillis, 
+          (System.nanoTime() - startTime) / 1000L, failed, isRetry());
+    }
+  }
+  
+  /**
+   * Returns true if an earlier execution of the job failed, which stored its exception on the job.
+   */
+  protected boolean isRetry() {
+    return job.getExceptionMessage() != null || job.getExceptionByteArrayRef().getId() != null;
+  }
+  
+  /**
+   * Returns the time between the due date of the job and now, which is 0 for jobs without due date.
+   */
+  protected long getWaitTimeInMillis() {
+    if (job.getDuedate() == null) {
+      return 0L;
+    }
+    long now = clockReader != null ? clockReader.getCurrentTime().getTime() : System.currentTimeMillis();
+    return Math.max(0L, now - job.getDuedate().getTime());
+  }
 
   protected void unlockJobIfNeeded() {
     try {
@@ -163,4 +198,20 @@ public class ExecuteAsyncRunnable implements Runnable {
       
     });
   }
+
+  public AsyncExecutorMetrics getAsyncExecutorMetrics() {
+    return asyncExecutorMetrics;
+  }
+
+  public void setAsyncExecutorMetrics(AsyncExecutorMetrics asyncExecutorMetrics) {
+    this.asyncExecutorMetrics = asyncExecutorMetrics;
+  }
+
+  public ClockReader getClockReader() {
+    return clockReader;
+  }
+
+  public void setClockReader(ClockReader clockReader) {
+    this.clockReader = clockReader;
+  }
 }
@@ -0,0 +1,252 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.asyncexecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.impl.cmd.AcquireDueTimerJobCmd;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timing wheel that keeps the ids of timer jobs which are due soon in memory, 
+ * and hands the jobs to the {@link AsyncExecutor} once they are due.
+ *
+ * The wheel consists of a fixed number of buckets, each covering one tick. A job is placed in the bucket
+ * of the tick on which it expires, together with the number of full wheel rotations that still need to pass.
+ * Scheduling a job is constant time: new jobs are put on a concurrent queue and moved into their bucket
+ * by the wheel thread on the next tick, so the buckets themselves are only ever touched by that thread.
+ *
+ * Jobs fire with a precision of one tick, instead of one timer acquisition cycle.
+ * When a job fires, it is read again and only executed when it still exists and 
+ * is not locked by another async executor (see {@link AcquireDueTimerJobCmd}).
+ */
+public class TimerJobWheel implements Runnable {
+
+  private static Logger log = LoggerFactory.getLogger(TimerJobWheel.class);
+
+  protected final AsyncExecutor asyncExecutor;
+  protected final long tickDurationInMillis;
+  protected final List<LinkedList<WheelEntry>> buckets;
+  protected final int mask;
+
+  protected final Queue<WheelEntry> newEntries = new ConcurrentLinkedQueue<WheelEntry>();
+  protected final Set<String> scheduledJobIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  protected volatile boolean isInterrupted = false;
+  protected final Object MONITOR = new Object();
+
+  protected long startTime;
+  protected long tick = 0;
+
+  /**
+   * @param tickDurationInMillis the precision with which timers fire
+   * @param wheelSize the number of buckets, rounded up to the next power of two
+   */
+  public TimerJobWheel(AsyncExecutor asyncExecutor, long tickDurationInMillis, int wheelSize) {
+    if (tickDurationInMillis <= 0) {
+      throw new IllegalArgumentException("tickDurationInMillis must be greater than 0");
+    }
+    if (wheelSize <= 0) {
+      throw new IllegalArgumentException("wheelSize must be greater than 0");
+    }
+    this.asyncExecutor = asyncExecutor;
+    this.tickDurationInMillis = tickDurationInMillis;
+
+    int normalizedWheelSize = 1;
+    while (normalizedWheelSize < wheelSize) {
+      normalizedWheelSize <<= 1;
+    }
+    this.buckets = new ArrayList<LinkedList<WheelEntry>>(normalizedWheelSize);
+    for (int i = 0; i < normalizedWheelSize; i++) {
+      buckets.add(new LinkedList<WheelEntry>());
+    }
+    this.mask = normalizedWheelSize - 1;
+    this.startTime = System.nanoTime();
+  }
+
+  /**
+   * Adds the job with the given id to the wheel. It will be offered to the async executor
+   * after the given delay has passed (rounded up to the next tick).
+   * 
+   * @return false if the job is already in the wheel
+   */
+  public boolean schedule(String jobId, long delayInMillis) {
+    if (!scheduledJobIds.add(jobId)) {
+      return false;
+    }
+    long deadline = elapsedMillis() + Math.max(0L, delayInMillis);
+    newEntries.add(new WheelEntry(jobId, deadline));
+    return true;
+  }
+
+  public void run() {
+    log.info("starting timer job wheel with tick duration {} ms and {} buckets", tickDurationInMillis, buckets.size());
+
+    while (!isInterrupted) {
+      waitForNextTick();
+      if (isInterrupted) {
+        break;
+      }
+
+      transferNewEntries();
+      expireEntries(buckets.get((int) (tick & mask)));
+      tick++;
+    }
+
+    log.info("stopped timer job wheel");
+  }
+
+  protected void waitForNextTick() {
+    long deadline = tickDurationInMillis * (tick + 1);
+    long millisToWait = deadline - elapsedMillis();
+    while (millisToWait > 0 && !isInterrupted) {
+      try {
+        synchronized (MONITOR) {
+          if (!isInterrupted) {
+            MONITOR.wait(millisToWait);
+          }
+        }
+      } catch (InterruptedException e) {
+        if (log.isDebugEnabled()) {
+          log.debug("timer job wheel wait interrupted");
+        }
+      }
+      millisToWait = deadline - elapsedMillis();
+    }
+  }
+
+  protected void transferNewEntries() {
+    WheelEntry entry = newEntries.poll();
+    while (entry != null) {
+      long expirationTick = entry.deadline / tickDurationInMillis;
+      entry.remainingRounds = (expirationTick - tick) / buckets.size();
+
+      // jobs that are already overdue end up in the current bucket
+      long bucketTick = Math.max(expirationTick, tick);
+      buckets.get((int) (bucketTick & mask)).add(entry);
+
+      entry = newEntries.poll();
+    }
+  }
+
+  protected void expireEntries(LinkedList<WheelEntry> bucket) {
+    Iterator<WheelEntry> iterator = bucket.iterator();
+    while (iterator.hasNext()) {
+      WheelEntry entry = iterator.next();
+      if (entry.remainingRounds <= 0) {
+        iterator.remove();
+        scheduledJobIds.remove(entry.jobId);
+        fire(entry.jobId);
+      } else {
+        entry.remainingRounds--;
+      }
+    }
+  }
+
+  protected void fire(String jobId) {
+    try {
+      JobEntity job = asyncExecutor.getCommandExecutor().execute(new AcquireDueTimerJobCmd(jobId, 
+          asyncExecutor.getLockOwner(), asyncExecutor.getTimerLockTimeInMillis()));
+      if (job == null) {
+        return;
+      }
+      
+      if (log.isDebugEnabled()) {
+        log.debug("timer job {} is due, offering it to the async executor", jobId);
+      }
+      // The due date could have been changed in the meantime, in which case the job is scheduled again
+      asyncExecutor.scheduleTimerJob(job);
+      
+    } catch (ActivitiOptimisticLockingException e) {
+      if (log.isDebugEnabled()) {
+        log.debug("timer job {} was acquired by another async executor", jobId);
+      }
+    } catch (Throwable e) {
+      log.error("exception while offering timer job " + jobId + " to the async executor", e);
+    }
+  }
+
+  /**
+   * Stops the wheel thread. Must be followed by {@link #drain()} once the thread has terminated.
+   */
+  public void stop() {
+    synchronized (MONITOR) {
+      isInterrupted = true;
+      MONITOR.notifyAll();
+    }
+  }
+
+  /**
+   * Removes all jobs that did not fire yet from the wheel and returns their ids,
+   * so they can be unlocked and picked up again by any async executor.
+   */
+  public List<String> drain() {
+    List<String> jobIds = new ArrayList<String>();
+    for (LinkedList<WheelEntry> bucket : buckets) {
+      for (WheelEntry entry : bucket) {
+        jobIds.add(entry.jobId);
+      }
+      bucket.clear();
+    }
+    WheelEntry entry = newEntries.poll();
+    while (entry != null) {
+      jobIds.add(entry.jobId);
+      entry = newEntries.poll();
+    }
+    scheduledJobIds.clear();
+    return jobIds;
+  }
+
+  protected long elapsedMillis() {
+    return (System.nanoTime() - startTime) / 1000000L;
+  }
+
+  /**
+   * @return the number of jobs currently waiting in the wheel
+   */
+  public int size() {
+    return scheduledJobIds.size();
+  }
+
+  public long getTickDurationInMillis() {
+    return tickDurationInMillis;
+  }
+
+  public int getWheelSize() {
+    return buckets.size();
+  }
+
+  protected static class WheelEntry {
+
+    protected final String jobId;
+    protected final long deadline;
+    protected long remainingRounds;
+
+    public WheelEntry(String jobId, long deadline) {
+      this.jobId = jobId;
+      this.deadline = deadline;
+    }
+  }
+
+}
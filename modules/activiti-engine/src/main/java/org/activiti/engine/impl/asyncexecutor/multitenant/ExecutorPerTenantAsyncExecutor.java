@@ -21,6 +21,7 @@ import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
 import org.activiti.engine.impl.asyncexecutor.DefaultAsyncJobExecutor;
 import org.activiti.engine.impl.cfg.multitenant.TenantInfoHolder;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -96,6 +97,10 @@ public class ExecutorPerTenantAsyncExecutor implements TenantAwareAsyncExecutor
   public boolean executeAsyncJob(JobEntity job) {
     return determineAsyncExecutor().executeAsyncJob(job);
   }
+  
+  public boolean scheduleTimerJob(JobEntity job) {
+    return determineAsyncExecutor().scheduleTimerJob(job);
+  }
 
   public void setCommandExecutor(CommandExecutor commandExecutor) {
     this.commandExecutor = commandExecutor;
@@ -216,6 +221,16 @@ public class ExecutorPerTenantAsyncExecutor implements TenantAwareAsyncExecutor
     }
   }
 
+  public int getTimerLookAheadTimeInMillis() {
+    return determineAsyncExecutor().getTimerLookAheadTimeInMillis();
+  }
+
+  public void setTimerLookAheadTimeInMillis(int lookAheadTimeInMillis) {
+    for (AsyncExecutor asyncExecutor : tenantExecutors.values()) {
+      asyncExecutor.setTimerLookAheadTimeInMillis(lookAheadTimeInMillis);
+    }
+  }
+
   public int getRetryWaitTimeInMillis() {
     return determineAsyncExecutor().getRetryWaitTimeInMillis();
   }
@@ -226,4 +241,8 @@ public class ExecutorPerTenantAsyncExecutor implements TenantAwareAsyncExecutor
     }
   }
 
+  public AsyncExecutorMetrics getAsyncExecutorMetrics() {
+    return determineAsyncExecutor().getAsyncExecutorMetrics();
+  }
+
 }
@@ -0,0 +1,269 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.asyncexecutor.multitenant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.impl.asyncexecutor.AcquiredJobEntities;
+import org.activiti.engine.impl.cfg.multitenant.TenantInfoHolder;
+import org.activiti.engine.impl.cmd.AcquireAsyncJobsDueCmd;
+import org.activiti.engine.impl.cmd.AcquireTimerJobsCmd;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics.AcquisitionType;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Acquires the timer and async jobs of all tenants of a {@link FairSharedAsyncExecutor} in one thread,
+ * using deficit round robin: the tenants take turns, and at the start of its turn a tenant is credited its weight 
+ * times the maximum number of async jobs per acquisition. Jobs are acquired for it as long as it has credit left,
+ * it is below its maximum of concurrent jobs and the thread pool has capacity. 
+ * 
+ * When the thread pool is full, the turn of the current tenant is resumed in the next cycle with the credit it has left,
+ * so every tenant gets its share of the thread pool whatever its position. 
+ * The credit of a tenant without (enough) jobs, or at its maximum of concurrent jobs, is dropped at the end of its turn.
+ */
+public class FairAcquireJobsRunnable implements Runnable {
+
+  private static final Logger log = LoggerFactory.getLogger(FairAcquireJobsRunnable.class);
+
+  protected final FairSharedAsyncExecutor asyncExecutor;
+  protected final TenantInfoHolder tenantInfoHolder;
+
+  protected volatile boolean isInterrupted = false;
+  protected final Object MONITOR = new Object();
+  protected final AtomicBoolean isWaiting = new AtomicBoolean(false);
+  
+  /** Set when the last cycle stopped early because of a lack of capacity, so finished jobs wake up the thread */
+  protected volatile boolean isWaitingForCapacity = false;
+  
+  /** The position of the tenant whose turn it is, and the credit it has left in its turn (if it was credited already) */
+  protected int roundRobinIndex = 0;
+  protected String creditedTenantId;
+  protected int deficit = 0;
+  
+  protected long nextTimerAcquisitionTime = 0L;
+  
+  protected long millisToWait = 0;
+
+  public FairAcquireJobsRunnable(FairSharedAsyncExecutor asyncExecutor, TenantInfoHolder tenantInfoHolder) {
+    this.asyncExecutor = asyncExecutor;
+    this.tenantInfoHolder = tenantInfoHolder;
+  }
+
+  public synchronized void run() {
+    log.info("starting to acquire jobs for all tenants");
+
+    while (!isInterrupted) {
+      
+      try {
+        millisToWait = acquireJobs();
+      } catch (Throwable e) {
+        log.error("exception during job acquisition: {}", e.getMessage(), e);          
+        millisToWait = asyncExecutor.getDefaultAsyncJobAcquireWaitTimeInMillis();
+      }
+
+      if (millisToWait > 0) {
+        try {
+          if (log.isDebugEnabled()) {
+            log.debug("job acquisition thread sleeping for {} millis", millisToWait);
+          }
+          synchronized (MONITOR) {
+            if (!isInterrupted) {
+              isWaiting.set(true);
+              MONITOR.wait(millisToWait);
+            }
+          }
+          
+          if (log.isDebugEnabled()) {
+            log.debug("job acquisition thread woke up");
+          }
+        } catch (InterruptedException e) {
+          if (log.isDebugEnabled()) {
+            log.debug("job acquisition wait interrupted");
+          }
+        } finally {
+          isWaiting.set(false);
+        }
+      }
+    }
+    
+    log.info("stopped job acquisition for all tenants");
+  }
+  
+  /**
+   * Executes one acquisition cycle over all tenants.
+   * @return the time to wait before the next cycle 
+   */
+  protected long acquireJobs() {
+    List<String> tenantIds = new ArrayList<String>(asyncExecutor.getTenantIds());
+    if (tenantIds.isEmpty()) {
+      return asyncExecutor.getDefaultAsyncJobAcquireWaitTimeInMillis();
+    }
+    
+    long now = System.currentTimeMillis();
+    boolean acquireTimerJobs = now >= nextTimerAcquisitionTime;
+    if (acquireTimerJobs) {
+      nextTimerAcquisitionTime = now + asyncExecutor.getDefaultTimerJobAcquireWaitTimeInMillis();
+    }
+    
+    int capacity = asyncExecutor.getAvailableExecutionCapacity();
+    boolean moreJobsAvailable = false;
+    boolean tenantThrottled = false;
+    
+    for (int i = 0; i < tenantIds.size() && capacity > 0; i++) {
+      roundRobinIndex = roundRobinIndex % tenantIds.size();
+      String tenantId = tenantIds.get(roundRobinIndex);
+      TenantJobStatistics statistics = asyncExecutor.getTenantJobStatistics(tenantId);
+      
+      if (!tenantId.equals(creditedTenantId)) {
+        creditedTenantId = tenantId;
+        deficit = asyncExecutor.getTenantWeight(tenantId) * asyncExecutor.getMaxAsyncJobsDuePerAcquisition();
+      }
+      
+      int jobsToAcquire = Math.min(deficit, capacity);
+      int maxConcurrentJobs = asyncExecutor.getTenantMaxConcurrentJobs(tenantId);
+      boolean limitedByMaxConcurrentJobs = false;
+      if (maxConcurrentJobs > 0 && maxConcurrentJobs - statistics.getRunningJobCount() < jobsToAcquire) {
+        jobsToAcquire = maxConcurrentJobs - statistics.getRunningJobCount();
+        limitedByMaxConcurrentJobs = true;
+      }
+      if (jobsToAcquire <= 0) {
+        // the tenant is at its maximum: it is not owed the jobs it could not run 
+        statistics.recordThrottled();
+        tenantThrottled = true;
+        endTurn();
+        continue;
+      }
+      
+      int jobsAcquired = acquireJobs(tenantId, statistics, jobsToAcquire, acquireTimerJobs);
+      capacity -= jobsAcquired;
+      deficit -= jobsAcquired;
+      if (jobsAcquired >= jobsToAcquire) {
+        moreJobsAvailable = true;
+      }
+      
+      // the turn is resumed in the next cycle only if the thread pool is full
+      if (jobsAcquired < jobsToAcquire || deficit <= 0 || limitedByMaxConcurrentJobs) {
+        endTurn();
+      }
+    }
+    
+    isWaitingForCapacity = capacity <= 0 || tenantThrottled;
+    if (moreJobsAvailable && capacity > 0) {
+      return 0L;
+    }
+    return Math.max(1L, Math.min(asyncExecutor.getDefaultAsyncJobAcquireWaitTimeInMillis(), nextTimerAcquisitionTime - now));
+  }
+  
+  protected void endTurn() {
+    roundRobinIndex++;
+    creditedTenantId = null;
+    deficit = 0;
+  }
+  
+  /**
+   * Acquires at most the given number of jobs of one tenant, timer jobs first.
+   * @return the number of jobs that were acquired
+   */
+  protected int acquireJobs(String tenantId, TenantJobStatistics statistics, int maxJobs, boolean acquireTimerJobs) {
+    CommandExecutor commandExecutor = asyncExecutor.getCommandExecutor();
+    int jobsAcquired = 0;
+    
+    tenantInfoHolder.setCurrentTenantId(tenantId);
+    try {
+      if (acquireTimerJobs) {
+        AcquiredJobEntities timerJobs = null;
+        try {
+          timerJobs = commandExecutor.execute(new AcquireTimerJobsCmd(asyncExecutor.getLockOwner(), 
+              asyncExecutor.getTimerLockTimeInMillis(), Math.min(maxJobs, asyncExecutor.getMaxTimerJobsPerAcquisition())));
+        } catch (ActivitiOptimisticLockingException e) {
+          asyncExecutor.getAsyncExecutorMetrics().recordAcquisitionConflict(AcquisitionType.TIMER);
+          log.debug("Optimistic locking exception during timer job acquisition for tenant {}: {}", tenantId, e.getMessage());
+        }
+        if (timerJobs != null) {
+          asyncExecutor.getAsyncExecutorMetrics().recordAcquisition(AcquisitionType.TIMER, timerJobs.size());
+          jobsAcquired += offerJobs(timerJobs);
+        }
+      }
+      
+      if (jobsAcquired < maxJobs) {
+        AcquiredJobEntities asyncJobs = null;
+        try {
+          asyncJobs = commandExecutor.execute(new AcquireAsyncJobsDueCmd(asyncExecutor, maxJobs - jobsAcquired));
+        } catch (ActivitiOptimisticLockingException e) {
+          asyncExecutor.getAsyncExecutorMetrics().recordAcquisitionConflict(AcquisitionType.ASYNC);
+          log.debug("Optimistic locking exception during async job acquisition for tenant {}: {}", tenantId, e.getMessage());
+          
+          // the jobs were taken by another executor, there might be more 
+          return maxJobs;
+        }
+        asyncExecutor.getAsyncExecutorMetrics().recordAcquisition(AcquisitionType.ASYNC, asyncJobs.size());
+        jobsAcquired += offerJobs(asyncJobs);
+      }
+      
+    } catch (Throwable e) {
+      log.error("exception during job acquisition for tenant {}: {}", tenantId, e.getMessage(), e);
+    } finally {
+      tenantInfoHolder.clearCurrentTenantId();
+    }
+    
+    statistics.recordAcquisition(jobsAcquired);
+    return jobsAcquired;
+  }
+  
+  protected int offerJobs(AcquiredJobEntities acquiredJobs) {
+    // jobs that could not be offered are unlocked again, but they still count as acquired, 
+    // so no more jobs are acquired for the tenant in this cycle
+    for (JobEntity job : acquiredJobs.getJobs()) {
+      asyncExecutor.executeAsyncJob(job);
+    }
+    return acquiredJobs.size();
+  }
+  
+  /**
+   * Called when a job finished: wakes up the acquisition thread if it is waiting for a free slot.
+   */
+  public void capacityReleased() {
+    if (isWaitingForCapacity) {
+      isWaitingForCapacity = false;
+      wakeUp();
+    }
+  }
+  
+  public void wakeUp() {
+    synchronized (MONITOR) {
+      if (isWaiting.compareAndSet(true, false)) { 
+        MONITOR.notifyAll();
+      }
+    }
+  }
+
+  public void stop() {
+    synchronized (MONITOR) {
+      isInterrupted = true; 
+      if (isWaiting.compareAndSet(true, false)) { 
+        MONITOR.notifyAll();
+      }
+    }
+  }
+
+  public long getMillisToWait() {
+    return millisToWait;
+  }
+  
+}
@@ -0,0 +1,240 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.asyncexecutor.multitenant;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
+import org.activiti.engine.impl.asyncexecutor.DefaultAsyncJobExecutor;
+import org.activiti.engine.impl.asyncexecutor.ExecuteAsyncRunnableFactory;
+import org.activiti.engine.impl.cfg.multitenant.TenantInfoHolder;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Multi tenant {@link AsyncExecutor}.
+ * 
+ * Contrary to the {@link SharedExecutorServiceAsyncExecutor}, there is only one acquisition thread, 
+ * which acquires the jobs of all tenants in turn (see {@link FairAcquireJobsRunnable}) and offers them
+ * to one shared {@link ExecutorService}. The share of the thread pool every tenant gets is proportional 
+ * to its weight, and the number of jobs that can be running for one tenant can be limited, so that 
+ * a tenant with many jobs can't starve the others.
+ * 
+ * Timer jobs are acquired when they are due, the timer look-ahead setting is not used.
+ */
+public class FairSharedAsyncExecutor extends DefaultAsyncJobExecutor implements TenantAwareAsyncExecutor {
+  
+  private static final Logger logger = LoggerFactory.getLogger(FairSharedAsyncExecutor.class);
+  
+  protected TenantInfoHolder tenantInfoHolder;
+  
+  protected Set<String> tenantIds = Collections.synchronizedSet(new LinkedHashSet<String>());
+  protected Map<String, TenantJobStatistics> tenantJobStatistics = new ConcurrentHashMap<String, TenantJobStatistics>();
+  
+  /** The weight of a tenant without explicit weight */
+  protected int defaultTenantWeight = 1;
+  protected Map<String, Integer> tenantWeights = new ConcurrentHashMap<String, Integer>();
+  
+  /** The maximum number of running jobs of a tenant without explicit maximum. 0 means no limit */
+  protected int defaultTenantMaxConcurrentJobs = 0;
+  protected Map<String, Integer> tenantMaxConcurrentJobs = new ConcurrentHashMap<String, Integer>();
+  
+  protected FairAcquireJobsRunnable fairAcquireJobsRunnable;
+  protected Thread fairAcquisitionThread;
+  
+  public FairSharedAsyncExecutor(TenantInfoHolder tenantInfoHolder) {
+    this.tenantInfoHolder = tenantInfoHolder;
+    
+    setExecuteAsyncRunnableFactory(new ExecuteAsyncRunnableFactory() {
+      
+      public Runnable createExecuteAsyncRunnable(JobEntity jobEntity, CommandExecutor commandExecutor) {
+        
+        // Created by the thread that acquired the job (or created it), which has set the current tenant id
+        
+        return new TenantAwareExecuteAsyncRunnable(jobEntity, commandExecutor, 
+            FairSharedAsyncExecutor.this.tenantInfoHolder, 
+            FairSharedAsyncExecutor.this.tenantInfoHolder.getCurrentTenantId());
+      }
+      
+    });
+  }
+  
+  @Override
+  public Set<String> getTenantIds() {
+    synchronized (tenantIds) {
+      return new LinkedHashSet<String>(tenantIds);
+    }
+  }
+
+  public void addTenantAsyncExecutor(String tenantId, boolean startExecutor) {
+    if (!tenantJobStatistics.containsKey(tenantId)) {
+      tenantJobStatistics.put(tenantId, new TenantJobStatistics(tenantId));
+    }
+    tenantIds.add(tenantId);
+    
+    // the acquisition thread is shared, it picks up the new tenant in its next cycle
+    if (startExecutor && fairAcquireJobsRunnable != null) {
+      fairAcquireJobsRunnable.wakeUp();
+    }
+  }
+
+  public void removeTenantAsyncExecutor(String tenantId) {
+    tenantIds.remove(tenantId);
+  }
+  
+  @Override
+  public boolean executeAsyncJob(JobEntity job) {
+    TenantJobStatistics statistics = isActive ? getTenantJobStatistics(tenantInfoHolder.getCurrentTenantId()) : null;
+    if (statistics == null) {
+      return super.executeAsyncJob(job);
+    }
+    
+    // Jobs that are created in a transaction are offered directly too, so the limit is checked here 
+    if (!statistics.tryStartJob(getTenantMaxConcurrentJobs(statistics.getTenantId()))) {
+      statistics.recordRejectedJob();
+      doUnlockJob(job);
+      return false;
+    }
+    
+    boolean jobOffered = super.executeAsyncJob(job);
+    if (!jobOffered) {
+      statistics.recordRejectedJob();
+      statistics.cancelJob();
+    }
+    return jobOffered;
+  }
+  
+  @Override
+  protected Runnable createRunnableForJob(JobEntity job) {
+    final Runnable runnable = super.createRunnableForJob(job);
+    final TenantJobStatistics statistics = getTenantJobStatistics(tenantInfoHolder.getCurrentTenantId());
+    if (statistics == null) {
+      return runnable;
+    }
+    
+    return new Runnable() {
+      public void run() {
+        try {
+          runnable.run();
+        } finally {
+          statistics.finishJob();
+          FairAcquireJobsRunnable acquireJobsRunnable = fairAcquireJobsRunnable;
+          if (acquireJobsRunnable != null) {
+            acquireJobsRunnable.capacityReleased();
+          }
+        }
+      }
+    };
+  }
+  
+  /**
+   * @return the number of jobs that can still be offered to the thread pool without being rejected: 
+   *         the free slots of the queue and the threads that can still be started
+   */
+  public int getAvailableExecutionCapacity() {
+    if (threadPoolQueue == null) {
+      return Integer.MAX_VALUE;
+    }
+    return threadPoolQueue.remainingCapacity() + Math.max(0, maxPoolSize - getActiveThreadCount());
+  }
+  
+  @Override
+  protected void initialize() {
+    super.initialize();
+    if (fairAcquireJobsRunnable == null) {
+      fairAcquireJobsRunnable = new FairAcquireJobsRunnable(this, tenantInfoHolder);
+    }
+  }
+  
+  @Override
+  protected void startJobAcquisitionThread() {
+    if (fairAcquisitionThread == null) {
+      fairAcquisitionThread = new Thread(fairAcquireJobsRunnable);
+    }
+    fairAcquisitionThread.start();
+  }
+  
+  @Override
+  protected void stopJobAcquisitionThread() {
+    fairAcquireJobsRunnable.stop();
+    try {
+      fairAcquisitionThread.join();
+    } catch (InterruptedException e) {
+      logger.warn("Interrupted while waiting for the job acquisition thread to terminate", e);
+    }
+    fairAcquisitionThread = null;
+    fairAcquireJobsRunnable = null;
+  }
+  
+  // getters and setters //////////////////////////////////////////////////////
+  
+  /**
+   * @return the acquisition and execution counts of the given tenant, null if the tenant is unknown 
+   */
+  public TenantJobStatistics getTenantJobStatistics(String tenantId) {
+    return tenantId != null ? tenantJobStatistics.get(tenantId) : null;
+  }
+  
+  public int getTenantWeight(String tenantId) {
+    Integer weight = tenantWeights.get(tenantId);
+    return weight != null ? weight : defaultTenantWeight;
+  }
+  
+  /**
+   * Sets the weight of a tenant: when several tenants have jobs waiting, a tenant with weight 2 gets 
+   * twice as many jobs acquired in one acquisition cycle as a tenant with weight 1.
+   */
+  public void setTenantWeight(String tenantId, int weight) {
+    if (weight < 1) {
+      throw new IllegalArgumentException("The weight of a tenant must be at least 1");
+    }
+    tenantWeights.put(tenantId, weight);
+  }
+  
+  public int getTenantMaxConcurrentJobs(String tenantId) {
+    Integer maxConcurrentJobs = tenantMaxConcurrentJobs.get(tenantId);
+    return maxConcurrentJobs != null ? maxConcurrentJobs : defaultTenantMaxConcurrentJobs;
+  }
+  
+  /**
+   * Limits the number of jobs of a tenant that are queued or executed in the shared thread pool at the same time.
+   * 0 means no limit. 
+   */
+  public void setTenantMaxConcurrentJobs(String tenantId, int maxConcurrentJobs) {
+    tenantMaxConcurrentJobs.put(tenantId, maxConcurrentJobs);
+  }
+
+  public int getDefaultTenantWeight() {
+    return defaultTenantWeight;
+  }
+
+  public void setDefaultTenantWeight(int defaultTenantWeight) {
+    this.defaultTenantWeight = defaultTenantWeight;
+  }
+
+  public int getDefaultTenantMaxConcurrentJobs() {
+    return defaultTenantMaxConcurrentJobs;
+  }
+
+  public void setDefaultTenantMaxConcurrentJobs(int defaultTenantMaxConcurrentJobs) {
+    this.defaultTenantMaxConcurrentJobs = defaultTenantMaxConcurrentJobs;
+  }
+
+}
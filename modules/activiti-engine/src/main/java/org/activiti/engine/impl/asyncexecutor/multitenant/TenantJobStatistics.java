@@ -0,0 +1,108 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.asyncexecutor.multitenant;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The jobs of one tenant that were acquired and executed by a {@link FairSharedAsyncExecutor}.
+ * Updated by the acquisition thread and the job execution threads concurrently.
+ */
+public class TenantJobStatistics {
+
+  protected final String tenantId;
+  
+  protected final AtomicInteger runningJobCount = new AtomicInteger();
+  protected final AtomicLong acquisitionCount = new AtomicLong();
+  protected final AtomicLong acquiredJobCount = new AtomicLong();
+  protected final AtomicLong executedJobCount = new AtomicLong();
+  protected final AtomicLong rejectedJobCount = new AtomicLong();
+  protected final AtomicLong throttledCount = new AtomicLong();
+  
+  public TenantJobStatistics(String tenantId) {
+    this.tenantId = tenantId;
+  }
+  
+  /**
+   * Reserves a slot for a job of the tenant. 
+   * @return false if the tenant already has the given number of jobs running (0 means no limit)
+   */
+  public boolean tryStartJob(int maxConcurrentJobs) {
+    while (true) {
+      int running = runningJobCount.get();
+      if (maxConcurrentJobs > 0 && running >= maxConcurrentJobs) {
+        return false;
+      }
+      if (runningJobCount.compareAndSet(running, running + 1)) {
+        return true;
+      }
+    }
+  }
+  
+  /** Releases the slot of a job that could not be offered to the thread pool */
+  public void cancelJob() {
+    runningJobCount.decrementAndGet();
+  }
+  
+  /** Releases the slot of a job that was executed (successfully or not) */
+  public void finishJob() {
+    runningJobCount.decrementAndGet();
+    executedJobCount.incrementAndGet();
+  }
+  
+  public void recordAcquisition(int jobsAcquired) {
+    acquisitionCount.incrementAndGet();
+    acquiredJobCount.addAndGet(jobsAcquired);
+  }
+  
+  public void recordRejectedJob() {
+    rejectedJobCount.incrementAndGet();
+  }
+  
+  public void recordThrottled() {
+    throttledCount.incrementAndGet();
+  }
+
+  public String getTenantId() {
+    return tenantId;
+  }
+  
+  /** @return the number of jobs of the tenant that are queued or being executed in the shared thread pool */
+  public int getRunningJobCount() {
+    return runningJobCount.get();
+  }
+
+  public long getAcquisitionCount() {
+    return acquisitionCount.get();
+  }
+
+  public long getAcquiredJobCount() {
+    return acquiredJobCount.get();
+  }
+
+  public long getExecutedJobCount() {
+    return executedJobCount.get();
+  }
+
+  /** @return the number of jobs that were handed to the executor, but not executed because the tenant or the thread pool was at capacity */
+  public long getRejectedJobCount() {
+    return rejectedJobCount.get();
+  }
+  
+  /** @return the number of acquisition cycles in which the tenant was skipped, because it had reached its maximum of concurrent jobs */
+  public long getThrottledCount() {
+    return throttledCount.get();
+  }
+
+}
@@ -0,0 +1,124 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.bpmn.behavior;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import org.activiti.bpmn.model.MapExceptionEntry;
+import org.activiti.engine.delegate.BpmnError;
+import org.activiti.engine.delegate.ConcurrentJavaDelegate;
+import org.activiti.engine.impl.bpmn.helper.ErrorPropagation;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.interceptor.ConcurrentWorkCompletion;
+import org.activiti.engine.impl.pvm.PvmActivity;
+import org.activiti.engine.impl.pvm.delegate.ActivityExecution;
+import org.activiti.engine.impl.pvm.runtime.InterpretableExecution;
+
+
+/**
+ * Service task behavior for a {@link ConcurrentJavaDelegate}. When concurrent service tasks are enabled, 
+ * the delegate runs on the executor service of the process engine configuration. Meanwhile, the other branches
+ * of the process continue up to their own concurrent work or wait state. The execution leaves the service task 
+ * once the outermost operation of the command is done (see {@link org.activiti.engine.impl.interceptor.CommandContext#submitConcurrentWork}).
+ */
+public class ConcurrentJavaDelegateActivityBehavior extends TaskActivityBehavior {
+  
+  protected ConcurrentJavaDelegate concurrentJavaDelegate;
+  protected List<MapExceptionEntry> mapExceptions;
+  
+  public ConcurrentJavaDelegateActivityBehavior(ConcurrentJavaDelegate concurrentJavaDelegate) {
+    this(concurrentJavaDelegate, null);
+  }
+  
+  public ConcurrentJavaDelegateActivityBehavior(ConcurrentJavaDelegate concurrentJavaDelegate, List<MapExceptionEntry> mapExceptions) {
+    this.concurrentJavaDelegate = concurrentJavaDelegate;
+    this.mapExceptions = mapExceptions;
+  }
+
+  public void execute(final ActivityExecution execution) throws Exception {
+    final Map<String, Object> variables = Collections.unmodifiableMap(new HashMap<String, Object>(execution.getVariables()));
+    
+    ExecutorService executorService = Context.getProcessEngineConfiguration().getConcurrentServiceTaskExecutorService();
+    if (executorService == null) {
+      complete(execution, concurrentJavaDelegate.execute(variables));
+      return;
+    }
+    
+    final PvmActivity activity = execution.getActivity();
+    Context.getCommandContext().submitConcurrentWork(executorService, new Callable<Map<String, Object>>() {
+      
+      public Map<String, Object> call() throws Exception {
+        return concurrentJavaDelegate.execute(variables);
+      }
+      
+    }, new ConcurrentWorkCompletion<Map<String, Object>>() {
+      
+      public void completed(Map<String, Object> result) throws Exception {
+        if (isWaiting(execution, activity)) {
+          Context.setExecutionContext((InterpretableExecution) execution);
+          try {
+            complete(execution, result);
+          } finally {
+            Context.removeExecutionContext();
+          }
+        }
+      }
+      
+      public void failed(Throwable exception) throws Exception {
+        if (exception instanceof BpmnError) {
+          if (isWaiting(execution, activity)) {
+            ErrorPropagation.propagateError((BpmnError) exception, execution);
+          }
+        } else if (exception instanceof Exception) {
+          // Same as for a delegate executed in the thread of the command (see ClassDelegate#execute)
+          if (!isWaiting(execution, activity) || !mapException((Exception) exception, execution)) {
+            throw (Exception) exception;
+          }
+        } else {
+          throw (Error) exception;
+        }
+      }
+      
+    });
+  }
+  
+  /**
+   * @return false if the execution was ended or moved on in the meantime, for example by an interrupting 
+   *         event triggered by one of the other branches
+   */
+  protected boolean isWaiting(ActivityExecution execution, PvmActivity activity) {
+    return !execution.isEnded() && execution.getActivity() == activity;
+  }
+  
+  protected boolean mapException(Exception exception, ActivityExecution execution) throws Exception {
+    Context.setExecutionContext((InterpretableExecution) execution);
+    try {
+      return ErrorPropagation.mapException(exception, execution, mapExceptions);
+    } finally {
+      Context.removeExecutionContext();
+    }
+  }
+  
+  protected void complete(ActivityExecution execution, Map<String, Object> variables) throws Exception {
+    if (variables != null) {
+      execution.setVariables(variables);
+    }
+    leave(execution);
+  }
+
+}
@@ -12,6 +12,7 @@
  */
 package org.activiti.engine.impl.bpmn.behavior;
 
+import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
 import org.activiti.engine.impl.pvm.delegate.ActivityExecution;
 
@@ -32,5 +33,19 @@ public abstract class GatewayActivityBehavior extends FlowNodeActivityBehavior {
     }
     ((ExecutionEntity)concurrentRoot).forceUpdate();
   }
+  
+  /**
+   * Locks the database row of the concurrent root right away, without changing it,
+   * so that other executions locking it wait until the current transaction ends.
+   */
+  protected void lockConcurrentRootRow(ActivityExecution execution) {
+    ActivityExecution concurrentRoot = null; 
+    if (execution.isConcurrent()) {
+      concurrentRoot = execution.getParent();
+    } else {
+      concurrentRoot = execution;
+    }
+    Context.getCommandContext().getExecutionEntityManager().lockExecutionRow(concurrentRoot.getId());
+  }
 
 }
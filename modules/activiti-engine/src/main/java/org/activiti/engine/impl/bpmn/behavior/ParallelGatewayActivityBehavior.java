@@ -15,11 +15,13 @@ package org.activiti.engine.impl.bpmn.behavior;
 
 import java.util.List;
 
+import org.activiti.engine.ActivitiOptimisticLockingException;
 import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
 import org.activiti.engine.impl.pvm.PvmActivity;
 import org.activiti.engine.impl.pvm.PvmTransition;
 import org.activiti.engine.impl.pvm.delegate.ActivityExecution;
+import org.activiti.engine.impl.pvm.process.ActivityImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,11 +65,21 @@ public class ParallelGatewayActivityBehavior extends GatewayActivityBehavior {
     PvmActivity activity = execution.getActivity();
     List<PvmTransition> outgoingTransitions = execution.getActivity().getOutgoingTransitions();
     execution.inactivate();
-    lockConcurrentRoot(execution);
+    boolean joinRowLock = Context.getProcessEngineConfiguration().isEnableParallelGatewayJoinRowLock() && execution.isConcurrent();
+    int nbrOfExecutionsCommitted = 0;
+    if (joinRowLock) {
+      lockConcurrentRootRow(execution);
+      nbrOfExecutionsCommitted = lockJoinedExecutions(execution, activity);
+    } else {
+      lockConcurrentRoot(execution);
+    }
     
     List<ActivityExecution> joinedExecutions = execution.findInactiveConcurrentExecutions(activity);
     int nbrOfExecutionsToJoin = execution.getActivity().getIncomingTransitions().size();
     int nbrOfExecutionsJoined = joinedExecutions.size();
+    if (joinRowLock) {
+      verifyJoinedExecutions(execution, activity, nbrOfExecutionsJoined, nbrOfExecutionsCommitted);
+    }
     Context.getCommandContext().getHistoryManager().recordActivityEnd((ExecutionEntity) execution);
     if (nbrOfExecutionsJoined==nbrOfExecutionsToJoin) {
       
@@ -81,5 +93,30 @@ public class ParallelGatewayActivityBehavior extends GatewayActivityBehavior {
       log.debug("parallel gateway '{}' does not activate: {} of {} joined", activity.getId(), nbrOfExecutionsJoined, nbrOfExecutionsToJoin);
     }
   }
+  
+  /**
+   * Once the row of the concurrent root is locked, no other branch can arrive in the gateway until this 
+   * transaction ends, and all branches that arrived before have been committed. The executions of those 
+   * branches may however have been loaded before they were committed: these are read again with a locking read,
+   * which sees their committed state, and the command is retried when a loaded execution is stale. 
+   * 
+   * @return the number of executions that arrived in the gateway before
+   */
+  protected int lockJoinedExecutions(ActivityExecution execution, PvmActivity activity) {
+    return Context.getCommandContext().getExecutionEntityManager()
+        .lockInactiveConcurrentExecutionsInActivity(execution.getParent().getId(), (ActivityImpl) activity);
+  }
+  
+  /**
+   * Should an execution that arrived before still not be joined, the join would be missed, 
+   * so the command is retried instead.
+   */
+  protected void verifyJoinedExecutions(ActivityExecution execution, PvmActivity activity, int nbrOfExecutionsJoined, int nbrOfExecutionsCommitted) {
+    // the execution itself is not flushed yet
+    if (nbrOfExecutionsCommitted > nbrOfExecutionsJoined - 1) {
+      throw new ActivitiOptimisticLockingException("Executions that arrived in parallel gateway '" + activity.getId() 
+          + "' were loaded before they were committed", ExecutionEntity.class, execution.getProcessInstanceId());
+    }
+  }
 
 }
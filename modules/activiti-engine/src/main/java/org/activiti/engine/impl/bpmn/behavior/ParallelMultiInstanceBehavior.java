@@ -13,10 +13,22 @@
 package org.activiti.engine.impl.bpmn.behavior;
 
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
 import java.util.List;
 
 import org.activiti.engine.ActivitiIllegalArgumentException;
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.ProcessEngineConfiguration;
+import org.activiti.engine.delegate.BpmnError;
+import org.activiti.engine.impl.bpmn.helper.ErrorPropagation;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.jobexecutor.MultiInstanceChunkJobHandler;
 import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntityManager;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.persistence.entity.MessageEntity;
 import org.activiti.engine.impl.pvm.delegate.ActivityBehavior;
 import org.activiti.engine.impl.pvm.delegate.ActivityExecution;
 import org.activiti.engine.impl.pvm.process.ActivityImpl;
@@ -27,6 +39,9 @@ import org.activiti.engine.impl.pvm.process.ActivityImpl;
  */
 public class ParallelMultiInstanceBehavior extends MultiInstanceActivityBehavior {
   
+  // Chunk size the instances are created with, fixed when the multi-instance activity is started
+  protected final String NUMBER_OF_INSTANCES_PER_CHUNK = "nrOfInstancesPerChunk";
+  
   public ParallelMultiInstanceBehavior(ActivityImpl activity, AbstractBpmnActivityBehavior originalActivityBehavior) {
     super(activity, originalActivityBehavior);
   }
@@ -46,8 +61,36 @@ public class ParallelMultiInstanceBehavior extends MultiInstanceActivityBehavior
     setLoopVariable(execution, NUMBER_OF_COMPLETED_INSTANCES, 0);
     setLoopVariable(execution, NUMBER_OF_ACTIVE_INSTANCES, nrOfInstances);
     
+    int chunkSize = getInstanceChunkSize();
+    if (chunkSize > 0) {
+      setLoopVariable(execution, NUMBER_OF_INSTANCES_PER_CHUNK, chunkSize);
+    }
+    if (chunkSize > 0 && nrOfInstances > chunkSize) {
+      createInstances(execution, 0, chunkSize, nrOfInstances);
+    } else {
+      createInstances(execution, 0, nrOfInstances, nrOfInstances);
+    }
+  }
+  
+  /**
+   * Creates the next chunk of instances, when the instances are created in chunks 
+   * (see {@link ProcessEngineConfigurationImpl#getParallelMultiInstanceChunkSize()}).
+   * The chunk size the multi-instance activity was started with is used, not the current configuration.
+   */
+  public void createInstanceChunk(ActivityExecution execution, int fromLoopCounter) throws Exception {
+    int nrOfInstances = getLoopVariable(execution, NUMBER_OF_INSTANCES);
+    int chunkSize = getStartedInstanceChunkSize(execution);
+    int toLoopCounter = chunkSize > 0 ? Math.min(fromLoopCounter + chunkSize, nrOfInstances) : nrOfInstances;
+    try {
+      createInstances(execution, fromLoopCounter, toLoopCounter, nrOfInstances);
+    } catch (BpmnError error) {
+      ErrorPropagation.propagateError(error, execution);
+    }
+  }
+  
+  protected void createInstances(ActivityExecution execution, int fromLoopCounter, int toLoopCounter, int nrOfInstances) throws Exception {
     List<ActivityExecution> concurrentExecutions = new ArrayList<ActivityExecution>();
-    for (int loopCounter=0; loopCounter<nrOfInstances; loopCounter++) {
+    for (int loopCounter=fromLoopCounter; loopCounter<toLoopCounter; loopCounter++) {
       ActivityExecution concurrentExecution = execution.createExecution();
       concurrentExecution.setActive(true);
       concurrentExecution.setConcurrent(true);
@@ -71,12 +114,13 @@ public class ParallelMultiInstanceBehavior extends MultiInstanceActivityBehavior
     // Before the activities are executed, all executions MUST be created up front
     // Do not try to merge this loop with the previous one, as it will lead to bugs,
     // due to possible child execution pruning.
-    for (int loopCounter=0; loopCounter<nrOfInstances; loopCounter++) {
-      ActivityExecution concurrentExecution = concurrentExecutions.get(loopCounter);
+    for (int loopCounter=fromLoopCounter; loopCounter<toLoopCounter; loopCounter++) {
+      ActivityExecution concurrentExecution = concurrentExecutions.get(loopCounter - fromLoopCounter);
       // executions can be inactive, if instances are all automatics (no-waitstate)
-      // and completionCondition has been met in the meantime
+      // and completionCondition has been met in the meantime.
+      // The multi-instance execution is already inactive when a later chunk is created.
       if (concurrentExecution.isActive() && !concurrentExecution.isEnded() 
-              && concurrentExecution.getParent().isActive() 
+              && (concurrentExecution.getParent().isActive() || fromLoopCounter > 0)
               && !concurrentExecution.getParent().isEnded()) { 
         setLoopVariable(concurrentExecution, getCollectionElementIndexVariable(), loopCounter);
         executeOriginalBehavior(concurrentExecution, loopCounter);
@@ -87,10 +131,31 @@ public class ParallelMultiInstanceBehavior extends MultiInstanceActivityBehavior
     // The parent execution must be set to false, so it wouldn't show up in the execution query
     // when using .activityId(something). Do not we cannot nullify the activityId (that would
     // have been a better solution), as it would break boundary event behavior.
-    if (!concurrentExecutions.isEmpty()) {
+    if (!concurrentExecutions.isEmpty() && fromLoopCounter == 0) {
       ExecutionEntity executionEntity = (ExecutionEntity) execution;
       executionEntity.setActive(false);
     }
+    
+    // Unless the completion condition was met by the instances that completed right away
+    if (toLoopCounter < nrOfInstances && execution.getActivity() == activity && !execution.isEnded()) {
+      scheduleInstanceChunk((ExecutionEntity) execution, toLoopCounter);
+    }
+  }
+  
+  protected void scheduleInstanceChunk(ExecutionEntity execution, int fromLoopCounter) {
+    MessageEntity message = new MessageEntity();
+    message.setExecution(execution);
+    message.setExclusive(activity.isExclusive());
+    message.setJobHandlerType(MultiInstanceChunkJobHandler.TYPE);
+    message.setJobHandlerConfiguration(activity.getId() + ":" + fromLoopCounter);
+    
+    GregorianCalendar expireCal = new GregorianCalendar();
+    ProcessEngineConfiguration processEngineConfig = Context.getProcessEngineConfiguration();
+    expireCal.setTime(processEngineConfig.getClock().getCurrentTime());
+    expireCal.add(Calendar.SECOND, processEngineConfig.getLockTimeAsyncJobWaitTime());
+    message.setLockExpirationTime(expireCal.getTime());
+    
+    Context.getCommandContext().getJobEntityManager().send(message);
   }
   
   /**
@@ -107,6 +172,15 @@ public class ParallelMultiInstanceBehavior extends MultiInstanceActivityBehavior
     	return;
     }
     
+    ActivityExecution miRootExecution = execution.getParent();
+    if (isExtraScopeNeeded() && miRootExecution != null) {
+      miRootExecution = miRootExecution.getParent();
+    }
+    if (getStartedInstanceChunkSize(miRootExecution) > 0) {
+      leaveWithoutCounters(execution);
+      return;
+    }
+    
     int loopCounter = getLoopVariable(execution, getCollectionElementIndexVariable());
     int nrOfInstances = getLoopVariable(execution, NUMBER_OF_INSTANCES);
     int nrOfCompletedInstances = getLoopVariable(execution, NUMBER_OF_COMPLETED_INSTANCES) + 1;
@@ -134,27 +208,107 @@ public class ParallelMultiInstanceBehavior extends MultiInstanceActivityBehavior
 	    
 	    List<ActivityExecution> joinedExecutions = executionEntity.findInactiveConcurrentExecutions(execution.getActivity());
 	    if (joinedExecutions.size() >= nrOfInstances || completionConditionSatisfied(execution)) {
-	      
-	      // Removing all active child executions (ie because completionCondition is true)
-	      List<ExecutionEntity> executionsToRemove = new ArrayList<ExecutionEntity>();
-	      for (ActivityExecution childExecution : executionEntity.getParent().getExecutions()) {
-	        if (childExecution.isActive()) {
-	          executionsToRemove.add((ExecutionEntity) childExecution);
-	        }
-	      }
-	      for (ExecutionEntity executionToRemove : executionsToRemove) {
-	        if (LOGGER.isDebugEnabled()) {
-	          LOGGER.debug("Execution {} still active, but multi-instance is completed. Removing this execution.", executionToRemove);
-	        }
-	        executionToRemove.inactivate();
-	        executionToRemove.deleteCascade("multi-instance completed");
-	      }
-	      executionEntity.takeAll(executionEntity.getActivity().getOutgoingTransitions(), joinedExecutions);
+	      completeInstances(executionEntity, joinedExecutions);
 	    } 
 	    
     } else {
     	super.leave(executionEntity);
     }
   }
+  
+  /**
+   * Handles the completion of one of the parallel instances when the instances are created in chunks.
+   * The number of completed instances is derived from the inactive instances, instead of being 
+   * kept in variables of the multi-instance execution. As such, the multi-instance execution is only
+   * locked, not updated, by the completion of an instance.
+   */
+  protected void leaveWithoutCounters(ActivityExecution execution) {
+    int loopCounter = getLoopVariable(execution, getCollectionElementIndexVariable());
+    int nrOfInstances = getLoopVariable(execution, NUMBER_OF_INSTANCES);
+    
+    if (isExtraScopeNeeded()) {
+      // In case an extra scope was created, it must be destroyed first before going further
+      ExecutionEntity extraScope = (ExecutionEntity) execution;
+      execution = execution.getParent();
+      extraScope.remove();
+    }
+    
+    ExecutionEntity executionEntity = (ExecutionEntity) execution;
+    if (executionEntity.getParent() == null) {
+      super.leave(executionEntity);
+      return;
+    }
+    
+    executionEntity.inactivate();
+    
+    // Completing instances wait for each other here, rather than failing on the revision of the multi-instance execution
+    ExecutionEntityManager executionEntityManager = Context.getCommandContext().getExecutionEntityManager();
+    executionEntityManager.lockExecutionRow(executionEntity.getParentId());
+    
+    // Instances that completed before the lock was taken, but were loaded before that, are read again
+    int nrOfCommittedInstances = executionEntityManager.lockInactiveConcurrentExecutionsInActivity(executionEntity.getParentId(), activity);
+    
+    List<ActivityExecution> joinedExecutions = executionEntity.findInactiveConcurrentExecutions(execution.getActivity());
+    int nrOfCompletedInstances = joinedExecutions.size();
+    int nrOfActiveInstances = nrOfInstances - nrOfCompletedInstances;
+    
+    // Instances that completed before the lock was taken must have been joined, the instance itself is not flushed yet
+    if (nrOfCommittedInstances > nrOfCompletedInstances - 1) {
+      throw new ActivitiOptimisticLockingException("Instances of multi-instance activity '" + activity.getId() 
+          + "' were loaded before they were completed", ExecutionEntity.class, executionEntity.getProcessInstanceId());
+    }
+    
+    if (completionConditionExpression != null) {
+      setLoopVariable(execution, NUMBER_OF_COMPLETED_INSTANCES, nrOfCompletedInstances);
+      setLoopVariable(execution, NUMBER_OF_ACTIVE_INSTANCES, nrOfActiveInstances);
+    }
+    logLoopDetails(execution, "instance completed", loopCounter, nrOfCompletedInstances, nrOfActiveInstances, nrOfInstances);
+    
+    if (nrOfCompletedInstances >= nrOfInstances || completionConditionSatisfied(execution)) {
+      
+      // Instances that are not created yet, won't be created anymore
+      for (JobEntity job : executionEntity.getParent().getJobs()) {
+        if (MultiInstanceChunkJobHandler.TYPE.equals(job.getJobHandlerType())) {
+          job.delete();
+        }
+      }
+      
+      completeInstances(executionEntity, joinedExecutions);
+    }
+  }
+  
+  protected void completeInstances(ExecutionEntity executionEntity, List<ActivityExecution> joinedExecutions) {
+    // Removing all active child executions (ie because completionCondition is true)
+    List<ExecutionEntity> executionsToRemove = new ArrayList<ExecutionEntity>();
+    for (ActivityExecution childExecution : executionEntity.getParent().getExecutions()) {
+      if (childExecution.isActive()) {
+        executionsToRemove.add((ExecutionEntity) childExecution);
+      }
+    }
+    for (ExecutionEntity executionToRemove : executionsToRemove) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Execution {} still active, but multi-instance is completed. Removing this execution.", executionToRemove);
+      }
+      executionToRemove.inactivate();
+      executionToRemove.deleteCascade("multi-instance completed");
+    }
+    executionEntity.takeAll(executionEntity.getActivity().getOutgoingTransitions(), joinedExecutions);
+  }
+  
+  protected int getInstanceChunkSize() {
+    return Context.getProcessEngineConfiguration().getParallelMultiInstanceChunkSize();
+  }
+  
+  /**
+   * Returns the chunk size stored on the given multi-instance execution when it was started,
+   * or 0 when its instances were not created in chunks.
+   */
+  protected int getStartedInstanceChunkSize(ActivityExecution miRootExecution) {
+    if (miRootExecution == null) {
+      return 0;
+    }
+    Integer chunkSize = (Integer) miRootExecution.getVariableLocal(NUMBER_OF_INSTANCES_PER_CHUNK);
+    return chunkSize != null ? chunkSize : 0;
+  }
 
 }
@@ -127,6 +127,11 @@ public class BpmnDeployer implements Deployer {
         		bpmnParse.setValidateProcess((Boolean) deploymentSettings.get(DeploymentSettings.IS_PROCESS_VALIDATION_ENABLED));
         	}
         	
+        	// Identical content doesn't need to be validated again
+        	if (bpmnParse.isValidateProcess() && processEngineConfiguration.getProcessValidationCache() != null) {
+        		bpmnParse.setValidationCacheKey(processEngineConfiguration.getProcessValidationCache().getKey(bytes));
+        	}
+        	
         } else {
         	// On redeploy, we assume it is validated at the first deploy
         	bpmnParse.setValidateSchema(false);
@@ -257,6 +262,10 @@ public class BpmnDeployer implements Deployer {
         }
       }
 
+      if (processEngineConfiguration.isEnableProcessDefinitionCompaction()) {
+        processDefinition.compact();
+      }
+
       // Add to cache
       DeploymentManager deploymentManager = processEngineConfiguration.getDeploymentManager();
       deploymentManager.getProcessDefinitionCache().add(processDefinition.getId(), processDefinition);
@@ -23,6 +23,7 @@ import org.activiti.engine.ActivitiException;
 import org.activiti.engine.ActivitiIllegalArgumentException;
 import org.activiti.engine.DynamicBpmnConstants;
 import org.activiti.engine.delegate.BpmnError;
+import org.activiti.engine.delegate.ConcurrentJavaDelegate;
 import org.activiti.engine.delegate.DelegateExecution;
 import org.activiti.engine.delegate.DelegateTask;
 import org.activiti.engine.delegate.ExecutionListener;
@@ -30,6 +31,7 @@ import org.activiti.engine.delegate.Expression;
 import org.activiti.engine.delegate.JavaDelegate;
 import org.activiti.engine.delegate.TaskListener;
 import org.activiti.engine.impl.bpmn.behavior.AbstractBpmnActivityBehavior;
+import org.activiti.engine.impl.bpmn.behavior.ConcurrentJavaDelegateActivityBehavior;
 import org.activiti.engine.impl.bpmn.behavior.ServiceTaskJavaDelegateActivityBehavior;
 import org.activiti.engine.impl.bpmn.parser.FieldDeclaration;
 import org.activiti.engine.impl.context.Context;
@@ -214,8 +216,11 @@ public class ClassDelegate extends AbstractBpmnActivityBehavior implements TaskL
       return determineBehaviour((ActivityBehavior) delegateInstance, execution);
     } else if (delegateInstance instanceof JavaDelegate) {
       return determineBehaviour(new ServiceTaskJavaDelegateActivityBehavior((JavaDelegate) delegateInstance), execution);
+    } else if (delegateInstance instanceof ConcurrentJavaDelegate) {
+      return determineBehaviour(new ConcurrentJavaDelegateActivityBehavior((ConcurrentJavaDelegate) delegateInstance, mapExceptions), execution);
     } else {
-      throw new ActivitiIllegalArgumentException(delegateInstance.getClass().getName()+" doesn't implement "+JavaDelegate.class.getName()+" nor "+ActivityBehavior.class.getName());
+      throw new ActivitiIllegalArgumentException(delegateInstance.getClass().getName()+" doesn't implement "+JavaDelegate.class.getName()
+          +", "+ConcurrentJavaDelegate.class.getName()+" nor "+ActivityBehavior.class.getName());
     }
   }
   
@@ -97,6 +97,7 @@ public class BpmnParse implements BpmnXMLConstants {
 
   protected boolean validateSchema = true;
   protected boolean validateProcess = true;
+  protected String validationCacheKey;
   
   protected StreamSource streamSource;
   protected String sourceSystemId;
@@ -165,6 +166,25 @@ public class BpmnParse implements BpmnXMLConstants {
             new ClassStructureDefinition(String.class)));
   }
 
+  /**
+   * Validates the model, or returns the warnings of the earlier validation of the same resource content.
+   */
+  protected List<ValidationError> validateProcess(ProcessEngineConfigurationImpl processEngineConfiguration, ProcessValidator processValidator) {
+    ProcessValidationCache processValidationCache = processEngineConfiguration.getProcessValidationCache();
+    if (processValidationCache == null || validationCacheKey == null) {
+      return processValidator.validate(bpmnModel);
+    }
+    
+    List<ValidationError> validationErrors = processValidationCache.get(validationCacheKey);
+    if (validationErrors == null) {
+      validationErrors = processValidator.validate(bpmnModel);
+      processValidationCache.put(validationCacheKey, validationErrors);
+    } else {
+      LOGGER.debug("Skipping validation of {}, the same content was validated before", name);
+    }
+    return validationErrors;
+  }
+
   public BpmnParse deployment(DeploymentEntity deployment) {
     this.deployment = deployment;
     return this;
@@ -195,7 +215,7 @@ public class BpmnParse implements BpmnXMLConstants {
       	if (processValidator == null) {
       		LOGGER.warn("Process should be validated, but no process validator is configured on the process engine configuration!");
       	} else {
-      		List<ValidationError> validationErrors = processValidator.validate(bpmnModel);
+      		List<ValidationError> validationErrors = validateProcess(processEngineConfiguration, processValidator);
       		if(validationErrors != null && !validationErrors.isEmpty()) {
       			
       			StringBuilder warningBuilder = new StringBuilder();
@@ -587,6 +607,18 @@ public class BpmnParse implements BpmnXMLConstants {
 	public void setValidateProcess(boolean validateProcess) {
 		this.validateProcess = validateProcess;
 	}
+
+	public String getValidationCacheKey() {
+		return validationCacheKey;
+	}
+
+	/**
+	 * Sets the key of the source content in the {@link ProcessValidationCache}, which enables
+	 * reusing the validation result of a resource with the same content.
+	 */
+	public void setValidationCacheKey(String validationCacheKey) {
+		this.validationCacheKey = validationCacheKey;
+	}
 	
 	public List<ProcessDefinitionEntity> getProcessDefinitions() {
 		return processDefinitions;
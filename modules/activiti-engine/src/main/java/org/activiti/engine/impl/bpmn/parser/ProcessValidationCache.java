@@ -0,0 +1,86 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.bpmn.parser;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.validation.ValidationError;
+
+/**
+ * Remembers the outcome of the process validation of BPMN resources by the hash of their content,
+ * so deploying the same XML again doesn't validate it again. Only results without errors are cached:
+ * those only contain warnings. The least recently used results are evicted when the limit is reached.
+ */
+public class ProcessValidationCache {
+
+  protected Map<String, List<ValidationError>> results;
+
+  public ProcessValidationCache(final int limit) {
+    this.results = Collections.synchronizedMap(new LinkedHashMap<String, List<ValidationError>>(limit + 1, 0.75f, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      protected boolean removeEldestEntry(Map.Entry<String, List<ValidationError>> eldest) {
+        return size() > limit;
+      }
+    });
+  }
+
+  /**
+   * @return the key of the resource content, or null if it can't be hashed
+   */
+  public String getKey(byte[] resourceBytes) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(resourceBytes);
+      StringBuilder key = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return key.toString();
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the warnings found by the validation of the resource with the given key, 
+   *         or null if the resource wasn't validated before
+   */
+  public List<ValidationError> get(String key) {
+    return results.get(key);
+  }
+
+  public void put(String key, List<ValidationError> validationErrors) {
+    for (ValidationError validationError : validationErrors) {
+      if (!validationError.isWarning()) {
+        return;
+      }
+    }
+    results.put(key, validationErrors);
+  }
+
+  public void clear() {
+    results.clear();
+  }
+
+  // For testing purposes only
+  public int size() {
+    return results.size();
+  }
+
+}
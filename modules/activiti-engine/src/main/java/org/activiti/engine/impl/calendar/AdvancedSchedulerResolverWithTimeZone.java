@@ -20,9 +20,9 @@ public class AdvancedSchedulerResolverWithTimeZone implements AdvancedSchedulerR
 
     try {
       if (duedateDescription.startsWith("R")) {
-        nextRun = new DurationHelper(duedateDescription, clockReader).getCalendarAfter(clockReader.getCurrentCalendar(timeZone));
+        nextRun = ParsedScheduleCache.getInstance().getDurationHelper(duedateDescription, -1, clockReader).getCalendarAfter(clockReader.getCurrentCalendar(timeZone));
       } else {
-        nextRun = new CronExpression(duedateDescription, clockReader, timeZone).getTimeAfter(clockReader.getCurrentCalendar(timeZone));
+        nextRun = ParsedScheduleCache.getInstance().getCronExpression(duedateDescription, timeZone, clockReader).getTimeAfter(clockReader.getCurrentCalendar(timeZone));
       }
 
     } catch (Exception e) {
@@ -20,13 +20,13 @@ package org.activiti.engine.impl.calendar;
 
 import java.io.Serializable;
 import java.text.ParseException;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
-import java.util.SortedSet;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
 import java.util.TreeSet;
@@ -257,6 +257,19 @@ public class CronExpression implements Serializable, Cloneable {
   protected transient int lastdayOffset = 0;
   protected transient boolean expressionParsed = false;
 
+  // Lookup masks derived from the sets above once the expression is parsed:
+  // bit n is set when value n is part of the field. These allow computing the next fire time
+  // without creating sorted set views or boxing the field values.
+  protected transient long secondsMask;
+  protected transient long minutesMask;
+  protected transient long hoursMask;
+  protected transient long daysOfMonthMask;
+  protected transient long monthsMask;
+  protected transient long daysOfWeekMask;
+  protected transient BitSet yearsMask;
+  protected transient boolean daysOfMonthNoSpec;
+  protected transient boolean daysOfWeekNoSpec;
+
   public static final int MAX_YEAR = Calendar.getInstance().get(Calendar.YEAR) + 100;
 
   private ClockReader clockReader;
@@ -282,6 +295,22 @@ public class CronExpression implements Serializable, Cloneable {
     this.timeZone = timeZone;
   }
 
+  /**
+   * Constructs a new <CODE>CronExpression</CODE> that is resolved in the given
+   * time zone, without a reference to the clock of a process engine, so it can
+   * be shared by process engines with different clocks.
+   * 
+   * @throws java.text.ParseException
+   *           if the string expression cannot be parsed into a valid
+   *           <CODE>CronExpression</CODE>
+   */
+  public CronExpression(String cronExpression, TimeZone timeZone) throws ParseException {
+    this(cronExpression, null, timeZone);
+    if (timeZone == null) {
+      throw new IllegalArgumentException("timeZone cannot be null");
+    }
+  }
+
   /**
    * Constructs a new <CODE>CronExpression</CODE> based on the specified
    * parameter.
@@ -412,6 +441,8 @@ public class CronExpression implements Serializable, Cloneable {
       } else {
         throw new ParseException("Support for specifying both a day-of-week AND a day-of-month parameter is not implemented.", 0);
       }
+
+      buildLookupMasks();
     } catch (ParseException pe) {
       throw pe;
     } catch (Exception e) {
@@ -419,6 +450,51 @@ public class CronExpression implements Serializable, Cloneable {
     }
   }
 
+  protected void buildLookupMasks() {
+    secondsMask = toMask(seconds);
+    minutesMask = toMask(minutes);
+    hoursMask = toMask(hours);
+    daysOfMonthMask = toMask(daysOfMonth);
+    monthsMask = toMask(months);
+    daysOfWeekMask = toMask(daysOfWeek);
+    daysOfMonthNoSpec = daysOfMonth.contains(NO_SPEC);
+    daysOfWeekNoSpec = daysOfWeek.contains(NO_SPEC);
+
+    yearsMask = new BitSet(MAX_YEAR + 1);
+    for (Integer year : years) {
+      yearsMask.set(year.intValue());
+    }
+  }
+
+  /**
+   * The ALL_SPEC and NO_SPEC markers are left out: ALL_SPEC is always accompanied 
+   * by all values of the field, NO_SPEC is kept in a separate flag.
+   */
+  protected long toMask(TreeSet<Integer> set) {
+    long mask = 0L;
+    for (Integer value : set) {
+      if (value.intValue() < 64) {
+        mask |= 1L << value.intValue();
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Returns the smallest value of the mask that is equal to or greater than the given value, or -1 if there is none.
+   */
+  protected int nextValue(long mask, int value) {
+    if (value > 63) {
+      return -1;
+    }
+    long candidates = mask & (-1L << value);
+    return candidates == 0L ? -1 : Long.numberOfTrailingZeros(candidates);
+  }
+
+  protected int firstValue(long mask) {
+    return Long.numberOfTrailingZeros(mask);
+  }
+
   protected int storeExpressionVals(int pos, String s, int type) throws ParseException {
 
     int incr = 0;
@@ -959,7 +1035,9 @@ public class CronExpression implements Serializable, Cloneable {
   public Calendar getTimeAfter(Calendar afterTime) {
 
     // Computation is based on Gregorian year only.
-    Calendar cl = clockReader.getCurrentCalendar(getTimeZone()); //new java.util.GregorianCalendar(getTimeZone());
+    // The clock is not used here on purpose: the time is set explicitly below, which makes
+    // a parsed expression independent of the clock it was created with (so it can be shared).
+    Calendar cl = new GregorianCalendar(getTimeZone());
 
     // move ahead one second, since we're computing the time *after* the
     // given time
@@ -977,18 +1055,18 @@ public class CronExpression implements Serializable, Cloneable {
         return null;
       }
 
-      SortedSet<Integer> st = null;
+      int next = -1;
       int t = 0;
 
       int sec = cl.get(Calendar.SECOND);
       int min = cl.get(Calendar.MINUTE);
 
       // get second.................................................
-      st = seconds.tailSet(Integer.valueOf(sec));
-      if (st != null && !st.isEmpty()) {
-        sec = ((Integer) st.first()).intValue();
+      next = nextValue(secondsMask, sec);
+      if (next != -1) {
+        sec = next;
       } else {
-        sec = ((Integer) seconds.first()).intValue();
+        sec = firstValue(secondsMask);
         min++;
         cl.set(Calendar.MINUTE, min);
       }
@@ -999,12 +1077,12 @@ public class CronExpression implements Serializable, Cloneable {
       t = -1;
 
       // get minute.................................................
-      st = minutes.tailSet(Integer.valueOf(min));
-      if (st != null && !st.isEmpty()) {
+      next = nextValue(minutesMask, min);
+      if (next != -1) {
         t = min;
-        min = ((Integer) st.first()).intValue();
+        min = next;
       } else {
-        min = ((Integer) minutes.first()).intValue();
+        min = firstValue(minutesMask);
         hr++;
       }
       if (min != t) {
@@ -1020,12 +1098,12 @@ public class CronExpression implements Serializable, Cloneable {
       t = -1;
 
       // get hour...................................................
-      st = hours.tailSet(Integer.valueOf(hr));
-      if (st != null && !st.isEmpty()) {
+      next = nextValue(hoursMask, hr);
+      if (next != -1) {
         t = hr;
-        hr = ((Integer) st.first()).intValue();
+        hr = next;
       } else {
-        hr = ((Integer) hours.first()).intValue();
+        hr = firstValue(hoursMask);
         day++;
       }
       if (hr != t) {
@@ -1045,10 +1123,10 @@ public class CronExpression implements Serializable, Cloneable {
       int tmon = mon;
 
       // get day...................................................
-      boolean dayOfMSpec = !daysOfMonth.contains(NO_SPEC);
-      boolean dayOfWSpec = !daysOfWeek.contains(NO_SPEC);
+      boolean dayOfMSpec = !daysOfMonthNoSpec;
+      boolean dayOfWSpec = !daysOfWeekNoSpec;
       if (dayOfMSpec && !dayOfWSpec) { // get day by day of month rule
-        st = daysOfMonth.tailSet(Integer.valueOf(day));
+        next = nextValue(daysOfMonthMask, day);
         if (lastdayOfMonth) {
           if (!nearestWeekday) {
             t = day;
@@ -1059,8 +1137,7 @@ public class CronExpression implements Serializable, Cloneable {
             day = getLastDayOfMonth(mon, cl.get(Calendar.YEAR));
             day -= lastdayOffset;
 
-            //java.util.Calendar tcal = java.util.Calendar.getInstance(getTimeZone());
-            Calendar tcal = clockReader.getCurrentCalendar(getTimeZone());
+            Calendar tcal = new GregorianCalendar(getTimeZone());
             tcal.set(Calendar.SECOND, 0);
             tcal.set(Calendar.MINUTE, 0);
             tcal.set(Calendar.HOUR_OF_DAY, 0);
@@ -1094,10 +1171,9 @@ public class CronExpression implements Serializable, Cloneable {
           }
         } else if (nearestWeekday) {
           t = day;
-          day = ((Integer) daysOfMonth.first()).intValue();
+          day = firstValue(daysOfMonthMask);
 
-          //java.util.Calendar tcal = java.util.Calendar.getInstance(getTimeZone());
-          Calendar tcal = clockReader.getCurrentCalendar(getTimeZone());
+          Calendar tcal = new GregorianCalendar(getTimeZone());
           tcal.set(Calendar.SECOND, 0);
           tcal.set(Calendar.MINUTE, 0);
           tcal.set(Calendar.HOUR_OF_DAY, 0);
@@ -1125,20 +1201,20 @@ public class CronExpression implements Serializable, Cloneable {
           tcal.set(Calendar.MONTH, mon - 1);
           // Date nTime = tcal.getTime();
           if (tcal.before(afterTime)) {
-            day = ((Integer) daysOfMonth.first()).intValue();
+            day = firstValue(daysOfMonthMask);
             mon++;
           }
-        } else if (st != null && !st.isEmpty()) {
+        } else if (next != -1) {
           t = day;
-          day = ((Integer) st.first()).intValue();
+          day = next;
           // make sure we don't over-run a short month, such as february
           int lastDay = getLastDayOfMonth(mon, cl.get(Calendar.YEAR));
           if (day > lastDay) {
-            day = ((Integer) daysOfMonth.first()).intValue();
+            day = firstValue(daysOfMonthMask);
             mon++;
           }
         } else {
-          day = ((Integer) daysOfMonth.first()).intValue();
+          day = firstValue(daysOfMonthMask);
           mon++;
         }
 
@@ -1155,7 +1231,7 @@ public class CronExpression implements Serializable, Cloneable {
       } else if (dayOfWSpec && !dayOfMSpec) { // get day by day of week rule
         if (lastdayOfWeek) { // are we looking for the last XXX day of
           // the month?
-          int dow = ((Integer) daysOfWeek.first()).intValue(); // desired
+          int dow = firstValue(daysOfWeekMask); // desired
           // d-o-w
           int cDow = cl.get(Calendar.DAY_OF_WEEK); // current d-o-w
           int daysToAdd = 0;
@@ -1198,7 +1274,7 @@ public class CronExpression implements Serializable, Cloneable {
 
         } else if (nthdayOfWeek != 0) {
           // are we looking for the Nth XXX day in the month?
-          int dow = ((Integer) daysOfWeek.first()).intValue(); // desired
+          int dow = firstValue(daysOfWeekMask); // desired
           // d-o-w
           int cDow = cl.get(Calendar.DAY_OF_WEEK); // current d-o-w
           int daysToAdd = 0;
@@ -1240,11 +1316,11 @@ public class CronExpression implements Serializable, Cloneable {
           }
         } else {
           int cDow = cl.get(Calendar.DAY_OF_WEEK); // current d-o-w
-          int dow = ((Integer) daysOfWeek.first()).intValue(); // desired
+          int dow = firstValue(daysOfWeekMask); // desired
           // d-o-w
-          st = daysOfWeek.tailSet(Integer.valueOf(cDow));
-          if (st != null && !st.isEmpty()) {
-            dow = ((Integer) st.first()).intValue();
+          next = nextValue(daysOfWeekMask, cDow);
+          if (next != -1) {
+            dow = next;
           }
 
           int daysToAdd = 0;
@@ -1296,12 +1372,12 @@ public class CronExpression implements Serializable, Cloneable {
       }
 
       // get month...................................................
-      st = months.tailSet(Integer.valueOf(mon));
-      if (st != null && !st.isEmpty()) {
+      next = nextValue(monthsMask, mon);
+      if (next != -1) {
         t = mon;
-        mon = ((Integer) st.first()).intValue();
+        mon = next;
       } else {
-        mon = ((Integer) months.first()).intValue();
+        mon = firstValue(monthsMask);
         year++;
       }
       if (mon != t) {
@@ -1323,10 +1399,10 @@ public class CronExpression implements Serializable, Cloneable {
       t = -1;
 
       // get year...................................................
-      st = years.tailSet(Integer.valueOf(year));
-      if (st != null && !st.isEmpty()) {
+      next = yearsMask.nextSetBit(year);
+      if (next != -1) {
         t = year;
-        year = ((Integer) st.first()).intValue();
+        year = next;
       } else {
         return null; // ran out of years...
       }
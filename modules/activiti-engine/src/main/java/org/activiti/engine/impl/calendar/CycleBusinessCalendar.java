@@ -28,9 +28,9 @@ public class CycleBusinessCalendar extends BusinessCalendarImpl {
   public Date resolveDuedate(String duedateDescription, int maxIterations) {
     try {
       if (duedateDescription != null && duedateDescription.startsWith("R")) {
-        return new DurationHelper(duedateDescription, maxIterations, clockReader).getDateAfter();
+        return ParsedScheduleCache.getInstance().getDurationHelper(duedateDescription, maxIterations, clockReader).getDateAfter();
       } else {
-        CronExpression ce = new CronExpression(duedateDescription, clockReader);
+        CronExpression ce = ParsedScheduleCache.getInstance().getCronExpression(duedateDescription, null, clockReader);
         return ce.getTimeAfter(clockReader.getCurrentTime());
       }
 
@@ -48,7 +48,7 @@ public class CycleBusinessCalendar extends BusinessCalendarImpl {
     //end date could be part of the chron expression
     try {
       if (duedateDescription != null && duedateDescription.startsWith("R")) {
-        return new DurationHelper(duedateDescription, maxIterations, clockReader).isValidDate(newTimer);
+        return ParsedScheduleCache.getInstance().getDurationHelper(duedateDescription, maxIterations, clockReader).isValidDate(newTimer);
       } else {
         return true;
       }
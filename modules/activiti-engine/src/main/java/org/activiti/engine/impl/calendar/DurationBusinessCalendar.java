@@ -31,7 +31,7 @@ public class DurationBusinessCalendar extends BusinessCalendarImpl {
 
   public Date resolveDuedate(String duedate, int maxIterations) {
     try {
-      DurationHelper dh = new DurationHelper(duedate, clockReader);
+      DurationHelper dh = ParsedScheduleCache.getInstance().getDurationHelper(duedate, -1, clockReader);
       return dh.getDateAfter();
     } catch (Exception e) {
       throw new ActivitiException("couldn't resolve duedate: "+e.getMessage(), e);
@@ -41,6 +41,7 @@ public class DurationHelper {
   private int times;
   private int maxIterations = -1;
   private boolean repeatWithNoBounds;
+  private boolean startDefined;
 
   private DatatypeFactory datatypeFactory;
 
@@ -98,12 +99,30 @@ public class DurationHelper {
         period = datatypeFactory.newDuration(end.getTimeInMillis() - start.getTimeInMillis());
       }
     }
+    startDefined = start != null;
     if (start == null) {
       start = clockReader.getCurrentCalendar();
     }
 
   }
 
+  /**
+   * Creates a helper for an already parsed expression, without parsing the expression string again.
+   * When the parsed expression has no explicit start, the current time of the given clock is used as start.
+   */
+  public DurationHelper(DurationHelper parsed, int maxIterations, ClockReader clockReader) {
+    this.clockReader = clockReader;
+    this.maxIterations = maxIterations;
+    this.datatypeFactory = parsed.datatypeFactory;
+    this.period = parsed.period;
+    this.isRepeat = parsed.isRepeat;
+    this.times = parsed.times;
+    this.repeatWithNoBounds = parsed.repeatWithNoBounds;
+    this.startDefined = parsed.startDefined;
+    this.start = startDefined ? (Calendar) parsed.start.clone() : clockReader.getCurrentCalendar();
+    this.end = parsed.end == null ? null : (Calendar) parsed.end.clone();
+  }
+
   public DurationHelper(String expressionS, ClockReader clockReader) throws Exception {
     this(expressionS,-1,clockReader);
   }
@@ -139,11 +158,12 @@ public class DurationHelper {
   	if (repeatWithNoBounds) {
   		
       while(current.before(date) || current.equals(date)) { // As long as current date is not past the engine date, we keep looping
-      	Calendar newTime = add(current, period);
-        if (newTime.equals(current) || newTime.before(current)) {
+        long previousTime = current.getTimeInMillis();
+        addTo(current, period);
+        if (current.getTimeInMillis() <= previousTime) {
+          current.setTimeInMillis(previousTime);
         	break;
         }
-        current = newTime;
       }
       
   		
@@ -154,7 +174,7 @@ public class DurationHelper {
 	      maxLoops = maxIterations - times;
 	    }
 	    for (int i = 0; i < maxLoops+1 && !current.after(date); i++) {
-	      current = add(current, period);
+	      addTo(current, period);
 	    }
 	
   	}
@@ -164,7 +184,14 @@ public class DurationHelper {
 
   private Calendar add(Calendar date, Duration duration) {
     Calendar calendar = (Calendar) date.clone();
+    addTo(calendar, duration);
+    return calendar;
+  }
 
+  /**
+   * Adds the duration to the given calendar in place, so repeating loops can work on a single instance.
+   */
+  private void addTo(Calendar calendar, Duration duration) {
     // duration.addTo does not account for daylight saving time (xerces),
     // reversing order of addition fixes the problem
     calendar.add(Calendar.SECOND, duration.getSeconds() * duration.getSign());
@@ -173,8 +200,6 @@ public class DurationHelper {
     calendar.add(Calendar.DAY_OF_MONTH, duration.getDays() * duration.getSign());
     calendar.add(Calendar.MONTH, duration.getMonths() * duration.getSign());
     calendar.add(Calendar.YEAR, duration.getYears() * duration.getSign());
-
-    return calendar;
   }
 
   private Calendar parseDate(String date) throws Exception {
@@ -0,0 +1,115 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.calendar;
+
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.activiti.engine.runtime.ClockReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded cache of parsed cron expressions and ISO 8601 duration/repeat expressions,
+ * so the business calendars don't need to parse the same expression string each time a timer is (re)scheduled.
+ *
+ * The cached {@link CronExpression} instances are shared between threads and must not be modified.
+ * Parsed durations are never handed out directly: {@link #getDurationHelper(String, int, ClockReader)}
+ * returns a new {@link DurationHelper} based on the parsed one, which is cheap as no parsing is involved.
+ * The cached values don't keep the {@link ClockReader} they were parsed with, as the cache is shared by
+ * the process engines of the JVM, which can each have their own clock.
+ *
+ * The least recently used entries are evicted when the limit is reached.
+ */
+public class ParsedScheduleCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(ParsedScheduleCache.class);
+
+  public static final int DEFAULT_LIMIT = 1000;
+
+  private static final ParsedScheduleCache INSTANCE = new ParsedScheduleCache(DEFAULT_LIMIT);
+
+  protected Map<String, CronExpression> cronExpressions;
+  protected Map<String, DurationHelper> durations;
+
+  public ParsedScheduleCache(int limit) {
+    this.cronExpressions = createCache(limit);
+    this.durations = createCache(limit);
+  }
+
+  /**
+   * @return the cache that is shared by the business calendars of all process engines
+   */
+  public static ParsedScheduleCache getInstance() {
+    return INSTANCE;
+  }
+
+  protected <T> Map<String, T> createCache(final int limit) {
+    return Collections.synchronizedMap(new LinkedHashMap<String, T>(limit + 1, 0.75f, true) {
+      // +1 is needed, because the entry is inserted first, before it is removed
+      // 0.75 is the default (see javadocs)
+      // true will keep the 'access-order', which is needed to have a real LRU cache
+      private static final long serialVersionUID = 1L;
+
+      protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+        boolean removeEldest = size() > limit;
+        if (removeEldest) {
+          logger.trace("Cache limit is reached, {} will be evicted", eldest.getKey());
+        }
+        return removeEldest;
+      }
+    });
+  }
+
+  /**
+   * @param timeZone the time zone the expression is resolved in, or null to use the time zone of the clock
+   */
+  public CronExpression getCronExpression(String expression, TimeZone timeZone, ClockReader clockReader) throws ParseException {
+    TimeZone effectiveTimeZone = timeZone != null ? timeZone : clockReader.getCurrentTimeZone();
+    String key = expression + "|" + effectiveTimeZone.getID();
+
+    CronExpression cronExpression = cronExpressions.get(key);
+    if (cronExpression == null) {
+      cronExpression = new CronExpression(expression, effectiveTimeZone);
+      cronExpressions.put(key, cronExpression);
+    }
+    return cronExpression;
+  }
+
+  public DurationHelper getDurationHelper(String expression, int maxIterations, ClockReader clockReader) throws Exception {
+    // dates in the expression are parsed in the time zone of the clock
+    String key = expression + "|" + clockReader.getCurrentTimeZone().getID();
+
+    DurationHelper parsed = durations.get(key);
+    if (parsed == null) {
+      parsed = new DurationHelper(expression, maxIterations, clockReader);
+      // the copies get the clock of the caller
+      parsed.clockReader = null;
+      durations.put(key, parsed);
+    }
+    return new DurationHelper(parsed, maxIterations, clockReader);
+  }
+
+  public void clear() {
+    cronExpressions.clear();
+    durations.clear();
+  }
+
+  public int size() {
+    return cronExpressions.size() + durations.size();
+  }
+
+}
@@ -32,12 +32,15 @@ import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.naming.InitialContext;
 import javax.sql.DataSource;
 
 import org.activiti.bpmn.model.BpmnModel;
 import org.activiti.engine.ActivitiException;
+import org.activiti.engine.ActivitiIllegalArgumentException;
 import org.activiti.engine.DynamicBpmnService;
 import org.activiti.engine.FormService;
 import org.activiti.engine.HistoryService;
@@ -64,12 +67,14 @@ import org.activiti.engine.impl.RepositoryServiceImpl;
 import org.activiti.engine.impl.RuntimeServiceImpl;
 import org.activiti.engine.impl.ServiceImpl;
 import org.activiti.engine.impl.TaskServiceImpl;
+import org.activiti.engine.impl.asyncexecutor.AbstractAsyncJobExecutor;
 import org.activiti.engine.impl.asyncexecutor.DefaultAsyncJobExecutor;
 import org.activiti.engine.impl.asyncexecutor.ExecuteAsyncRunnableFactory;
 import org.activiti.engine.impl.bpmn.data.ItemInstance;
 import org.activiti.engine.impl.bpmn.deployer.BpmnDeployer;
 import org.activiti.engine.impl.bpmn.parser.BpmnParseHandlers;
 import org.activiti.engine.impl.bpmn.parser.BpmnParser;
+import org.activiti.engine.impl.bpmn.parser.ProcessValidationCache;
 import org.activiti.engine.impl.bpmn.parser.factory.AbstractBehaviorFactory;
 import org.activiti.engine.impl.bpmn.parser.factory.ActivityBehaviorFactory;
 import org.activiti.engine.impl.bpmn.parser.factory.DefaultActivityBehaviorFactory;
@@ -134,21 +139,27 @@ import org.activiti.engine.impl.history.parse.FlowNodeHistoryParseHandler;
 import org.activiti.engine.impl.history.parse.ProcessHistoryParseHandler;
 import org.activiti.engine.impl.history.parse.StartEventHistoryParseHandler;
 import org.activiti.engine.impl.history.parse.UserTaskHistoryParseHandler;
+import org.activiti.engine.impl.identity.GroupMembershipCache;
 import org.activiti.engine.impl.interceptor.CommandConfig;
 import org.activiti.engine.impl.interceptor.CommandContextFactory;
 import org.activiti.engine.impl.interceptor.CommandContextInterceptor;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
 import org.activiti.engine.impl.interceptor.CommandInterceptor;
 import org.activiti.engine.impl.interceptor.CommandInvoker;
+import org.activiti.engine.impl.interceptor.CommandMetricsInterceptor;
 import org.activiti.engine.impl.interceptor.DelegateInterceptor;
 import org.activiti.engine.impl.interceptor.LogInterceptor;
+import org.activiti.engine.impl.interceptor.RetryInterceptor;
 import org.activiti.engine.impl.interceptor.SessionFactory;
 import org.activiti.engine.impl.jobexecutor.AsyncContinuationJobHandler;
 import org.activiti.engine.impl.jobexecutor.CallerRunsRejectedJobsHandler;
 import org.activiti.engine.impl.jobexecutor.DefaultFailedJobCommandFactory;
 import org.activiti.engine.impl.jobexecutor.DefaultJobExecutor;
 import org.activiti.engine.impl.jobexecutor.FailedJobCommandFactory;
+import org.activiti.engine.impl.jobexecutor.HistoricProcessInstanceDeleteJobHandler;
+import org.activiti.engine.impl.jobexecutor.HistoryCleanupJobHandler;
 import org.activiti.engine.impl.jobexecutor.JobHandler;
+import org.activiti.engine.impl.jobexecutor.MultiInstanceChunkJobHandler;
 import org.activiti.engine.impl.jobexecutor.ProcessEventJobHandler;
 import org.activiti.engine.impl.jobexecutor.RejectedJobsHandler;
 import org.activiti.engine.impl.jobexecutor.TimerActivateProcessDefinitionHandler;
@@ -156,6 +167,9 @@ import org.activiti.engine.impl.jobexecutor.TimerCatchIntermediateEventJobHandle
 import org.activiti.engine.impl.jobexecutor.TimerExecuteNestedActivityJobHandler;
 import org.activiti.engine.impl.jobexecutor.TimerStartEventJobHandler;
 import org.activiti.engine.impl.jobexecutor.TimerSuspendProcessDefinitionHandler;
+import org.activiti.engine.impl.metrics.CommandMetrics;
+import org.activiti.engine.impl.metrics.OptimisticLockingStatistics;
+import org.activiti.engine.impl.metrics.SqlStatementMetricsPlugin;
 import org.activiti.engine.impl.persistence.DefaultHistoryManagerSessionFactory;
 import org.activiti.engine.impl.persistence.GenericManagerFactory;
 import org.activiti.engine.impl.persistence.GroupEntityManagerFactory;
@@ -253,6 +267,8 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   
   public static final int DEFAULT_GENERIC_MAX_LENGTH_STRING= 4000;
   public static final int DEFAULT_ORACLE_MAX_LENGTH_STRING= 2000;
+  
+  public static final int DEFAULT_BATCH_OPERATION_CHUNK_SIZE = 100;
 
   public static final String DB_SCHEMA_UPDATE_CREATE = "create";
   public static final String DB_SCHEMA_UPDATE_DROP_CREATE = "drop-create";
@@ -264,12 +280,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   // SERVICES /////////////////////////////////////////////////////////////////
 
   protected RepositoryService repositoryService = new RepositoryServiceImpl();
-  protected RuntimeService runtimeService = new RuntimeServiceImpl();
+  protected RuntimeService runtimeService = new RuntimeServiceImpl(this);
   protected HistoryService historyService = new HistoryServiceImpl(this);
   protected IdentityService identityService = new IdentityServiceImpl();
   protected TaskService taskService = new TaskServiceImpl(this);
   protected FormService formService = new FormServiceImpl();
-  protected ManagementService managementService = new ManagementServiceImpl();
+  protected ManagementService managementService = new ManagementServiceImpl(this);
   protected DynamicBpmnService dynamicBpmnService = new DynamicBpmnServiceImpl(this);
   
   // COMMAND EXECUTORS ////////////////////////////////////////////////////////
@@ -284,6 +300,21 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected List<CommandInterceptor> customPostCommandInterceptors;
   
   protected List<CommandInterceptor> commandInterceptors;
+  
+  /**
+   * When enabled, the latency of every command and the SQL statements and flushed entities of every transaction
+   * are recorded per command class in the {@link #commandMetrics}. See {@link CommandMetricsInterceptor}.
+   * 
+   * By default: false.
+   */
+  protected boolean enableCommandMetrics = false;
+  protected CommandMetrics commandMetrics;
+  
+  /**
+   * The conflict statistics shared by all {@link RetryInterceptor}s in the command interceptor chain.
+   * When not set, the statistics of the first retry interceptor are used.
+   */
+  protected OptimisticLockingStatistics optimisticLockingStatistics;
 
   /** this will be initialized during the configurationComplete() */
   protected CommandExecutor commandExecutor;
@@ -316,6 +347,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected int processDefinitionInfoCacheLimit = -1; // By default, no limit
   protected ProcessDefinitionInfoCache processDefinitionInfoCache;
   
+  /** 
+   * Compacts the process definitions when they are deployed, so the cached definitions use less memory.
+   * A compacted definition can't be changed anymore, see {@link org.activiti.engine.impl.pvm.process.ProcessDefinitionImpl#compact()}. 
+   */
+  protected boolean enableProcessDefinitionCompaction;
+  
   protected int knowledgeBaseCacheLimit = -1;
   protected DeploymentCache<Object> knowledgeBaseCache;
 
@@ -464,6 +501,35 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
    */
   protected int asyncExecutorLockRetryWaitTimeInMillis = 500;
   
+  /**
+   * Timer jobs that become due within this amount of time (in milliseconds) are acquired (and locked) ahead of their due date 
+   * and kept in memory by the async executor, so they are executed at their exact due time instead of at the next acquisition.
+   * Timers created on this engine that are due within this window are handed to the async executor directly.
+   * 
+   * Should be larger than {@link #asyncExecutorDefaultTimerJobAcquireWaitTime}.
+   * Default value = 0, meaning timer jobs are only acquired once they are due.
+   * 
+   * (This property is only applicable when using the {@link DefaultAsyncJobExecutor}).
+   */
+  protected int asyncExecutorTimerLookAheadTime = 0;
+  
+  /**
+   * The precision (in milliseconds) with which timer jobs that were acquired ahead of their due date are executed.
+   * Default value = 100.
+   * 
+   * (This property is only applicable when using the {@link DefaultAsyncJobExecutor}).
+   */
+  protected long asyncExecutorTimerWheelTickDuration = 100L;
+  
+  /**
+   * The number of buckets of the wheel that keeps timer jobs acquired ahead of their due date.
+   * Timers due further away than this number of ticks go around the wheel more than once.
+   * Default value = 512.
+   * 
+   * (This property is only applicable when using the {@link DefaultAsyncJobExecutor}).
+   */
+  protected int asyncExecutorTimerWheelSize = 512;
+  
   /**
    * Allows to define a custom factory for creating the {@link Runnable} that is executed by the async executor.
    * 
@@ -497,6 +563,8 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   // PROCESS VALIDATION 
   
   protected ProcessValidator processValidator;
+  protected ProcessValidationCache processValidationCache;
+  protected int processValidationCacheLimit = 100; // 0 or less disables the cache
 
   // OTHER ////////////////////////////////////////////////////////////////////
   
@@ -568,6 +636,84 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   */
   protected int maxNrOfStatementsInBulkInsert = 100;
   
+  /**
+   * The JDBC fetch size used when the results of a query are streamed (see {@link org.activiti.engine.query.Query#stream}),
+   * ie. the number of rows that are read from the database at once.
+   * Note that MySQL ignores the fetch size unless useCursorFetch=true is set on the JDBC url.
+   * 
+   * By default: 1000.
+   */
+  protected int streamingQueryFetchSize = 1000;
+  
+  /**
+   * When enabled, an execution arriving in a joining parallel gateway locks the database row of its parent
+   * right away, instead of updating it when the transaction is flushed. Branches arriving at the same time then wait
+   * for each other to commit, instead of all but one failing with an {@link org.activiti.engine.ActivitiOptimisticLockingException}
+   * and being retried. Only the last arriving branch performs the join.
+   * 
+   * By default: false.
+   */
+  protected boolean enableParallelGatewayJoinRowLock = false;
+  
+  /**
+   * When set to a positive value, a parallel multi-instance activity creates at most this number of instances
+   * in one transaction. The remaining instances are created in chunks of the same size by asynchronous jobs.
+   * In this mode, completed instances are counted from the child executions instead of updating 
+   * the nrOfCompletedInstances and nrOfActiveInstances variables of the multi-instance execution. The 
+   * completion condition sees them as local variables of the completing instance.
+   * 
+   * By default: 0, ie. all instances are created at once.
+   */
+  protected int parallelMultiInstanceChunkSize = 0;
+  
+  /**
+   * The number of days the history of a finished process instance is kept, by process definition key.
+   * When not empty, a timer job deletes the history of the instances that finished longer ago, 
+   * every {@link #historyCleanupIntervalInMinutes}.
+   */
+  protected Map<String, Integer> historyRetentionPolicies;
+  
+  /**
+   * The time between two runs of the history retention job. By default: one day.
+   */
+  protected int historyCleanupIntervalInMinutes = 24 * 60;
+  
+  /**
+   * The number of historic process instances that are deleted in one transaction, 
+   * when deleting the history of process instances by criteria. By default: 100.
+   */
+  protected int historyCleanupChunkSize = 100;
+  
+  /**
+   * The number of items that are processed in one transaction by the batch operations of the services,
+   * like starting process instances in batch. By default: 100.
+   */
+  protected int batchOperationChunkSize = DEFAULT_BATCH_OPERATION_CHUNK_SIZE;
+  
+  /**
+   * The time (in milliseconds) the groups of a user are cached, when querying tasks for a candidate user.
+   * By default: 0, ie. the groups are fetched from the group identity manager on every query.
+   */
+  protected long groupMembershipCacheTimeToLive = 0L;
+  
+  /** The maximum number of users of which the groups are cached. By default: 1000. */
+  protected int groupMembershipCacheLimit = 1000;
+  
+  protected GroupMembershipCache groupMembershipCache;
+  
+  /**
+   * Whether service tasks of which the delegate implements {@link org.activiti.engine.delegate.ConcurrentJavaDelegate}
+   * are executed on the concurrent service task executor service, so parallel branches of one transaction 
+   * execute their service tasks at the same time. By default: false.
+   */
+  protected boolean enableConcurrentServiceTasks = false;
+  
+  /** The number of threads of the concurrent service task executor service, when created by the engine. */
+  protected int concurrentServiceTaskPoolSize = Runtime.getRuntime().availableProcessors();
+  
+  protected ExecutorService concurrentServiceTaskExecutorService;
+  protected boolean shutdownConcurrentServiceTaskExecutorService;
+  
   protected boolean enableEventDispatcher = true;
   protected ActivitiEventDispatcher eventDispatcher;
   protected List<ActivitiEventListener> eventListeners;
@@ -606,9 +752,12 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     initFormTypes();
     initScriptingEngines();
     initClock();
+    initGroupMembershipCache();
+    initConcurrentServiceTaskExecutorService();
     initBusinessCalendarManager();
     initCommandContextFactory();
     initTransactionContextFactory();
+    initCommandMetrics();
     initCommandExecutors();
     initServices();
     initIdGenerator();
@@ -637,6 +786,14 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  // command metrics //////////////////////////////////////////////////////////
+  
+  protected void initCommandMetrics() {
+    if (enableCommandMetrics && commandMetrics == null) {
+      commandMetrics = new CommandMetrics();
+    }
+  }
+
   // command executors ////////////////////////////////////////////////////////
   
   protected void initCommandExecutors() {
@@ -644,6 +801,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     initSchemaCommandConfig();
     initCommandInvoker();
     initCommandInterceptors();
+    initOptimisticLockingStatistics();
     initCommandExecutor();
   }
 
@@ -679,8 +837,24 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  protected void initOptimisticLockingStatistics() {
+    for (CommandInterceptor commandInterceptor : commandInterceptors) {
+      if (commandInterceptor instanceof RetryInterceptor) {
+        RetryInterceptor retryInterceptor = (RetryInterceptor) commandInterceptor;
+        if (optimisticLockingStatistics == null) {
+          optimisticLockingStatistics = retryInterceptor.getOptimisticLockingStatistics();
+        } else {
+          retryInterceptor.setOptimisticLockingStatistics(optimisticLockingStatistics);
+        }
+      }
+    }
+  }
+
   protected Collection< ? extends CommandInterceptor> getDefaultCommandInterceptors() {
     List<CommandInterceptor> interceptors = new ArrayList<CommandInterceptor>();
+    if (commandMetrics != null) {
+      interceptors.add(new CommandMetricsInterceptor(commandMetrics));
+    }
     interceptors.add(new LogInterceptor());
     
     CommandInterceptor transactionInterceptor = createTransactionInterceptor();
@@ -879,6 +1053,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
         Reader reader = new InputStreamReader(inputStream);
         Properties properties = new Properties();
         properties.put("prefix", databaseTablePrefix);
+        properties.put("streamingFetchSize", String.valueOf(streamingQueryFetchSize));
         if(databaseType != null) {
           properties.put("limitBefore" , DbSqlSessionFactory.databaseSpecificLimitBeforeStatements.get(databaseType));
           properties.put("limitAfter" , DbSqlSessionFactory.databaseSpecificLimitAfterStatements.get(databaseType));
@@ -886,6 +1061,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
           properties.put("limitOuterJoinBetween" , DbSqlSessionFactory.databaseOuterJoinLimitBetweenStatements.get(databaseType));
           properties.put("orderBy" , DbSqlSessionFactory.databaseSpecificOrderByStatements.get(databaseType));
           properties.put("limitBeforeNativeQuery" , ObjectUtils.toString(DbSqlSessionFactory.databaseSpecificLimitBeforeNativeQueryStatements.get(databaseType)));
+          properties.put("keysetAfter" , DbSqlSessionFactory.databaseSpecificKeysetAfterStatements.get(databaseType));
         }
         
         Configuration configuration = initMybatisConfiguration(environment, reader, properties);
@@ -907,6 +1083,10 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 	  initMybatisTypeHandlers(configuration);
 	  initCustomMybatisMappers(configuration);
 	  
+	  if (commandMetrics != null) {
+	    configuration.addInterceptor(new SqlStatementMetricsPlugin(commandMetrics));
+	  }
+	  
 	  configuration = parseMybatisConfiguration(configuration, parser);
 	  return configuration;
   }
@@ -1308,6 +1488,19 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
   }
 
+  protected void initGroupMembershipCache() {
+    if (groupMembershipCache == null && groupMembershipCacheTimeToLive > 0) {
+      groupMembershipCache = new GroupMembershipCache(groupMembershipCacheTimeToLive, groupMembershipCacheLimit, clock);
+    }
+  }
+
+  protected void initConcurrentServiceTaskExecutorService() {
+    if (enableConcurrentServiceTasks && concurrentServiceTaskExecutorService == null) {
+      concurrentServiceTaskExecutorService = Executors.newFixedThreadPool(concurrentServiceTaskPoolSize);
+      shutdownConcurrentServiceTaskExecutorService = true;
+    }
+  }
+
   protected void initProcessDiagramGenerator() {
     if (processDiagramGenerator == null) {
       processDiagramGenerator = new DefaultProcessDiagramGenerator();
@@ -1331,6 +1524,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     ProcessEventJobHandler processEventJobHandler = new ProcessEventJobHandler();
     jobHandlers.put(processEventJobHandler.getType(), processEventJobHandler);
     
+    MultiInstanceChunkJobHandler multiInstanceChunkJobHandler = new MultiInstanceChunkJobHandler();
+    jobHandlers.put(multiInstanceChunkJobHandler.getType(), multiInstanceChunkJobHandler);
+    
+    HistoricProcessInstanceDeleteJobHandler historicProcessInstanceDeleteJobHandler = new HistoricProcessInstanceDeleteJobHandler();
+    jobHandlers.put(historicProcessInstanceDeleteJobHandler.getType(), historicProcessInstanceDeleteJobHandler);
+    
+    HistoryCleanupJobHandler historyCleanupJobHandler = new HistoryCleanupJobHandler();
+    jobHandlers.put(historyCleanupJobHandler.getType(), historyCleanupJobHandler);
+    
     TimerSuspendProcessDefinitionHandler suspendProcessDefinitionHandler = new TimerSuspendProcessDefinitionHandler();
     jobHandlers.put(suspendProcessDefinitionHandler.getType(), suspendProcessDefinitionHandler);
     
@@ -1403,6 +1605,11 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
         // Retry
         defaultAsyncExecutor.setRetryWaitTimeInMillis(asyncExecutorLockRetryWaitTimeInMillis);
         
+        // Timer look-ahead
+        defaultAsyncExecutor.setTimerLookAheadTimeInMillis(asyncExecutorTimerLookAheadTime);
+        defaultAsyncExecutor.setTimerWheelTickDurationInMillis(asyncExecutorTimerWheelTickDuration);
+        defaultAsyncExecutor.setTimerWheelSize(asyncExecutorTimerWheelSize);
+        
         // Shutdown
         defaultAsyncExecutor.setSecondsToWaitOnShutdown(asyncExecutorSecondsToWaitOnShutdown);
         
@@ -1411,6 +1618,10 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   
       asyncExecutor.setCommandExecutor(commandExecutor);
       asyncExecutor.setAutoActivate(asyncExecutorActivate);
+      
+      if (asyncExecutor instanceof AbstractAsyncJobExecutor) {
+        ((AbstractAsyncJobExecutor) asyncExecutor).setClockReader(this.clock);
+      }
     }
   }
   
@@ -1660,6 +1871,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   	if (this.processValidator == null) {
   		this.processValidator = new ProcessValidatorFactory().createDefaultProcessValidator();
   	}
+  	if (this.processValidationCache == null && processValidationCacheLimit > 0) {
+  		this.processValidationCache = new ProcessValidationCache(processValidationCacheLimit);
+  	}
   }
   
   protected void initDatabaseEventLogging() {
@@ -2121,6 +2335,33 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 		return this;
 	}
 	
+	public int getAsyncExecutorTimerLookAheadTime() {
+    return asyncExecutorTimerLookAheadTime;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncExecutorTimerLookAheadTime(int asyncExecutorTimerLookAheadTime) {
+    this.asyncExecutorTimerLookAheadTime = asyncExecutorTimerLookAheadTime;
+    return this;
+  }
+
+  public long getAsyncExecutorTimerWheelTickDuration() {
+    return asyncExecutorTimerWheelTickDuration;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncExecutorTimerWheelTickDuration(long asyncExecutorTimerWheelTickDuration) {
+    this.asyncExecutorTimerWheelTickDuration = asyncExecutorTimerWheelTickDuration;
+    return this;
+  }
+
+  public int getAsyncExecutorTimerWheelSize() {
+    return asyncExecutorTimerWheelSize;
+  }
+
+  public ProcessEngineConfigurationImpl setAsyncExecutorTimerWheelSize(int asyncExecutorTimerWheelSize) {
+    this.asyncExecutorTimerWheelSize = asyncExecutorTimerWheelSize;
+    return this;
+  }
+
 	public ExecuteAsyncRunnableFactory getAsyncExecutorExecuteAsyncRunnableFactory() {
 		return asyncExecutorExecuteAsyncRunnableFactory;
 	}
@@ -2395,6 +2636,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
   
+  public boolean isEnableProcessDefinitionCompaction() {
+    return enableProcessDefinitionCompaction;
+  }
+  
+  public ProcessEngineConfigurationImpl setEnableProcessDefinitionCompaction(boolean enableProcessDefinitionCompaction) {
+    this.enableProcessDefinitionCompaction = enableProcessDefinitionCompaction;
+    return this;
+  }
+  
   public DeploymentCache<ProcessDefinitionEntity> getProcessDefinitionCache() {
     return processDefinitionCache;
   }
@@ -2457,6 +2707,28 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
 	public void setProcessValidator(ProcessValidator processValidator) {
 		this.processValidator = processValidator;
+		if (processValidationCache != null) {
+			// results of the previous validator don't apply
+			processValidationCache.clear();
+		}
+	}
+
+	public ProcessValidationCache getProcessValidationCache() {
+		return processValidationCache;
+	}
+
+	public ProcessEngineConfigurationImpl setProcessValidationCache(ProcessValidationCache processValidationCache) {
+		this.processValidationCache = processValidationCache;
+		return this;
+	}
+
+	public int getProcessValidationCacheLimit() {
+		return processValidationCacheLimit;
+	}
+
+	public ProcessEngineConfigurationImpl setProcessValidationCacheLimit(int processValidationCacheLimit) {
+		this.processValidationCacheLimit = processValidationCacheLimit;
+		return this;
 	}
 
 	public boolean isEnableEventDispatcher() {
@@ -2499,6 +2771,161 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 		return this;
 	}
 
+  public boolean isEnableCommandMetrics() {
+    return enableCommandMetrics;
+  }
+
+  public ProcessEngineConfigurationImpl setEnableCommandMetrics(boolean enableCommandMetrics) {
+    this.enableCommandMetrics = enableCommandMetrics;
+    return this;
+  }
+
+  public CommandMetrics getCommandMetrics() {
+    return commandMetrics;
+  }
+
+  public ProcessEngineConfigurationImpl setCommandMetrics(CommandMetrics commandMetrics) {
+    this.commandMetrics = commandMetrics;
+    return this;
+  }
+
+  public OptimisticLockingStatistics getOptimisticLockingStatistics() {
+    return optimisticLockingStatistics;
+  }
+
+  public ProcessEngineConfigurationImpl setOptimisticLockingStatistics(OptimisticLockingStatistics optimisticLockingStatistics) {
+    this.optimisticLockingStatistics = optimisticLockingStatistics;
+    return this;
+  }
+
+  public int getStreamingQueryFetchSize() {
+    return streamingQueryFetchSize;
+  }
+
+  public ProcessEngineConfigurationImpl setStreamingQueryFetchSize(int streamingQueryFetchSize) {
+    this.streamingQueryFetchSize = streamingQueryFetchSize;
+    return this;
+  }
+
+  public boolean isEnableParallelGatewayJoinRowLock() {
+    return enableParallelGatewayJoinRowLock;
+  }
+
+  public ProcessEngineConfigurationImpl setEnableParallelGatewayJoinRowLock(boolean enableParallelGatewayJoinRowLock) {
+    this.enableParallelGatewayJoinRowLock = enableParallelGatewayJoinRowLock;
+    return this;
+  }
+
+  public Map<String, Integer> getHistoryRetentionPolicies() {
+    return historyRetentionPolicies;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryRetentionPolicies(Map<String, Integer> historyRetentionPolicies) {
+    this.historyRetentionPolicies = historyRetentionPolicies;
+    return this;
+  }
+
+  public int getHistoryCleanupIntervalInMinutes() {
+    return historyCleanupIntervalInMinutes;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryCleanupIntervalInMinutes(int historyCleanupIntervalInMinutes) {
+    this.historyCleanupIntervalInMinutes = historyCleanupIntervalInMinutes;
+    return this;
+  }
+
+  public int getHistoryCleanupChunkSize() {
+    return historyCleanupChunkSize;
+  }
+
+  public ProcessEngineConfigurationImpl setHistoryCleanupChunkSize(int historyCleanupChunkSize) {
+    this.historyCleanupChunkSize = historyCleanupChunkSize;
+    return this;
+  }
+
+  public int getBatchOperationChunkSize() {
+    return batchOperationChunkSize;
+  }
+
+  public ProcessEngineConfigurationImpl setBatchOperationChunkSize(int batchOperationChunkSize) {
+    if (batchOperationChunkSize <= 0) {
+      // the batch operations would never advance to the next chunk
+      throw new ActivitiIllegalArgumentException("batchOperationChunkSize must be positive");
+    }
+    this.batchOperationChunkSize = batchOperationChunkSize;
+    return this;
+  }
+
+  public long getGroupMembershipCacheTimeToLive() {
+    return groupMembershipCacheTimeToLive;
+  }
+
+  public ProcessEngineConfigurationImpl setGroupMembershipCacheTimeToLive(long groupMembershipCacheTimeToLive) {
+    this.groupMembershipCacheTimeToLive = groupMembershipCacheTimeToLive;
+    return this;
+  }
+
+  public int getGroupMembershipCacheLimit() {
+    return groupMembershipCacheLimit;
+  }
+
+  public ProcessEngineConfigurationImpl setGroupMembershipCacheLimit(int groupMembershipCacheLimit) {
+    this.groupMembershipCacheLimit = groupMembershipCacheLimit;
+    return this;
+  }
+
+  public GroupMembershipCache getGroupMembershipCache() {
+    return groupMembershipCache;
+  }
+
+  public ProcessEngineConfigurationImpl setGroupMembershipCache(GroupMembershipCache groupMembershipCache) {
+    this.groupMembershipCache = groupMembershipCache;
+    return this;
+  }
+
+  public boolean isEnableConcurrentServiceTasks() {
+    return enableConcurrentServiceTasks;
+  }
+
+  public ProcessEngineConfigurationImpl setEnableConcurrentServiceTasks(boolean enableConcurrentServiceTasks) {
+    this.enableConcurrentServiceTasks = enableConcurrentServiceTasks;
+    return this;
+  }
+
+  public int getConcurrentServiceTaskPoolSize() {
+    return concurrentServiceTaskPoolSize;
+  }
+
+  public ProcessEngineConfigurationImpl setConcurrentServiceTaskPoolSize(int concurrentServiceTaskPoolSize) {
+    this.concurrentServiceTaskPoolSize = concurrentServiceTaskPoolSize;
+    return this;
+  }
+
+  /**
+   * @return the executor service running concurrent service tasks, or null when concurrent service tasks are disabled
+   */
+  public ExecutorService getConcurrentServiceTaskExecutorService() {
+    return enableConcurrentServiceTasks ? concurrentServiceTaskExecutorService : null;
+  }
+
+  public ProcessEngineConfigurationImpl setConcurrentServiceTaskExecutorService(ExecutorService concurrentServiceTaskExecutorService) {
+    this.concurrentServiceTaskExecutorService = concurrentServiceTaskExecutorService;
+    return this;
+  }
+
+  public boolean isShutdownConcurrentServiceTaskExecutorService() {
+    return shutdownConcurrentServiceTaskExecutorService;
+  }
+
+  public int getParallelMultiInstanceChunkSize() {
+    return parallelMultiInstanceChunkSize;
+  }
+
+  public ProcessEngineConfigurationImpl setParallelMultiInstanceChunkSize(int parallelMultiInstanceChunkSize) {
+    this.parallelMultiInstanceChunkSize = parallelMultiInstanceChunkSize;
+    return this;
+  }
+
   public ObjectMapper getObjectMapper() {
     return objectMapper;
   }
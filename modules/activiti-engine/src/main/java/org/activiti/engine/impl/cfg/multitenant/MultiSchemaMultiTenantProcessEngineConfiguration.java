@@ -20,6 +20,7 @@ import org.activiti.engine.ProcessEngine;
 import org.activiti.engine.ProcessEngineConfiguration;
 import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
 import org.activiti.engine.impl.asyncexecutor.multitenant.ExecutorPerTenantAsyncExecutor;
+import org.activiti.engine.impl.asyncexecutor.multitenant.FairSharedAsyncExecutor;
 import org.activiti.engine.impl.asyncexecutor.multitenant.SharedExecutorServiceAsyncExecutor;
 import org.activiti.engine.impl.asyncexecutor.multitenant.TenantAwareAsyncExecutor;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
@@ -48,10 +49,12 @@ import org.slf4j.LoggerFactory;
  * - Adding tenants (also after boot!) is done using the {@link #registerTenant(String, DataSource)} operations.
  * 
  * - Currently, this config does not work with the 'old' {@link JobExecutor}, but only with the newer {@link AsyncExecutor}.
- *   There are two different implementations: 
+ *   There are three different implementations: 
  *     - The {@link ExecutorPerTenantAsyncExecutor}: creates one full {@link AsyncExecutor} for each tenant.
  *     - The {@link SharedExecutorServiceAsyncExecutor}: created acquisition threads for each tenant, but the 
  *       job execution is done using a process engine shared {@link ExecutorService}.
+ *     - The {@link FairSharedAsyncExecutor}: one acquisition thread for all tenants, which divides a process engine 
+ *       shared {@link ExecutorService} between the tenants according to their weight and maximum of concurrent jobs.
  *   The {@link AsyncExecutor} needs to be injected using the {@link #setAsyncExecutor(AsyncExecutor)} method on this class.    
  * 
  * databasetype
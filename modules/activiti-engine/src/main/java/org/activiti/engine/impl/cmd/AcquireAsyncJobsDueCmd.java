@@ -30,16 +30,26 @@ import org.activiti.engine.impl.persistence.entity.JobEntity;
 public class AcquireAsyncJobsDueCmd implements Command<AcquiredJobEntities> {
 
   private final AsyncExecutor asyncExecutor;
+  private final int maxJobsPerAcquisition;
 
   public AcquireAsyncJobsDueCmd(AsyncExecutor asyncExecutor) {
+    this(asyncExecutor, asyncExecutor.getMaxAsyncJobsDuePerAcquisition());
+  }
+  
+  /**
+   * @param maxJobsPerAcquisition the maximum number of jobs to acquire, instead of the 
+   *   {@link AsyncExecutor#getMaxAsyncJobsDuePerAcquisition()} of the async executor
+   */
+  public AcquireAsyncJobsDueCmd(AsyncExecutor asyncExecutor, int maxJobsPerAcquisition) {
     this.asyncExecutor = asyncExecutor;
+    this.maxJobsPerAcquisition = maxJobsPerAcquisition;
   }
   
   public AcquiredJobEntities execute(CommandContext commandContext) {
     AcquiredJobEntities acquiredJobs = new AcquiredJobEntities();
     List<JobEntity> jobs = commandContext
       .getJobEntityManager()
-      .findAsyncJobsDueToExecute(new Page(0, asyncExecutor.getMaxAsyncJobsDuePerAcquisition()));
+      .findAsyncJobsDueToExecute(new Page(0, maxJobsPerAcquisition));
     
     for (JobEntity job: jobs) {
       lockJob(commandContext, job, asyncExecutor.getAsyncJobLockTimeInMillis());
@@ -0,0 +1,76 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Re-reads a timer job that was kept in memory by the async executor, when it is due.
+ * Returns the current state of the job, locked by the given lock owner, 
+ * or null when the job does not exist anymore or is locked by another async executor.
+ */
+public class AcquireDueTimerJobCmd implements Command<JobEntity> {
+  
+  private static Logger log = LoggerFactory.getLogger(AcquireDueTimerJobCmd.class);
+
+  protected final String jobId;
+  protected final String lockOwner;
+  protected final int lockTimeInMillis;
+
+  public AcquireDueTimerJobCmd(String jobId, String lockOwner, int lockTimeInMillis) {
+    this.jobId = jobId;
+    this.lockOwner = lockOwner;
+    this.lockTimeInMillis = lockTimeInMillis;
+  }
+
+  public JobEntity execute(CommandContext commandContext) {
+    JobEntity job = commandContext.getJobEntityManager().findJobById(jobId);
+    if (job == null) {
+      log.debug("timer job {} does not exist anymore", jobId);
+      return null;
+    }
+    
+    Date now = commandContext.getProcessEngineConfiguration().getClock().getCurrentTime();
+    boolean lockedByOther = job.getLockOwner() != null && !job.getLockOwner().equals(lockOwner)
+        && job.getLockExpirationTime() != null && job.getLockExpirationTime().after(now);
+    if (lockedByOther) {
+      log.debug("timer job {} is locked by {}", jobId, job.getLockOwner());
+      return null;
+    }
+    
+    boolean lockedByThis = lockOwner.equals(job.getLockOwner()) 
+        && job.getLockExpirationTime() != null && job.getLockExpirationTime().after(now);
+    if (!lockedByThis) {
+      // The revision check when flushing the lock protects against another async executor acquiring it concurrently
+      Date lockStartTime = now;
+      if (job.getDuedate() != null && job.getDuedate().after(now)) {
+        lockStartTime = job.getDuedate();
+      }
+      GregorianCalendar gregorianCalendar = new GregorianCalendar();
+      gregorianCalendar.setTime(lockStartTime);
+      gregorianCalendar.add(Calendar.MILLISECOND, lockTimeInMillis);
+      job.setLockOwner(lockOwner);
+      job.setLockExpirationTime(gregorianCalendar.getTime());
+    }
+    return job;
+  }
+
+}
@@ -13,6 +13,7 @@
 package org.activiti.engine.impl.cmd;
 
 import java.util.Calendar;
+import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
 
@@ -31,18 +32,35 @@ public class AcquireTimerJobsCmd implements Command<AcquiredJobEntities> {
   private final String lockOwner;
   private final int lockTimeInMillis;
   private final int maxJobsPerAcquisition;
+  private final int lookAheadTimeInMillis;
 
   public AcquireTimerJobsCmd(String lockOwner, int lockTimeInMillis, int maxJobsPerAcquisition) {
+    this(lockOwner, lockTimeInMillis, maxJobsPerAcquisition, 0);
+  }
+  
+  /**
+   * @param lookAheadTimeInMillis when larger than 0, timer jobs that become due within this amount of time
+   *   are acquired too. Their lock is extended with the time left until they are due.
+   */
+  public AcquireTimerJobsCmd(String lockOwner, int lockTimeInMillis, int maxJobsPerAcquisition, int lookAheadTimeInMillis) {
     this.lockOwner = lockOwner;
     this.lockTimeInMillis = lockTimeInMillis;
     this.maxJobsPerAcquisition = maxJobsPerAcquisition;
+    this.lookAheadTimeInMillis = lookAheadTimeInMillis;
   }
   
   public AcquiredJobEntities execute(CommandContext commandContext) {
     AcquiredJobEntities acquiredJobs = new AcquiredJobEntities();
-    List<JobEntity> jobs = commandContext
-      .getJobEntityManager()
-      .findNextTimerJobsToExecute(new Page(0, maxJobsPerAcquisition));
+    List<JobEntity> jobs = null;
+    if (lookAheadTimeInMillis > 0) {
+      jobs = commandContext
+        .getJobEntityManager()
+        .findNextTimerJobsToExecute(new Page(0, maxJobsPerAcquisition), lookAheadTimeInMillis);
+    } else {
+      jobs = commandContext
+        .getJobEntityManager()
+        .findNextTimerJobsToExecute(new Page(0, maxJobsPerAcquisition));
+    }
 
     for (JobEntity job: jobs) {
       if (job != null && !acquiredJobs.contains(job.getId())) {
@@ -57,7 +75,12 @@ public class AcquireTimerJobsCmd implements Command<AcquiredJobEntities> {
   protected void lockJob(CommandContext commandContext, JobEntity job, String lockOwner, int lockTimeInMillis) {    
     job.setLockOwner(lockOwner);
     GregorianCalendar gregorianCalendar = new GregorianCalendar();
-    gregorianCalendar.setTime(commandContext.getProcessEngineConfiguration().getClock().getCurrentTime());
+    Date lockStartTime = commandContext.getProcessEngineConfiguration().getClock().getCurrentTime();
+    if (job.getDuedate() != null && job.getDuedate().after(lockStartTime)) {
+      // job acquired ahead of its due date: it must stay locked until it has been executed
+      lockStartTime = job.getDuedate();
+    }
+    gregorianCalendar.setTime(lockStartTime);
     gregorianCalendar.add(Calendar.MILLISECOND, lockTimeInMillis);
     job.setLockExpirationTime(gregorianCalendar.getTime());    
   }
@@ -0,0 +1,39 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.impl.interceptor.Command;
+
+public class CompleteTasksCmd extends TaskBatchCmd {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected Map<String, Object> variables;
+  
+  public CompleteTasksCmd(List<String> taskIds, Map<String, Object> variables) {
+    super(taskIds);
+    this.variables = variables;
+  }
+
+  public Command<?> createTaskCmd(String taskId) {
+    return new CompleteTaskCmd(taskId, variables);
+  }
+
+  public TaskBatchCmd forTaskIds(List<String> taskIds) {
+    return new CompleteTasksCmd(taskIds, variables);
+  }
+
+}
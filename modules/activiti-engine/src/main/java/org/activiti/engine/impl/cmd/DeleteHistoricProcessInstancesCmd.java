@@ -0,0 +1,38 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import org.activiti.engine.impl.HistoricProcessInstanceDeleteBuilderImpl;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+
+/**
+ * Deletes one chunk of historic process instances matching the criteria of a {@link HistoricProcessInstanceDeleteBuilderImpl}.
+ * Returns the number of matching historic process instances that were deleted: when this is less than 
+ * the chunk size, no more matching instances are left.
+ */
+public class DeleteHistoricProcessInstancesCmd implements Command<Integer> {
+
+  protected HistoricProcessInstanceDeleteBuilderImpl criteria;
+
+  public DeleteHistoricProcessInstancesCmd(HistoricProcessInstanceDeleteBuilderImpl criteria) {
+    this.criteria = criteria;
+  }
+
+  public Integer execute(CommandContext commandContext) {
+    return commandContext
+      .getHistoricProcessInstanceEntityManager()
+      .deleteHistoricProcessInstances(criteria);
+  }
+
+}
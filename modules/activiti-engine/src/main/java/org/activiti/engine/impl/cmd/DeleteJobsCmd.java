@@ -0,0 +1,41 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+
+/**
+ * Deletes the jobs with the given ids that are not locked, together with their exception stacktraces, 
+ * using bulk delete statements. Returns the number of jobs that were deleted.
+ */
+public class DeleteJobsCmd implements Command<Integer>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected List<String> jobIds;
+
+  public DeleteJobsCmd(List<String> jobIds) {
+    this.jobIds = jobIds;
+  }
+
+  public Integer execute(CommandContext commandContext) {
+    return commandContext
+      .getJobEntityManager()
+      .deleteJobs(jobIds, commandContext.getProcessEngineConfiguration().getClock().getCurrentTime());
+  }
+
+}
@@ -24,6 +24,7 @@ import org.activiti.engine.delegate.event.ActivitiEventDispatcher;
 import org.activiti.engine.delegate.event.ActivitiEventType;
 import org.activiti.engine.delegate.event.impl.ActivitiEventBuilder;
 import org.activiti.engine.impl.calendar.DurationHelper;
+import org.activiti.engine.impl.calendar.ParsedScheduleCache;
 import org.activiti.engine.impl.cfg.TransactionContext;
 import org.activiti.engine.impl.cfg.TransactionState;
 import org.activiti.engine.impl.interceptor.Command;
@@ -85,7 +86,7 @@ public class JobRetryCmd implements Command<Object> {
     } else {    	
       String failedJobRetryTimeCycle = activity.getFailedJobRetryTimeCycleValue();
       try {
-        DurationHelper durationHelper = new DurationHelper(failedJobRetryTimeCycle, processEngineConfig.getClock());
+        DurationHelper durationHelper = ParsedScheduleCache.getInstance().getDurationHelper(failedJobRetryTimeCycle, -1, processEngineConfig.getClock());
         job.setLockOwner(null);
         job.setLockExpirationTime(null);
         job.setDuedate(durationHelper.getDateAfter());
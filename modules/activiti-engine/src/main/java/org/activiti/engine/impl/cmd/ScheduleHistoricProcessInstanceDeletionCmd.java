@@ -0,0 +1,56 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.activiti.engine.impl.HistoricProcessInstanceDeleteBuilderImpl;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.jobexecutor.HistoricProcessInstanceDeleteJobHandler;
+import org.activiti.engine.impl.persistence.entity.MessageEntity;
+
+/**
+ * Schedules a job deleting the next chunk of historic process instances matching the criteria 
+ * of a {@link HistoricProcessInstanceDeleteBuilderImpl}.
+ */
+public class ScheduleHistoricProcessInstanceDeletionCmd implements Command<Void> {
+
+  protected HistoricProcessInstanceDeleteBuilderImpl criteria;
+  protected long nrOfDeletedInstances;
+
+  /**
+   * @param nrOfDeletedInstances the number of instances deleted by the previous chunks, to report progress
+   */
+  public ScheduleHistoricProcessInstanceDeletionCmd(HistoricProcessInstanceDeleteBuilderImpl criteria, long nrOfDeletedInstances) {
+    this.criteria = criteria;
+    this.nrOfDeletedInstances = nrOfDeletedInstances;
+  }
+
+  public Void execute(CommandContext commandContext) {
+    MessageEntity message = new MessageEntity();
+    message.setJobHandlerType(HistoricProcessInstanceDeleteJobHandler.TYPE);
+    message.setJobHandlerConfiguration(HistoricProcessInstanceDeleteJobHandler.createConfiguration(criteria, nrOfDeletedInstances));
+    message.setTenantId(criteria.getTenantId());
+    
+    GregorianCalendar expireCal = new GregorianCalendar();
+    expireCal.setTime(commandContext.getProcessEngineConfiguration().getClock().getCurrentTime());
+    expireCal.add(Calendar.SECOND, commandContext.getProcessEngineConfiguration().getLockTimeAsyncJobWaitTime());
+    message.setLockExpirationTime(expireCal.getTime());
+    
+    commandContext.getJobEntityManager().send(message);
+    return null;
+  }
+
+}
@@ -0,0 +1,74 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.util.Date;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.jobexecutor.HistoryCleanupJobHandler;
+import org.activiti.engine.impl.persistence.entity.PropertyEntity;
+import org.activiti.engine.impl.persistence.entity.TimerEntity;
+
+/**
+ * Schedules the timer applying the history retention policies, after the given number of minutes.
+ */
+public class ScheduleHistoryCleanupCmd implements Command<Void> {
+  
+  /**
+   * The property that is inserted or updated together with a timer scheduled only if there is none yet, 
+   * so that process engines scheduling it concurrently conflict on it, and only one of them succeeds.
+   */
+  public static final String SCHEDULING_GUARD_PROPERTY = "history.cleanup.scheduled";
+
+  protected int delayInMinutes;
+  protected boolean onlyIfNotScheduled;
+
+  public ScheduleHistoryCleanupCmd(int delayInMinutes) {
+    this(delayInMinutes, false);
+  }
+  
+  /**
+   * @param onlyIfNotScheduled when true, no timer is scheduled if one exists already (eg. created by another process engine).
+   *        When another process engine schedules the timer concurrently, this command fails with an optimistic
+   *        locking exception or a constraint violation, and executing it again doesn't schedule another timer.
+   */
+  public ScheduleHistoryCleanupCmd(int delayInMinutes, boolean onlyIfNotScheduled) {
+    this.delayInMinutes = delayInMinutes;
+    this.onlyIfNotScheduled = onlyIfNotScheduled;
+  }
+
+  public Void execute(CommandContext commandContext) {
+    Date now = commandContext.getProcessEngineConfiguration().getClock().getCurrentTime();
+    
+    if (onlyIfNotScheduled) {
+      // read before counting the timers: the revision then tells whether a timer was scheduled in between
+      PropertyEntity schedulingGuard = commandContext.getPropertyEntityManager().findPropertyById(SCHEDULING_GUARD_PROPERTY);
+      if (commandContext.getJobEntityManager().findJobCountByHandlerType(HistoryCleanupJobHandler.TYPE) > 0) {
+        return null;
+      }
+      if (schedulingGuard == null) {
+        commandContext.getDbSqlSession().insert(new PropertyEntity(SCHEDULING_GUARD_PROPERTY, Long.toString(now.getTime())));
+      } else {
+        schedulingGuard.setValue(Long.toString(now.getTime()));
+      }
+    }
+    
+    TimerEntity timer = new TimerEntity();
+    timer.setJobHandlerType(HistoryCleanupJobHandler.TYPE);
+    timer.setDuedate(new Date(now.getTime() + delayInMinutes * 60L * 1000L));
+    commandContext.getJobEntityManager().schedule(timer);
+    return null;
+  }
+
+}
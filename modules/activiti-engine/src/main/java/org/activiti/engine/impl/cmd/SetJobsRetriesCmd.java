@@ -0,0 +1,52 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+
+/**
+ * Sets the retries of the jobs with the given ids that are not locked, with one update statement per 
+ * batch of ids. When a due date delay is given, the jobs become due that long from now.
+ * Returns the number of jobs that were updated.
+ */
+public class SetJobsRetriesCmd implements Command<Integer>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected List<String> jobIds;
+  protected int retries;
+  protected Long dueDateDelay;
+
+  public SetJobsRetriesCmd(List<String> jobIds, int retries, Long dueDateDelay) {
+    this.jobIds = jobIds;
+    this.retries = retries;
+    this.dueDateDelay = dueDateDelay;
+  }
+
+  public Integer execute(CommandContext commandContext) {
+    Date now = commandContext.getProcessEngineConfiguration().getClock().getCurrentTime();
+    Date duedate = null;
+    if (dueDateDelay != null) {
+      duedate = new Date(now.getTime() + dueDateDelay);
+    }
+    return commandContext
+      .getJobEntityManager()
+      .updateJobRetries(jobIds, retries, duedate, now);
+  }
+
+}
@@ -0,0 +1,74 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.activiti.engine.impl.runtime.ProcessInstanceBatchBuilderImpl.ProcessInstanceToStart;
+import org.activiti.engine.runtime.ProcessInstance;
+
+/**
+ * Starts a chunk of the process instances of a {@link org.activiti.engine.impl.runtime.ProcessInstanceBatchBuilderImpl} 
+ * in one transaction. The process definition is resolved once for the whole chunk.
+ */
+public class StartProcessInstanceBatchCmd implements Command<List<ProcessInstance>>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected String processDefinitionKey;
+  protected String processDefinitionId;
+  protected String tenantId;
+  protected List<ProcessInstanceToStart> processInstancesToStart;
+  
+  protected String resolvedProcessDefinitionId;
+  
+  public StartProcessInstanceBatchCmd(String processDefinitionKey, String processDefinitionId, String tenantId, 
+          List<ProcessInstanceToStart> processInstancesToStart) {
+    this.processDefinitionKey = processDefinitionKey;
+    this.processDefinitionId = processDefinitionId;
+    this.tenantId = tenantId;
+    this.processInstancesToStart = processInstancesToStart;
+  }
+
+  public List<ProcessInstance> execute(CommandContext commandContext) {
+    ProcessDefinitionEntity processDefinition = StartProcessInstanceCmd.findProcessDefinition(commandContext, 
+            processDefinitionKey, processDefinitionId, tenantId);
+    resolvedProcessDefinitionId = processDefinition.getId();
+    
+    List<ProcessInstance> processInstances = new ArrayList<ProcessInstance>(processInstancesToStart.size());
+    for (ProcessInstanceToStart processInstanceToStart : processInstancesToStart) {
+      ExecutionEntity processInstance = processDefinition.createProcessInstance(processInstanceToStart.getBusinessKey());
+      if (processInstanceToStart.getVariables() != null) {
+        processInstance.setVariables(processInstanceToStart.getVariables());
+      }
+      processInstance.start();
+      processInstances.add(processInstance);
+    }
+    return processInstances;
+  }
+  
+  /**
+   * @return the id of the process definition the process instances are started with, 
+   *         or null if the process definition couldn't be resolved
+   */
+  public String getResolvedProcessDefinitionId() {
+    return resolvedProcessDefinitionId;
+  }
+
+}
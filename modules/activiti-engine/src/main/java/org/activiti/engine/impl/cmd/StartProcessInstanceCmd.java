@@ -64,6 +64,32 @@ public class StartProcessInstanceCmd<T> implements Command<ProcessInstance>, Ser
   }
   
   public ProcessInstance execute(CommandContext commandContext) {
+    ProcessDefinitionEntity processDefinition = findProcessDefinition(commandContext, processDefinitionKey, processDefinitionId, tenantId);
+
+    // Start the process instance
+    ExecutionEntity processInstance = processDefinition.createProcessInstance(businessKey);
+
+    // now set the variables passed into the start command
+    initializeVariables(processInstance);
+
+    // now set processInstance name
+    if (processInstanceName != null) {
+      processInstance.setName(processInstanceName);
+      commandContext.getHistoryManager().recordProcessInstanceNameChange(processInstance.getId(), processInstanceName);
+    }
+    
+    processInstance.start();
+    
+    return processInstance;
+  }
+  
+  /**
+   * Finds the deployed process definition by id, or else the latest version by key (and tenant), 
+   * which must not be suspended.
+   */
+  protected static ProcessDefinitionEntity findProcessDefinition(CommandContext commandContext, 
+          String processDefinitionKey, String processDefinitionId, String tenantId) {
+    
     DeploymentManager deploymentManager = commandContext
       .getProcessEngineConfiguration()
       .getDeploymentManager();
@@ -94,22 +120,8 @@ public class StartProcessInstanceCmd<T> implements Command<ProcessInstance>, Ser
       throw new ActivitiException("Cannot start process instance. Process definition " 
               + processDefinition.getName() + " (id = " + processDefinition.getId() + ") is suspended");
     }
-
-    // Start the process instance
-    ExecutionEntity processInstance = processDefinition.createProcessInstance(businessKey);
-
-    // now set the variables passed into the start command
-    initializeVariables(processInstance);
-
-    // now set processInstance name
-    if (processInstanceName != null) {
-      processInstance.setName(processInstanceName);
-      commandContext.getHistoryManager().recordProcessInstanceNameChange(processInstance.getId(), processInstanceName);
-    }
-    
-    processInstance.start();
     
-    return processInstance;
+    return processDefinition;
   }
 
   protected void initializeVariables(ExecutionEntity processInstance) {
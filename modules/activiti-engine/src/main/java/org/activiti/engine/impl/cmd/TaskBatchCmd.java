@@ -0,0 +1,103 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.activiti.engine.ActivitiIllegalArgumentException;
+import org.activiti.engine.impl.db.DbSqlSession;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.IdentityLinkEntity;
+import org.activiti.engine.impl.persistence.entity.TaskEntity;
+
+/**
+ * Executes a task command for every task of a chunk, in one transaction. The tasks, their executions and 
+ * their identity links are loaded up front with one query each, instead of one query per task.
+ */
+public abstract class TaskBatchCmd implements Command<Void>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected List<String> taskIds;
+  
+  public TaskBatchCmd(List<String> taskIds) {
+    if (taskIds == null) {
+      throw new ActivitiIllegalArgumentException("taskIds is null");
+    }
+    this.taskIds = taskIds;
+  }
+  
+  public Void execute(CommandContext commandContext) {
+    for (List<String> chunk : DbSqlSession.partitionForInClause(taskIds)) {
+      loadTasks(commandContext, chunk);
+    }
+    
+    for (String taskId : taskIds) {
+      createTaskCmd(taskId).execute(commandContext);
+    }
+    return null;
+  }
+  
+  /**
+   * Loads the tasks with the given ids in the entity cache of the session, so the task commands find them there.
+   */
+  protected void loadTasks(CommandContext commandContext, List<String> taskIds) {
+    List<TaskEntity> tasks = commandContext.getTaskEntityManager().findTasksByIds(taskIds);
+    
+    Set<String> executionIds = new LinkedHashSet<String>();
+    Map<String, List<IdentityLinkEntity>> identityLinksByTaskId = new HashMap<String, List<IdentityLinkEntity>>();
+    for (TaskEntity task : tasks) {
+      if (task.getExecutionId() != null) {
+        executionIds.add(task.getExecutionId());
+        executionIds.add(task.getProcessInstanceId());
+      }
+      identityLinksByTaskId.put(task.getId(), new ArrayList<IdentityLinkEntity>());
+    }
+    if (tasks.isEmpty()) {
+      return;
+    }
+    
+    if (!executionIds.isEmpty()) {
+      commandContext.getExecutionEntityManager().findExecutionsByIds(new ArrayList<String>(executionIds));
+    }
+    
+    for (IdentityLinkEntity identityLink : commandContext.getIdentityLinkEntityManager().findIdentityLinksByTaskIds(taskIds)) {
+      identityLinksByTaskId.get(identityLink.getTaskId()).add(identityLink);
+    }
+    for (TaskEntity task : tasks) {
+      task.initializeIdentityLinks(identityLinksByTaskId.get(task.getId()));
+    }
+  }
+  
+  /**
+   * @return the command executed for the task with the given id
+   */
+  public abstract Command<?> createTaskCmd(String taskId);
+  
+  /**
+   * @return a command with the same parameters as this one, for the given tasks
+   */
+  public abstract TaskBatchCmd forTaskIds(List<String> taskIds);
+
+  public List<String> getTaskIds() {
+    return taskIds;
+  }
+
+}
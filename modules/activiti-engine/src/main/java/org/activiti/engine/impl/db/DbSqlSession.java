@@ -60,11 +60,18 @@ import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.db.upgrade.DbUpgradeStep;
 import org.activiti.engine.impl.history.HistoryLevel;
 import org.activiti.engine.impl.interceptor.Session;
+import org.activiti.engine.impl.persistence.entity.EventSubscriptionEntity;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
 import org.activiti.engine.impl.persistence.entity.PropertyEntity;
+import org.activiti.engine.impl.persistence.entity.TaskEntity;
 import org.activiti.engine.impl.persistence.entity.VariableInstanceEntity;
 import org.activiti.engine.impl.util.IoUtil;
 import org.activiti.engine.impl.util.ReflectUtil;
 import org.activiti.engine.impl.variable.DeserializedObject;
+import org.activiti.engine.query.QueryResultHandler;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.SqlSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -83,6 +90,12 @@ public class DbSqlSession implements Session {
   
   protected static final Pattern CLEAN_VERSION_REGEX = Pattern.compile("\\d\\.\\d*");
   
+  /**
+   * The maximum number of values passed to the 'in' clause of a statement, 
+   * which keeps it below the limits of all databases (eg. Oracle allows 1000 expressions at most).
+   */
+  public static final int MAX_IN_CLAUSE_SIZE = 500;
+  
   protected static final List<ActivitiVersion> ACTIVITI_VERSIONS = new ArrayList<ActivitiVersion>();
   static {
 	  
@@ -182,15 +195,38 @@ public class DbSqlSession implements Session {
   }
   
   public void delete(PersistentObject persistentObject) {
-    for (DeleteOperation deleteOperation: deleteOperations) {
-        if (deleteOperation.sameIdentity(persistentObject)) {
-          log.debug("skipping redundant delete: {}", persistentObject);
-          return; // Skip this delete. It was already added.
-        }
+    if (isDeleted(persistentObject)) {
+      log.debug("skipping redundant delete: {}", persistentObject);
+      return; // Skip this delete. It was already added.
     }
     
     deleteOperations.add(new CheckedDeleteOperation(persistentObject));
   }
+  
+  /**
+   * Splits the given values in lists of at most {@link #MAX_IN_CLAUSE_SIZE} values, 
+   * that can each be used in the 'in' clause of a statement.
+   */
+  public static <T> List<List<T>> partitionForInClause(Collection<T> values) {
+    List<T> valueList = values instanceof List ? (List<T>) values : new ArrayList<T>(values);
+    List<List<T>> partitions = new ArrayList<List<T>>();
+    for (int fromIndex = 0; fromIndex < valueList.size(); fromIndex += MAX_IN_CLAUSE_SIZE) {
+      partitions.add(valueList.subList(fromIndex, Math.min(fromIndex + MAX_IN_CLAUSE_SIZE, valueList.size())));
+    }
+    return partitions;
+  }
+  
+  /**
+   * @return true if the given object is deleted in this session already, not counting bulk deletes
+   */
+  public boolean isDeleted(PersistentObject persistentObject) {
+    for (DeleteOperation deleteOperation: deleteOperations) {
+      if (deleteOperation.sameIdentity(persistentObject)) {
+        return true;
+      }
+    }
+    return false;
+  }
 
   public interface DeleteOperation {
   	
@@ -295,7 +331,7 @@ public class DbSqlSession implements Session {
       if (persistentObject instanceof HasRevision) {
         int nrOfRowsDeleted = sqlSession.delete(deleteStatement, persistentObject);
         if (nrOfRowsDeleted == 0) {
-          throw new ActivitiOptimisticLockingException(persistentObject + " was updated by another transaction concurrently");
+          throw createOptimisticLockingException(persistentObject + " was updated by another transaction concurrently", persistentObject);
         }
       } else {
         sqlSession.delete(deleteStatement, persistentObject);
@@ -364,7 +400,7 @@ public class DbSqlSession implements Session {
         int nrOfRowsDeleted = sqlSession.delete(bulkDeleteStatement, persistentObjects);
         if (nrOfRowsDeleted < persistentObjects.size()) {
           throw new ActivitiOptimisticLockingException("One of the entities " + persistentObjectClass 
-          		+ " was updated by another transaction concurrently while trying to do a bulk delete");
+          		+ " was updated by another transaction concurrently while trying to do a bulk delete", persistentObjectClass, null);
         }
       } else {
         sqlSession.delete(bulkDeleteStatement, persistentObjects);
@@ -453,6 +489,21 @@ public class DbSqlSession implements Session {
     return sqlSession.selectList(statement, parameter);
   }
 
+  /**
+   * Executes the select and hands every loaded object to the handler as soon as it is read from the result set.
+   * The objects are not collected in a list and not put in the session cache (so changes to them are not flushed).
+   * Meant for the "_streaming" statements, which use the configured streaming fetch size.
+   */
+  public <T> void selectWithResultHandler(String statement, Object parameter, final QueryResultHandler<T> resultHandler) {
+    statement = dbSqlSessionFactory.mapStatement(statement);
+    sqlSession.select(statement, parameter, new ResultHandler() {
+      @SuppressWarnings("unchecked")
+      public void handleResult(ResultContext resultContext) {
+        resultHandler.handleResult((T) resultContext.getResultObject());
+      }
+    });
+  }
+
   public Object selectOne(String statement, Object parameter) {
     statement = dbSqlSessionFactory.mapStatement(statement);
     Object result = sqlSession.selectOne(statement, parameter);
@@ -877,7 +928,7 @@ public class DbSqlSession implements Session {
       log.debug("updating: {}", updatedObject);
       int updatedRecords = sqlSession.update(updateStatement, updatedObject);
       if (updatedRecords!=1) {
-        throw new ActivitiOptimisticLockingException(updatedObject + " was updated by another transaction concurrently");
+        throw createOptimisticLockingException(updatedObject + " was updated by another transaction concurrently", updatedObject);
       } 
       
       // See https://activiti.atlassian.net/browse/ACT-1290
@@ -888,6 +939,22 @@ public class DbSqlSession implements Session {
     }
     updatedObjects.clear();
   }
+  
+  protected ActivitiOptimisticLockingException createOptimisticLockingException(String message, PersistentObject persistentObject) {
+    String processInstanceId = null;
+    if (persistentObject instanceof ExecutionEntity) {
+      processInstanceId = ((ExecutionEntity) persistentObject).getProcessInstanceId();
+    } else if (persistentObject instanceof TaskEntity) {
+      processInstanceId = ((TaskEntity) persistentObject).getProcessInstanceId();
+    } else if (persistentObject instanceof JobEntity) {
+      processInstanceId = ((JobEntity) persistentObject).getProcessInstanceId();
+    } else if (persistentObject instanceof VariableInstanceEntity) {
+      processInstanceId = ((VariableInstanceEntity) persistentObject).getProcessInstanceId();
+    } else if (persistentObject instanceof EventSubscriptionEntity) {
+      processInstanceId = ((EventSubscriptionEntity) persistentObject).getProcessInstanceId();
+    }
+    return new ActivitiOptimisticLockingException(message, persistentObject.getClass(), processInstanceId);
+  }
 
   protected void flushDeletes(List<DeleteOperation> removedOperations) {
     boolean dispatchEvent = Context.getProcessEngineConfiguration().getEventDispatcher().isEnabled();
@@ -0,0 +1,155 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.identity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.activiti.engine.identity.Group;
+import org.activiti.engine.impl.cfg.TransactionListener;
+import org.activiti.engine.impl.cfg.TransactionState;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.GroupIdentityManager;
+import org.activiti.engine.runtime.ClockReader;
+
+/**
+ * Shared cache of the ids of the groups a user belongs to, used when querying tasks 
+ * for a candidate user, so the {@link GroupIdentityManager} (eg. an LDAP server) is not asked 
+ * for the groups of the user on every query.
+ * 
+ * Entries expire after the configured time to live. Changes to memberships through the 
+ * IdentityService invalidate the entries of the users involved; changes made directly 
+ * in the identity store are visible once the entry expired.
+ */
+public class GroupMembershipCache {
+  
+  protected final Map<String, CacheEntry> cache = new ConcurrentHashMap<String, CacheEntry>();
+  protected final long timeToLiveInMillis;
+  protected final int limit;
+  protected final ClockReader clockReader;
+  
+  public GroupMembershipCache(long timeToLiveInMillis, int limit, ClockReader clockReader) {
+    this.timeToLiveInMillis = timeToLiveInMillis;
+    this.limit = limit;
+    this.clockReader = clockReader;
+  }
+  
+  /**
+   * @return the ids of the groups of the user, fetched from the given {@link GroupIdentityManager} 
+   *         if they are not cached or the cached entry expired
+   */
+  public List<String> getGroupIds(String userId, GroupIdentityManager groupIdentityManager) {
+    long now = clockReader.getCurrentTime().getTime();
+    CacheEntry cacheEntry = cache.get(userId);
+    if (cacheEntry != null && cacheEntry.expirationTime > now) {
+      return cacheEntry.groupIds;
+    }
+    
+    List<Group> groups = groupIdentityManager.findGroupsByUser(userId);
+    List<String> groupIds = new ArrayList<String>(groups.size());
+    for (Group group : groups) {
+      groupIds.add(group.getId());
+    }
+    groupIds = Collections.unmodifiableList(groupIds);
+    
+    if (cache.size() >= limit && !cache.containsKey(userId)) {
+      evict(now);
+    }
+    cache.put(userId, new CacheEntry(groupIds, now + timeToLiveInMillis));
+    return groupIds;
+  }
+  
+  /** Removes the expired entries or, if there are none, the entry that expires first */
+  protected void evict(long now) {
+    String firstExpiringUserId = null;
+    long firstExpirationTime = Long.MAX_VALUE;
+    boolean expiredEntriesRemoved = false;
+    
+    Iterator<Map.Entry<String, CacheEntry>> iterator = cache.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, CacheEntry> entry = iterator.next();
+      long expirationTime = entry.getValue().expirationTime;
+      if (expirationTime <= now) {
+        iterator.remove();
+        expiredEntriesRemoved = true;
+      } else if (expirationTime < firstExpirationTime) {
+        firstExpirationTime = expirationTime;
+        firstExpiringUserId = entry.getKey();
+      }
+    }
+    
+    if (!expiredEntriesRemoved && firstExpiringUserId != null) {
+      cache.remove(firstExpiringUserId);
+    }
+  }
+  
+  /**
+   * Invalidates the cached groups of the user (of all users when null), right away and again when
+   * the current transaction is committed: a query running concurrently could otherwise cache 
+   * the memberships from before the change.
+   */
+  public void invalidateOnCommit(final String userId) {
+    invalidate(userId);
+    
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext != null) {
+      commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED, new TransactionListener() {
+        public void execute(CommandContext commandContext) {
+          invalidate(userId);
+        }
+      });
+    }
+  }
+  
+  public void invalidate(String userId) {
+    if (userId != null) {
+      cache.remove(userId);
+    } else {
+      cache.clear();
+    }
+  }
+  
+  public void invalidateAll() {
+    cache.clear();
+  }
+  
+  public int size() {
+    return cache.size();
+  }
+  
+  public long getTimeToLiveInMillis() {
+    return timeToLiveInMillis;
+  }
+  
+  public int getLimit() {
+    return limit;
+  }
+  
+  protected static class CacheEntry {
+    
+    protected final List<String> groupIds;
+    protected final long expirationTime;
+    
+    public CacheEntry(List<String> groupIds, long expirationTime) {
+      this.groupIds = groupIds;
+      this.expirationTime = expirationTime;
+    }
+    
+  }
+
+}
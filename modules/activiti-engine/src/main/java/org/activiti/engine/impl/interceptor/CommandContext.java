@@ -17,6 +17,10 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.activiti.engine.ActivitiException;
 import org.activiti.engine.ActivitiOptimisticLockingException;
@@ -81,11 +85,15 @@ public class CommandContext {
   protected FailedJobCommandFactory failedJobCommandFactory;
 	protected List<CommandContextCloseListener> closeListeners;
   protected Map<String, Object> attributes; // General-purpose storing of anything during the lifetime of a command context
+  protected LinkedList<PendingConcurrentWork<?>> pendingConcurrentWork = new LinkedList<PendingConcurrentWork<?>>();
+  protected int operationNestingLevel = 0;
+  protected boolean isCompletingConcurrentWork = false;
 
   
   public void performOperation(AtomicOperation executionOperation, InterpretableExecution execution) {
     nextOperations.add(executionOperation);
     if (nextOperations.size()==1) {
+      operationNestingLevel++;
       try {
         Context.setExecutionContext(execution);
         while (!nextOperations.isEmpty()) {
@@ -101,8 +109,47 @@ public class CommandContext {
         }
       } finally {
         Context.removeExecutionContext();
+        operationNestingLevel--;
       }
+      
+      // Once the outermost operation is done, every branch has run up to its concurrent work or wait state
+      if (operationNestingLevel == 0 && !isCompletingConcurrentWork && !pendingConcurrentWork.isEmpty()) {
+        completeConcurrentWork();
+      }
+    }
+  }
+  
+  /**
+   * Runs the work on the given executor service. The completion is called in the thread executing this command, 
+   * once the atomic operations that are being performed are done. Completions are called in the order in which 
+   * the work was submitted, and may submit new work themselves.
+   */
+  public <T> void submitConcurrentWork(ExecutorService executorService, Callable<T> work, ConcurrentWorkCompletion<T> completion) {
+    pendingConcurrentWork.add(new PendingConcurrentWork<T>(executorService.submit(work), completion));
+  }
+  
+  protected void completeConcurrentWork() {
+    isCompletingConcurrentWork = true;
+    try {
+      while (!pendingConcurrentWork.isEmpty()) {
+        pendingConcurrentWork.removeFirst().complete();
+      }
+    } catch (RuntimeException e) {
+      cancelConcurrentWork();
+      throw e;
+    } catch (Exception e) {
+      cancelConcurrentWork();
+      throw new ActivitiException("Exception while completing concurrent work", e);
+    } finally {
+      isCompletingConcurrentWork = false;
+    }
+  }
+  
+  protected void cancelConcurrentWork() {
+    for (PendingConcurrentWork<?> work : pendingConcurrentWork) {
+      work.future.cancel(true);
     }
+    pendingConcurrentWork.clear();
   }
 
   public CommandContext(Command<?> command, ProcessEngineConfigurationImpl processEngineConfiguration) {
@@ -119,6 +166,11 @@ public class CommandContext {
     // the intention of this method is that all resources are closed properly, even
     // if exceptions occur in close or flush methods of the sessions or the
     // transaction context.
+    
+    // work is only left when the operation that submitted it failed
+    if (!pendingConcurrentWork.isEmpty()) {
+      cancelConcurrentWork();
+    }
 
     try {
       try {
@@ -407,4 +459,29 @@ public class CommandContext {
   public ActivitiEventDispatcher getEventDispatcher() {
   	return processEngineConfiguration.getEventDispatcher();
   }
+  
+  protected static class PendingConcurrentWork<T> {
+    
+    protected final Future<T> future;
+    protected final ConcurrentWorkCompletion<T> completion;
+    
+    public PendingConcurrentWork(Future<T> future, ConcurrentWorkCompletion<T> completion) {
+      this.future = future;
+      this.completion = completion;
+    }
+    
+    public void complete() throws Exception {
+      T result;
+      try {
+        result = future.get();
+      } catch (ExecutionException e) {
+        completion.failed(e.getCause());
+        return;
+      } catch (InterruptedException e) {
+        throw new ActivitiException("Interrupted while waiting for concurrent work", e);
+      }
+      completion.completed(result);
+    }
+    
+  }
 }
@@ -0,0 +1,55 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.interceptor;
+
+import org.activiti.engine.impl.metrics.CommandMetrics;
+import org.activiti.engine.impl.metrics.CommandStatistics;
+
+/**
+ * Records the latency of every command in the {@link CommandMetrics} of the process engine.
+ *
+ * Must be placed before the {@link CommandContextInterceptor}, so the flush of the command context
+ * is included in the latency and the flushed statements are attributed to the command.
+ */
+public class CommandMetricsInterceptor extends AbstractCommandInterceptor {
+
+  protected CommandMetrics commandMetrics;
+
+  public CommandMetricsInterceptor(CommandMetrics commandMetrics) {
+    this.commandMetrics = commandMetrics;
+  }
+
+  public <T> T execute(CommandConfig config, Command<T> command) {
+    CommandStatistics statistics = commandMetrics.getCommandStatistics(command.getClass());
+    boolean outermostCommand = commandMetrics.startCommand(statistics);
+    long startTime = System.nanoTime();
+    boolean failed = true;
+    try {
+
+      T result = next.execute(config, command);
+      failed = false;
+      return result;
+
+    } finally {
+      statistics.recordInvocation((System.nanoTime() - startTime) / 1000L, failed);
+      if (outermostCommand) {
+        commandMetrics.endOutermostCommand();
+      }
+    }
+  }
+
+  public CommandMetrics getCommandMetrics() {
+    return commandMetrics;
+  }
+
+}
@@ -0,0 +1,25 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.interceptor;
+
+/**
+ * Completes work that was running on another thread, in the thread executing the command
+ * (see {@link CommandContext#submitConcurrentWork(java.util.concurrent.ExecutorService, java.util.concurrent.Callable, ConcurrentWorkCompletion)}).
+ */
+public interface ConcurrentWorkCompletion<T> {
+  
+  void completed(T result) throws Exception;
+  
+  void failed(Throwable exception) throws Exception;
+
+}
@@ -12,8 +12,14 @@
  */
 package org.activiti.engine.impl.interceptor;
 
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.activiti.engine.ActivitiException;
 import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.metrics.OptimisticLockingStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,6 +28,15 @@ import org.slf4j.LoggerFactory;
  * same command again. The number of retries and the time waited between retries
  * is configurable.
  * 
+ * The time waited grows exponentially with the number of failed attempts, and 
+ * with the conflict rate of the command seen so far. A random part of it, 
+ * the jitter, is left out so that commands that conflicted with each other 
+ * don't retry at the same moment. Optionally, the retries of commands that
+ * conflicted on the same process instance are executed one at a time. Commands 
+ * executed from within another command are never serialized, since the outer 
+ * command may hold the lock another thread is waiting for, and a retry that can't
+ * get the lock within serializationLockWaitTimeInMs is executed without it.
+ * 
  * @author Daniel Meyer
  */
 public class RetryInterceptor extends AbstractCommandInterceptor {
@@ -31,18 +46,35 @@ public class RetryInterceptor extends AbstractCommandInterceptor {
   protected int numOfRetries = 3;
   protected int waitTimeInMs = 50;
   protected int waitIncreaseFactor = 5;
+  protected int maxWaitTimeInMs = 10000;
+  protected double jitterFactor = 0.5;
+  protected boolean serializeRetriesPerProcessInstance = false;
+  protected int processInstanceLockCount = 64;
+  protected long serializationLockWaitTimeInMs = 1000;
+
+  protected OptimisticLockingStatistics optimisticLockingStatistics = new OptimisticLockingStatistics();
+  protected Random random = new Random();
+  protected volatile ReentrantLock[] processInstanceLocks;
 
   public <T> T execute(CommandConfig config, Command<T> command) {
+    String commandName = command.getClass().getName();
     long waitTime=waitTimeInMs;
     int failedAttempts=0;   
+    String conflictingProcessInstanceId = null;
     
     do {      
       if (failedAttempts > 0) {
-        log.info( "Waiting for {}ms before retrying the command.", waitTime);
-        waitBeforeRetry(waitTime);
+        long jitteredWaitTime = getJitteredWaitTime(waitTime, commandName);
+        log.info( "Waiting for {}ms before retrying the command.", jitteredWaitTime);
+        waitBeforeRetry(jitteredWaitTime);
         waitTime *= waitIncreaseFactor;
       }
 
+      optimisticLockingStatistics.recordAttempt(commandName);
+      ReentrantLock processInstanceLock = null;
+      if (serializeRetriesPerProcessInstance && conflictingProcessInstanceId != null && Context.getCommandContext() == null) {
+        processInstanceLock = tryLockProcessInstance(conflictingProcessInstanceId);
+      }
       try {
 
         // try to execute the command
@@ -50,6 +82,15 @@ public class RetryInterceptor extends AbstractCommandInterceptor {
 
       } catch (ActivitiOptimisticLockingException e) {
         log.info("Caught optimistic locking exception: "+e);
+        optimisticLockingStatistics.recordConflict(commandName, e.getEntityClass());
+        if (e.getProcessInstanceId() != null) {
+          conflictingProcessInstanceId = e.getProcessInstanceId();
+        }
+        
+      } finally {
+        if (processInstanceLock != null) {
+          processInstanceLock.unlock();
+        }
       }
             
       failedAttempts ++;      
@@ -57,6 +98,53 @@ public class RetryInterceptor extends AbstractCommandInterceptor {
 
     throw new ActivitiException(numOfRetries + " retries failed with ActivitiOptimisticLockingException. Giving up.");
   }
+  
+  /**
+   * @return the wait time, increased with the conflict rate of the command and 
+   *         capped at maxWaitTimeInMs, minus a random part of at most jitterFactor of it.
+   */
+  protected long getJitteredWaitTime(long waitTime, String commandName) {
+    double adaptiveWaitTime = waitTime * (1.0 + optimisticLockingStatistics.getConflictRate(commandName));
+    adaptiveWaitTime = Math.min(adaptiveWaitTime, maxWaitTimeInMs);
+    double jitter = random.nextDouble() * jitterFactor;
+    return Math.round(adaptiveWaitTime * (1.0 - jitter));
+  }
+  
+  /**
+   * @return the lock of the process instance, or null when it couldn't be acquired 
+   *         within serializationLockWaitTimeInMs, in which case the retry isn't serialized.
+   */
+  protected ReentrantLock tryLockProcessInstance(String processInstanceId) {
+    ReentrantLock processInstanceLock = getProcessInstanceLock(processInstanceId);
+    try {
+      if (processInstanceLock.tryLock(serializationLockWaitTimeInMs, TimeUnit.MILLISECONDS)) {
+        return processInstanceLock;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    log.info("Couldn't serialize the retry on process instance {} within {}ms, retrying without it.", 
+        processInstanceId, serializationLockWaitTimeInMs);
+    optimisticLockingStatistics.recordSerializationTimeout();
+    return null;
+  }
+  
+  protected ReentrantLock getProcessInstanceLock(String processInstanceId) {
+    ReentrantLock[] locks = processInstanceLocks;
+    if (locks == null) {
+      synchronized (this) {
+        locks = processInstanceLocks;
+        if (locks == null) {
+          locks = new ReentrantLock[processInstanceLockCount];
+          for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+          }
+          processInstanceLocks = locks;
+        }
+      }
+    }
+    return locks[(processInstanceId.hashCode() & Integer.MAX_VALUE) % locks.length];
+  }
 
   protected void waitBeforeRetry(long waitTime) {    
     try {
@@ -89,4 +177,70 @@ public class RetryInterceptor extends AbstractCommandInterceptor {
   public int getWaitTimeInMs() {
     return waitTimeInMs;
   }
+  
+  public int getMaxWaitTimeInMs() {
+    return maxWaitTimeInMs;
+  }
+  
+  public void setMaxWaitTimeInMs(int maxWaitTimeInMs) {
+    this.maxWaitTimeInMs = maxWaitTimeInMs;
+  }
+  
+  public double getJitterFactor() {
+    return jitterFactor;
+  }
+  
+  /**
+   * @param jitterFactor the largest fraction of the wait time that is randomly left out, between 0 (no jitter) and 1.
+   */
+  public void setJitterFactor(double jitterFactor) {
+    if (jitterFactor < 0.0 || jitterFactor > 1.0) {
+      throw new ActivitiException("jitterFactor must be between 0 and 1, but was " + jitterFactor);
+    }
+    this.jitterFactor = jitterFactor;
+  }
+  
+  public boolean isSerializeRetriesPerProcessInstance() {
+    return serializeRetriesPerProcessInstance;
+  }
+  
+  /**
+   * @param serializeRetriesPerProcessInstance when true, the retries of commands that conflicted on 
+   *        the same process instance are executed one at a time within this process engine.
+   */
+  public void setSerializeRetriesPerProcessInstance(boolean serializeRetriesPerProcessInstance) {
+    this.serializeRetriesPerProcessInstance = serializeRetriesPerProcessInstance;
+  }
+  
+  public int getProcessInstanceLockCount() {
+    return processInstanceLockCount;
+  }
+  
+  /**
+   * @param processInstanceLockCount the number of locks process instances are spread over when 
+   *        serializing retries: process instances sharing a lock retry one at a time as well.
+   */
+  public void setProcessInstanceLockCount(int processInstanceLockCount) {
+    this.processInstanceLockCount = processInstanceLockCount;
+  }
+  
+  public long getSerializationLockWaitTimeInMs() {
+    return serializationLockWaitTimeInMs;
+  }
+  
+  /**
+   * @param serializationLockWaitTimeInMs the longest time a retry waits for the lock of its process 
+   *        instance when serializing retries, after which it's executed without the lock.
+   */
+  public void setSerializationLockWaitTimeInMs(long serializationLockWaitTimeInMs) {
+    this.serializationLockWaitTimeInMs = serializationLockWaitTimeInMs;
+  }
+  
+  public OptimisticLockingStatistics getOptimisticLockingStatistics() {
+    return optimisticLockingStatistics;
+  }
+  
+  public void setOptimisticLockingStatistics(OptimisticLockingStatistics optimisticLockingStatistics) {
+    this.optimisticLockingStatistics = optimisticLockingStatistics;
+  }
 }
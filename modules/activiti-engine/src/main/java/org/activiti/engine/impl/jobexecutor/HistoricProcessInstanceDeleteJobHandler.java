@@ -0,0 +1,101 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Date;
+
+import org.activiti.engine.impl.HistoricProcessInstanceDeleteBuilderImpl;
+import org.activiti.engine.impl.cmd.ScheduleHistoricProcessInstanceDeletionCmd;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.util.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes one chunk of historic process instances, and schedules a new job for the next chunk
+ * as long as matching instances are left. The configuration holds the criteria, and the number of
+ * instances deleted by the previous chunks.
+ */
+public class HistoricProcessInstanceDeleteJobHandler implements JobHandler {
+  
+  private static final Logger log = LoggerFactory.getLogger(HistoricProcessInstanceDeleteJobHandler.class);
+  
+  public static final String TYPE = "delete-historic-process-instances";
+  
+  protected static final String PROPERTYNAME_FINISHED_BEFORE = "finishedBefore";
+  protected static final String PROPERTYNAME_PROCESS_DEFINITION_KEY = "processDefinitionKey";
+  protected static final String PROPERTYNAME_TENANT_ID = "tenantId";
+  protected static final String PROPERTYNAME_CHUNK_SIZE = "chunkSize";
+  protected static final String PROPERTYNAME_DELETED_INSTANCES = "deletedInstances";
+
+  public String getType() {
+    return TYPE;
+  }
+  
+  public void execute(JobEntity job, String configuration, ExecutionEntity execution, CommandContext commandContext) {
+    JSONObject cfgJson = new JSONObject(configuration);
+    HistoricProcessInstanceDeleteBuilderImpl criteria = getCriteria(cfgJson);
+    
+    int nrOfDeletedInstancesInChunk = commandContext
+      .getHistoricProcessInstanceEntityManager()
+      .deleteHistoricProcessInstances(criteria);
+    long nrOfDeletedInstances = cfgJson.optLong(PROPERTYNAME_DELETED_INSTANCES) + nrOfDeletedInstancesInChunk;
+    
+    if (nrOfDeletedInstancesInChunk == criteria.getChunkSize()) {
+      log.debug("Deleted {} historic process instances, continuing with the next chunk", nrOfDeletedInstances);
+      new ScheduleHistoricProcessInstanceDeletionCmd(criteria, nrOfDeletedInstances).execute(commandContext);
+    } else {
+      log.info("Deleted {} historic process instances", nrOfDeletedInstances);
+    }
+  }
+  
+  public static String createConfiguration(HistoricProcessInstanceDeleteBuilderImpl criteria, long nrOfDeletedInstances) {
+    JSONObject cfgJson = new JSONObject();
+    if (criteria.getFinishedBefore() != null) {
+      cfgJson.put(PROPERTYNAME_FINISHED_BEFORE, criteria.getFinishedBefore().getTime());
+    }
+    if (criteria.getProcessDefinitionKey() != null) {
+      cfgJson.put(PROPERTYNAME_PROCESS_DEFINITION_KEY, criteria.getProcessDefinitionKey());
+    }
+    if (criteria.getTenantId() != null) {
+      cfgJson.put(PROPERTYNAME_TENANT_ID, criteria.getTenantId());
+    }
+    cfgJson.put(PROPERTYNAME_CHUNK_SIZE, criteria.getChunkSize());
+    cfgJson.put(PROPERTYNAME_DELETED_INSTANCES, nrOfDeletedInstances);
+    return cfgJson.toString();
+  }
+  
+  /**
+   * @return the number of instances deleted by the previous chunks, according to the configuration of the job
+   */
+  public static long getNrOfDeletedInstances(String configuration) {
+    return new JSONObject(configuration).optLong(PROPERTYNAME_DELETED_INSTANCES);
+  }
+  
+  protected HistoricProcessInstanceDeleteBuilderImpl getCriteria(JSONObject cfgJson) {
+    HistoricProcessInstanceDeleteBuilderImpl criteria = new HistoricProcessInstanceDeleteBuilderImpl(cfgJson.getInt(PROPERTYNAME_CHUNK_SIZE));
+    if (cfgJson.has(PROPERTYNAME_FINISHED_BEFORE)) {
+      criteria.finishedBefore(new Date(cfgJson.getLong(PROPERTYNAME_FINISHED_BEFORE)));
+    }
+    if (cfgJson.has(PROPERTYNAME_PROCESS_DEFINITION_KEY)) {
+      criteria.processDefinitionKey(cfgJson.getString(PROPERTYNAME_PROCESS_DEFINITION_KEY));
+    }
+    if (cfgJson.has(PROPERTYNAME_TENANT_ID)) {
+      criteria.tenantId(cfgJson.getString(PROPERTYNAME_TENANT_ID));
+    }
+    return criteria;
+  }
+
+}
@@ -0,0 +1,56 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Date;
+import java.util.Map;
+
+import org.activiti.engine.impl.HistoricProcessInstanceDeleteBuilderImpl;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.cmd.ScheduleHistoricProcessInstanceDeletionCmd;
+import org.activiti.engine.impl.cmd.ScheduleHistoryCleanupCmd;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+
+/**
+ * Timer that applies the history retention policies (see {@link ProcessEngineConfigurationImpl#getHistoryRetentionPolicies()}):
+ * for every process definition key, it schedules the deletion of the history of instances that finished longer ago 
+ * than the retention period. Afterwards, the timer is scheduled again, as long as there are retention policies.
+ */
+public class HistoryCleanupJobHandler implements JobHandler {
+  
+  public static final String TYPE = "history-cleanup";
+
+  public String getType() {
+    return TYPE;
+  }
+  
+  public void execute(JobEntity job, String configuration, ExecutionEntity execution, CommandContext commandContext) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = commandContext.getProcessEngineConfiguration();
+    Map<String, Integer> historyRetentionPolicies = processEngineConfiguration.getHistoryRetentionPolicies();
+    
+    if (historyRetentionPolicies != null && !historyRetentionPolicies.isEmpty()) {
+      long now = processEngineConfiguration.getClock().getCurrentTime().getTime();
+      for (Map.Entry<String, Integer> historyRetentionPolicy : historyRetentionPolicies.entrySet()) {
+        HistoricProcessInstanceDeleteBuilderImpl criteria = new HistoricProcessInstanceDeleteBuilderImpl(processEngineConfiguration.getHistoryCleanupChunkSize());
+        criteria.processDefinitionKey(historyRetentionPolicy.getKey());
+        criteria.finishedBefore(new Date(now - historyRetentionPolicy.getValue() * 24L * 60L * 60L * 1000L));
+        new ScheduleHistoricProcessInstanceDeletionCmd(criteria, 0).execute(commandContext);
+      }
+      
+      new ScheduleHistoryCleanupCmd(processEngineConfiguration.getHistoryCleanupIntervalInMinutes()).execute(commandContext);
+    }
+  }
+
+}
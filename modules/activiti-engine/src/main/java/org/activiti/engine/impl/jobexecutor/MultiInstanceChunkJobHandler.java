@@ -0,0 +1,62 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.bpmn.behavior.ParallelMultiInstanceBehavior;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.pvm.process.ActivityImpl;
+
+/**
+ * Creates the next chunk of instances of a parallel multi-instance activity.
+ * The configuration is the id of the multi-instance activity, followed by 
+ * the loop counter of the first instance of the chunk.
+ * 
+ * @see ParallelMultiInstanceBehavior
+ */
+public class MultiInstanceChunkJobHandler implements JobHandler {
+  
+  public final static String TYPE = "multi-instance-chunk";
+
+  public String getType() {
+    return TYPE;
+  }
+  
+  public void execute(JobEntity job, String configuration, ExecutionEntity execution, CommandContext commandContext) {
+    // wait for completing instances, and make sure the multi-instance execution isn't changed by them in the meantime
+    commandContext.getExecutionEntityManager().lockExecutionRow(execution.getId());
+    execution.forceUpdate();
+    
+    int separatorIndex = configuration.lastIndexOf(':');
+    String activityId = configuration.substring(0, separatorIndex);
+    int loopCounter = Integer.parseInt(configuration.substring(separatorIndex + 1));
+    
+    ActivityImpl activity = execution.getActivity();
+    if (activity == null || !activity.getId().equals(activityId) || execution.isEnded() 
+            || !(activity.getActivityBehavior() instanceof ParallelMultiInstanceBehavior)) {
+      // the multi-instance activity has been completed by its completion condition
+      return;
+    }
+    
+    try {
+      ((ParallelMultiInstanceBehavior) activity.getActivityBehavior()).createInstanceChunk(execution, loopCounter);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ActivitiException("Couldn't create instances of multi-instance activity '" + activity.getId() + "'", e);
+    }
+  }
+
+}
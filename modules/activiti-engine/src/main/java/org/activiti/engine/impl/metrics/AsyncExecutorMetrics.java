@@ -0,0 +1,72 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.metrics;
+
+import java.util.List;
+
+import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
+
+/**
+ * Registry of the metrics of an {@link AsyncExecutor}: job acquisition, rejected jobs,
+ * and the wait time, duration and outcome of the executed jobs per job handler type.
+ *
+ * Implementations must be thread-safe, as they are called from the acquisition threads
+ * and from all threads of the job execution thread pool.
+ */
+public interface AsyncExecutorMetrics {
+
+  public enum AcquisitionType {
+    ASYNC, TIMER
+  }
+
+  /** Records one acquisition cycle, in which the given number of jobs was acquired */
+  void recordAcquisition(AcquisitionType acquisitionType, int jobsAcquired);
+
+  /** Records an acquisition cycle that failed on an optimistic locking exception */
+  void recordAcquisitionConflict(AcquisitionType acquisitionType);
+
+  /** Records a job that was acquired, but could not be offered to the job execution thread pool */
+  void recordRejectedJob();
+
+  /**
+   * Records the execution of a job.
+   * @param waitTimeInMillis the time between the due date of the job and the start of its execution
+   * @param durationInMicros the time the execution of the job took
+   * @param failed whether the execution failed
+   * @param retry whether the execution retried a job of which an earlier execution failed
+   */
+  void recordJobExecution(String jobHandlerType, long waitTimeInMillis, long durationInMicros, boolean failed, boolean retry);
+
+  long getAcquisitionCount(AcquisitionType acquisitionType);
+
+  long getAcquiredJobCount(AcquisitionType acquisitionType);
+
+  long getAcquisitionConflictCount(AcquisitionType acquisitionType);
+
+  long getRejectedJobCount();
+
+  /**
+   * @return the wait times of all executed jobs in milliseconds
+   */
+  LatencyHistogram getJobWaitTime();
+
+  /**
+   * @return the statistics of all job handler types that were executed at least once since the last reset
+   */
+  List<JobHandlerStatistics> getAllJobHandlerStatistics();
+
+  JobHandlerStatistics getJobHandlerStatistics(String jobHandlerType);
+
+  void reset();
+
+}
@@ -0,0 +1,134 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.activiti.engine.impl.interceptor.CommandMetricsInterceptor;
+
+/**
+ * Registry of the {@link CommandStatistics} of a process engine, per command class.
+ *
+ * The statistics are recorded by the {@link CommandMetricsInterceptor} and the {@link SqlStatementMetricsPlugin}.
+ * SQL statements are attributed to the outermost command that is executing on the current thread,
+ * as that is the command that owns the transaction in which they are executed.
+ */
+public class CommandMetrics {
+
+  protected final ConcurrentMap<String, CommandStatistics> commandStatistics = new ConcurrentHashMap<String, CommandStatistics>();
+  protected final ThreadLocal<CommandStatistics> currentOutermostCommand = new ThreadLocal<CommandStatistics>();
+  protected final ThreadLocal<long[]> currentThreadStatementCount = new ThreadLocal<long[]>() {
+    protected long[] initialValue() {
+      return new long[1];
+    }
+  };
+
+  public CommandStatistics getCommandStatistics(Class<?> commandClass) {
+    return getCommandStatistics(commandClass.getName());
+  }
+
+  public CommandStatistics getCommandStatistics(String commandName) {
+    CommandStatistics statistics = commandStatistics.get(commandName);
+    if (statistics == null) {
+      CommandStatistics newStatistics = new CommandStatistics(commandName);
+      statistics = commandStatistics.putIfAbsent(commandName, newStatistics);
+      if (statistics == null) {
+        statistics = newStatistics;
+      }
+    }
+    return statistics;
+  }
+
+  /**
+   * @return the statistics of the given command, or null if no statistics were recorded for it,
+   *         without registering the command
+   */
+  public CommandStatistics findCommandStatistics(String commandName) {
+    if (commandName == null) {
+      return null;
+    }
+    return commandStatistics.get(commandName);
+  }
+
+  /**
+   * @return the statistics of all commands that were executed at least once since the last reset,
+   *         the commands with the highest total execution time first.
+   */
+  public List<CommandStatistics> getAllCommandStatistics() {
+    List<CommandStatistics> result = new ArrayList<CommandStatistics>();
+    for (CommandStatistics statistics : commandStatistics.values()) {
+      if (statistics.getInvocationCount() > 0) {
+        result.add(statistics);
+      }
+    }
+    Collections.sort(result, new Comparator<CommandStatistics>() {
+      public int compare(CommandStatistics statistics1, CommandStatistics statistics2) {
+        double totalTime1 = statistics1.getLatency().getMean() * statistics1.getInvocationCount();
+        double totalTime2 = statistics2.getLatency().getMean() * statistics2.getInvocationCount();
+        return Double.compare(totalTime2, totalTime1);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Marks the start of the given command on the current thread.
+   * @return true if this is the outermost command, which must be ended with {@link #endOutermostCommand()}
+   */
+  public boolean startCommand(CommandStatistics statistics) {
+    if (currentOutermostCommand.get() == null) {
+      currentOutermostCommand.set(statistics);
+      return true;
+    }
+    return false;
+  }
+
+  public void endOutermostCommand() {
+    currentOutermostCommand.remove();
+  }
+
+  /**
+   * @return the statistics of the outermost command executing on the current thread, or null
+   */
+  public CommandStatistics getCurrentCommandStatistics() {
+    return currentOutermostCommand.get();
+  }
+
+  /**
+   * Counts a statement executed by the current thread, see {@link #getCurrentThreadStatementCount()}.
+   */
+  public void recordStatementOnCurrentThread() {
+    currentThreadStatementCount.get()[0]++;
+  }
+
+  /**
+   * @return the number of statements executed by the current thread since it executed its first command.
+   *         Not affected by {@link #reset()}: callers measure the difference between two invocations,
+   *         which gives the statements of the commands executed in between.
+   */
+  public long getCurrentThreadStatementCount() {
+    return currentThreadStatementCount.get()[0];
+  }
+
+  public void reset() {
+    for (CommandStatistics statistics : commandStatistics.values()) {
+      statistics.reset();
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of all executions of one type of command: the latency of every invocation,
+ * and the SQL statements and flushed entities of the invocations that were not nested in another command.
+ */
+public class CommandStatistics {
+
+  public enum StatementType {
+    SELECT, INSERT, UPDATE, DELETE
+  }
+
+  protected final String commandName;
+  protected final LatencyHistogram latency = new LatencyHistogram();
+  protected final AtomicLong failureCount = new AtomicLong();
+  protected final AtomicLong flushedEntityCount = new AtomicLong();
+  protected final Map<StatementType, ConcurrentMap<String, AtomicLong>> statementCounts = new EnumMap<StatementType, ConcurrentMap<String, AtomicLong>>(StatementType.class);
+
+  public CommandStatistics(String commandName) {
+    this.commandName = commandName;
+    for (StatementType statementType : StatementType.values()) {
+      statementCounts.put(statementType, new ConcurrentHashMap<String, AtomicLong>());
+    }
+  }
+
+  public void recordInvocation(long durationInMicros, boolean failed) {
+    latency.recordValue(durationInMicros);
+    if (failed) {
+      failureCount.incrementAndGet();
+    }
+  }
+
+  public void recordStatement(StatementType statementType, String statementId) {
+    ConcurrentMap<String, AtomicLong> counts = statementCounts.get(statementType);
+    AtomicLong count = counts.get(statementId);
+    if (count == null) {
+      AtomicLong newCount = new AtomicLong();
+      count = counts.putIfAbsent(statementId, newCount);
+      if (count == null) {
+        count = newCount;
+      }
+    }
+    count.incrementAndGet();
+  }
+
+  public void recordFlushedEntities(int entityCount) {
+    flushedEntityCount.addAndGet(entityCount);
+  }
+
+  public String getCommandName() {
+    return commandName;
+  }
+
+  /**
+   * @return the latencies of all invocations in microseconds
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  public long getInvocationCount() {
+    return latency.getTotalCount();
+  }
+
+  public long getFailureCount() {
+    return failureCount.get();
+  }
+
+  public long getFlushedEntityCount() {
+    return flushedEntityCount.get();
+  }
+
+  /**
+   * @return the number of executions per MyBatis statement id, sorted by statement id
+   */
+  public Map<String, Long> getStatementCounts(StatementType statementType) {
+    Map<String, Long> result = new TreeMap<String, Long>();
+    for (Map.Entry<String, AtomicLong> entry : statementCounts.get(statementType).entrySet()) {
+      result.put(entry.getKey(), entry.getValue().get());
+    }
+    return result;
+  }
+
+  public long getStatementCount(StatementType statementType) {
+    long total = 0;
+    for (AtomicLong count : statementCounts.get(statementType).values()) {
+      total += count.get();
+    }
+    return total;
+  }
+
+  public long getStatementCount() {
+    long total = 0;
+    for (StatementType statementType : StatementType.values()) {
+      total += getStatementCount(statementType);
+    }
+    return total;
+  }
+
+  public void reset() {
+    latency.reset();
+    failureCount.set(0);
+    flushedEntityCount.set(0);
+    for (ConcurrentMap<String, AtomicLong> counts : statementCounts.values()) {
+      counts.clear();
+    }
+  }
+
+  public String toString() {
+    return commandName + "[" + latency
+        + ", failures=" + getFailureCount()
+        + ", selects=" + getStatementCount(StatementType.SELECT)
+        + ", inserts=" + getStatementCount(StatementType.INSERT)
+        + ", updates=" + getStatementCount(StatementType.UPDATE)
+        + ", deletes=" + getStatementCount(StatementType.DELETE)
+        + ", flushedEntities=" + getFlushedEntityCount() + "]";
+  }
+
+}
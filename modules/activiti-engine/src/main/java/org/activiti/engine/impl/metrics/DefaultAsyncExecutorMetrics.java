@@ -0,0 +1,116 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.metrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory {@link AsyncExecutorMetrics}, based on atomic counters and {@link LatencyHistogram}s.
+ */
+public class DefaultAsyncExecutorMetrics implements AsyncExecutorMetrics {
+
+  protected final Map<AcquisitionType, AtomicLong> acquisitionCounts = new EnumMap<AcquisitionType, AtomicLong>(AcquisitionType.class);
+  protected final Map<AcquisitionType, AtomicLong> acquiredJobCounts = new EnumMap<AcquisitionType, AtomicLong>(AcquisitionType.class);
+  protected final Map<AcquisitionType, AtomicLong> acquisitionConflictCounts = new EnumMap<AcquisitionType, AtomicLong>(AcquisitionType.class);
+  protected final AtomicLong rejectedJobCount = new AtomicLong();
+  protected final LatencyHistogram jobWaitTime = new LatencyHistogram();
+  protected final ConcurrentMap<String, JobHandlerStatistics> jobHandlerStatistics = new ConcurrentHashMap<String, JobHandlerStatistics>();
+
+  public DefaultAsyncExecutorMetrics() {
+    for (AcquisitionType acquisitionType : AcquisitionType.values()) {
+      acquisitionCounts.put(acquisitionType, new AtomicLong());
+      acquiredJobCounts.put(acquisitionType, new AtomicLong());
+      acquisitionConflictCounts.put(acquisitionType, new AtomicLong());
+    }
+  }
+
+  public void recordAcquisition(AcquisitionType acquisitionType, int jobsAcquired) {
+    acquisitionCounts.get(acquisitionType).incrementAndGet();
+    acquiredJobCounts.get(acquisitionType).addAndGet(jobsAcquired);
+  }
+
+  public void recordAcquisitionConflict(AcquisitionType acquisitionType) {
+    acquisitionConflictCounts.get(acquisitionType).incrementAndGet();
+  }
+
+  public void recordRejectedJob() {
+    rejectedJobCount.incrementAndGet();
+  }
+
+  public void recordJobExecution(String jobHandlerType, long waitTimeInMillis, long durationInMicros, boolean failed, boolean retry) {
+    jobWaitTime.recordValue(waitTimeInMillis);
+    getJobHandlerStatistics(jobHandlerType).recordExecution(durationInMicros, failed, retry);
+  }
+
+  public long getAcquisitionCount(AcquisitionType acquisitionType) {
+    return acquisitionCounts.get(acquisitionType).get();
+  }
+
+  public long getAcquiredJobCount(AcquisitionType acquisitionType) {
+    return acquiredJobCounts.get(acquisitionType).get();
+  }
+
+  public long getAcquisitionConflictCount(AcquisitionType acquisitionType) {
+    return acquisitionConflictCounts.get(acquisitionType).get();
+  }
+
+  public long getRejectedJobCount() {
+    return rejectedJobCount.get();
+  }
+
+  public LatencyHistogram getJobWaitTime() {
+    return jobWaitTime;
+  }
+
+  public List<JobHandlerStatistics> getAllJobHandlerStatistics() {
+    List<JobHandlerStatistics> result = new ArrayList<JobHandlerStatistics>();
+    for (JobHandlerStatistics statistics : jobHandlerStatistics.values()) {
+      if (statistics.getExecutionCount() > 0) {
+        result.add(statistics);
+      }
+    }
+    return result;
+  }
+
+  public JobHandlerStatistics getJobHandlerStatistics(String jobHandlerType) {
+    JobHandlerStatistics statistics = jobHandlerStatistics.get(jobHandlerType);
+    if (statistics == null) {
+      JobHandlerStatistics newStatistics = new JobHandlerStatistics(jobHandlerType);
+      statistics = jobHandlerStatistics.putIfAbsent(jobHandlerType, newStatistics);
+      if (statistics == null) {
+        statistics = newStatistics;
+      }
+    }
+    return statistics;
+  }
+
+  public void reset() {
+    for (AcquisitionType acquisitionType : AcquisitionType.values()) {
+      acquisitionCounts.get(acquisitionType).set(0);
+      acquiredJobCounts.get(acquisitionType).set(0);
+      acquisitionConflictCounts.get(acquisitionType).set(0);
+    }
+    rejectedJobCount.set(0);
+    jobWaitTime.reset();
+    for (JobHandlerStatistics statistics : jobHandlerStatistics.values()) {
+      statistics.reset();
+    }
+  }
+
+}
@@ -0,0 +1,82 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of all executions of the jobs of one job handler type.
+ */
+public class JobHandlerStatistics {
+
+  protected final String jobHandlerType;
+  protected final LatencyHistogram duration = new LatencyHistogram();
+  protected final AtomicLong failureCount = new AtomicLong();
+  protected final AtomicLong retryCount = new AtomicLong();
+
+  public JobHandlerStatistics(String jobHandlerType) {
+    this.jobHandlerType = jobHandlerType;
+  }
+
+  public void recordExecution(long durationInMicros, boolean failed, boolean retry) {
+    duration.recordValue(durationInMicros);
+    if (failed) {
+      failureCount.incrementAndGet();
+    }
+    if (retry) {
+      retryCount.incrementAndGet();
+    }
+  }
+
+  public String getJobHandlerType() {
+    return jobHandlerType;
+  }
+
+  /**
+   * @return the durations of all executions in microseconds
+   */
+  public LatencyHistogram getDuration() {
+    return duration;
+  }
+
+  public long getExecutionCount() {
+    return duration.getTotalCount();
+  }
+
+  /**
+   * @return the number of failed executions, including the ones that will be retried
+   */
+  public long getFailureCount() {
+    return failureCount.get();
+  }
+
+  /**
+   * @return the number of executions that retried a job of which an earlier execution failed, 
+   *         whether the retry failed or not
+   */
+  public long getRetryCount() {
+    return retryCount.get();
+  }
+
+  public void reset() {
+    duration.reset();
+    failureCount.set(0);
+    retryCount.set(0);
+  }
+
+  public String toString() {
+    return jobHandlerType + "[executions=" + getExecutionCount() + ", failures=" + failureCount.get()
+        + ", retries=" + retryCount.get() + ", duration=" + duration + "]";
+  }
+
+}
@@ -0,0 +1,131 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in microseconds, with a fixed memory footprint.
+ *
+ * Values below 16 are counted exactly. Larger values are counted in log-linear buckets:
+ * every power of two is split in 8 sub-buckets, so any recorded value is reported
+ * with a relative error of at most 12.5% (comparable to an HdrHistogram with one significant digit).
+ */
+public class LatencyHistogram {
+
+  protected static final int SUB_BUCKET_BITS = 3;
+  protected static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  protected static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+  protected final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  protected final AtomicLong totalCount = new AtomicLong();
+  protected final AtomicLong totalValue = new AtomicLong();
+  protected final AtomicLong maxValue = new AtomicLong();
+
+  public void recordValue(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(bucketIndex(value));
+    totalCount.incrementAndGet();
+    totalValue.addAndGet(value);
+
+    long currentMax = maxValue.get();
+    while (value > currentMax && !maxValue.compareAndSet(currentMax, value)) {
+      currentMax = maxValue.get();
+    }
+  }
+
+  public long getTotalCount() {
+    return totalCount.get();
+  }
+
+  public long getMaxValue() {
+    return maxValue.get();
+  }
+
+  public double getMean() {
+    long count = totalCount.get();
+    return count == 0 ? 0.0 : (double) totalValue.get() / count;
+  }
+
+  /**
+   * @param percentile between 0 and 100
+   * @return the highest value of the bucket that contains the given percentile,
+   *         or 0 if no values were recorded.
+   */
+  public long getValueAtPercentile(double percentile) {
+    long count = totalCount.get();
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0.0), 100.0) / 100.0 * count);
+    rank = Math.max(rank, 1);
+
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestValueInBucket(i), maxValue.get());
+      }
+    }
+    return maxValue.get();
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.set(i, 0);
+    }
+    totalCount.set(0);
+    totalValue.set(0);
+    maxValue.set(0);
+  }
+
+  protected static int bucketIndex(long value) {
+    if (value < 2 * SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+    return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  protected static long lowestValueInBucket(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+    int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+    return ((long) (SUB_BUCKET_COUNT + subBucket)) << shift;
+  }
+
+  protected static long highestValueInBucket(int index) {
+    if (index == BUCKET_COUNT - 1) {
+      return Long.MAX_VALUE;
+    }
+    return lowestValueInBucket(index + 1) - 1;
+  }
+
+  public String toString() {
+    return "count=" + getTotalCount()
+        + ", mean=" + Math.round(getMean())
+        + ", p50=" + getValueAtPercentile(50.0)
+        + ", p90=" + getValueAtPercentile(90.0)
+        + ", p99=" + getValueAtPercentile(99.0)
+        + ", p99.9=" + getValueAtPercentile(99.9)
+        + ", max=" + getMaxValue();
+  }
+
+}
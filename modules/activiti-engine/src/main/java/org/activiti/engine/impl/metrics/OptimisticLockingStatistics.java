@@ -0,0 +1,142 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.activiti.engine.impl.persistence.entity.TableDataManager;
+
+/**
+ * Counts the optimistic locking conflicts seen by the {@link org.activiti.engine.impl.interceptor.RetryInterceptor}:
+ * per command, together with the number of attempts to execute it, and per entity type, which is the table of the
+ * entity that was changed concurrently (ACT_RU_EXECUTION, ACT_RU_JOB, ...). Also counts the retries that
+ * couldn't be serialized on their process instance in time.
+ */
+public class OptimisticLockingStatistics {
+
+  public static final String UNKNOWN_ENTITY_TYPE = "unknown";
+
+  protected final ConcurrentMap<String, AtomicLong> attemptCounts = new ConcurrentHashMap<String, AtomicLong>();
+  protected final ConcurrentMap<String, AtomicLong> commandConflictCounts = new ConcurrentHashMap<String, AtomicLong>();
+  protected final ConcurrentMap<String, AtomicLong> entityConflictCounts = new ConcurrentHashMap<String, AtomicLong>();
+  protected final AtomicLong serializationTimeoutCount = new AtomicLong();
+
+  public void recordAttempt(String commandName) {
+    getCounter(attemptCounts, commandName).incrementAndGet();
+  }
+
+  public void recordConflict(String commandName, Class<?> entityClass) {
+    getCounter(commandConflictCounts, commandName).incrementAndGet();
+    getCounter(entityConflictCounts, getEntityType(entityClass)).incrementAndGet();
+  }
+
+  public void recordSerializationTimeout() {
+    serializationTimeoutCount.incrementAndGet();
+  }
+
+  public long getAttemptCount(String commandName) {
+    AtomicLong attemptCount = attemptCounts.get(commandName);
+    return attemptCount != null ? attemptCount.get() : 0;
+  }
+
+  public long getConflictCount(String commandName) {
+    AtomicLong conflictCount = commandConflictCounts.get(commandName);
+    return conflictCount != null ? conflictCount.get() : 0;
+  }
+
+  /**
+   * @return the fraction of the attempts to execute the command that ended in an optimistic locking conflict
+   */
+  public double getConflictRate(String commandName) {
+    long attemptCount = getAttemptCount(commandName);
+    if (attemptCount == 0) {
+      return 0.0;
+    }
+    return Math.min(1.0, (double) getConflictCount(commandName) / attemptCount);
+  }
+
+  public long getSerializationTimeoutCount() {
+    return serializationTimeoutCount.get();
+  }
+
+  /**
+   * @return the number of attempts per command, sorted on command name
+   */
+  public Map<String, Long> getAttemptCounts() {
+    return toSortedMap(attemptCounts);
+  }
+
+  /**
+   * @return the number of conflicts per command, sorted on command name
+   */
+  public Map<String, Long> getCommandConflictCounts() {
+    return toSortedMap(commandConflictCounts);
+  }
+
+  /**
+   * @return the number of conflicts per entity type, sorted on entity type
+   */
+  public Map<String, Long> getEntityConflictCounts() {
+    return toSortedMap(entityConflictCounts);
+  }
+
+  public void reset() {
+    attemptCounts.clear();
+    commandConflictCounts.clear();
+    entityConflictCounts.clear();
+    serializationTimeoutCount.set(0);
+  }
+
+  protected String getEntityType(Class<?> entityClass) {
+    if (entityClass == null) {
+      return UNKNOWN_ENTITY_TYPE;
+    }
+    // subclasses like TimerEntity and MessageEntity are stored in the table of their parent
+    for (Class<?> clazz = entityClass; clazz != null; clazz = clazz.getSuperclass()) {
+      String tableName = TableDataManager.persistentObjectToTableNameMap.get(clazz);
+      if (tableName != null) {
+        return tableName;
+      }
+    }
+    return entityClass.getSimpleName();
+  }
+
+  protected AtomicLong getCounter(ConcurrentMap<String, AtomicLong> counters, String name) {
+    AtomicLong counter = counters.get(name);
+    if (counter == null) {
+      AtomicLong newCounter = new AtomicLong();
+      counter = counters.putIfAbsent(name, newCounter);
+      if (counter == null) {
+        counter = newCounter;
+      }
+    }
+    return counter;
+  }
+
+  protected Map<String, Long> toSortedMap(Map<String, AtomicLong> counters) {
+    Map<String, Long> result = new TreeMap<String, Long>();
+    for (Map.Entry<String, AtomicLong> counter : counters.entrySet()) {
+      result.put(counter.getKey(), counter.getValue().get());
+    }
+    return result;
+  }
+
+  public String toString() {
+    return "OptimisticLockingStatistics[commands=" + getCommandConflictCounts() + ", entities=" + getEntityConflictCounts() + "]";
+  }
+
+}
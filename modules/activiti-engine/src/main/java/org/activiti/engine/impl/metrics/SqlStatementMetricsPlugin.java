@@ -0,0 +1,116 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+
+import org.activiti.engine.impl.db.PersistentObject;
+import org.activiti.engine.impl.metrics.CommandStatistics.StatementType;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * MyBatis plugin that counts the statements executed on behalf of the current command,
+ * per statement id, and the number of entities written by them.
+ */
+@Intercepts({
+  @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+  @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class})
+})
+public class SqlStatementMetricsPlugin implements Interceptor {
+
+  protected CommandMetrics commandMetrics;
+
+  public SqlStatementMetricsPlugin(CommandMetrics commandMetrics) {
+    this.commandMetrics = commandMetrics;
+  }
+
+  public Object intercept(Invocation invocation) throws Throwable {
+    CommandStatistics statistics = commandMetrics.getCurrentCommandStatistics();
+    if (statistics != null) {
+      MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+      StatementType statementType = getStatementType(mappedStatement);
+      if (statementType != null) {
+        statistics.recordStatement(statementType, getStatementId(mappedStatement));
+        commandMetrics.recordStatementOnCurrentThread();
+        if (statementType != StatementType.SELECT) {
+          statistics.recordFlushedEntities(countEntities(invocation.getArgs()[1]));
+        }
+      }
+    }
+    return invocation.proceed();
+  }
+
+  protected StatementType getStatementType(MappedStatement mappedStatement) {
+    switch (mappedStatement.getSqlCommandType()) {
+    case SELECT:
+      return StatementType.SELECT;
+    case INSERT:
+      return StatementType.INSERT;
+    case UPDATE:
+      return StatementType.UPDATE;
+    case DELETE:
+      return StatementType.DELETE;
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * Strips the mapper namespace, as the statement ids of the engine are unique without it.
+   */
+  protected String getStatementId(MappedStatement mappedStatement) {
+    String id = mappedStatement.getId();
+    return id.substring(id.lastIndexOf('.') + 1);
+  }
+
+  /**
+   * Regular inserts, updates and deletes have the entity as parameter, bulk inserts a list of entities
+   * (which MyBatis wraps in a map). Bulk updates and deletes by query criteria don't count as flushed entities.
+   */
+  protected int countEntities(Object parameter) {
+    if (parameter instanceof PersistentObject) {
+      return 1;
+    }
+    if (parameter instanceof Map && ((Map<?, ?>) parameter).containsKey("list")) {
+      parameter = ((Map<?, ?>) parameter).get("list");
+    }
+    if (parameter instanceof Collection) {
+      int count = 0;
+      for (Object element : (Collection<?>) parameter) {
+        if (element instanceof PersistentObject) {
+          count++;
+        }
+      }
+      return count;
+    }
+    return 0;
+  }
+
+  public Object plugin(Object target) {
+    return Plugin.wrap(target, this);
+  }
+
+  public void setProperties(Properties properties) {
+  }
+
+}
@@ -70,6 +70,13 @@ public class DefaultDeploymentCache<T> implements DeploymentCache<T> {
     cache.clear();
   }
   
+  /** @return a copy of the cached objects, by id */
+  public Map<String, T> getAll() {
+    synchronized (cache) {
+      return new HashMap<String, T>(cache);
+    }
+  }
+  
   // For testing purposes only
   public int size() {
     return cache.size();
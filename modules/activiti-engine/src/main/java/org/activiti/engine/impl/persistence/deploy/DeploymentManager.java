@@ -14,6 +14,10 @@
 package org.activiti.engine.impl.persistence.deploy;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -230,6 +234,51 @@ public class DeploymentManager {
     }
   }
   
+  /**
+   * Estimates the heap retained by every cached process definition, see {@link ProcessDefinitionSizeEstimator}.
+   * The definitions are estimated ordered by key and version, so objects shared by several versions 
+   * of a process definition are attributed to the oldest version.
+   * 
+   * @return the estimated size in bytes, by process definition id
+   * @throws ActivitiException when the process definition cache is not a {@link DefaultDeploymentCache}
+   */
+  @SuppressWarnings("unchecked")
+  public Map<String, Long> getProcessDefinitionRetainedSizes() {
+    if (!(processDefinitionCache instanceof DefaultDeploymentCache)) {
+      throw new ActivitiException("The process definition cache " + processDefinitionCache.getClass().getName() + " can't be iterated");
+    }
+    // the ids can't be sorted on: with the default id generator, version 10 sorts before version 9
+    List<ProcessDefinitionEntity> processDefinitions = new ArrayList<ProcessDefinitionEntity>(
+            ((DefaultDeploymentCache<ProcessDefinitionEntity>) processDefinitionCache).getAll().values());
+    Collections.sort(processDefinitions, new Comparator<ProcessDefinitionEntity>() {
+      public int compare(ProcessDefinitionEntity processDefinition1, ProcessDefinitionEntity processDefinition2) {
+        int result = compareNullable(processDefinition1.getKey(), processDefinition2.getKey());
+        if (result == 0) {
+          result = processDefinition1.getVersion() < processDefinition2.getVersion() ? -1 
+                  : (processDefinition1.getVersion() == processDefinition2.getVersion() ? 0 : 1);
+        }
+        if (result == 0) {
+          result = compareNullable(processDefinition1.getId(), processDefinition2.getId());
+        }
+        return result;
+      }
+    });
+    
+    ProcessDefinitionSizeEstimator estimator = new ProcessDefinitionSizeEstimator();
+    Map<String, Long> retainedSizes = new LinkedHashMap<String, Long>();
+    for (ProcessDefinitionEntity processDefinition : processDefinitions) {
+      retainedSizes.put(processDefinition.getId(), estimator.estimateRetainedSize(processDefinition));
+    }
+    return retainedSizes;
+  }
+  
+  protected static int compareNullable(String value1, String value2) {
+    if (value1 == null) {
+      return value2 == null ? 0 : -1;
+    }
+    return value2 == null ? 1 : value1.compareTo(value2);
+  }
+  
   // getters and setters //////////////////////////////////////////////////////
   
   public List<Deployer> getDeployers() {
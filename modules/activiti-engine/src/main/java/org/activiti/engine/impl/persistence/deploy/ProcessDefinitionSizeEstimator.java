@@ -0,0 +1,173 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.persistence.deploy;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.activiti.engine.impl.pvm.process.ProcessDefinitionImpl;
+import org.activiti.engine.impl.util.ArrayMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Estimates the heap retained by cached process definitions, by walking the object graph of the definition
+ * and summing the sizes of the objects on a 64-bit JVM with compressed references.
+ * 
+ * The walk follows the elements of the process definition (activities, transitions, lane sets, ...), 
+ * collections, maps, arrays and strings. Other objects, like activity behaviors, listeners and expressions, 
+ * are counted with their own size only, as they can reference objects that are shared with the rest of the engine.
+ * 
+ * Objects are only counted once per estimator: objects shared with a definition that was estimated before 
+ * (eg. interned strings of a previous version) are attributed to that definition.
+ */
+public class ProcessDefinitionSizeEstimator {
+  
+  private static final Logger log = LoggerFactory.getLogger(ProcessDefinitionSizeEstimator.class);
+  
+  protected static final int OBJECT_HEADER_SIZE = 12;
+  protected static final int ARRAY_HEADER_SIZE = 16;
+  protected static final int REFERENCE_SIZE = 4;
+  protected static final int ALIGNMENT = 8;
+  
+  protected static final String PROCESS_PACKAGE = ProcessDefinitionImpl.class.getPackage().getName();
+  
+  protected static final Map<Class<?>, List<Field>> fieldsCache = new ConcurrentHashMap<Class<?>, List<Field>>();
+  protected static final Map<Class<?>, Long> shallowSizeCache = new ConcurrentHashMap<Class<?>, Long>();
+  
+  protected Map<Object, Object> visited = new IdentityHashMap<Object, Object>();
+  
+  /**
+   * @return the estimated number of bytes retained by the given process definition, 
+   *         not counting the objects counted by an earlier call to this estimator.
+   */
+  public long estimateRetainedSize(ProcessDefinitionImpl processDefinition) {
+    long size = 0;
+    LinkedList<Object> objectsToVisit = new LinkedList<Object>();
+    objectsToVisit.add(processDefinition);
+    while (!objectsToVisit.isEmpty()) {
+      Object object = objectsToVisit.removeFirst();
+      if (object == null || visited.containsKey(object) || object instanceof Class || object instanceof Enum) {
+        continue;
+      }
+      visited.put(object, object);
+      
+      Class<?> type = object.getClass();
+      if (type.isArray()) {
+        size += arraySize(object);
+        if (!type.getComponentType().isPrimitive()) {
+          for (int i = 0; i < Array.getLength(object); i++) {
+            objectsToVisit.add(Array.get(object, i));
+          }
+        }
+      } else if (object instanceof String) {
+        // the characters are counted here, as the internals of strings differ between jvm versions
+        size += shallowSize(type) + align(ARRAY_HEADER_SIZE + 2L * ((String) object).length());
+      } else {
+        size += shallowSize(type);
+        if (isFollowed(type)) {
+          addReferencedObjects(object, objectsToVisit);
+        }
+      }
+    }
+    return size;
+  }
+  
+  protected boolean isFollowed(Class<?> type) {
+    String className = type.getName();
+    return className.startsWith(PROCESS_PACKAGE) 
+            || ProcessDefinitionImpl.class.isAssignableFrom(type)
+            || ArrayMap.class.isAssignableFrom(type)
+            || (className.startsWith("java.util.") && !className.startsWith("java.util.logging."));
+  }
+  
+  protected void addReferencedObjects(Object object, List<Object> objectsToVisit) {
+    for (Field field : getFields(object.getClass())) {
+      if (!field.getType().isPrimitive()) {
+        try {
+          objectsToVisit.add(field.get(object));
+        } catch (Exception e) {
+          log.trace("Could not read field {}, its value is not counted", field, e);
+        }
+      }
+    }
+  }
+  
+  protected static List<Field> getFields(Class<?> type) {
+    List<Field> fields = fieldsCache.get(type);
+    if (fields == null) {
+      fields = new ArrayList<Field>();
+      for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            try {
+              field.setAccessible(true);
+              fields.add(field);
+            } catch (RuntimeException e) {
+              // not accessible on this jvm: the referenced object is not counted
+              log.trace("Could not access field {}", field, e);
+            }
+          }
+        }
+      }
+      fieldsCache.put(type, fields);
+    }
+    return fields;
+  }
+  
+  protected static long shallowSize(Class<?> type) {
+    Long size = shallowSizeCache.get(type);
+    if (size == null) {
+      long fieldsSize = 0;
+      for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (!Modifier.isStatic(field.getModifiers())) {
+            fieldsSize += fieldSize(field.getType());
+          }
+        }
+      }
+      size = align(OBJECT_HEADER_SIZE + fieldsSize);
+      shallowSizeCache.put(type, size);
+    }
+    return size;
+  }
+  
+  protected static long arraySize(Object array) {
+    return align(ARRAY_HEADER_SIZE + (long) Array.getLength(array) * fieldSize(array.getClass().getComponentType()));
+  }
+  
+  protected static int fieldSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    } else if (type == byte.class || type == boolean.class) {
+      return 1;
+    }
+    return REFERENCE_SIZE;
+  }
+  
+  protected static long align(long size) {
+    return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+
+}
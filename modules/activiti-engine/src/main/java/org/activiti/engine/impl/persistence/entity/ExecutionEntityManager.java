@@ -27,8 +27,10 @@ import org.activiti.engine.impl.ExecutionQueryImpl;
 import org.activiti.engine.impl.Page;
 import org.activiti.engine.impl.ProcessInstanceQueryImpl;
 import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.db.DbSqlSession;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.AbstractManager;
+import org.activiti.engine.impl.pvm.process.ActivityImpl;
 import org.activiti.engine.runtime.Execution;
 import org.activiti.engine.runtime.ProcessInstance;
 
@@ -100,6 +102,11 @@ public class ExecutionEntityManager extends AbstractManager {
     return getDbSqlSession().selectList("selectExecutionsByParentExecutionId", parentExecutionId);
   }
   
+  @SuppressWarnings("unchecked")
+  public List<ExecutionEntity> findExecutionsByIds(List<String> executionIds) {
+    return getDbSqlSession().selectList("selectExecutionsByIds", executionIds);
+  }
+  
   @SuppressWarnings("unchecked")
   public List<ExecutionEntity> findChildExecutionsByProcessInstanceId(String processInstanceId) {
     return getDbSqlSession().selectList("selectExecutionsByProcessInstanceId", processInstanceId);
@@ -190,6 +197,44 @@ public class ExecutionEntityManager extends AbstractManager {
   	getDbSqlSession().update("updateExecutionTenantIdForDeployment", params);
   }
   
+  /**
+   * Locks the row of the execution in the database until the transaction ends, without changing it.
+   */
+  public void lockExecutionRow(String executionId) {
+    getDbSqlSession().update("lockExecutionRow", executionId);
+  }
+  
+  /**
+   * Locks the rows of the inactive concurrent child executions of the parent that are in the activity,
+   * and counts them. Unlike a regular query, this locking read always sees the last committed state of the rows
+   * (also with repeatable read isolation), but not the changes of the current transaction that haven't been flushed yet.
+   * 
+   * Should the current command have loaded one of these child executions before it arrived in the activity,
+   * an {@link ActivitiOptimisticLockingException} is thrown, as its loaded state is stale and would overwrite the committed one.
+   */
+  @SuppressWarnings("unchecked")
+  public int lockInactiveConcurrentExecutionsInActivity(String parentId, ActivityImpl activity) {
+    HashMap<String, Object> params = new HashMap<String, Object>();
+    params.put("parentId", parentId);
+    params.put("activityId", activity.getId());
+    params.put("isActive", false);
+    params.put("isConcurrent", true);
+    
+    // Not through the cache of the session, as that would return the state that was loaded before
+    DbSqlSession dbSqlSession = getDbSqlSession();
+    String statement = dbSqlSession.getDbSqlSessionFactory().mapStatement("selectInactiveConcurrentExecutionsInActivityForUpdate");
+    List<ExecutionEntity> committedExecutions = dbSqlSession.getSqlSession().selectList(statement, params);
+    
+    for (ExecutionEntity committedExecution : committedExecutions) {
+      ExecutionEntity loadedExecution = dbSqlSession.findInCache(ExecutionEntity.class, committedExecution.getId());
+      if (loadedExecution != null && loadedExecution.getRevision() < committedExecution.getRevision()) {
+        throw new ActivitiOptimisticLockingException("Execution " + loadedExecution.getId() + " arrived in activity '" + activity.getId() 
+            + "' after it was loaded", ExecutionEntity.class, loadedExecution.getProcessInstanceId());
+      }
+    }
+    return committedExecutions.size();
+  }
+  
   public void updateProcessInstanceLockTime(String processInstanceId) {
     CommandContext commandContext = Context.getCommandContext();
     Date expirationTime = commandContext.getProcessEngineConfiguration().getClock().getCurrentTime();
@@ -205,7 +250,7 @@ public class ExecutionEntityManager extends AbstractManager {
     
     int result = getDbSqlSession().update("updateProcessInstanceLockTime", params);
     if (result == 0) {
-    	throw new ActivitiOptimisticLockingException("Could not lock process instance");
+    	throw new ActivitiOptimisticLockingException("Could not lock process instance", ExecutionEntity.class, processInstanceId);
     }
   }
   
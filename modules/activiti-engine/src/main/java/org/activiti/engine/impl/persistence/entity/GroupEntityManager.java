@@ -25,6 +25,7 @@ import org.activiti.engine.impl.Page;
 import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.db.DbSqlSession;
 import org.activiti.engine.impl.db.PersistentObject;
+import org.activiti.engine.impl.identity.GroupMembershipCache;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.AbstractManager;
 
@@ -72,6 +73,13 @@ public class GroupEntityManager extends AbstractManager implements GroupIdentity
       }
     	
     	getDbSqlSession().delete("deleteMembershipsByGroupId", groupId);
+    	
+    	// the members of the group are not known here
+    	GroupMembershipCache groupMembershipCache = getProcessEngineConfiguration().getGroupMembershipCache();
+    	if (groupMembershipCache != null) {
+    	  groupMembershipCache.invalidateOnCommit(null);
+    	}
+    	
     	getDbSqlSession().delete(group);
     	
     	if(getProcessEngineConfiguration().getEventDispatcher().isEnabled()) {
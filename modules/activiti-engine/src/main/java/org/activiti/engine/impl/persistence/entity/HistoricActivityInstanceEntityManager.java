@@ -22,6 +22,7 @@ import org.activiti.engine.impl.HistoricActivityInstanceQueryImpl;
 import org.activiti.engine.impl.Page;
 import org.activiti.engine.impl.history.HistoryLevel;
 import org.activiti.engine.impl.persistence.AbstractManager;
+import org.activiti.engine.query.QueryResultHandler;
 
 
 /**
@@ -56,6 +57,11 @@ public class HistoricActivityInstanceEntityManager extends AbstractManager {
     return getDbSqlSession().selectList("selectHistoricActivityInstancesByQueryCriteria", historicActivityInstanceQuery, page);
   }
 
+  public void findHistoricActivityInstancesByQueryCriteria(HistoricActivityInstanceQueryImpl historicActivityInstanceQuery, 
+      QueryResultHandler<? super HistoricActivityInstance> resultHandler) {
+    getDbSqlSession().selectWithResultHandler("selectHistoricActivityInstancesByQueryCriteria_streaming", historicActivityInstanceQuery, resultHandler);
+  }
+
   @SuppressWarnings("unchecked")
   public List<HistoricActivityInstance> findHistoricActivityInstancesByNativeQuery(Map<String, Object> parameterMap, int firstResult, int maxResults) {
     return getDbSqlSession().selectListWithRawParameter("selectHistoricActivityInstanceByNativeQuery", parameterMap, firstResult, maxResults);
@@ -21,6 +21,7 @@ import org.activiti.engine.impl.HistoricDetailQueryImpl;
 import org.activiti.engine.impl.Page;
 import org.activiti.engine.impl.history.HistoryLevel;
 import org.activiti.engine.impl.persistence.AbstractManager;
+import org.activiti.engine.query.QueryResultHandler;
 
 
 /**
@@ -51,6 +52,10 @@ public class HistoricDetailEntityManager extends AbstractManager {
     return getDbSqlSession().selectList("selectHistoricDetailsByQueryCriteria", historicVariableUpdateQuery, page);
   }
 
+  public void findHistoricDetailsByQueryCriteria(HistoricDetailQueryImpl historicVariableUpdateQuery, QueryResultHandler<? super HistoricDetail> resultHandler) {
+    getDbSqlSession().selectWithResultHandler("selectHistoricDetailsByQueryCriteria_streaming", historicVariableUpdateQuery, resultHandler);
+  }
+
   public void deleteHistoricDetailsByTaskId(String taskId) {
     if (getHistoryManager().isHistoryLevelAtLeast(HistoryLevel.FULL)) {
       HistoricDetailQueryImpl detailsQuery = 
@@ -13,21 +13,28 @@
 
 package org.activiti.engine.impl.persistence.entity;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.activiti.engine.history.HistoricProcessInstance;
+import org.activiti.engine.impl.HistoricProcessInstanceDeleteBuilderImpl;
 import org.activiti.engine.impl.HistoricProcessInstanceQueryImpl;
 import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.db.DbSqlSession;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.AbstractManager;
+import org.activiti.engine.query.QueryResultHandler;
 
 
 /**
  * @author Tom Baeyens
  */
 public class HistoricProcessInstanceEntityManager extends AbstractManager {
+  
 
   public HistoricProcessInstanceEntity findHistoricProcessInstance(String processInstanceId) {
     if (getHistoryManager().isHistoryEnabled()) {
@@ -92,6 +99,59 @@ public class HistoricProcessInstanceEntityManager extends AbstractManager {
     }
   }
   
+  /**
+   * Deletes one chunk of finished historic process instances matching the given criteria, with their sub process instances.
+   * The history is deleted with set-based statements, rather than being loaded and deleted entity by entity.
+   * 
+   * @return the number of matching historic process instances that were deleted
+   */
+  @SuppressWarnings("unchecked")
+  public int deleteHistoricProcessInstances(HistoricProcessInstanceDeleteBuilderImpl criteria) {
+    if (!getHistoryManager().isHistoryEnabled()) {
+      return 0;
+    }
+    
+    List<String> historicProcessInstanceIds = getDbSqlSession()
+      .selectList("selectHistoricProcessInstanceIdsToDelete", criteria, 0, criteria.getChunkSize());
+    if (historicProcessInstanceIds.isEmpty()) {
+      return 0;
+    }
+    
+    // sub process instances can be part of the chunk themselves, so ids are only added once
+    Set<String> idsToDelete = new LinkedHashSet<String>(historicProcessInstanceIds);
+    List<String> superProcessInstanceIds = historicProcessInstanceIds;
+    while (!superProcessInstanceIds.isEmpty()) {
+      List<String> subProcessInstanceIds = new ArrayList<String>();
+      for (List<String> ids : DbSqlSession.partitionForInClause(superProcessInstanceIds)) {
+        List<String> foundIds = getDbSqlSession().selectListWithRawParameter(
+            "selectHistoricProcessInstanceIdsBySuperProcessInstanceIds", ids, 0, Integer.MAX_VALUE);
+        for (String foundId : foundIds) {
+          if (idsToDelete.add(foundId)) {
+            subProcessInstanceIds.add(foundId);
+          }
+        }
+      }
+      superProcessInstanceIds = subProcessInstanceIds;
+    }
+    
+    // The byte arrays go first, as they are found through the rows referencing them
+    for (List<String> ids : DbSqlSession.partitionForInClause(idsToDelete)) {
+      getDbSqlSession().delete("bulkDeleteByteArraysOfHistoricDetailsByProcessInstanceIds", ids);
+      getDbSqlSession().delete("bulkDeleteByteArraysOfHistoricVariableInstancesByProcessInstanceIds", ids);
+      getDbSqlSession().delete("bulkDeleteByteArraysOfAttachmentsByProcessInstanceIds", ids);
+      getDbSqlSession().delete("bulkDeleteHistoricDetailsByProcessInstanceIds", ids);
+      getDbSqlSession().delete("bulkDeleteHistoricVariableInstancesByProcessInstanceIds", ids);
+      getDbSqlSession().delete("bulkDeleteAttachmentsByProcessInstanceIds", ids);
+      getDbSqlSession().delete("bulkDeleteCommentsByProcessInstanceIds", ids);
+      getDbSqlSession().delete("bulkDeleteHistoricIdentityLinksByProcessInstanceIds", ids);
+      getDbSqlSession().delete("bulkDeleteHistoricTaskInstancesByProcessInstanceIds", ids);
+      getDbSqlSession().delete("bulkDeleteHistoricActivityInstancesByProcessInstanceIds", ids);
+      getDbSqlSession().delete("bulkDeleteHistoricProcessInstancesByIds", ids);
+    }
+    
+    return historicProcessInstanceIds.size();
+  }
+  
   public long findHistoricProcessInstanceCountByQueryCriteria(HistoricProcessInstanceQueryImpl historicProcessInstanceQuery) {
     if (getHistoryManager().isHistoryEnabled()) {
       return (Long) getDbSqlSession().selectOne("selectHistoricProcessInstanceCountByQueryCriteria", historicProcessInstanceQuery);
@@ -107,6 +167,13 @@ public class HistoricProcessInstanceEntityManager extends AbstractManager {
     return Collections.EMPTY_LIST;
   }
   
+  public void findHistoricProcessInstancesByQueryCriteria(HistoricProcessInstanceQueryImpl historicProcessInstanceQuery, 
+      QueryResultHandler<? super HistoricProcessInstance> resultHandler) {
+    if (getHistoryManager().isHistoryEnabled()) {
+      getDbSqlSession().selectWithResultHandler("selectHistoricProcessInstancesByQueryCriteria_streaming", historicProcessInstanceQuery, resultHandler);
+    }
+  }
+  
   @SuppressWarnings("unchecked")
   public List<HistoricProcessInstance> findHistoricProcessInstancesAndVariablesByQueryCriteria(HistoricProcessInstanceQueryImpl historicProcessInstanceQuery) {
     if (getHistoryManager().isHistoryEnabled()) {
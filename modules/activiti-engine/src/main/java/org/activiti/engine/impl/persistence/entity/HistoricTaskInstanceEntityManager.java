@@ -24,6 +24,7 @@ import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.history.HistoryLevel;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.AbstractManager;
+import org.activiti.engine.query.QueryResultHandler;
 
 
 /**
@@ -56,6 +57,13 @@ public class HistoricTaskInstanceEntityManager extends AbstractManager {
     return Collections.EMPTY_LIST;
   }
   
+  public void findHistoricTaskInstancesByQueryCriteria(HistoricTaskInstanceQueryImpl historicTaskInstanceQuery, 
+      QueryResultHandler<? super HistoricTaskInstance> resultHandler) {
+    if (getHistoryManager().isHistoryEnabled()) {
+      getDbSqlSession().selectWithResultHandler("selectHistoricTaskInstancesByQueryCriteria_streaming", historicTaskInstanceQuery, resultHandler);
+    }
+  }
+  
   @SuppressWarnings("unchecked")
   public List<HistoricTaskInstance> findHistoricTaskInstancesAndVariablesByQueryCriteria(HistoricTaskInstanceQueryImpl historicTaskInstanceQuery) {
     if (getHistoryManager().isHistoryEnabled()) {
@@ -13,15 +13,20 @@
 
 package org.activiti.engine.impl.persistence.entity;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.activiti.engine.history.HistoricVariableInstance;
 import org.activiti.engine.impl.HistoricVariableInstanceQueryImpl;
 import org.activiti.engine.impl.Page;
+import org.activiti.engine.impl.db.DbSqlSession;
 import org.activiti.engine.impl.db.PersistentObject;
 import org.activiti.engine.impl.history.HistoryLevel;
 import org.activiti.engine.impl.persistence.AbstractManager;
+import org.activiti.engine.query.QueryResultHandler;
 
 
 /**
@@ -29,6 +34,8 @@ import org.activiti.engine.impl.persistence.AbstractManager;
  */
 public class HistoricVariableInstanceEntityManager extends AbstractManager {
 
+  /** Oracle doesn't allow more than 1000 expressions in an IN list */
+
   @SuppressWarnings({ "unchecked", "rawtypes" })
   public void deleteHistoricVariableInstanceByProcessInstanceId(String historicProcessInstanceId) {
     if (getHistoryManager().isHistoryLevelAtLeast(HistoryLevel.ACTIVITY)) {
@@ -63,6 +70,27 @@ public class HistoricVariableInstanceEntityManager extends AbstractManager {
     return getDbSqlSession().selectList("selectHistoricVariableInstanceByQueryCriteria", historicProcessVariableQuery, page);
   }
 
+  public void findHistoricVariableInstancesByQueryCriteria(HistoricVariableInstanceQueryImpl historicProcessVariableQuery, 
+      QueryResultHandler<? super HistoricVariableInstance> resultHandler) {
+    getDbSqlSession().selectWithResultHandler("selectHistoricVariableInstanceByQueryCriteria_streaming", historicProcessVariableQuery, resultHandler);
+  }
+
+  /**
+   * Fetches the process variables with the given names of all given process instances,
+   * using one query per {@link DbSqlSession#MAX_IN_CLAUSE_SIZE} process instances.
+   */
+  @SuppressWarnings("unchecked")
+  public List<HistoricVariableInstanceEntity> findHistoricProcessVariableInstancesByProcessInstanceIdsAndNames(Collection<String> processInstanceIds, Collection<String> names) {
+    List<HistoricVariableInstanceEntity> variableInstances = new ArrayList<HistoricVariableInstanceEntity>();
+    for (List<String> ids : DbSqlSession.partitionForInClause(processInstanceIds)) {
+      Map<String, Object> params = new HashMap<String, Object>(2);
+      params.put("processInstanceIds", ids);
+      params.put("names", names);
+      variableInstances.addAll(getDbSqlSession().selectList("selectHistoricProcessVariableInstancesByProcessInstanceIdsAndNames", params));
+    }
+    return variableInstances;
+  }
+
   public HistoricVariableInstanceEntity findHistoricVariableInstanceByVariableInstanceId(String variableInstanceId) {
     return (HistoricVariableInstanceEntity) getDbSqlSession().selectOne("selectHistoricVariableInstanceByVariableInstanceId", variableInstanceId);
   }
@@ -13,6 +13,7 @@
 
 package org.activiti.engine.impl.persistence.entity;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +47,11 @@ public class IdentityLinkEntityManager extends AbstractManager {
     return getDbSqlSession().selectList("selectIdentityLinksByTask", taskId);
   }
   
+  @SuppressWarnings("unchecked")
+  public List<IdentityLinkEntity> findIdentityLinksByTaskIds(List<String> taskIds) {
+    return getDbSqlSession().selectList("selectIdentityLinksByTaskIds", taskIds);
+  }
+  
   @SuppressWarnings("unchecked")
   public List<IdentityLinkEntity> findIdentityLinksByProcessInstanceId(String processInstanceId) {
     return getDbSqlSession().selectList("selectIdentityLinksByProcessInstance", processInstanceId);
@@ -93,7 +99,21 @@ public class IdentityLinkEntityManager extends AbstractManager {
   public void deleteIdentityLinksByTaskId(String taskId) {
     List<IdentityLinkEntity> identityLinks = findIdentityLinksByTaskId(taskId);
     for (IdentityLinkEntity identityLink: identityLinks) {
-      deleteIdentityLink(identityLink, false);
+      if (!getDbSqlSession().isDeleted(identityLink)) {
+        deleteIdentityLink(identityLink, false);
+      }
+    }
+  }
+
+  /**
+   * Deletes the identity links of the task, which are only fetched when the task didn't load them yet.
+   * Links that were deleted earlier in the session are skipped, like in {@link #deleteIdentityLinksByTaskId(String)}.
+   */
+  public void deleteIdentityLinksByTask(TaskEntity task) {
+    for (IdentityLinkEntity identityLink: new ArrayList<IdentityLinkEntity>(task.getIdentityLinks())) {
+      if (!getDbSqlSession().isDeleted(identityLink)) {
+        deleteIdentityLink(identityLink, false);
+      }
     }
   }
 
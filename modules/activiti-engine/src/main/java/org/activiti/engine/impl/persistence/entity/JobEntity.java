@@ -155,6 +155,10 @@ public abstract class JobEntity implements Job, PersistentObject, HasRevision, B
   public void setExceptionStacktrace(String exception) {
     exceptionByteArrayRef.setValue("stacktrace", getUtf8Bytes(exception));
   }
+  
+  public ByteArrayRef getExceptionByteArrayRef() {
+    return exceptionByteArrayRef;
+  }
 
   private byte[] getUtf8Bytes(String str) {
     if (str == null) {
@@ -29,7 +29,9 @@ import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.cfg.TransactionListener;
 import org.activiti.engine.impl.cfg.TransactionState;
 import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.db.DbSqlSession;
 import org.activiti.engine.impl.jobexecutor.AsyncJobAddedNotification;
+import org.activiti.engine.impl.jobexecutor.AsyncTimerJobAddedNotification;
 import org.activiti.engine.impl.jobexecutor.JobAddedNotification;
 import org.activiti.engine.impl.jobexecutor.JobExecutor;
 import org.activiti.engine.impl.persistence.AbstractManager;
@@ -42,6 +44,7 @@ import org.activiti.engine.runtime.Job;
  * @author Joram Barrez
  */
 public class JobEntityManager extends AbstractManager {
+  
 
   public void send(MessageEntity message) {
   	
@@ -79,10 +82,26 @@ public class JobEntityManager extends AbstractManager {
       throw new ActivitiIllegalArgumentException("duedate is null");
     }
 
+    ProcessEngineConfiguration engineConfiguration = Context.getProcessEngineConfiguration();
+    
+    // If the async executor keeps near-due timers in memory, the id of a timer that is due within the look-ahead window
+    // is handed to the async executor after commit. The timer is only locked when it fires at its due time,
+    // so it can still be acquired by any other async executor until then.
+    boolean scheduleOnAsyncExecutor = false;
+    if (engineConfiguration.isAsyncExecutorEnabled()) {
+      AsyncExecutor asyncExecutor = engineConfiguration.getAsyncExecutor();
+      if (asyncExecutor != null && asyncExecutor.isActive() && asyncExecutor.getTimerLookAheadTimeInMillis() > 0) {
+        long now = engineConfiguration.getClock().getCurrentTime().getTime();
+        scheduleOnAsyncExecutor = duedate.getTime() <= now + asyncExecutor.getTimerLookAheadTimeInMillis();
+      }
+    }
+
     timer.insert();
 
-    ProcessEngineConfiguration engineConfiguration = Context.getProcessEngineConfiguration();
-    if (engineConfiguration.isAsyncExecutorEnabled() == false && 
+    if (scheduleOnAsyncExecutor) {
+      hintAsyncExecutorOfTimer(timer);
+      
+    } else if (engineConfiguration.isAsyncExecutorEnabled() == false && 
         timer.getDuedate().getTime() <= (engineConfiguration.getClock().getCurrentTime().getTime())) {
 
       hintJobExecutor(timer);
@@ -114,6 +133,16 @@ public class JobEntityManager extends AbstractManager {
       .addTransactionListener(TransactionState.COMMITTED, transactionListener);
   }
   
+  protected void hintAsyncExecutorOfTimer(TimerEntity timer) {
+    AsyncExecutor asyncExecutor = Context.getProcessEngineConfiguration().getAsyncExecutor();
+    
+    // hand the timer to the async executor once it is visible to other transactions
+    TransactionListener transactionListener = new AsyncTimerJobAddedNotification(timer, asyncExecutor);
+    Context.getCommandContext()
+      .getTransactionContext()
+      .addTransactionListener(TransactionState.COMMITTED, transactionListener);
+  }
+  
   protected void hintJobExecutor(JobEntity job) {  
     JobExecutor jobExecutor = Context.getProcessEngineConfiguration().getJobExecutor();
 
@@ -157,6 +186,20 @@ public class JobEntityManager extends AbstractManager {
     return getDbSqlSession().selectList("selectNextTimerJobsToExecute", now, page);
   }
   
+  /**
+   * Returns timer jobs that are due now or will become due within the given look-ahead time,
+   * and which are not locked by any async executor (or of which the lock has expired).
+   */
+  @SuppressWarnings("unchecked")
+  public List<JobEntity> findNextTimerJobsToExecute(Page page, int lookAheadTimeInMillis) {
+    ProcessEngineConfiguration processEngineConfig = Context.getProcessEngineConfiguration();
+    Date now = processEngineConfig.getClock().getCurrentTime();
+    Map<String, Object> params = new HashMap<String, Object>(2);
+    params.put("now", now);
+    params.put("duedateThreshold", new Date(now.getTime() + lookAheadTimeInMillis));
+    return getDbSqlSession().selectList("selectNextTimerJobsDueBefore", params, page);
+  }
+  
   @SuppressWarnings("unchecked")
   public List<JobEntity> findAsyncJobsDueToExecute(Page page) {
     ProcessEngineConfiguration processEngineConfig = Context.getProcessEngineConfiguration();
@@ -232,10 +275,30 @@ public class JobEntityManager extends AbstractManager {
   	getDbSqlSession().update("unacquireJob", params);
   }
 
+  /**
+   * Removes the lock of the given lock owner on a timer job without touching its due date, 
+   * so any async executor can acquire it again when it becomes due.
+   */
+  public void unlockTimerJob(String jobId, String lockOwner) {
+    Map<String, Object> params = new HashMap<String, Object>(2);
+    params.put("id", jobId);
+    params.put("lockOwner", lockOwner);
+    getDbSqlSession().update("unlockTimerJob", params);
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<String> findJobIdsByQueryCriteria(JobQueryImpl jobQuery) {
+    return getDbSqlSession().selectList("selectJobIdsByQueryCriteria", jobQuery, new Page(0, Integer.MAX_VALUE));
+  }
+
   public long findJobCountByQueryCriteria(JobQueryImpl jobQuery) {
     return (Long) getDbSqlSession().selectOne("selectJobCountByQueryCriteria", jobQuery);
   }
   
+  public long findJobCountByHandlerType(String jobHandlerType) {
+    return (Long) getDbSqlSession().selectOne("selectJobCountByHandlerType", jobHandlerType);
+  }
+  
   public void updateJobTenantIdForDeployment(String deploymentId, String newTenantId) {
   	HashMap<String, Object> params = new HashMap<String, Object>();
   	params.put("deploymentId", deploymentId);
@@ -251,4 +314,51 @@ public class JobEntityManager extends AbstractManager {
     return getDbSqlSession().update("updateJobLockForAllJobs", params);
   }
   
+  /**
+   * Sets the retries, and optionally the due date, of the jobs with the given ids that are not locked 
+   * (or of which the lock has expired), with one update statement per batch of ids.
+   * 
+   * @return the number of jobs that were updated
+   */
+  public int updateJobRetries(List<String> jobIds, int retries, Date duedate, Date now) {
+    int nrOfUpdatedJobs = 0;
+    for (List<String> ids : DbSqlSession.partitionForInClause(jobIds)) {
+      HashMap<String, Object> params = new HashMap<String, Object>();
+      params.put("jobIds", ids);
+      params.put("retries", retries);
+      params.put("duedate", duedate);
+      params.put("now", now);
+      nrOfUpdatedJobs += getDbSqlSession().update("updateRetriesOfUnlockedJobs", params);
+    }
+    return nrOfUpdatedJobs;
+  }
+  
+  /**
+   * Deletes the jobs with the given ids that are not locked (or of which the lock has expired), 
+   * and their exception stacktraces, with bulk delete statements.
+   * 
+   * @return the number of jobs that were deleted
+   */
+  @SuppressWarnings("unchecked")
+  public int deleteJobs(List<String> jobIds, Date now) {
+    int nrOfDeletedJobs = 0;
+    for (List<String> ids : DbSqlSession.partitionForInClause(jobIds)) {
+      HashMap<String, Object> params = new HashMap<String, Object>();
+      params.put("jobIds", ids);
+      params.put("now", now);
+      List<String> byteArrayIds = getDbSqlSession().selectListWithRawParameter("selectExceptionByteArrayIdsOfUnlockedJobsByIds", params, 0, Integer.MAX_VALUE);
+      
+      // The lock is checked by the delete statement itself, so a job that got locked in the meantime is left alone.
+      // The delete is executed right away, to know the number of deleted jobs.
+      nrOfDeletedJobs += getDbSqlSession().getSqlSession().delete("bulkDeleteUnlockedJobsByIds", params);
+      
+      // The jobs reference their exception stacktrace, so the byte arrays are deleted after the jobs 
+      // (skipping those of jobs that were not deleted)
+      if (!byteArrayIds.isEmpty()) {
+        getDbSqlSession().delete("bulkDeleteUnreferencedExceptionByteArraysByIds", byteArrayIds);
+      }
+    }
+    return nrOfDeletedJobs;
+  }
+  
 }
@@ -18,6 +18,7 @@ import java.util.Map;
 
 import org.activiti.engine.delegate.event.ActivitiEventType;
 import org.activiti.engine.delegate.event.impl.ActivitiEventBuilder;
+import org.activiti.engine.impl.identity.GroupMembershipCache;
 import org.activiti.engine.impl.persistence.AbstractManager;
 
 
@@ -31,6 +32,7 @@ public class MembershipEntityManager extends AbstractManager implements Membersh
     membershipEntity.setUserId(userId);
     membershipEntity.setGroupId(groupId);
     getDbSqlSession().insert(membershipEntity);
+    invalidateGroupMembershipCache(userId);
     
     if(getProcessEngineConfiguration().getEventDispatcher().isEnabled()) {
     	getProcessEngineConfiguration().getEventDispatcher().dispatchEvent(
@@ -43,6 +45,7 @@ public class MembershipEntityManager extends AbstractManager implements Membersh
     parameters.put("userId", userId);
     parameters.put("groupId", groupId);
     getDbSqlSession().delete("deleteMembership", parameters);
+    invalidateGroupMembershipCache(userId);
     
     if(getProcessEngineConfiguration().getEventDispatcher().isEnabled()) {
     	getProcessEngineConfiguration().getEventDispatcher().dispatchEvent(
@@ -50,5 +53,11 @@ public class MembershipEntityManager extends AbstractManager implements Membersh
     }
   }
   
+  protected void invalidateGroupMembershipCache(String userId) {
+    GroupMembershipCache groupMembershipCache = getProcessEngineConfiguration().getGroupMembershipCache();
+    if (groupMembershipCache != null) {
+      groupMembershipCache.invalidateOnCommit(userId);
+    }
+  }
 
 }
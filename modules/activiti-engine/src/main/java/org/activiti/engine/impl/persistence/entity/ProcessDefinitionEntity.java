@@ -189,6 +189,13 @@ public class ProcessDefinitionEntity extends ProcessDefinitionImpl implements Pr
   }
 
 
+  public void compact() {
+    super.compact();
+    key = intern(key);
+    deploymentId = intern(deploymentId);
+    tenantId = intern(tenantId);
+  }
+  
   // getters and setters //////////////////////////////////////////////////////
   
   public Object getPersistentState() {
@@ -79,6 +79,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
   protected String category;
   
   protected boolean isIdentityLinksInitialized = false;
+  protected boolean isIdentityLinksPreloaded = false;
   protected List<IdentityLinkEntity> taskIdentityLinkEntities = new ArrayList<IdentityLinkEntity>(); 
   
   protected String executionId;
@@ -464,6 +465,24 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     return taskIdentityLinkEntities;
   }
 
+  /**
+   * Sets the identity links of the task, when they were fetched together with those of other tasks.
+   */
+  public void initializeIdentityLinks(List<IdentityLinkEntity> identityLinks) {
+    if (!isIdentityLinksInitialized) {
+      taskIdentityLinkEntities = identityLinks;
+      isIdentityLinksInitialized = true;
+      isIdentityLinksPreloaded = true;
+    }
+  }
+  
+  /**
+   * @return true if the identity links of the task were set with {@link #initializeIdentityLinks(List)}
+   */
+  public boolean isIdentityLinksPreloaded() {
+    return isIdentityLinksPreloaded;
+  }
+
   @SuppressWarnings("unchecked")
   public Map<String, Object> getActivityInstanceVariables() {
     if (execution!=null) {
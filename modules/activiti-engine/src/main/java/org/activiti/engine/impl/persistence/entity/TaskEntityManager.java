@@ -77,9 +77,15 @@ public class TaskEntityManager extends AbstractManager {
         deleteTask((TaskEntity) subTask, deleteReason, cascade);
       }
       
-      commandContext
-        .getIdentityLinkEntityManager()
-        .deleteIdentityLinksByTaskId(taskId);
+      if (task.isIdentityLinksPreloaded()) {
+        commandContext
+          .getIdentityLinkEntityManager()
+          .deleteIdentityLinksByTask(task);
+      } else {
+        commandContext
+          .getIdentityLinkEntityManager()
+          .deleteIdentityLinksByTaskId(taskId);
+      }
 
       commandContext
         .getVariableInstanceEntityManager()
@@ -112,6 +118,11 @@ public class TaskEntityManager extends AbstractManager {
     return (TaskEntity) getDbSqlSession().selectById(TaskEntity.class, id);
   }
 
+  @SuppressWarnings("unchecked")
+  public List<TaskEntity> findTasksByIds(List<String> taskIds) {
+    return getDbSqlSession().selectList("selectTasksByIds", taskIds);
+  }
+
   @SuppressWarnings("unchecked")
   public List<TaskEntity> findTasksByExecutionId(String executionId) {
     return getDbSqlSession().selectList("selectTasksByExecutionId", executionId);
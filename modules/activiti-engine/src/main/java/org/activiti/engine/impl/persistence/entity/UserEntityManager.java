@@ -29,6 +29,7 @@ import org.activiti.engine.impl.UserQueryImpl;
 import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.db.DbSqlSession;
 import org.activiti.engine.impl.db.PersistentObject;
+import org.activiti.engine.impl.identity.GroupMembershipCache;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.AbstractManager;
 
@@ -79,6 +80,11 @@ public class UserEntityManager extends AbstractManager implements UserIdentityMa
         getIdentityInfoManager().deleteIdentityInfo(identityInfo);
       }
       getDbSqlSession().delete("deleteMembershipsByUserId", userId);
+      
+      GroupMembershipCache groupMembershipCache = getProcessEngineConfiguration().getGroupMembershipCache();
+      if (groupMembershipCache != null) {
+        groupMembershipCache.invalidateOnCommit(userId);
+      }
 
       user.delete();
       
@@ -13,11 +13,13 @@
 
 package org.activiti.engine.impl.persistence.entity;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.activiti.engine.impl.db.DbSqlSession;
 import org.activiti.engine.impl.persistence.AbstractManager;
 
 
@@ -28,6 +30,8 @@ import org.activiti.engine.impl.persistence.AbstractManager;
  */
 public class VariableInstanceEntityManager extends AbstractManager {
 
+  /** Oracle doesn't allow more than 1000 expressions in an IN list */
+
   @SuppressWarnings("unchecked")
   public List<VariableInstanceEntity> findVariableInstancesByTaskId(String taskId) {
     return getDbSqlSession().selectList("selectVariablesByTaskId", taskId);
@@ -68,6 +72,22 @@ public class VariableInstanceEntityManager extends AbstractManager {
 		return getDbSqlSession().selectList("selectVariableInstancesByTaskAndNames", params);
 	}
 	
+	/**
+	 * Fetches the process variables with the given names of all given process instances,
+	 * using one query per {@link DbSqlSession#MAX_IN_CLAUSE_SIZE} process instances.
+	 */
+	@SuppressWarnings("unchecked")
+  public List<VariableInstanceEntity> findProcessVariableInstancesByProcessInstanceIdsAndNames(Collection<String> processInstanceIds, Collection<String> names) {
+	  List<VariableInstanceEntity> variableInstances = new ArrayList<VariableInstanceEntity>();
+	  for (List<String> ids : DbSqlSession.partitionForInClause(processInstanceIds)) {
+	    Map<String, Object> params = new HashMap<String, Object>(2);
+	    params.put("processInstanceIds", ids);
+	    params.put("names", names);
+	    variableInstances.addAll(getDbSqlSession().selectList("selectProcessVariableInstancesByProcessInstanceIdsAndNames", params));
+	  }
+	  return variableInstances;
+	}
+	
   public void deleteVariableInstanceByTask(TaskEntity task) {
     Map<String, VariableInstanceEntity> variableInstances = task.getVariableInstanceEntities();
     if (variableInstances!=null) {
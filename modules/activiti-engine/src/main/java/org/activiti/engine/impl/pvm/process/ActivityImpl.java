@@ -84,6 +84,15 @@ public class ActivityImpl extends ScopeImpl implements PvmActivity, HasDIBounds
   }
   
   public TransitionImpl findOutgoingTransition(String transitionId) {
+    if (namedOutgoingTransitions == null) {
+      // compacted: an activity only has a few outgoing transitions
+      for (TransitionImpl transition : outgoingTransitions) {
+        if (transitionId != null && transitionId.equals(transition.getId())) {
+          return transition;
+        }
+      }
+      return null;
+    }
     return namedOutgoingTransitions.get(transitionId);
   }
   
@@ -91,6 +100,16 @@ public class ActivityImpl extends ScopeImpl implements PvmActivity, HasDIBounds
     return "Activity("+id+")";
   }
   
+  protected void compact() {
+    super.compact();
+    outgoingTransitions = compactList(outgoingTransitions);
+    incomingTransitions = compactList(incomingTransitions);
+    namedOutgoingTransitions = null;
+    for (TransitionImpl outgoingTransition : outgoingTransitions) {
+      outgoingTransition.compact();
+    }
+  }
+  
   public ActivityImpl getParentActivity() {
     if (parent instanceof ActivityImpl) {
       return (ActivityImpl) parent;
@@ -114,6 +114,17 @@ public class ProcessDefinitionImpl extends ScopeImpl implements PvmProcessDefini
     return null;
   }
   
+  /**
+   * Compacts the in-memory representation of this process definition, once it is completely parsed: 
+   * ids and keys are interned, so they are shared with the other versions of the definition, lists are replaced by arrays 
+   * of the exact size, and properties are kept in array maps instead of hash maps. 
+   * No activities, transitions or listeners can be added to the definition afterwards.
+   */
+  public void compact() {
+    super.compact();
+    key = intern(key);
+  }
+  
   public void addLaneSet(LaneSet newLaneSet) {
     getLaneSets().add(newLaneSet);
   }
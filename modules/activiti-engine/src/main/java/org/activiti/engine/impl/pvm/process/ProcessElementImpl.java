@@ -13,11 +13,14 @@
 
 package org.activiti.engine.impl.pvm.process;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.activiti.engine.impl.pvm.PvmProcessElement;
+import org.activiti.engine.impl.util.ArrayMap;
 
 
 /** common properties for process definition, activity and transition 
@@ -60,6 +63,45 @@ public class ProcessElementImpl implements PvmProcessElement {
     return properties;
   }
   
+  // compaction ///////////////////////////////////////////////////////////////
+  
+  /**
+   * Interns the id and replaces the properties by an {@link ArrayMap} with interned keys. Only ids and keys 
+   * are interned: they are few and shared by all versions of a definition, while interning free text 
+   * like names, documentation and expressions would fill the permanent generation of older JVMs.
+   * @see ProcessDefinitionImpl#compact() 
+   */
+  protected void compact() {
+    id = intern(id);
+    if (properties != null) {
+      if (properties.isEmpty()) {
+        properties = null;
+      } else {
+        Map<String, Object> compactedProperties = new ArrayMap<String, Object>(properties.size());
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+          compactedProperties.put(intern(property.getKey()), property.getValue());
+        }
+        properties = compactedProperties;
+      }
+    }
+  }
+  
+  protected static String intern(String value) {
+    return value != null ? value.intern() : null;
+  }
+  
+  /** @return a fixed-size list backed by an array of exactly the size of the given list */
+  @SuppressWarnings("unchecked")
+  protected static <T> List<T> compactList(List<T> list) {
+    if (list == null) {
+      return null;
+    }
+    if (list.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return (List<T>) Arrays.asList(list.toArray());
+  }
+  
   // getters and setters //////////////////////////////////////////////////////
   
   public String getId() {
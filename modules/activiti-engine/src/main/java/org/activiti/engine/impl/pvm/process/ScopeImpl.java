@@ -23,6 +23,7 @@ import org.activiti.engine.delegate.ExecutionListener;
 import org.activiti.engine.impl.bpmn.data.IOSpecification;
 import org.activiti.engine.impl.pvm.PvmException;
 import org.activiti.engine.impl.pvm.PvmScope;
+import org.activiti.engine.impl.util.ArrayMap;
 
 
 /**
@@ -116,6 +117,38 @@ public abstract class ScopeImpl extends ProcessElementImpl implements PvmScope {
     return executionListeners;
   }
   
+  // compaction ///////////////////////////////////////////////////////////////
+  
+  protected void compact() {
+    super.compact();
+    
+    activities = compactList(activities);
+    for (ActivityImpl activity : activities) {
+      activity.compact();
+    }
+    
+    // rebuilt with the interned ids of the compacted activities
+    if (namedActivities.isEmpty()) {
+      namedActivities = Collections.emptyMap();
+    } else {
+      Map<String, ActivityImpl> compactedNamedActivities = new HashMap<String, ActivityImpl>((int) (namedActivities.size() / 0.75f) + 1);
+      for (ActivityImpl activity : namedActivities.values()) {
+        compactedNamedActivities.put(activity.getId(), activity);
+      }
+      namedActivities = compactedNamedActivities;
+    }
+    
+    if (executionListeners.isEmpty()) {
+      executionListeners = Collections.emptyMap();
+    } else {
+      Map<String, List<ExecutionListener>> compactedExecutionListeners = new ArrayMap<String, List<ExecutionListener>>(executionListeners.size());
+      for (Map.Entry<String, List<ExecutionListener>> listeners : executionListeners.entrySet()) {
+        compactedExecutionListeners.put(intern(listeners.getKey()), compactList(listeners.getValue()));
+      }
+      executionListeners = compactedExecutionListeners;
+    }
+  }
+  
   // getters and setters //////////////////////////////////////////////////////
   
   public List<ActivityImpl> getActivities() {
@@ -62,6 +62,12 @@ public class TransitionImpl extends ProcessElementImpl implements PvmTransition
     return "("+source.getId()+")--"+(id!=null?id+"-->(":">(")+destination.getId()+")";
   }
 
+  protected void compact() {
+    super.compact();
+    executionListeners = compactList(executionListeners);
+    waypoints = compactList(waypoints);
+  }
+
   @SuppressWarnings("unchecked")
   public List<ExecutionListener> getExecutionListeners() {
     if (executionListeners==null) {
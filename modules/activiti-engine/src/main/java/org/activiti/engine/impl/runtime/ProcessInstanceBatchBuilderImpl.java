@@ -0,0 +1,150 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.runtime;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.ActivitiIllegalArgumentException;
+import org.activiti.engine.impl.cmd.StartProcessInstanceBatchCmd;
+import org.activiti.engine.impl.cmd.StartProcessInstanceCmd;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.runtime.ProcessInstanceBatchBuilder;
+import org.activiti.engine.runtime.ProcessInstanceBatchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ProcessInstanceBatchBuilderImpl implements ProcessInstanceBatchBuilder {
+  
+  private static final Logger log = LoggerFactory.getLogger(ProcessInstanceBatchBuilderImpl.class);
+  
+  protected CommandExecutor commandExecutor;
+  
+  protected String processDefinitionId;
+  protected String processDefinitionKey;
+  protected String tenantId;
+  protected int chunkSize;
+  protected List<ProcessInstanceToStart> processInstancesToStart = new ArrayList<ProcessInstanceToStart>();
+  
+  public ProcessInstanceBatchBuilderImpl(CommandExecutor commandExecutor, int chunkSize) {
+    this.commandExecutor = commandExecutor;
+    this.chunkSize = chunkSize;
+  }
+
+  public ProcessInstanceBatchBuilder processDefinitionId(String processDefinitionId) {
+    this.processDefinitionId = processDefinitionId;
+    return this;
+  }
+
+  public ProcessInstanceBatchBuilder processDefinitionKey(String processDefinitionKey) {
+    this.processDefinitionKey = processDefinitionKey;
+    return this;
+  }
+
+  public ProcessInstanceBatchBuilder tenantId(String tenantId) {
+    this.tenantId = tenantId;
+    return this;
+  }
+
+  public ProcessInstanceBatchBuilder chunkSize(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new ActivitiIllegalArgumentException("chunkSize must be positive");
+    }
+    this.chunkSize = chunkSize;
+    return this;
+  }
+
+  public ProcessInstanceBatchBuilder addProcessInstance(String businessKey, Map<String, Object> variables) {
+    processInstancesToStart.add(new ProcessInstanceToStart(businessKey, variables));
+    return this;
+  }
+
+  public List<ProcessInstanceBatchResult> start() {
+    if (processDefinitionId == null && processDefinitionKey == null) {
+      throw new ActivitiIllegalArgumentException("processDefinitionKey and processDefinitionId are null");
+    }
+    
+    List<ProcessInstanceBatchResult> results = new ArrayList<ProcessInstanceBatchResult>(processInstancesToStart.size());
+    
+    // once resolved, all chunks use the same version of the process definition
+    String resolvedProcessDefinitionId = processDefinitionId;
+    for (int fromIndex = 0; fromIndex < processInstancesToStart.size(); fromIndex += chunkSize) {
+      List<ProcessInstanceToStart> chunk = new ArrayList<ProcessInstanceToStart>(
+              processInstancesToStart.subList(fromIndex, Math.min(fromIndex + chunkSize, processInstancesToStart.size())));
+      
+      StartProcessInstanceBatchCmd startProcessInstanceBatchCmd = new StartProcessInstanceBatchCmd(processDefinitionKey, 
+              resolvedProcessDefinitionId, tenantId, chunk);
+      try {
+        List<ProcessInstance> processInstances = commandExecutor.execute(startProcessInstanceBatchCmd);
+        for (int i = 0; i < chunk.size(); i++) {
+          results.add(new ProcessInstanceBatchResultImpl(chunk.get(i).getBusinessKey(), processInstances.get(i).getId(), null));
+        }
+        
+      } catch (RuntimeException e) {
+        if (startProcessInstanceBatchCmd.getResolvedProcessDefinitionId() == null) {
+          // the process definition doesn't exist or is suspended, which fails every remaining process instance
+          if (fromIndex == 0) {
+            throw e;
+          }
+          log.debug("Process definition couldn't be resolved after {} process instances, failing the remaining ones: {}", fromIndex, e.getMessage());
+          for (ProcessInstanceToStart processInstanceToStart : processInstancesToStart.subList(fromIndex, processInstancesToStart.size())) {
+            results.add(new ProcessInstanceBatchResultImpl(processInstanceToStart.getBusinessKey(), null, e));
+          }
+          return results;
+        }
+        log.debug("Failed to start a chunk of {} process instances, starting them one by one: {}", chunk.size(), e.getMessage());
+        startOneByOne(startProcessInstanceBatchCmd.getResolvedProcessDefinitionId(), chunk, results);
+      }
+      resolvedProcessDefinitionId = startProcessInstanceBatchCmd.getResolvedProcessDefinitionId();
+    }
+    return results;
+  }
+  
+  protected void startOneByOne(String processDefinitionId, List<ProcessInstanceToStart> chunk, List<ProcessInstanceBatchResult> results) {
+    for (ProcessInstanceToStart processInstanceToStart : chunk) {
+      try {
+        ProcessInstance processInstance = commandExecutor.execute(new StartProcessInstanceCmd<ProcessInstance>(null, 
+                processDefinitionId, processInstanceToStart.getBusinessKey(), processInstanceToStart.getVariables()));
+        results.add(new ProcessInstanceBatchResultImpl(processInstanceToStart.getBusinessKey(), processInstance.getId(), null));
+      } catch (RuntimeException e) {
+        results.add(new ProcessInstanceBatchResultImpl(processInstanceToStart.getBusinessKey(), null, e));
+      }
+    }
+  }
+  
+  public static class ProcessInstanceToStart implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    protected String businessKey;
+    protected Map<String, Object> variables;
+    
+    public ProcessInstanceToStart(String businessKey, Map<String, Object> variables) {
+      this.businessKey = businessKey;
+      this.variables = variables;
+    }
+    
+    public String getBusinessKey() {
+      return businessKey;
+    }
+    
+    public Map<String, Object> getVariables() {
+      return variables;
+    }
+    
+  }
+
+}
@@ -0,0 +1,54 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.runtime;
+
+import java.io.Serializable;
+
+import org.activiti.engine.runtime.ProcessInstanceBatchResult;
+
+public class ProcessInstanceBatchResultImpl implements ProcessInstanceBatchResult, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected String businessKey;
+  protected String processInstanceId;
+  protected Throwable exception;
+  
+  public ProcessInstanceBatchResultImpl(String businessKey, String processInstanceId, Throwable exception) {
+    this.businessKey = businessKey;
+    this.processInstanceId = processInstanceId;
+    this.exception = exception;
+  }
+
+  public String getBusinessKey() {
+    return businessKey;
+  }
+
+  public String getProcessInstanceId() {
+    return processInstanceId;
+  }
+
+  public Throwable getException() {
+    return exception;
+  }
+
+  public boolean isSuccessful() {
+    return exception == null;
+  }
+  
+  public String toString() {
+    return "ProcessInstanceBatchResult[businessKey=" + businessKey + ", processInstanceId=" + processInstanceId 
+            + (exception != null ? ", exception=" + exception.getMessage() : "") + "]";
+  }
+
+}
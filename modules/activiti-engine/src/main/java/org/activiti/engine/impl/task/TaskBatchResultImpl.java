@@ -0,0 +1,47 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.task;
+
+import java.io.Serializable;
+
+import org.activiti.engine.task.TaskBatchResult;
+
+public class TaskBatchResultImpl implements TaskBatchResult, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected String taskId;
+  protected Throwable exception;
+  
+  public TaskBatchResultImpl(String taskId, Throwable exception) {
+    this.taskId = taskId;
+    this.exception = exception;
+  }
+
+  public String getTaskId() {
+    return taskId;
+  }
+
+  public Throwable getException() {
+    return exception;
+  }
+
+  public boolean isSuccessful() {
+    return exception == null;
+  }
+  
+  public String toString() {
+    return "TaskBatchResult[taskId=" + taskId + (exception != null ? ", exception=" + exception.getMessage() : "") + "]";
+  }
+
+}
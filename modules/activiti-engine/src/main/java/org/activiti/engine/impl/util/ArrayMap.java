@@ -0,0 +1,217 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.util;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map that keeps its keys and values in two arrays, which are searched linearly.
+ * 
+ * Meant for the small maps that are kept for a long time, like the properties of the elements of a 
+ * cached process definition: it uses a fraction of the memory of a {@link java.util.HashMap}, 
+ * and for a handful of (interned) keys a lookup is just as fast.
+ */
+public class ArrayMap<K, V> extends AbstractMap<K, V> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected Object[] keys;
+  protected Object[] values;
+  protected int size;
+  
+  public ArrayMap() {
+    this(4);
+  }
+  
+  public ArrayMap(int initialCapacity) {
+    keys = new Object[initialCapacity];
+    values = new Object[initialCapacity];
+  }
+  
+  public ArrayMap(Map<? extends K, ? extends V> map) {
+    this(map.size());
+    putAll(map);
+  }
+  
+  protected int indexOf(Object key) {
+    // interned keys are found by reference, so equals is only needed for the other keys
+    for (int i = 0; i < size; i++) {
+      if (keys[i] == key) {
+        return i;
+      }
+    }
+    if (key != null) {
+      for (int i = 0; i < size; i++) {
+        if (key.equals(keys[i])) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+  
+  public int size() {
+    return size;
+  }
+  
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+  
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int index = indexOf(key);
+    return index >= 0 ? (V) values[index] : null;
+  }
+  
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    int index = indexOf(key);
+    if (index >= 0) {
+      V oldValue = (V) values[index];
+      values[index] = value;
+      return oldValue;
+    }
+    if (size == keys.length) {
+      int newCapacity = size + 1;
+      Object[] newKeys = new Object[newCapacity];
+      Object[] newValues = new Object[newCapacity];
+      System.arraycopy(keys, 0, newKeys, 0, size);
+      System.arraycopy(values, 0, newValues, 0, size);
+      keys = newKeys;
+      values = newValues;
+    }
+    keys[size] = key;
+    values[size] = value;
+    size++;
+    return null;
+  }
+  
+  public V remove(Object key) {
+    int index = indexOf(key);
+    if (index < 0) {
+      return null;
+    }
+    return removeAt(index);
+  }
+  
+  @SuppressWarnings("unchecked")
+  protected V removeAt(int index) {
+    V oldValue = (V) values[index];
+    int nrOfMoved = size - index - 1;
+    System.arraycopy(keys, index + 1, keys, index, nrOfMoved);
+    System.arraycopy(values, index + 1, values, index, nrOfMoved);
+    size--;
+    keys[size] = null;
+    values[size] = null;
+    return oldValue;
+  }
+  
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      keys[i] = null;
+      values[i] = null;
+    }
+    size = 0;
+  }
+  
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      
+      public int size() {
+        return size;
+      }
+      
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<Map.Entry<K, V>>() {
+          
+          protected int index;
+          protected boolean removable;
+          
+          public boolean hasNext() {
+            return index < size;
+          }
+          
+          public Map.Entry<K, V> next() {
+            if (index >= size) {
+              throw new NoSuchElementException();
+            }
+            removable = true;
+            return new Entry(index++);
+          }
+          
+          public void remove() {
+            if (!removable) {
+              throw new IllegalStateException();
+            }
+            removeAt(--index);
+            removable = false;
+          }
+        };
+      }
+    };
+  }
+  
+  protected class Entry implements Map.Entry<K, V> {
+    
+    protected int index;
+    
+    public Entry(int index) {
+      this.index = index;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public K getKey() {
+      return (K) keys[index];
+    }
+    
+    @SuppressWarnings("unchecked")
+    public V getValue() {
+      return (V) values[index];
+    }
+    
+    @SuppressWarnings("unchecked")
+    public V setValue(V value) {
+      V oldValue = (V) values[index];
+      values[index] = value;
+      return oldValue;
+    }
+    
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+      return eq(getKey(), other.getKey()) && eq(getValue(), other.getValue());
+    }
+    
+    public int hashCode() {
+      return (getKey() == null ? 0 : getKey().hashCode()) ^ (getValue() == null ? 0 : getValue().hashCode());
+    }
+    
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+  
+  protected static boolean eq(Object o1, Object o2) {
+    return o1 == null ? o2 == null : o1.equals(o2);
+  }
+
+}
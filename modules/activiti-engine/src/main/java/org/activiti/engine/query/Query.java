@@ -50,4 +50,12 @@ public interface Query<T extends Query< ? , ? >, U extends Object> {
 
   /** Executes the query and get a list of entities as the result. */
   List<U> listPage(int firstResult, int maxResults);
+
+  /**
+   * Executes the query and hands the resulting entities one by one to the given handler, instead of
+   * returning them as a list. Queries meant for large results (like the historic queries) read the entities 
+   * from the database one at a time, using the configured streaming fetch size, and don't keep them 
+   * in the session cache, so the result doesn't need to fit in memory.
+   */
+  void stream(QueryResultHandler<? super U> resultHandler);
 }
@@ -0,0 +1,26 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.query;
+
+/**
+ * Receives the results of a query one at a time, see {@link Query#stream(QueryResultHandler)}.
+ */
+public interface QueryResultHandler<U> {
+
+  /**
+   * Called for every result of the query, in the order of the query. 
+   * The call happens within the transaction of the query, so this should not do long running work.
+   */
+  void handleResult(U result);
+
+}
@@ -0,0 +1,50 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.runtime;
+
+/**
+ * Changes or deletes all jobs matching a {@link JobQuery} with set-based statements, in chunks
+ * of which each is processed in its own transaction. The ids of the matching jobs are determined 
+ * up front, so jobs that start matching the query while the operation runs are not affected.
+ * 
+ * Jobs that are locked by an executor at the time their chunk is processed are skipped.
+ * No entity events are dispatched for the updated or deleted jobs.
+ * 
+ * An instance can be obtained through {@link org.activiti.engine.ManagementService#createJobBatchBuilder(JobQuery)}.
+ */
+public interface JobBatchBuilder {
+  
+  /** The number of jobs processed in one transaction. By default the batch operation chunk size of the configuration. */
+  JobBatchBuilder chunkSize(int chunkSize);
+  
+  /**
+   * Spreads the due dates of the jobs when setting their retries, so the jobs are not all picked up at once: 
+   * the jobs of the first chunk are due immediately, those of every next chunk the given interval later.
+   * Jobs that are due later than that (eg. timers that did not fire yet) keep their due date.
+   * Without this, the due dates of the jobs are left as they are.
+   */
+  JobBatchBuilder staggerDueDates(long intervalInMillis);
+  
+  /**
+   * Sets the number of retries of the matching jobs.
+   * @return the number of jobs that were updated
+   */
+  long setRetries(int retries);
+  
+  /**
+   * Deletes the matching jobs, with their exception stacktraces.
+   * @return the number of jobs that were deleted
+   */
+  long delete();
+
+}
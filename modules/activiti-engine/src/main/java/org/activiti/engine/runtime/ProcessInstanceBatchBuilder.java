@@ -0,0 +1,53 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.runtime;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts many process instances of the same process definition. The process instances are started 
+ * in chunks, of which each is started in its own transaction, so the inserts of a chunk are flushed together.
+ * 
+ * An instance can be obtained through {@link org.activiti.engine.RuntimeService#createProcessInstanceBatchBuilder()}.
+ */
+public interface ProcessInstanceBatchBuilder {
+  
+  /** Set the id of the process definition. */
+  ProcessInstanceBatchBuilder processDefinitionId(String processDefinitionId);
+  
+  /** 
+   * Set the key of the process definition. All process instances are started with the latest version 
+   * at the time the first process instance is started. If processDefinitionId was set this will be ignored.
+   */
+  ProcessInstanceBatchBuilder processDefinitionKey(String processDefinitionKey);
+  
+  /** Set the tenantId of the process definition, when starting by key. */
+  ProcessInstanceBatchBuilder tenantId(String tenantId);
+  
+  /** The number of process instances started in one transaction. By default the batch operation chunk size of the configuration. */
+  ProcessInstanceBatchBuilder chunkSize(int chunkSize);
+  
+  /** Adds a process instance to start, with the given business key and variables (both may be null). */
+  ProcessInstanceBatchBuilder addProcessInstance(String businessKey, Map<String, Object> variables);
+  
+  /**
+   * Starts all added process instances. When a process instance of a chunk fails to start, the process 
+   * instances of that chunk are started again one by one, so only the failing ones are not started.
+   * 
+   * @return the outcome of every added process instance, in the order they were added
+   * @throws ActivitiIllegalArgumentException if processDefinitionKey and processDefinitionId are null 
+   */
+  List<ProcessInstanceBatchResult> start();
+
+}
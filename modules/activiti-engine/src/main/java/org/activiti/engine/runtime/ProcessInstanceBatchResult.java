@@ -0,0 +1,30 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.runtime;
+
+/**
+ * The outcome of starting one process instance of a {@link ProcessInstanceBatchBuilder}.
+ */
+public interface ProcessInstanceBatchResult {
+  
+  String getBusinessKey();
+  
+  /** @return the id of the started process instance, or null if it failed to start */
+  String getProcessInstanceId();
+  
+  /** @return the reason the process instance failed to start, or null if it was started */
+  Throwable getException();
+  
+  boolean isSuccessful();
+
+}
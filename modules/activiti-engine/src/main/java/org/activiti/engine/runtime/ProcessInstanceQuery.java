@@ -280,6 +280,14 @@ public interface ProcessInstanceQuery extends Query<ProcessInstanceQuery, Proces
    */
   ProcessInstanceQuery includeProcessVariables();
   
+  /**
+   * Include only the process variables with the given names in the process query result.
+   * The variables are fetched with a separate query for all process instances of the result,
+   * so contrary to {@link #includeProcessVariables()} the paging of the result is not affected.
+   * @param variableNames cannot be null or empty.
+   */
+  ProcessInstanceQuery includeProcessVariables(String... variableNames);
+  
   /**
    * Only select process instances that failed due to an exception happening during a job execution.
    */
@@ -310,4 +318,18 @@ public interface ProcessInstanceQuery extends Query<ProcessInstanceQuery, Proces
 	/** Order by tenant id (needs to be followed by {@link #asc()} or {@link #desc()}). */
   ProcessInstanceQuery orderByTenantId();
   
+  /**
+   * Executes the query and returns at most <code>pageSize</code> results that come directly after the
+   * result with the given order value and id. Contrary to {@link #listPage(int, int)}, the database doesn't need 
+   * to skip all results of the previous pages, so this should be used to page through large results.
+   * 
+   * Only one order property (without null handling) can be used, the id is always used as secondary order.
+   * When no order property is set, the results are ordered by id and the lastSortValue is ignored.
+   * Results without a value for the order property come last in ascending and first in descending order.
+   * 
+   * @param lastSortValue value of the order property of the last result of the previous page, can be null
+   * @param lastId id of the last result of the previous page, or null to fetch the first page
+   */
+  List<ProcessInstance> listAfter(Object lastSortValue, String lastId, int pageSize);
+  
 }
@@ -536,6 +536,14 @@ public interface TaskInfoQuery<T extends TaskInfoQuery<?, ?>, V extends TaskInfo
    */
   T includeProcessVariables();
   
+  /**
+   * Include only the global task variables with the given names in the task query result.
+   * The variables are fetched with a separate query for all tasks of the result,
+   * so contrary to {@link #includeProcessVariables()} the paging of the result is not affected.
+   * @param variableNames cannot be null or empty.
+   */
+  T includeProcessVariables(String... variableNames);
+  
   /**
    * Localize task name and description to specified locale.
    */
@@ -610,5 +618,19 @@ public interface TaskInfoQuery<T extends TaskInfoQuery<?, ?>, V extends TaskInfo
    * If any of the tasks have null for the due date, these will be last in the result.
    */
   T orderByDueDateNullsLast();
+  
+  /**
+   * Executes the query and returns at most <code>pageSize</code> results that come directly after the
+   * result with the given order value and id. Contrary to {@link #listPage(int, int)}, the database doesn't need 
+   * to skip all results of the previous pages, so this should be used to page through large results.
+   * 
+   * Only one order property (without null handling) can be used, the id is always used as secondary order.
+   * When no order property is set, the results are ordered by id and the lastSortValue is ignored.
+   * Results without a value for the order property come last in ascending and first in descending order.
+   * 
+   * @param lastSortValue value of the order property of the last result of the previous page, can be null
+   * @param lastId id of the last result of the previous page, or null to fetch the first page
+   */
+  List<V> listAfter(Object lastSortValue, String lastId, int pageSize);
 
 }
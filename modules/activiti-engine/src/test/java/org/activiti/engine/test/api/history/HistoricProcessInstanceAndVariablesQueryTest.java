@@ -75,6 +75,28 @@ public class HistoricProcessInstanceAndVariablesQueryTest extends PluggableActiv
     super.tearDown();
   }
   
+  public void testQueryWithIncludedProcessVariableNames() {
+    if (processEngineConfiguration.getHistoryLevel().isAtLeast(HistoryLevel.ACTIVITY)) {
+      List<HistoricProcessInstance> instanceList = historyService.createHistoricProcessInstanceQuery().includeProcessVariables("test2")
+          .processDefinitionKey(PROCESS_DEFINITION_KEY).listPage(0, 3);
+      assertEquals(3, instanceList.size());
+      for (HistoricProcessInstance processInstance : instanceList) {
+        Map<String, Object> variableMap = processInstance.getProcessVariables();
+        assertEquals(1, variableMap.size());
+        assertEquals("test2", variableMap.get("test2"));
+      }
+      
+      HistoricProcessInstance processInstance = historyService.createHistoricProcessInstanceQuery().includeProcessVariables("test")
+          .finished().singleResult();
+      assertEquals(1, processInstance.getProcessVariables().size());
+      assertEquals("test", processInstance.getProcessVariables().get("test"));
+      
+      processInstance = historyService.createHistoricProcessInstanceQuery().includeProcessVariables("unknown")
+          .processDefinitionKey(PROCESS_DEFINITION_KEY_2).singleResult();
+      assertEquals(0, processInstance.getProcessVariables().size());
+    }
+  }
+  
   public void testQuery() {
     if (processEngineConfiguration.getHistoryLevel().isAtLeast(HistoryLevel.ACTIVITY)) {
       HistoricProcessInstance processInstance = historyService.createHistoricProcessInstanceQuery().includeProcessVariables()
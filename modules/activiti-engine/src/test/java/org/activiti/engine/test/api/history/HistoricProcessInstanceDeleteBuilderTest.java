@@ -0,0 +1,258 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.api.history;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.activiti.engine.ActivitiIllegalArgumentException;
+import org.activiti.engine.impl.cmd.ScheduleHistoryCleanupCmd;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandConfig;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.jobexecutor.HistoricProcessInstanceDeleteJobHandler;
+import org.activiti.engine.impl.jobexecutor.HistoryCleanupJobHandler;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.persistence.entity.PropertyEntity;
+import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+import org.activiti.engine.runtime.Job;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.task.Task;
+import org.activiti.engine.test.Deployment;
+
+public class HistoricProcessInstanceDeleteBuilderTest extends PluggableActivitiTestCase {
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.getClock().reset();
+    super.tearDown();
+  }
+
+  @Deployment(resources = { "org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml" })
+  public void testDeleteFinishedInstances() {
+    for (int i = 0; i < 5; i++) {
+      completeTasks(runtimeService.startProcessInstanceByKey("oneTaskProcess"));
+    }
+    ProcessInstance runningInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    assertEquals(6, historyService.createHistoricProcessInstanceQuery().count());
+
+    assertEquals(5, historyService.createHistoricProcessInstanceDeleteBuilder().chunkSize(2).delete());
+
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+    assertEquals(runningInstance.getId(), historyService.createHistoricProcessInstanceQuery().singleResult().getId());
+    assertEquals(1, historyService.createHistoricActivityInstanceQuery().activityId("theTask").count());
+    assertEquals(1, historyService.createHistoricTaskInstanceQuery().count());
+    assertEquals(0, historyService.createHistoricProcessInstanceDeleteBuilder().delete());
+  }
+
+  @Deployment(resources = { "org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml" })
+  public void testDeleteFinishedBefore() {
+    Calendar calendar = Calendar.getInstance();
+    calendar.add(Calendar.DAY_OF_YEAR, -10);
+    processEngineConfiguration.getClock().setCurrentTime(calendar.getTime());
+    ProcessInstance oldInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    completeTasks(oldInstance);
+
+    processEngineConfiguration.getClock().reset();
+    ProcessInstance recentInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    completeTasks(recentInstance);
+
+    calendar = Calendar.getInstance();
+    calendar.add(Calendar.DAY_OF_YEAR, -5);
+    Date finishedBefore = calendar.getTime();
+    assertEquals(1, historyService.createHistoricProcessInstanceDeleteBuilder().finishedBefore(finishedBefore).delete());
+
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().processInstanceId(oldInstance.getId()).count());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(recentInstance.getId()).count());
+  }
+
+  @Deployment(resources = { 
+      "org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml",
+      "org/activiti/engine/test/bpmn/callactivity/CallActivity.testCallSimpleSubProcess.bpmn20.xml",
+      "org/activiti/engine/test/bpmn/callactivity/simpleSubProcess.bpmn20.xml" })
+  public void testDeleteByProcessDefinitionKeyWithSubProcessInstances() {
+    ProcessInstance oneTaskInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    completeTasks(oneTaskInstance);
+    ProcessInstance superInstance = runtimeService.startProcessInstanceByKey("callSimpleSubProcess");
+    runtimeService.setVariable(superInstance.getId(), "var", "value");
+    completeTasks(superInstance);
+    assertEquals(3, historyService.createHistoricProcessInstanceQuery().count());
+
+    assertEquals(1, historyService.createHistoricProcessInstanceDeleteBuilder().processDefinitionKey("callSimpleSubProcess").delete());
+
+    // the sub process instance is deleted together with its super process instance
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().count());
+    assertEquals(oneTaskInstance.getId(), historyService.createHistoricProcessInstanceQuery().singleResult().getId());
+    assertEquals(0, historyService.createHistoricVariableInstanceQuery().processInstanceId(superInstance.getId()).count());
+    assertEquals(0, historyService.createHistoricTaskInstanceQuery().processDefinitionKey("simpleSubProcess").count());
+  }
+
+  @Deployment(resources = { "org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml" })
+  public void testDeleteAsync() {
+    for (int i = 0; i < 3; i++) {
+      completeTasks(runtimeService.startProcessInstanceByKey("oneTaskProcess"));
+    }
+
+    historyService.createHistoricProcessInstanceDeleteBuilder().chunkSize(2).deleteAsync();
+
+    int nrOfExecutedJobs = 0;
+    JobEntity job = (JobEntity) managementService.createJobQuery().singleResult();
+    while (job != null) {
+      assertEquals(HistoricProcessInstanceDeleteJobHandler.TYPE, job.getJobHandlerType());
+      managementService.executeJob(job.getId());
+      nrOfExecutedJobs++;
+      job = (JobEntity) managementService.createJobQuery().singleResult();
+    }
+
+    // a full chunk schedules the next one, the last chunk is not full
+    assertEquals(2, nrOfExecutedJobs);
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().count());
+  }
+
+  @Deployment(resources = { "org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml" })
+  public void testHistoryRetentionPolicy() {
+    Calendar calendar = Calendar.getInstance();
+    calendar.add(Calendar.DAY_OF_YEAR, -10);
+    processEngineConfiguration.getClock().setCurrentTime(calendar.getTime());
+    ProcessInstance oldInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    completeTasks(oldInstance);
+    processEngineConfiguration.getClock().reset();
+    ProcessInstance recentInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    completeTasks(recentInstance);
+
+    processEngineConfiguration.setHistoryRetentionPolicies(Collections.singletonMap("oneTaskProcess", 5));
+    try {
+      managementService.executeCommand(new ScheduleHistoryCleanupCmd(0));
+      Job cleanupTimer = managementService.createJobQuery().timers().singleResult();
+      managementService.executeJob(cleanupTimer.getId());
+
+      // the deletion is scheduled and the timer is scheduled again
+      Job deleteJob = managementService.createJobQuery().messages().singleResult();
+      assertEquals(HistoricProcessInstanceDeleteJobHandler.TYPE, ((JobEntity) deleteJob).getJobHandlerType());
+      Job nextCleanupTimer = managementService.createJobQuery().timers().singleResult();
+      assertEquals(HistoryCleanupJobHandler.TYPE, ((JobEntity) nextCleanupTimer).getJobHandlerType());
+      assertTrue(nextCleanupTimer.getDuedate().after(new Date()));
+
+      managementService.executeJob(deleteJob.getId());
+      assertEquals(0, historyService.createHistoricProcessInstanceQuery().processInstanceId(oldInstance.getId()).count());
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(recentInstance.getId()).count());
+
+      managementService.deleteJob(nextCleanupTimer.getId());
+    } finally {
+      processEngineConfiguration.setHistoryRetentionPolicies(null);
+    }
+  }
+
+  public void testHistoryRetentionPolicyWithoutPolicies() {
+    processEngineConfiguration.setHistoryRetentionPolicies(Collections.<String, Integer>emptyMap());
+    try {
+      managementService.executeCommand(new ScheduleHistoryCleanupCmd(0));
+      Job cleanupTimer = managementService.createJobQuery().timers().singleResult();
+      managementService.executeJob(cleanupTimer.getId());
+
+      // without policies, the timer isn't scheduled again
+      assertEquals(0, managementService.createJobQuery().count());
+    } finally {
+      processEngineConfiguration.setHistoryRetentionPolicies(null);
+    }
+  }
+
+  public void testScheduleHistoryCleanupOnlyIfNotScheduled() {
+    try {
+      managementService.executeCommand(new ScheduleHistoryCleanupCmd(0, true));
+      managementService.executeCommand(new ScheduleHistoryCleanupCmd(0, true));
+      assertEquals(1, managementService.createJobQuery().timers().count());
+      
+      managementService.deleteJob(managementService.createJobQuery().timers().singleResult().getId());
+      managementService.executeCommand(new ScheduleHistoryCleanupCmd(0, true));
+      assertEquals(1, managementService.createJobQuery().timers().count());
+    } finally {
+      deleteHistoryCleanupTimersAndGuard();
+    }
+  }
+
+  public void testScheduleHistoryCleanupConcurrently() {
+    try {
+      // the first process engine to schedule the timer creates the guard property
+      assertConcurrentSchedulingConflicts();
+      deleteHistoryCleanupTimers();
+      // afterwards, they conflict on its revision
+      assertConcurrentSchedulingConflicts();
+    } finally {
+      deleteHistoryCleanupTimersAndGuard();
+    }
+  }
+
+  protected void assertConcurrentSchedulingConflicts() {
+    try {
+      managementService.executeCommand(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          new ScheduleHistoryCleanupCmd(0, true).execute(commandContext);
+          // another process engine schedules the timer before this transaction is committed
+          processEngineConfiguration.getCommandExecutor().execute(new CommandConfig().transactionRequiresNew(), 
+              new ScheduleHistoryCleanupCmd(0, true));
+          return null;
+        }
+      });
+      fail("Exception expected");
+    } catch (RuntimeException e) {
+      // expected
+    }
+    assertEquals(1, managementService.createJobQuery().timers().count());
+    
+    managementService.executeCommand(new ScheduleHistoryCleanupCmd(0, true));
+    assertEquals(1, managementService.createJobQuery().timers().count());
+  }
+
+  protected void deleteHistoryCleanupTimers() {
+    for (Job timer : managementService.createJobQuery().timers().list()) {
+      managementService.deleteJob(timer.getId());
+    }
+  }
+
+  protected void deleteHistoryCleanupTimersAndGuard() {
+    deleteHistoryCleanupTimers();
+    managementService.executeCommand(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        PropertyEntity schedulingGuard = commandContext.getPropertyEntityManager().findPropertyById(ScheduleHistoryCleanupCmd.SCHEDULING_GUARD_PROPERTY);
+        if (schedulingGuard != null) {
+          commandContext.getDbSqlSession().delete(schedulingGuard);
+        }
+        return null;
+      }
+    });
+  }
+
+  public void testInvalidChunkSize() {
+    try {
+      historyService.createHistoricProcessInstanceDeleteBuilder().chunkSize(0);
+      fail("ActivitiIllegalArgumentException expected");
+    } catch (ActivitiIllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  protected void completeTasks(ProcessInstance processInstance) {
+    List<Task> tasks = taskService.createTaskQuery().list();
+    while (!tasks.isEmpty()) {
+      for (Task task : tasks) {
+        taskService.complete(task.getId());
+      }
+      tasks = taskService.createTaskQuery().list();
+    }
+    assertEquals(0, runtimeService.createProcessInstanceQuery().processInstanceId(processInstance.getId()).count());
+  }
+
+}
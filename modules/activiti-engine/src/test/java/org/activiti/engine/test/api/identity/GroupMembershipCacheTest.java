@@ -0,0 +1,104 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.api.identity;
+
+import java.util.Date;
+
+import org.activiti.engine.identity.Group;
+import org.activiti.engine.identity.User;
+import org.activiti.engine.impl.identity.GroupMembershipCache;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.MembershipEntity;
+import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+import org.activiti.engine.task.Task;
+
+public class GroupMembershipCacheTest extends PluggableActivitiTestCase {
+  
+  protected GroupMembershipCache groupMembershipCache;
+  protected String taskId;
+  
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    groupMembershipCache = new GroupMembershipCache(60 * 1000L, 2, processEngineConfiguration.getClock());
+    processEngineConfiguration.setGroupMembershipCache(groupMembershipCache);
+    
+    User kermit = identityService.newUser("kermit");
+    identityService.saveUser(kermit);
+    Group management = identityService.newGroup("management");
+    identityService.saveGroup(management);
+    
+    Task task = taskService.newTask();
+    taskService.saveTask(task);
+    taskService.addCandidateGroup(task.getId(), "management");
+    taskId = task.getId();
+  }
+  
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setGroupMembershipCache(null);
+    processEngineConfiguration.getClock().reset();
+    taskService.deleteTask(taskId, true);
+    identityService.deleteGroup("management");
+    identityService.deleteUser("kermit");
+    super.tearDown();
+  }
+  
+  public void testMembershipChangesInvalidateCache() {
+    assertEquals(0, taskService.createTaskQuery().taskCandidateUser("kermit").count());
+    assertEquals(1, groupMembershipCache.size());
+    
+    identityService.createMembership("kermit", "management");
+    assertEquals(1, taskService.createTaskQuery().taskCandidateUser("kermit").count());
+    assertEquals(1, taskService.createTaskQuery().taskCandidateOrAssigned("kermit").count());
+    
+    identityService.deleteMembership("kermit", "management");
+    assertEquals(0, taskService.createTaskQuery().taskCandidateUser("kermit").count());
+    
+    identityService.createMembership("kermit", "management");
+    assertEquals(1, taskService.createTaskQuery().taskCandidateUser("kermit").count());
+    identityService.deleteGroup("management");
+    assertEquals(0, groupMembershipCache.size());
+    assertEquals(0, taskService.createTaskQuery().taskCandidateUser("kermit").count());
+  }
+  
+  public void testCachedGroupsExpire() {
+    assertEquals(0, taskService.createTaskQuery().taskCandidateUser("kermit").count());
+    
+    // a membership that is not created through the identity service is only seen once the cached groups expired
+    managementService.executeCommand(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        MembershipEntity membership = new MembershipEntity();
+        membership.setUserId("kermit");
+        membership.setGroupId("management");
+        commandContext.getDbSqlSession().insert(membership);
+        return null;
+      }
+    });
+    assertEquals(0, taskService.createTaskQuery().taskCandidateUser("kermit").count());
+    
+    processEngineConfiguration.getClock().setCurrentTime(new Date(System.currentTimeMillis() + 2 * 60 * 1000L));
+    assertEquals(1, taskService.createTaskQuery().taskCandidateUser("kermit").count());
+    
+    identityService.deleteMembership("kermit", "management");
+  }
+  
+  public void testCacheLimit() {
+    taskService.createTaskQuery().taskCandidateUser("kermit").count();
+    taskService.createTaskQuery().taskCandidateUser("fozzie").count();
+    taskService.createTaskQuery().taskCandidateUser("gonzo").count();
+    assertEquals(2, groupMembershipCache.size());
+  }
+
+}
@@ -0,0 +1,149 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.api.mgmt;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+import org.activiti.engine.runtime.Job;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.test.Deployment;
+
+public class JobBatchBuilderTest extends PluggableActivitiTestCase {
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.getClock().reset();
+    super.tearDown();
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/api/mgmt/ManagementServiceTest.testGetJobExceptionStacktrace.bpmn20.xml"})
+  public void testSetRetries() {
+    List<String> failedJobIds = startInstancesWithFailedJobs(5, 3);
+    
+    // a locked job is left alone, as it is being executed
+    lockJob(failedJobIds.get(0));
+    
+    long nrOfUpdatedJobs = managementService.createJobBatchBuilder(managementService.createJobQuery().withException())
+      .chunkSize(2)
+      .setRetries(5);
+    assertEquals(2, nrOfUpdatedJobs);
+    
+    assertEquals(3, managementService.createJobQuery().withException().count());
+    assertEquals(JobEntity.DEFAULT_RETRIES - 1, managementService.createJobQuery().jobId(failedJobIds.get(0)).singleResult().getRetries());
+    for (String jobId : failedJobIds.subList(1, 3)) {
+      assertEquals(5, managementService.createJobQuery().jobId(jobId).singleResult().getRetries());
+    }
+    for (Job job : managementService.createJobQuery().list()) {
+      if (!failedJobIds.contains(job.getId())) {
+        assertEquals(JobEntity.DEFAULT_RETRIES, job.getRetries());
+      }
+    }
+    
+    assertEquals(0, managementService.createJobBatchBuilder(managementService.createJobQuery().processInstanceId("unexisting")).setRetries(5));
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/api/mgmt/ManagementServiceTest.testGetJobExceptionStacktrace.bpmn20.xml"})
+  public void testSetRetriesWithStaggeredDueDates() {
+    startInstancesWithFailedJobs(4, 0);
+    
+    // The timers (4 hours) of the first instances are overdue, the timer of the last instance is not
+    Date now = new Date((processEngineConfiguration.getClock().getCurrentTime().getTime() / 1000) * 1000 + 5 * 60 * 60 * 1000L);
+    processEngineConfiguration.getClock().setCurrentTime(now);
+    String futureJobId = managementService.createJobQuery()
+        .processInstanceId(runtimeService.startProcessInstanceByKey("exceptionInJobExecution").getId()).singleResult().getId();
+    Date futureDuedate = managementService.createJobQuery().jobId(futureJobId).singleResult().getDuedate();
+    
+    long nrOfUpdatedJobs = managementService.createJobBatchBuilder(managementService.createJobQuery().timers())
+      .chunkSize(2)
+      .staggerDueDates(60000L)
+      .setRetries(1);
+    assertEquals(5, nrOfUpdatedJobs);
+    
+    // The jobs are processed in the order of their ids, a due date is never moved forward
+    List<Job> jobs = managementService.createJobQuery().orderByJobId().asc().list();
+    assertEquals(5, jobs.size());
+    for (int i = 0; i < jobs.size(); i++) {
+      Job job = jobs.get(i);
+      if (job.getId().equals(futureJobId)) {
+        assertEquals(futureDuedate, job.getDuedate());
+      } else {
+        assertEquals(new Date(now.getTime() + (i / 2) * 60000L), job.getDuedate());
+      }
+      assertEquals(1, job.getRetries());
+    }
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/api/mgmt/ManagementServiceTest.testGetJobExceptionStacktrace.bpmn20.xml"})
+  public void testDelete() {
+    List<String> failedJobIds = startInstancesWithFailedJobs(5, 3);
+    String byteArrayTable = processEngineConfiguration.getDatabaseTablePrefix() + "ACT_GE_BYTEARRAY";
+    long nrOfByteArrays = managementService.getTableCount().get(byteArrayTable);
+    lockJob(failedJobIds.get(2));
+    
+    long nrOfDeletedJobs = managementService.createJobBatchBuilder(managementService.createJobQuery().withException())
+      .chunkSize(1)
+      .delete();
+    assertEquals(2, nrOfDeletedJobs);
+    
+    assertEquals(3, managementService.createJobQuery().count());
+    assertEquals(failedJobIds.get(2), managementService.createJobQuery().withException().singleResult().getId());
+    // the exception stacktraces are deleted with the jobs
+    assertEquals(nrOfByteArrays - 2, managementService.getTableCount().get(byteArrayTable).longValue());
+    
+    assertEquals(2, managementService.createJobBatchBuilder(managementService.createJobQuery().timers()).delete());
+    assertEquals(1, managementService.createJobQuery().count());
+  }
+  
+  /**
+   * Starts the given number of process instances and lets the timer job of the first instances fail.
+   * @return the ids of the failed jobs
+   */
+  protected List<String> startInstancesWithFailedJobs(int nrOfInstances, int nrOfFailedJobs) {
+    List<String> failedJobIds = new ArrayList<String>();
+    for (int i = 0; i < nrOfInstances; i++) {
+      ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("exceptionInJobExecution");
+      if (i < nrOfFailedJobs) {
+        Job job = managementService.createJobQuery().processInstanceId(processInstance.getId()).singleResult();
+        try {
+          managementService.executeJob(job.getId());
+          fail("RuntimeException from within the script task expected");
+        } catch (RuntimeException e) {
+          // expected
+        }
+        failedJobIds.add(job.getId());
+      }
+    }
+    for (Job job : managementService.createJobQuery().withException().list()) {
+      assertEquals(JobEntity.DEFAULT_RETRIES - 1, job.getRetries());
+    }
+    return failedJobIds;
+  }
+  
+  protected void lockJob(final String jobId) {
+    managementService.executeCommand(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        JobEntity job = commandContext.getJobEntityManager().findJobById(jobId);
+        job.setLockOwner("otherExecutor");
+        job.setLockExpirationTime(new Date(commandContext.getProcessEngineConfiguration().getClock().getCurrentTime().getTime() + 60000L));
+        return null;
+      }
+    });
+  }
+
+}
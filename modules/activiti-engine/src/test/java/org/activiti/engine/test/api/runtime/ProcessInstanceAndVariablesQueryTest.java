@@ -17,6 +17,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.activiti.engine.ActivitiIllegalArgumentException;
 import org.activiti.engine.impl.test.PluggableActivitiTestCase;
 import org.activiti.engine.runtime.ProcessInstance;
 
@@ -67,6 +68,38 @@ public class ProcessInstanceAndVariablesQueryTest extends PluggableActivitiTestC
     super.tearDown();
   }
   
+  public void testQueryWithIncludedProcessVariableNames() {
+    List<ProcessInstance> instanceList = runtimeService.createProcessInstanceQuery().includeProcessVariables("test", "anothertest")
+        .orderByProcessInstanceId().asc().listPage(0, 5);
+    assertEquals(5, instanceList.size());
+    for (ProcessInstance processInstance : instanceList) {
+      Map<String, Object> variableMap = processInstance.getProcessVariables();
+      if (PROCESS_DEFINITION_KEY.equals(processInstance.getProcessDefinitionKey())) {
+        assertEquals(1, variableMap.size());
+        assertEquals("test", variableMap.get("test"));
+      } else if (PROCESS_DEFINITION_KEY_2.equals(processInstance.getProcessDefinitionKey())) {
+        assertEquals(1, variableMap.size());
+        assertEquals(123, variableMap.get("anothertest"));
+      } else {
+        assertEquals(0, variableMap.size());
+      }
+    }
+    
+    // the paging is applied to the process instances, not to the variable rows
+    instanceList = runtimeService.createProcessInstanceQuery().includeProcessVariables("test", "test2")
+        .processDefinitionKey(PROCESS_DEFINITION_KEY).listPage(1, 2);
+    assertEquals(2, instanceList.size());
+    assertEquals(2, instanceList.get(0).getProcessVariables().size());
+    assertEquals(2, instanceList.get(1).getProcessVariables().size());
+    
+    try {
+      runtimeService.createProcessInstanceQuery().includeProcessVariables(new String[0]);
+      fail("ActivitiIllegalArgumentException expected");
+    } catch (ActivitiIllegalArgumentException e) {
+      // expected
+    }
+  }
+  
   public void testQuery() {
     ProcessInstance processInstance = runtimeService.createProcessInstanceQuery().includeProcessVariables()
         .variableValueEquals("anothertest", 123).singleResult();
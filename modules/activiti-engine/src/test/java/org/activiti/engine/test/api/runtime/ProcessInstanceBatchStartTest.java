@@ -0,0 +1,173 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.api.runtime;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.ActivitiIllegalArgumentException;
+import org.activiti.engine.ActivitiObjectNotFoundException;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandConfig;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.runtime.ProcessInstanceBatchBuilderImpl;
+import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.runtime.ProcessInstanceBatchBuilder;
+import org.activiti.engine.runtime.ProcessInstanceBatchResult;
+import org.activiti.engine.test.Deployment;
+
+public class ProcessInstanceBatchStartTest extends PluggableActivitiTestCase {
+
+  @Deployment(resources = "org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testStartProcessInstances() {
+    ProcessInstanceBatchBuilder batchBuilder = runtimeService.createProcessInstanceBatchBuilder()
+      .processDefinitionKey("oneTaskProcess")
+      .chunkSize(2);
+    for (int i = 0; i < 5; i++) {
+      batchBuilder.addProcessInstance("key" + i, Collections.<String, Object>singletonMap("index", i));
+    }
+    batchBuilder.addProcessInstance(null, null);
+    
+    List<ProcessInstanceBatchResult> results = batchBuilder.start();
+    assertEquals(6, results.size());
+    assertEquals(6, runtimeService.createProcessInstanceQuery().processDefinitionKey("oneTaskProcess").count());
+    assertEquals(6, taskService.createTaskQuery().count());
+    
+    for (int i = 0; i < 5; i++) {
+      ProcessInstanceBatchResult result = results.get(i);
+      assertTrue(result.isSuccessful());
+      assertNull(result.getException());
+      assertEquals("key" + i, result.getBusinessKey());
+      
+      ProcessInstance processInstance = runtimeService.createProcessInstanceQuery().processInstanceId(result.getProcessInstanceId()).singleResult();
+      assertEquals("key" + i, processInstance.getBusinessKey());
+      assertEquals(i, runtimeService.getVariable(processInstance.getId(), "index"));
+    }
+    assertTrue(results.get(5).isSuccessful());
+    assertNull(results.get(5).getBusinessKey());
+  }
+  
+  @Deployment
+  public void testFailingProcessInstances() {
+    ProcessInstanceBatchBuilder batchBuilder = runtimeService.createProcessInstanceBatchBuilder()
+      .processDefinitionKey("failingProcess")
+      .chunkSize(3);
+    for (int i = 0; i < 6; i++) {
+      batchBuilder.addProcessInstance("key" + i, Collections.<String, Object>singletonMap("fail", i == 1 || i == 2));
+    }
+    
+    List<ProcessInstanceBatchResult> results = batchBuilder.start();
+    assertEquals(6, results.size());
+    for (int i = 0; i < 6; i++) {
+      ProcessInstanceBatchResult result = results.get(i);
+      assertEquals("key" + i, result.getBusinessKey());
+      if (i == 1 || i == 2) {
+        assertFalse(result.isSuccessful());
+        assertNull(result.getProcessInstanceId());
+        assertTrue(result.getException() instanceof ActivitiException);
+      } else {
+        assertTrue(result.isSuccessful());
+        assertNotNull(result.getProcessInstanceId());
+      }
+    }
+    assertEquals(4, runtimeService.createProcessInstanceQuery().processDefinitionKey("failingProcess").count());
+  }
+  
+  @Deployment(resources = "org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testProcessDefinitionSuspendedBetweenChunks() {
+    final CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutor();
+    // suspends the process definition once the first chunk is started
+    CommandExecutor suspendingCommandExecutor = new CommandExecutor() {
+      
+      public CommandConfig getDefaultConfig() {
+        return commandExecutor.getDefaultConfig();
+      }
+      
+      public <T> T execute(CommandConfig config, Command<T> command) {
+        T result = commandExecutor.execute(config, command);
+        if (!repositoryService.isProcessDefinitionSuspended(getProcessDefinitionId())) {
+          repositoryService.suspendProcessDefinitionByKey("oneTaskProcess");
+        }
+        return result;
+      }
+      
+      public <T> T execute(Command<T> command) {
+        return execute(getDefaultConfig(), command);
+      }
+    };
+    
+    ProcessInstanceBatchBuilder batchBuilder = new ProcessInstanceBatchBuilderImpl(suspendingCommandExecutor, 2)
+      .processDefinitionKey("oneTaskProcess");
+    for (int i = 0; i < 5; i++) {
+      batchBuilder.addProcessInstance("key" + i, null);
+    }
+    
+    List<ProcessInstanceBatchResult> results = batchBuilder.start();
+    assertEquals(5, results.size());
+    for (int i = 0; i < 5; i++) {
+      ProcessInstanceBatchResult result = results.get(i);
+      assertEquals("key" + i, result.getBusinessKey());
+      if (i < 2) {
+        assertTrue(result.isSuccessful());
+      } else {
+        assertFalse(result.isSuccessful());
+        assertNull(result.getProcessInstanceId());
+        assertTrue(result.getException() instanceof ActivitiException);
+      }
+    }
+    assertEquals(2, runtimeService.createProcessInstanceQuery().processDefinitionKey("oneTaskProcess").count());
+  }
+  
+  protected String getProcessDefinitionId() {
+    return repositoryService.createProcessDefinitionQuery().processDefinitionKey("oneTaskProcess").singleResult().getId();
+  }
+  
+  public void testUnknownProcessDefinition() {
+    try {
+      runtimeService.createProcessInstanceBatchBuilder().processDefinitionKey("unknown").addProcessInstance("key", null).start();
+      fail("ActivitiObjectNotFoundException expected");
+    } catch (ActivitiObjectNotFoundException e) {
+      // expected
+    }
+    
+    try {
+      runtimeService.createProcessInstanceBatchBuilder().addProcessInstance("key", null).start();
+      fail("ActivitiIllegalArgumentException expected");
+    } catch (ActivitiIllegalArgumentException e) {
+      assertTextPresent("processDefinitionKey and processDefinitionId are null", e.getMessage());
+    }
+  }
+  
+  public void testInvalidChunkSize() {
+    int chunkSize = processEngineConfiguration.getBatchOperationChunkSize();
+    for (int invalidChunkSize : new int[] {0, -1}) {
+      try {
+        processEngineConfiguration.setBatchOperationChunkSize(invalidChunkSize);
+        fail("ActivitiIllegalArgumentException expected");
+      } catch (ActivitiIllegalArgumentException e) {
+        assertTextPresent("batchOperationChunkSize must be positive", e.getMessage());
+      }
+      
+      try {
+        runtimeService.createProcessInstanceBatchBuilder().chunkSize(invalidChunkSize);
+        fail("ActivitiIllegalArgumentException expected");
+      } catch (ActivitiIllegalArgumentException e) {
+        assertTextPresent("chunkSize must be positive", e.getMessage());
+      }
+    }
+    assertEquals(chunkSize, processEngineConfiguration.getBatchOperationChunkSize());
+  }
+
+}
@@ -576,6 +576,29 @@ public class ProcessInstanceQueryTest extends PluggableActivitiTestCase {
     assertEquals(3, runtimeService.createProcessInstanceQuery().processDefinitionKey(PROCESS_DEFINITION_KEY).listPage(1, 3).size());
   }
   
+  public void testQueryListAfter() {
+    List<ProcessInstance> allInstances = runtimeService.createProcessInstanceQuery().orderByProcessInstanceId().desc().list();
+    List<ProcessInstance> pagedInstances = new ArrayList<ProcessInstance>();
+    ProcessInstanceQuery query = runtimeService.createProcessInstanceQuery().orderByProcessInstanceId().desc();
+    List<ProcessInstance> page = query.listAfter(null, null, 2);
+    while (!page.isEmpty()) {
+      pagedInstances.addAll(page);
+      page = query.listAfter(null, page.get(page.size() - 1).getId(), 2);
+    }
+    
+    assertEquals(PROCESS_DEPLOY_COUNT, pagedInstances.size());
+    for (int i = 0; i < allInstances.size(); i++) {
+      assertEquals(allInstances.get(i).getId(), pagedInstances.get(i).getId());
+    }
+    
+    try {
+      runtimeService.createProcessInstanceQuery().orderByProcessDefinitionKey().asc().listAfter("oneTaskProcess", allInstances.get(0).getId(), 2);
+      fail();
+    } catch (ActivitiIllegalArgumentException e) {
+      // expected: not a column of the process instance table
+    }
+  }
+
   public void testQuerySorting() {
     assertEquals(PROCESS_DEPLOY_COUNT, runtimeService.createProcessInstanceQuery().orderByProcessInstanceId().asc().list().size());
     assertEquals(PROCESS_DEPLOY_COUNT, runtimeService.createProcessInstanceQuery().orderByProcessDefinitionId().asc().list().size());
@@ -131,6 +131,36 @@ public class TaskAndVariablesQueryTest extends PluggableActivitiTestCase {
     assertEquals("This is a binary process variable", new String((byte[]) task.getProcessVariables().get("binaryVariable")));
   }
   
+  @Deployment(resources={"org/activiti/engine/test/api/task/TaskAndVariablesQueryTest.testQuery.bpmn20.xml"})
+  public void testQueryWithIncludedProcessVariableNames() {
+    Map<String, Object> startMap = new HashMap<String, Object>();
+    startMap.put("processVar", true);
+    startMap.put("binaryVariable", "This is a binary process variable".getBytes());
+    startMap.put("otherVar", "other");
+    runtimeService.startProcessInstanceByKey("oneTaskProcess", startMap);
+    
+    Task task = taskService.createTaskQuery().includeProcessVariables("processVar", "binaryVariable").taskAssignee("kermit").singleResult();
+    assertEquals(2, task.getProcessVariables().size());
+    assertEquals(0, task.getTaskLocalVariables().size());
+    assertEquals(true, task.getProcessVariables().get("processVar"));
+    assertEquals("This is a binary process variable", new String((byte[]) task.getProcessVariables().get("binaryVariable")));
+    
+    taskService.setVariableLocal(task.getId(), "localVar", "test");
+    
+    task = taskService.createTaskQuery().includeTaskLocalVariables().includeProcessVariables("otherVar").taskAssignee("kermit").singleResult();
+    assertEquals(1, task.getProcessVariables().size());
+    assertEquals("other", task.getProcessVariables().get("otherVar"));
+    assertEquals(1, task.getTaskLocalVariables().size());
+    assertEquals("test", task.getTaskLocalVariables().get("localVar"));
+    
+    // tasks without a process instance are left untouched
+    List<Task> tasks = taskService.createTaskQuery().includeProcessVariables("processVar").orderByTaskPriority().desc().listPage(0, 10);
+    assertEquals(4, tasks.size());
+    for (Task result : tasks) {
+      assertEquals(result.getProcessInstanceId() != null ? 1 : 0, result.getProcessVariables().size());
+    }
+  }
+  
   public void testQueryWithPagingAndVariables() {
     List<Task> tasks = taskService.createTaskQuery()
         .includeProcessVariables()
@@ -0,0 +1,156 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.api.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.activiti.engine.ActivitiObjectNotFoundException;
+import org.activiti.engine.ActivitiTaskAlreadyClaimedException;
+import org.activiti.engine.delegate.event.ActivitiEntityEvent;
+import org.activiti.engine.delegate.event.ActivitiEvent;
+import org.activiti.engine.delegate.event.ActivitiEventListener;
+import org.activiti.engine.delegate.event.ActivitiEventType;
+import org.activiti.engine.impl.persistence.entity.IdentityLinkEntity;
+import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+import org.activiti.engine.task.Task;
+import org.activiti.engine.task.TaskBatchResult;
+import org.activiti.engine.test.Deployment;
+
+public class TaskBatchOperationsTest extends PluggableActivitiTestCase {
+  
+  protected int originalChunkSize;
+  
+  protected void setUp() throws Exception {
+    super.setUp();
+    originalChunkSize = processEngineConfiguration.getBatchOperationChunkSize();
+    processEngineConfiguration.setBatchOperationChunkSize(2);
+  }
+  
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setBatchOperationChunkSize(originalChunkSize);
+    super.tearDown();
+  }
+  
+  @Deployment(resources = "org/activiti/engine/test/api/task/IdentityLinksProcess.bpmn20.xml")
+  public void testClaimTasks() {
+    List<String> taskIds = startProcessInstances("IdentityLinksProcess", 5);
+    taskService.claim(taskIds.get(1), "fozzie");
+    taskService.claim(taskIds.get(2), "kermit");
+    
+    List<TaskBatchResult> results = taskService.claimTasks(taskIds, "kermit");
+    assertEquals(5, results.size());
+    for (int i = 0; i < 5; i++) {
+      TaskBatchResult result = results.get(i);
+      assertEquals(taskIds.get(i), result.getTaskId());
+      if (i == 1) {
+        assertFalse(result.isSuccessful());
+        assertTrue(result.getException() instanceof ActivitiTaskAlreadyClaimedException);
+        assertEquals("fozzie", taskService.createTaskQuery().taskId(taskIds.get(i)).singleResult().getAssignee());
+      } else {
+        assertTrue(result.isSuccessful());
+        assertNull(result.getException());
+        assertEquals("kermit", taskService.createTaskQuery().taskId(taskIds.get(i)).singleResult().getAssignee());
+      }
+    }
+    
+    // unclaim
+    results = taskService.claimTasks(taskIds.subList(2, 5), null);
+    for (TaskBatchResult result : results) {
+      assertTrue(result.isSuccessful());
+    }
+    assertEquals(3, taskService.createTaskQuery().taskUnassigned().count());
+  }
+  
+  @Deployment(resources = "org/activiti/engine/test/api/twoTasksProcess.bpmn20.xml")
+  public void testCompleteTasks() {
+    List<String> taskIds = startProcessInstances("twoTasksProcess", 4);
+    taskService.addCandidateGroup(taskIds.get(0), "management");
+    taskService.addCandidateUser(taskIds.get(0), "kermit");
+    taskService.addCandidateUser(taskIds.get(3), "fozzie");
+    taskIds.add(2, "unexisting");
+    
+    List<TaskBatchResult> results = taskService.completeTasks(taskIds, Collections.<String, Object>singletonMap("approved", true));
+    assertEquals(5, results.size());
+    assertFalse(results.get(2).isSuccessful());
+    assertEquals("unexisting", results.get(2).getTaskId());
+    assertTrue(results.get(2).getException() instanceof ActivitiObjectNotFoundException);
+    
+    List<Task> secondTasks = taskService.createTaskQuery().taskDefinitionKey("secondTask").list();
+    assertEquals(4, secondTasks.size());
+    for (Task task : secondTasks) {
+      assertEquals(true, taskService.getVariable(task.getId(), "approved"));
+    }
+    assertEquals(0, taskService.createTaskQuery().taskDefinitionKey("firstTask").count());
+    assertEquals(0, taskService.createTaskQuery().taskCandidateUser("kermit").count());
+    
+    List<String> secondTaskIds = new ArrayList<String>();
+    for (Task task : secondTasks) {
+      secondTaskIds.add(task.getId());
+    }
+    for (TaskBatchResult result : taskService.completeTasks(secondTaskIds, null)) {
+      assertTrue(result.isSuccessful());
+    }
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+  }
+  
+  @Deployment
+  public void testCompleteTasksWithIdentityLinkDeletedByListener() {
+    List<String> taskIds = startProcessInstances("identityLinkListenerProcess", 3);
+    for (String taskId : taskIds) {
+      taskService.addUserIdentityLink(taskId, "kermit", "custom");
+      taskService.addCandidateUser(taskId, "fozzie");
+    }
+    
+    final List<String> deletedIdentityLinkIds = new ArrayList<String>();
+    ActivitiEventListener listener = new ActivitiEventListener() {
+      
+      public void onEvent(ActivitiEvent event) {
+        Object entity = ((ActivitiEntityEvent) event).getEntity();
+        if (entity instanceof IdentityLinkEntity && ((IdentityLinkEntity) entity).getTaskId() != null) {
+          deletedIdentityLinkIds.add(((IdentityLinkEntity) entity).getId());
+        }
+      }
+      
+      public boolean isFailOnException() {
+        return true;
+      }
+    };
+    runtimeService.addEventListener(listener, ActivitiEventType.ENTITY_DELETED);
+    try {
+      // the listener deletes the 'custom' link, which must not be deleted again with the task
+      taskService.complete(taskIds.get(0));
+      for (TaskBatchResult result : taskService.completeTasks(taskIds.subList(1, 3), null)) {
+        assertTrue(result.isSuccessful());
+      }
+    } finally {
+      runtimeService.removeEventListener(listener);
+    }
+    
+    assertEquals(6, deletedIdentityLinkIds.size());
+    assertEquals(6, new HashSet<String>(deletedIdentityLinkIds).size());
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+  }
+  
+  protected List<String> startProcessInstances(String processDefinitionKey, int nrOfProcessInstances) {
+    List<String> taskIds = new ArrayList<String>();
+    for (int i = 0; i < nrOfProcessInstances; i++) {
+      String processInstanceId = runtimeService.startProcessInstanceByKey(processDefinitionKey).getId();
+      taskIds.add(taskService.createTaskQuery().processInstanceId(processInstanceId).singleResult().getId());
+    }
+    return taskIds;
+  }
+
+}
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -2455,6 +2456,99 @@ public class TaskQueryTest extends PluggableActivitiTestCase {
     assertEquals(11, query.listPage(0, 15).size()); // there are only 11 tasks
   }
   
+  public void testQueryListAfter() {
+    // ordered by id only
+    List<Task> allTasks = taskService.createTaskQuery().orderByTaskId().asc().list();
+    List<Task> pagedTasks = new ArrayList<Task>();
+    List<Task> page = taskService.createTaskQuery().listAfter(null, null, 5);
+    while (!page.isEmpty()) {
+      assertTrue(page.size() <= 5);
+      pagedTasks.addAll(page);
+      page = taskService.createTaskQuery().listAfter(null, page.get(page.size() - 1).getId(), 5);
+    }
+    assertTaskIds(allTasks, pagedTasks);
+    
+    // ordered by priority, with duplicate priorities spread over the pages
+    allTasks = taskService.createTaskQuery().orderByTaskPriority().desc().orderByTaskId().desc().list();
+    pagedTasks = new ArrayList<Task>();
+    TaskQuery query = taskService.createTaskQuery().orderByTaskPriority().desc();
+    page = query.listAfter(null, null, 4);
+    while (!page.isEmpty()) {
+      pagedTasks.addAll(page);
+      Task last = page.get(page.size() - 1);
+      page = query.listAfter(last.getPriority(), last.getId(), 4);
+    }
+    assertTaskIds(allTasks, pagedTasks);
+    
+    // query criteria are combined with the keyset condition
+    Task first = taskService.createTaskQuery().taskCandidateUser("kermit").orderByTaskId().asc().listPage(0, 1).get(0);
+    assertEquals(10, taskService.createTaskQuery().taskCandidateUser("kermit").listAfter(null, first.getId(), 20).size());
+  }
+  
+  public void testQueryListAfterInvalidOrder() {
+    try {
+      taskService.createTaskQuery().orderByTaskPriority().asc().orderByTaskName().asc().listAfter(3, "1", 5);
+      fail();
+    } catch (ActivitiIllegalArgumentException e) {
+      // expected
+    }
+    try {
+      taskService.createTaskQuery().orderByDueDateNullsFirst().asc().listAfter(new Date(), "1", 5);
+      fail();
+    } catch (ActivitiIllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  public void testQueryListAfterNullSortValues() {
+    // only some of the tasks have an assignee
+    List<Task> tasks = taskService.createTaskQuery().list();
+    Collections.sort(tasks, new Comparator<Task>() {
+      public int compare(Task task1, Task task2) {
+        if (task1.getAssignee() == null || task2.getAssignee() == null) {
+          if (task1.getAssignee() != task2.getAssignee()) {
+            return task1.getAssignee() == null ? 1 : -1;
+          }
+        } else if (!task1.getAssignee().equals(task2.getAssignee())) {
+          return task1.getAssignee().compareTo(task2.getAssignee());
+        }
+        return task1.getId().compareTo(task2.getId());
+      }
+    });
+    assertNull(tasks.get(tasks.size() - 1).getAssignee());
+    assertNotNull(tasks.get(0).getAssignee());
+    
+    // nulls come last in ascending order
+    List<Task> pagedTasks = new ArrayList<Task>();
+    TaskQuery query = taskService.createTaskQuery().orderByTaskAssignee().asc();
+    List<Task> page = query.listAfter(null, null, 2);
+    while (!page.isEmpty()) {
+      pagedTasks.addAll(page);
+      Task last = page.get(page.size() - 1);
+      page = query.listAfter(last.getAssignee(), last.getId(), 2);
+    }
+    assertTaskIds(tasks, pagedTasks);
+    
+    // and first in descending order
+    Collections.reverse(tasks);
+    pagedTasks = new ArrayList<Task>();
+    query = taskService.createTaskQuery().orderByTaskAssignee().desc();
+    page = query.listAfter(null, null, 2);
+    while (!page.isEmpty()) {
+      pagedTasks.addAll(page);
+      Task last = page.get(page.size() - 1);
+      page = query.listAfter(last.getAssignee(), last.getId(), 2);
+    }
+    assertTaskIds(tasks, pagedTasks);
+  }
+  
+  private void assertTaskIds(List<Task> expected, List<Task> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getId(), actual.get(i).getId());
+    }
+  }
+  
   public void testQuerySorting() {
     assertEquals(12, taskService.createTaskQuery().orderByTaskId().asc().list().size());
     assertEquals(12, taskService.createTaskQuery().orderByTaskName().asc().list().size());
@@ -0,0 +1,148 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.bpmn.multiinstance;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.impl.jobexecutor.MultiInstanceChunkJobHandler;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+import org.activiti.engine.runtime.Execution;
+import org.activiti.engine.runtime.Job;
+import org.activiti.engine.task.Task;
+import org.activiti.engine.test.Deployment;
+
+public class ParallelMultiInstanceChunkTest extends PluggableActivitiTestCase {
+  
+  protected void setUp() throws Exception {
+    super.setUp();
+    processEngineConfiguration.setParallelMultiInstanceChunkSize(2);
+  }
+  
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setParallelMultiInstanceChunkSize(0);
+    super.tearDown();
+  }
+  
+  @Deployment(resources = {"org/activiti/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelUserTasks.bpmn20.xml"})
+  public void testChunkedUserTasks() {
+    String procId = runtimeService.startProcessInstanceByKey("miParallelUserTasks").getId();
+    assertEquals(2, taskService.createTaskQuery().count());
+    
+    Job job = managementService.createJobQuery().singleResult();
+    assertNotNull(job);
+    managementService.executeJob(job.getId());
+    assertEquals(0, managementService.createJobQuery().count());
+    
+    List<Task> tasks = taskService.createTaskQuery().orderByTaskName().asc().list();
+    assertEquals(3, tasks.size());
+    assertEquals("My Task 0", tasks.get(0).getName());
+    assertEquals("My Task 1", tasks.get(1).getName());
+    assertEquals("My Task 2", tasks.get(2).getName());
+    
+    for (Task task : tasks) {
+      taskService.complete(task.getId());
+    }
+    assertProcessEnded(procId);
+  }
+  
+  @Deployment(resources = {"org/activiti/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelUserTasksCompletionCondition.bpmn20.xml"})
+  public void testCompletionConditionCancelsChunks() {
+    String procId = runtimeService.startProcessInstanceByKey("miParallelUserTasksCompletionCondition").getId();
+    managementService.executeJob(managementService.createJobQuery().singleResult().getId());
+    
+    List<Task> tasks = taskService.createTaskQuery().list();
+    assertEquals(4, tasks.size());
+    Job job = managementService.createJobQuery().singleResult();
+    assertNotNull(job);
+    
+    // Completing 3 tasks gives 50% of tasks completed, the last instance is never created
+    for (int i=0; i<3; i++) {
+      taskService.complete(tasks.get(i).getId());
+    }
+    assertProcessEnded(procId);
+    assertEquals(0, managementService.createJobQuery().count());
+  }
+  
+  @Deployment(resources = {"org/activiti/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelScriptTasks.bpmn20.xml"})
+  public void testChunkedAutomaticInstances() {
+    Map<String, Object> vars = new HashMap<String, Object>();
+    vars.put("sum", 0);
+    vars.put("nrOfLoops", 10);
+    String procId = runtimeService.startProcessInstanceByKey("miParallelScriptTask", vars).getId();
+    assertEquals(1, runtimeService.getVariable(procId, "sum"));
+    
+    for (int i=0; i<4; i++) {
+      Job job = managementService.createJobQuery().singleResult();
+      assertEquals(MultiInstanceChunkJobHandler.TYPE, ((JobEntity) job).getJobHandlerType());
+      managementService.executeJob(job.getId());
+    }
+    assertEquals(0, managementService.createJobQuery().count());
+    
+    Execution waitStateExecution = runtimeService.createExecutionQuery().activityId("waitState").singleResult();
+    assertNotNull(waitStateExecution);
+    assertEquals(45, runtimeService.getVariable(procId, "sum"));
+  }
+  
+  @Deployment(resources = {"org/activiti/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelScriptTasks.bpmn20.xml"})
+  public void testChunkSizeChangedWhileChunksPending() {
+    Map<String, Object> vars = new HashMap<String, Object>();
+    vars.put("sum", 0);
+    vars.put("nrOfLoops", 10);
+    String procId = runtimeService.startProcessInstanceByKey("miParallelScriptTask", vars).getId();
+    
+    // The chunk size the multi-instance activity was started with is kept
+    processEngineConfiguration.setParallelMultiInstanceChunkSize(0);
+    for (int i=0; i<4; i++) {
+      managementService.executeJob(managementService.createJobQuery().singleResult().getId());
+    }
+    assertEquals(0, managementService.createJobQuery().count());
+    
+    assertNotNull(runtimeService.createExecutionQuery().activityId("waitState").singleResult());
+    assertEquals(45, runtimeService.getVariable(procId, "sum"));
+  }
+  
+  @Deployment(resources = {"org/activiti/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelUserTasks.bpmn20.xml"})
+  public void testChunkSizeEnabledWhileInstancesActive() {
+    processEngineConfiguration.setParallelMultiInstanceChunkSize(0);
+    String procId = runtimeService.startProcessInstanceByKey("miParallelUserTasks").getId();
+    
+    // Instances started without chunks keep completing through the counters
+    processEngineConfiguration.setParallelMultiInstanceChunkSize(2);
+    List<Task> tasks = taskService.createTaskQuery().list();
+    assertEquals(3, tasks.size());
+    for (Task task : tasks) {
+      taskService.complete(task.getId());
+    }
+    assertProcessEnded(procId);
+  }
+  
+  @Deployment(resources = {"org/activiti/engine/test/bpmn/multiinstance/MultiInstanceTest.testParallelSubProcess.bpmn20.xml"})
+  public void testChunkedSubProcess() {
+    processEngineConfiguration.setParallelMultiInstanceChunkSize(1);
+    String procId = runtimeService.startProcessInstanceByKey("miParallelSubprocess").getId();
+    assertEquals(2, taskService.createTaskQuery().count());
+    
+    managementService.executeJob(managementService.createJobQuery().singleResult().getId());
+    List<Task> tasks = taskService.createTaskQuery().list();
+    assertEquals(4, tasks.size());
+    
+    for (Task task : tasks) {
+      taskService.complete(task.getId());
+    }
+    assertProcessEnded(procId);
+  }
+
+}
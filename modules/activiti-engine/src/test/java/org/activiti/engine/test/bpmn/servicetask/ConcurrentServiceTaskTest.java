@@ -0,0 +1,102 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.bpmn.servicetask;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+import org.activiti.engine.runtime.Execution;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.task.Task;
+import org.activiti.engine.test.Deployment;
+
+public class ConcurrentServiceTaskTest extends PluggableActivitiTestCase {
+  
+  protected ExecutorService executorService;
+  
+  protected void setUp() throws Exception {
+    super.setUp();
+    executorService = Executors.newFixedThreadPool(2);
+    processEngineConfiguration.setConcurrentServiceTaskExecutorService(executorService);
+    processEngineConfiguration.setEnableConcurrentServiceTasks(true);
+    ConcurrentTestDelegate.latch = new CountDownLatch(2);
+  }
+  
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setEnableConcurrentServiceTasks(false);
+    processEngineConfiguration.setConcurrentServiceTaskExecutorService(null);
+    executorService.shutdown();
+    ConcurrentTestDelegate.latch = null;
+    super.tearDown();
+  }
+
+  @Deployment
+  public void testParallelServiceTasks() {
+    String testThread = Thread.currentThread().getName();
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("concurrentServiceTasks", 
+            Collections.<String, Object>singletonMap("input", "hello"));
+    
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    assertEquals("afterJoin", task.getTaskDefinitionKey());
+    
+    for (String name : new String[] {"a", "b"}) {
+      assertEquals(Boolean.TRUE, runtimeService.getVariable(processInstance.getId(), name + "Overlapped"));
+      assertEquals("hello", runtimeService.getVariable(processInstance.getId(), name + "Input"));
+      assertFalse(testThread.equals(runtimeService.getVariable(processInstance.getId(), name + "Thread")));
+    }
+    
+    taskService.complete(task.getId());
+    assertProcessEnded(processInstance.getId());
+  }
+  
+  @Deployment(resources = "org/activiti/engine/test/bpmn/servicetask/ConcurrentServiceTaskTest.testParallelServiceTasks.bpmn20.xml")
+  public void testDisabledConcurrentServiceTasks() {
+    processEngineConfiguration.setEnableConcurrentServiceTasks(false);
+    ConcurrentTestDelegate.latch = null;
+    
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("concurrentServiceTasks");
+    assertEquals(Thread.currentThread().getName(), runtimeService.getVariable(processInstance.getId(), "aThread"));
+    assertEquals(Thread.currentThread().getName(), runtimeService.getVariable(processInstance.getId(), "bThread"));
+    assertEquals("afterJoin", taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult().getTaskDefinitionKey());
+  }
+  
+  @Deployment
+  public void testBpmnErrorInConcurrentServiceTask() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("concurrentServiceTaskError");
+    
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    assertEquals("errorTask", task.getTaskDefinitionKey());
+    
+    // the other branch waits in the join
+    boolean joinReached = false;
+    for (Execution execution : runtimeService.createExecutionQuery().processInstanceId(processInstance.getId()).list()) {
+      joinReached |= "join".equals(execution.getActivityId());
+    }
+    assertTrue(joinReached);
+    assertEquals(Boolean.TRUE, runtimeService.getVariable(processInstance.getId(), "aOverlapped"));
+  }
+  
+  @Deployment
+  public void testMappedExceptionInConcurrentServiceTask() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("concurrentServiceTaskException");
+    
+    // the exception thrown on the executor service is mapped to the error caught by the boundary event
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    assertEquals("errorTask", task.getTaskDefinitionKey());
+    assertEquals(Boolean.TRUE, runtimeService.getVariable(processInstance.getId(), "aOverlapped"));
+  }
+
+}
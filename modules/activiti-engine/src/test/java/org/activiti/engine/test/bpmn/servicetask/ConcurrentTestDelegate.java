@@ -0,0 +1,57 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.bpmn.servicetask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.engine.delegate.BpmnError;
+import org.activiti.engine.delegate.ConcurrentJavaDelegate;
+import org.activiti.engine.delegate.Expression;
+
+/**
+ * Waits until all concurrent delegates of the test are running, and returns on which thread it ran 
+ * and whether the other delegates ran at the same time.
+ */
+public class ConcurrentTestDelegate implements ConcurrentJavaDelegate {
+  
+  public static CountDownLatch latch;
+  
+  protected Expression name;
+  protected Expression errorCode;
+  protected Expression exceptionMessage;
+
+  public Map<String, Object> execute(Map<String, Object> variables) throws Exception {
+    boolean overlapped = false;
+    if (latch != null) {
+      latch.countDown();
+      overlapped = latch.await(10, TimeUnit.SECONDS);
+    }
+    if (errorCode != null) {
+      throw new BpmnError(errorCode.getExpressionText());
+    }
+    if (exceptionMessage != null) {
+      throw new IllegalStateException(exceptionMessage.getExpressionText());
+    }
+    
+    String prefix = name.getExpressionText();
+    Map<String, Object> result = new HashMap<String, Object>();
+    result.put(prefix + "Thread", Thread.currentThread().getName());
+    result.put(prefix + "Overlapped", overlapped);
+    result.put(prefix + "Input", variables.get("input"));
+    return result;
+  }
+
+}
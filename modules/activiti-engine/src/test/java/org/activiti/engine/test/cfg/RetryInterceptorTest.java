@@ -12,13 +12,26 @@
  */
 package org.activiti.engine.test.cfg;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.activiti.engine.ActivitiException;
 import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.activiti.engine.impl.cfg.standalone.StandaloneMybatisTransactionContextFactory;
+import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.interceptor.Command;
 import org.activiti.engine.impl.interceptor.CommandConfig;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandInvoker;
 import org.activiti.engine.impl.interceptor.RetryInterceptor;
+import org.activiti.engine.impl.metrics.OptimisticLockingStatistics;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.TimerEntity;
 
 import junit.framework.TestCase;
 
@@ -44,4 +57,168 @@ public class RetryInterceptorTest extends TestCase {
       assertTrue(e.getMessage().contains(retryInterceptor.getNumOfRetries()+" retries failed"));
     }
   }
+  
+  protected class CommandConflictingOnEntity implements Command<Void> {
+    protected Class<?> entityClass;
+    protected int conflictCount;
+    protected RecordingRetryInterceptor retryInterceptor;
+    protected boolean lockedOnRetry;
+    
+    public CommandConflictingOnEntity(Class<?> entityClass, int conflictCount, RecordingRetryInterceptor retryInterceptor) {
+      this.entityClass = entityClass;
+      this.conflictCount = conflictCount;
+      this.retryInterceptor = retryInterceptor;
+    }
+    
+    public Void execute(CommandContext commandContext) {
+      if (conflictCount > 0) {
+        conflictCount--;
+        throw new ActivitiOptimisticLockingException("", entityClass, "processInstance1");
+      }
+      lockedOnRetry = retryInterceptor.getProcessInstanceLock("processInstance1").isHeldByCurrentThread();
+      return null;
+    }
+  }
+  
+  protected static class RecordingRetryInterceptor extends RetryInterceptor {
+    protected List<Long> waitTimes = new ArrayList<Long>();
+    
+    protected void waitBeforeRetry(long waitTime) {
+      waitTimes.add(waitTime);
+    }
+    
+    public ReentrantLock getProcessInstanceLock(String processInstanceId) {
+      return super.getProcessInstanceLock(processInstanceId);
+    }
+  }
+  
+  public void testConflictStatistics() {
+    RecordingRetryInterceptor retryInterceptor = new RecordingRetryInterceptor();
+    retryInterceptor.setNext(new CommandInvoker());
+    retryInterceptor.execute(new CommandConfig(), new CommandConflictingOnEntity(ExecutionEntity.class, 2, retryInterceptor));
+    retryInterceptor.execute(new CommandConfig(), new CommandConflictingOnEntity(TimerEntity.class, 1, retryInterceptor));
+    
+    OptimisticLockingStatistics statistics = retryInterceptor.getOptimisticLockingStatistics();
+    String commandName = CommandConflictingOnEntity.class.getName();
+    assertEquals(5, statistics.getAttemptCount(commandName));
+    assertEquals(3, statistics.getConflictCount(commandName));
+    assertEquals(0.6, statistics.getConflictRate(commandName), 0.0001);
+    
+    Map<String, Long> entityConflictCounts = statistics.getEntityConflictCounts();
+    assertEquals(2, entityConflictCounts.size());
+    assertEquals(Long.valueOf(2), entityConflictCounts.get("ACT_RU_EXECUTION"));
+    assertEquals(Long.valueOf(1), entityConflictCounts.get("ACT_RU_JOB"));
+    
+    statistics.reset();
+    assertEquals(0, statistics.getAttemptCount(commandName));
+    assertTrue(statistics.getEntityConflictCounts().isEmpty());
+  }
+  
+  public void testJitteredWaitTime() {
+    RecordingRetryInterceptor retryInterceptor = new RecordingRetryInterceptor();
+    retryInterceptor.setNext(new CommandInvoker());
+    retryInterceptor.setWaitTimeInMs(100);
+    retryInterceptor.setWaitIncreaseFactor(2);
+    retryInterceptor.setMaxWaitTimeInMs(1000);
+    retryInterceptor.setJitterFactor(0.5);
+    
+    for (int i = 0; i < 20; i++) {
+      retryInterceptor.execute(new CommandConfig(), new CommandConflictingOnEntity(ExecutionEntity.class, 3, retryInterceptor));
+    }
+    
+    // the wait times of the retries are 100, 200 and 400ms, increased with the conflict rate by at most 100%,
+    // of which at most half is left out
+    assertEquals(60, retryInterceptor.waitTimes.size());
+    boolean jittered = false;
+    for (int i = 0; i < retryInterceptor.waitTimes.size(); i++) {
+      long waitTime = retryInterceptor.waitTimes.get(i);
+      long baseWaitTime = 100 << (i % 3);
+      assertTrue(waitTime <= Math.min(1000, baseWaitTime * 2));
+      assertTrue(waitTime >= baseWaitTime / 2);
+      if (waitTime != retryInterceptor.waitTimes.get(i % 3)) {
+        jittered = true;
+      }
+    }
+    assertTrue(jittered);
+    
+    try {
+      retryInterceptor.setJitterFactor(1.5);
+      fail("ActivitiException expected.");
+    } catch (ActivitiException e) {
+      // expected
+    }
+  }
+  
+  public void testSerializeRetriesPerProcessInstance() {
+    RecordingRetryInterceptor retryInterceptor = new RecordingRetryInterceptor();
+    retryInterceptor.setNext(new CommandInvoker());
+    
+    CommandConflictingOnEntity command = new CommandConflictingOnEntity(ExecutionEntity.class, 1, retryInterceptor);
+    retryInterceptor.execute(new CommandConfig(), command);
+    assertFalse(command.lockedOnRetry);
+    
+    retryInterceptor.setSerializeRetriesPerProcessInstance(true);
+    command = new CommandConflictingOnEntity(ExecutionEntity.class, 1, retryInterceptor);
+    retryInterceptor.execute(new CommandConfig(), command);
+    assertTrue(command.lockedOnRetry);
+    assertFalse(retryInterceptor.getProcessInstanceLock("processInstance1").isLocked());
+    
+    // the first attempt is never serialized
+    command = new CommandConflictingOnEntity(ExecutionEntity.class, 0, retryInterceptor);
+    retryInterceptor.execute(new CommandConfig(), command);
+    assertFalse(command.lockedOnRetry);
+  }
+  
+  public void testNestedCommandRetriesNotSerialized() {
+    RecordingRetryInterceptor retryInterceptor = new RecordingRetryInterceptor();
+    retryInterceptor.setNext(new CommandInvoker());
+    retryInterceptor.setSerializeRetriesPerProcessInstance(true);
+    
+    ProcessEngineConfigurationImpl processEngineConfiguration = new StandaloneInMemProcessEngineConfiguration();
+    processEngineConfiguration.setTransactionContextFactory(new StandaloneMybatisTransactionContextFactory());
+    Context.setCommandContext(new CommandContext(new CommandThrowingOptimisticLockingException(), processEngineConfiguration));
+    try {
+      CommandConflictingOnEntity command = new CommandConflictingOnEntity(ExecutionEntity.class, 1, retryInterceptor);
+      retryInterceptor.execute(new CommandConfig(), command);
+      assertFalse(command.lockedOnRetry);
+    } finally {
+      Context.removeCommandContext();
+    }
+  }
+  
+  public void testSerializedRetryWithoutLockAfterWaitTime() throws Exception {
+    final RecordingRetryInterceptor retryInterceptor = new RecordingRetryInterceptor();
+    retryInterceptor.setNext(new CommandInvoker());
+    retryInterceptor.setSerializeRetriesPerProcessInstance(true);
+    retryInterceptor.setSerializationLockWaitTimeInMs(10);
+    
+    final CountDownLatch locked = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(1);
+    Thread lockHolder = new Thread() {
+      public void run() {
+        ReentrantLock lock = retryInterceptor.getProcessInstanceLock("processInstance1");
+        lock.lock();
+        try {
+          locked.countDown();
+          done.await();
+        } catch (InterruptedException e) {
+          // stop holding the lock
+        } finally {
+          lock.unlock();
+        }
+      }
+    };
+    lockHolder.start();
+    locked.await();
+    
+    try {
+      CommandConflictingOnEntity command = new CommandConflictingOnEntity(ExecutionEntity.class, 1, retryInterceptor);
+      retryInterceptor.execute(new CommandConfig(), command);
+      assertFalse(command.lockedOnRetry);
+      assertEquals(1, retryInterceptor.getOptimisticLockingStatistics().getSerializationTimeoutCount());
+    } finally {
+      done.countDown();
+      lockHolder.join();
+    }
+  }
 }
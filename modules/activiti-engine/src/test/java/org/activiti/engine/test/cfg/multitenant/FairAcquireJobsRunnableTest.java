@@ -0,0 +1,208 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.cfg.multitenant;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.activiti.engine.impl.asyncexecutor.multitenant.FairAcquireJobsRunnable;
+import org.activiti.engine.impl.asyncexecutor.multitenant.FairSharedAsyncExecutor;
+import org.activiti.engine.impl.asyncexecutor.multitenant.TenantJobStatistics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the acquisition cycles of the {@link FairAcquireJobsRunnable} against simulated job tables and a
+ * simulated thread pool, so the shares of the tenants don't depend on timing.
+ */
+public class FairAcquireJobsRunnableTest {
+  
+  private SimulatedAsyncExecutor asyncExecutor;
+  private SimulatedAcquireJobsRunnable acquireJobsRunnable;
+  
+  @Before
+  public void setup() {
+    asyncExecutor = new SimulatedAsyncExecutor();
+    asyncExecutor.setMaxAsyncJobsDuePerAcquisition(2);
+    acquireJobsRunnable = new SimulatedAcquireJobsRunnable(asyncExecutor);
+  }
+
+  @Test
+  public void testHeavyTenantDoesNotStarveLightTenant() {
+    asyncExecutor.poolSize = 4;
+    addTenant("heavy", 1000);
+    addTenant("light", 5);
+    
+    int cycles = 0;
+    while (acquireJobsRunnable.pendingJobs.get("light") > 0) {
+      cycles++;
+      Assert.assertTrue("light tenant starved", cycles <= 5);
+      acquireJobsRunnable.acquisitionCycle();
+      finishAllJobs();
+    }
+    
+    // the heavy tenant got its share too, but did not take the whole thread pool
+    long heavyJobs = statistics("heavy").getAcquiredJobCount();
+    Assert.assertTrue(heavyJobs > 0);
+    Assert.assertTrue(heavyJobs <= cycles * asyncExecutor.poolSize - 5);
+    Assert.assertEquals(0, acquireJobsRunnable.rejectedJobs);
+  }
+  
+  @Test
+  public void testSharesFollowWeights() {
+    asyncExecutor.poolSize = 4;
+    addTenant("gold", 1000);
+    addTenant("silver", 1000);
+    addTenant("bronze", 1000);
+    asyncExecutor.setTenantWeight("gold", 4);
+    asyncExecutor.setTenantWeight("silver", 2);
+    
+    for (int i = 0; i < 120; i++) {
+      acquireJobsRunnable.acquisitionCycle();
+      finishAllJobs();
+    }
+    
+    long gold = statistics("gold").getAcquiredJobCount();
+    long silver = statistics("silver").getAcquiredJobCount();
+    long bronze = statistics("bronze").getAcquiredJobCount();
+    Assert.assertEquals(120 * 4, gold + silver + bronze);
+    assertShare(4.0 / 7, gold, gold + silver + bronze);
+    assertShare(2.0 / 7, silver, gold + silver + bronze);
+    assertShare(1.0 / 7, bronze, gold + silver + bronze);
+  }
+  
+  @Test
+  public void testWeightsWithoutContention() {
+    asyncExecutor.poolSize = 100;
+    addTenant("gold", 1000);
+    addTenant("bronze", 1000);
+    asyncExecutor.setTenantWeight("gold", 3);
+    
+    acquireJobsRunnable.acquisitionCycle();
+    
+    // every tenant gets its weight times the jobs per acquisition
+    Assert.assertEquals(6, statistics("gold").getAcquiredJobCount());
+    Assert.assertEquals(2, statistics("bronze").getAcquiredJobCount());
+  }
+  
+  @Test
+  public void testMaxConcurrentJobsIsNeverExceeded() {
+    asyncExecutor.poolSize = 200;
+    addTenant("capped", 100);
+    addTenant("other", 100);
+    asyncExecutor.setTenantWeight("capped", 5);
+    asyncExecutor.setTenantMaxConcurrentJobs("capped", 3);
+    
+    // the jobs are slow: one job of every tenant finishes per cycle
+    for (int i = 0; i < 50; i++) {
+      acquireJobsRunnable.acquisitionCycle();
+      Assert.assertTrue(statistics("capped").getRunningJobCount() <= 3);
+      finishJobs("capped", 1);
+      finishJobs("other", 1);
+    }
+    
+    Assert.assertEquals(0, acquireJobsRunnable.rejectedJobs);
+    Assert.assertEquals(3 + 49, statistics("capped").getAcquiredJobCount());
+    
+    // the capacity the capped tenant could not use went to the other tenant
+    Assert.assertTrue(statistics("other").getAcquiredJobCount() > statistics("capped").getAcquiredJobCount());
+    
+    // once no job finishes, the tenant is skipped
+    acquireJobsRunnable.acquisitionCycle();
+    acquireJobsRunnable.acquisitionCycle();
+    Assert.assertEquals(3, statistics("capped").getRunningJobCount());
+    Assert.assertEquals(3 + 50, statistics("capped").getAcquiredJobCount());
+    Assert.assertEquals(1, statistics("capped").getThrottledCount());
+    Assert.assertEquals(0, acquireJobsRunnable.rejectedJobs);
+  }
+  
+  private void addTenant(String tenantId, int jobs) {
+    asyncExecutor.addTenantAsyncExecutor(tenantId, false);
+    acquireJobsRunnable.pendingJobs.put(tenantId, jobs);
+  }
+  
+  private TenantJobStatistics statistics(String tenantId) {
+    return asyncExecutor.getTenantJobStatistics(tenantId);
+  }
+  
+  private void finishJobs(String tenantId, int jobs) {
+    TenantJobStatistics statistics = statistics(tenantId);
+    for (int i = 0; i < jobs && statistics.getRunningJobCount() > 0; i++) {
+      statistics.finishJob();
+    }
+  }
+  
+  private void finishAllJobs() {
+    for (String tenantId : asyncExecutor.getTenantIds()) {
+      finishJobs(tenantId, statistics(tenantId).getRunningJobCount());
+    }
+  }
+  
+  private void assertShare(double expectedShare, long jobs, long totalJobs) {
+    Assert.assertEquals(expectedShare, (double) jobs / totalJobs, 0.05);
+  }
+  
+  /**
+   * A thread pool of a fixed size, which is full when the running jobs of all tenants take all threads.
+   */
+  private static class SimulatedAsyncExecutor extends FairSharedAsyncExecutor {
+    
+    int poolSize;
+    
+    SimulatedAsyncExecutor() {
+      super(new DummyTenantInfoHolder());
+    }
+    
+    @Override
+    public int getAvailableExecutionCapacity() {
+      int runningJobs = 0;
+      for (String tenantId : getTenantIds()) {
+        runningJobs += getTenantJobStatistics(tenantId).getRunningJobCount();
+      }
+      return poolSize - runningJobs;
+    }
+  }
+  
+  /**
+   * Takes the jobs from the pending job counts instead of the database, and starts them 
+   * the way the executor does when they are offered.
+   */
+  private static class SimulatedAcquireJobsRunnable extends FairAcquireJobsRunnable {
+    
+    Map<String, Integer> pendingJobs = new HashMap<String, Integer>();
+    int rejectedJobs;
+    
+    SimulatedAcquireJobsRunnable(FairSharedAsyncExecutor asyncExecutor) {
+      super(asyncExecutor, null);
+    }
+    
+    void acquisitionCycle() {
+      acquireJobs();
+    }
+    
+    @Override
+    protected int acquireJobs(String tenantId, TenantJobStatistics statistics, int maxJobs, boolean acquireTimerJobs) {
+      int jobsAcquired = Math.min(maxJobs, pendingJobs.get(tenantId));
+      pendingJobs.put(tenantId, pendingJobs.get(tenantId) - jobsAcquired);
+      for (int i = 0; i < jobsAcquired; i++) {
+        if (!statistics.tryStartJob(asyncExecutor.getTenantMaxConcurrentJobs(tenantId))) {
+          rejectedJobs++;
+        }
+      }
+      statistics.recordAcquisition(jobsAcquired);
+      return jobsAcquired;
+    }
+  }
+
+}
@@ -21,7 +21,9 @@ import java.util.Map;
 import javax.sql.DataSource;
 
 import org.activiti.engine.ProcessEngine;
+import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
 import org.activiti.engine.impl.asyncexecutor.multitenant.ExecutorPerTenantAsyncExecutor;
+import org.activiti.engine.impl.asyncexecutor.multitenant.FairSharedAsyncExecutor;
 import org.activiti.engine.impl.asyncexecutor.multitenant.SharedExecutorServiceAsyncExecutor;
 import org.activiti.engine.impl.cfg.multitenant.MultiSchemaMultiTenantProcessEngineConfiguration;
 import org.activiti.engine.repository.Deployment;
@@ -72,6 +74,14 @@ public class MultiTenantProcessEngineTest {
   }
   
   private void setupProcessEngine(boolean sharedExecutor) {
+    if (sharedExecutor) {
+      setupProcessEngine(new SharedExecutorServiceAsyncExecutor(tenantInfoHolder));
+    } else {
+      setupProcessEngine(new ExecutorPerTenantAsyncExecutor(tenantInfoHolder));
+    }
+  }
+  
+  private void setupProcessEngine(AsyncExecutor asyncExecutor) {
     config = new MultiSchemaMultiTenantProcessEngineConfiguration(tenantInfoHolder);
 
     config.setDatabaseType(MultiSchemaMultiTenantProcessEngineConfiguration.DATABASE_TYPE_H2);
@@ -80,12 +90,7 @@ public class MultiTenantProcessEngineTest {
     config.setAsyncExecutorEnabled(true);
     config.setAsyncExecutorActivate(true);
     
-    
-    if (sharedExecutor) {
-      config.setAsyncExecutor(new SharedExecutorServiceAsyncExecutor(tenantInfoHolder));
-    } else {
-      config.setAsyncExecutor(new ExecutorPerTenantAsyncExecutor(tenantInfoHolder));
-    }
+    config.setAsyncExecutor(asyncExecutor);
     
     config.registerTenant("alfresco", createDataSource("jdbc:h2:mem:activiti-mt-alfresco;DB_CLOSE_DELAY=1000", "sa", ""));
     config.registerTenant("acme", createDataSource("jdbc:h2:mem:activiti-mt-acme;DB_CLOSE_DELAY=1000", "sa", ""));
@@ -137,6 +142,43 @@ public class MultiTenantProcessEngineTest {
     
   }
   
+  @Test
+  public void testFairSharedExecutor() throws Exception {
+    FairSharedAsyncExecutor asyncExecutor = new FairSharedAsyncExecutor(tenantInfoHolder);
+    asyncExecutor.setDefaultTimerJobAcquireWaitTimeInMillis(500);
+    asyncExecutor.setDefaultAsyncJobAcquireWaitTimeInMillis(500);
+    asyncExecutor.setTenantWeight("alfresco", 2);
+    asyncExecutor.setTenantMaxConcurrentJobs("acme", 1);
+    setupProcessEngine(asyncExecutor);
+    
+    startProcessInstances("joram");
+    startProcessInstances("joram");
+    startProcessInstances("raphael");
+    startProcessInstances("raphael");
+    startProcessInstances("raphael");
+    startProcessInstances("tony");
+    
+    assertData("joram", 4, 2);
+    assertData("raphael", 6, 3);
+    assertData("tony", 2, 1);
+    
+    // Move the clock 2 hours (jobs fire in one hour)
+    config.getClock().setCurrentTime(new Date(config.getClock().getCurrentTime().getTime() + (2 * 60 * 60 * 1000)));
+    waitForJobs("joram", 10000L);
+    waitForJobs("raphael", 10000L);
+    waitForJobs("tony", 10000L);
+    
+    assertData("joram", 4, 0);
+    assertData("raphael", 6, 0);
+    assertData("tony", 2, 0);
+    
+    Assert.assertEquals(2, asyncExecutor.getTenantJobStatistics("alfresco").getExecutedJobCount());
+    Assert.assertEquals(3, asyncExecutor.getTenantJobStatistics("acme").getExecutedJobCount());
+    Assert.assertEquals(0, asyncExecutor.getTenantJobStatistics("acme").getRunningJobCount());
+    Assert.assertEquals(1, asyncExecutor.getTenantJobStatistics("starkindustries").getExecutedJobCount());
+    Assert.assertTrue(asyncExecutor.getTenantJobStatistics("acme").getAcquisitionCount() > 0);
+  }
+  
   private void startProcessInstances(String userId) {
     
     System.out.println();
@@ -190,6 +232,19 @@ public class MultiTenantProcessEngineTest {
   
   // Helper //////////////////////////////////////////
   
+  private void waitForJobs(String userId, long maxMillisToWait) throws InterruptedException {
+    tenantInfoHolder.setCurrentUserId(userId);
+    try {
+      long end = System.currentTimeMillis() + maxMillisToWait;
+      while (processEngine.getManagementService().createJobQuery().count() > 0 && System.currentTimeMillis() < end) {
+        Thread.sleep(200L);
+      }
+    } finally {
+      tenantInfoHolder.clearCurrentUserId();
+      tenantInfoHolder.clearCurrentTenantId();
+    }
+  }
+  
   
   private DataSource createDataSource(String jdbcUrl, String jdbcUsername, String jdbcPassword) {
     JdbcDataSource ds = new JdbcDataSource();
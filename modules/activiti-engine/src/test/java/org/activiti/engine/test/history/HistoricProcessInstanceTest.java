@@ -25,8 +25,10 @@ import java.util.Map;
 import org.activiti.engine.ActivitiIllegalArgumentException;
 import org.activiti.engine.history.HistoricIdentityLink;
 import org.activiti.engine.history.HistoricProcessInstance;
+import org.activiti.engine.history.HistoricTaskInstance;
 import org.activiti.engine.impl.history.HistoryLevel;
 import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+import org.activiti.engine.query.QueryResultHandler;
 import org.activiti.engine.runtime.ProcessInstance;
 import org.activiti.engine.runtime.ProcessInstanceBuilder;
 import org.activiti.engine.task.Task;
@@ -279,6 +281,58 @@ public class HistoricProcessInstanceTest extends PluggableActivitiTestCase {
     assertEquals(0, historyService.createHistoricProcessInstanceQuery().or().involvedUser("gonzo").processDefinitionId("undefined").endOr().count());
   }
   
+  @Deployment(resources = {"org/activiti/engine/test/history/oneTaskProcess.bpmn20.xml"})
+  public void testHistoricProcessInstanceListAfter() {
+    Calendar startTime = Calendar.getInstance();
+    for (int i = 0; i < 5; i++) {
+      // two process instances per start time
+      startTime.add(Calendar.MINUTE, i % 2);
+      processEngineConfiguration.getClock().setCurrentTime(startTime.getTime());
+      runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    }
+    
+    List<HistoricProcessInstance> allInstances = historyService.createHistoricProcessInstanceQuery()
+        .orderByProcessInstanceStartTime().asc().orderByProcessInstanceId().asc().list();
+    List<HistoricProcessInstance> pagedInstances = new ArrayList<HistoricProcessInstance>();
+    List<HistoricProcessInstance> page = historyService.createHistoricProcessInstanceQuery().orderByProcessInstanceStartTime().asc().listAfter(null, null, 2);
+    while (!page.isEmpty()) {
+      pagedInstances.addAll(page);
+      HistoricProcessInstance last = page.get(page.size() - 1);
+      page = historyService.createHistoricProcessInstanceQuery().orderByProcessInstanceStartTime().asc().listAfter(last.getStartTime(), last.getId(), 2);
+    }
+    
+    assertEquals(5, pagedInstances.size());
+    for (int i = 0; i < allInstances.size(); i++) {
+      assertEquals(allInstances.get(i).getId(), pagedInstances.get(i).getId());
+    }
+    processEngineConfiguration.getClock().reset();
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/history/oneTaskProcess.bpmn20.xml"})
+  public void testHistoricProcessInstanceStream() {
+    for (int i = 0; i < 3; i++) {
+      runtimeService.startProcessInstanceByKey("oneTaskProcess", "businessKey" + i);
+    }
+    
+    final List<HistoricProcessInstance> processInstances = new ArrayList<HistoricProcessInstance>();
+    historyService.createHistoricProcessInstanceQuery().orderByProcessInstanceBusinessKey().desc().stream(new QueryResultHandler<HistoricProcessInstance>() {
+      public void handleResult(HistoricProcessInstance processInstance) {
+        processInstances.add(processInstance);
+      }
+    });
+    assertEquals(3, processInstances.size());
+    assertEquals("businessKey2", processInstances.get(0).getBusinessKey());
+    assertEquals("businessKey0", processInstances.get(2).getBusinessKey());
+    
+    final List<HistoricTaskInstance> tasks = new ArrayList<HistoricTaskInstance>();
+    historyService.createHistoricTaskInstanceQuery().processInstanceId(processInstances.get(0).getId()).stream(new QueryResultHandler<HistoricTaskInstance>() {
+      public void handleResult(HistoricTaskInstance task) {
+        tasks.add(task);
+      }
+    });
+    assertEquals(1, tasks.size());
+  }
+
   @Deployment(resources = {"org/activiti/engine/test/history/oneTaskProcess.bpmn20.xml"})
   public void testHistoricProcessInstanceSorting() {
     ProcessInstance processInstance1 = runtimeService.startProcessInstanceByKey("oneTaskProcess");
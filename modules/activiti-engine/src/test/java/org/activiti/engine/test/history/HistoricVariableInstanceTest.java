@@ -13,6 +13,7 @@
 
 package org.activiti.engine.test.history;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -26,6 +27,7 @@ import org.activiti.engine.impl.history.HistoryLevel;
 import org.activiti.engine.impl.persistence.entity.HistoricVariableInstanceEntity;
 import org.activiti.engine.impl.test.PluggableActivitiTestCase;
 import org.activiti.engine.impl.util.CollectionUtil;
+import org.activiti.engine.query.QueryResultHandler;
 import org.activiti.engine.runtime.ProcessInstance;
 import org.activiti.engine.task.Task;
 import org.activiti.engine.task.TaskQuery;
@@ -85,6 +87,56 @@ public class HistoricVariableInstanceTest extends PluggableActivitiTestCase {
   	}
   }
   
+  @Deployment(resources={"org/activiti/engine/test/history/HistoricVariableInstanceTest.testSimple.bpmn20.xml"})
+  public void testStreamQueryResults() {
+    if(processEngineConfiguration.getHistoryLevel().isAtLeast(HistoryLevel.FULL)) {
+      ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("myProc");
+      
+      // queries without a streaming implementation hand over the results of the list
+      final List<Task> tasks = new ArrayList<Task>();
+      taskService.createTaskQuery().stream(new QueryResultHandler<Task>() {
+        public void handleResult(Task task) {
+          tasks.add(task);
+        }
+      });
+      assertEquals(1, tasks.size());
+      
+      taskService.complete(tasks.get(0).getId(), CollectionUtil.singletonMap("myVar", "test789"));
+      assertProcessEnded(processInstance.getId());
+      
+      final List<HistoricVariableInstance> variables = new ArrayList<HistoricVariableInstance>();
+      historyService.createHistoricVariableInstanceQuery().processInstanceId(processInstance.getId()).stream(new QueryResultHandler<HistoricVariableInstance>() {
+        public void handleResult(HistoricVariableInstance variable) {
+          variables.add(variable);
+        }
+      });
+      assertEquals(1, variables.size());
+      assertEquals("test456", variables.get(0).getValue());
+      
+      final List<String> activityIds = new ArrayList<String>();
+      historyService.createHistoricActivityInstanceQuery().orderByHistoricActivityInstanceStartTime().asc().orderByActivityId().asc()
+        .stream(new QueryResultHandler<HistoricActivityInstance>() {
+          public void handleResult(HistoricActivityInstance activityInstance) {
+            activityIds.add(activityInstance.getActivityId());
+          }
+        });
+      List<HistoricActivityInstance> activityInstances = historyService.createHistoricActivityInstanceQuery()
+          .orderByHistoricActivityInstanceStartTime().asc().orderByActivityId().asc().list();
+      assertEquals(5, activityIds.size());
+      for (int i = 0; i < activityInstances.size(); i++) {
+        assertEquals(activityInstances.get(i).getActivityId(), activityIds.get(i));
+      }
+      
+      final List<HistoricDetail> details = new ArrayList<HistoricDetail>();
+      historyService.createHistoricDetailQuery().stream(new QueryResultHandler<HistoricDetail>() {
+        public void handleResult(HistoricDetail detail) {
+          details.add(detail);
+        }
+      });
+      assertEquals(3, details.size());
+    }
+  }
+  
   @Deployment
   public void testSimpleNoWaitState() {
   	if(processEngineConfiguration.getHistoryLevel().isAtLeast(HistoryLevel.FULL)) {
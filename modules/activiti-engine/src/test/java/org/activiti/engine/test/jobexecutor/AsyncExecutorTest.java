@@ -22,8 +22,13 @@ import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
 import org.activiti.engine.impl.asyncexecutor.DefaultAsyncJobExecutor;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
+import org.activiti.engine.impl.jobexecutor.AsyncContinuationJobHandler;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics.AcquisitionType;
+import org.activiti.engine.impl.metrics.JobHandlerStatistics;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
 import org.activiti.engine.impl.test.JobTestHelper;
+import org.activiti.engine.runtime.Job;
 import org.junit.Assert;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -245,6 +250,23 @@ public class AsyncExecutorTest {
 	
 			Assert.assertEquals(3, getAsyncExecutorJobCount(processEngine));
 			
+			// The first execution is hinted to the async executor, the retries are acquired
+			AsyncExecutorMetrics metrics = processEngine.getProcessEngineConfiguration().getAsyncExecutor().getAsyncExecutorMetrics();
+			Assert.assertTrue(metrics.getAcquisitionCount(AcquisitionType.ASYNC) > 0);
+			Assert.assertTrue(metrics.getAcquiredJobCount(AcquisitionType.ASYNC) >= 2);
+			Assert.assertEquals(0, metrics.getRejectedJobCount());
+			Assert.assertEquals(3, metrics.getJobWaitTime().getTotalCount());
+			
+			JobHandlerStatistics statistics = metrics.getJobHandlerStatistics(AsyncContinuationJobHandler.TYPE);
+			Assert.assertEquals(3, statistics.getExecutionCount());
+			Assert.assertEquals(3, statistics.getFailureCount());
+			Assert.assertEquals(2, statistics.getRetryCount());
+			Assert.assertEquals(1, metrics.getAllJobHandlerStatistics().size());
+			
+			metrics.reset();
+			Assert.assertEquals(0, metrics.getAcquisitionCount(AcquisitionType.ASYNC));
+			Assert.assertEquals(0, metrics.getAllJobHandlerStatistics().size());
+			
 		} finally {
 			
 			// Clean up
@@ -256,6 +278,113 @@ public class AsyncExecutorTest {
 	
 	
 	
+	@Test
+	public void testTimerLookAhead() {
+		
+		ProcessEngine processEngine = null;
+		
+		try {
+		
+			// Deploy on an engine which keeps timers due within the next minute in memory
+			processEngine = createProcessEngine(true, null, 60 * 1000);
+			processEngine.getProcessEngineConfiguration().getClock().reset();
+			deploy(processEngine, "AsyncExecutorTest.testTimerLookAhead.bpmn20.xml");
+			
+			// The timer (2 seconds) is created within the look-ahead window: it is handed to the async executor right away
+			processEngine.getRuntimeService().startProcessInstanceByKey("timerLookAhead");
+			Job timer = processEngine.getManagementService().createJobQuery().timers().singleResult();
+			Assert.assertNotNull(timer);
+			
+			// Without any timer acquisition query, it fires once it is due
+			final ProcessEngine processEngineCopy = processEngine;
+			JobTestHelper.waitForJobExecutorOnCondition(processEngine.getProcessEngineConfiguration(), 10000L, 100L, new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					return processEngineCopy.getTaskService().createTaskQuery().taskName("Task after timer").count() == 1;
+				}
+			});
+			Assert.assertEquals(0, processEngine.getManagementService().createJobQuery().count());
+			Assert.assertEquals(1, getAsyncExecutorJobCount(processEngine));
+			
+		} finally {
+			
+			// Clean up
+			cleanup(processEngine);
+			
+		}
+		
+	}
+	
+	@Test
+	public void testTimerLookAheadUnlockedOnShutdown() {
+		
+		ProcessEngine processEngine = null;
+		
+		try {
+			
+			processEngine = createProcessEngine(true, null, 10 * 60 * 1000);
+			setClockToCurrentTime(processEngine);
+			deploy(processEngine, "AsyncExecutorTest.testRegularAsyncExecution.bpmn20.xml");
+			
+			// The 5 minute timer is within the look-ahead window: it is acquired and waits in memory
+			processEngine.getRuntimeService().startProcessInstanceByKey("asyncExecutor");
+			final ProcessEngine processEngineCopy = processEngine;
+			JobTestHelper.waitForJobExecutorOnCondition(processEngine.getProcessEngineConfiguration(), 10000L, 100L, new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					JobEntity timer = (JobEntity) processEngineCopy.getManagementService().createJobQuery().timers().singleResult();
+					return timer.getLockOwner() != null;
+				}
+			});
+			JobEntity timer = (JobEntity) processEngine.getManagementService().createJobQuery().timers().singleResult();
+			Date duedate = timer.getDuedate();
+			
+			// Shutting down the async executor releases the timer, without changing its due date
+			processEngine.getProcessEngineConfiguration().getAsyncExecutor().shutdown();
+			timer = (JobEntity) processEngine.getManagementService().createJobQuery().timers().singleResult();
+			Assert.assertNull(timer.getLockOwner());
+			Assert.assertNull(timer.getLockExpirationTime());
+			Assert.assertEquals(duedate, timer.getDuedate());
+			Assert.assertEquals(0, getAsyncExecutorJobCount(processEngine));
+			
+		} finally {
+			
+			// Clean up
+			cleanup(processEngine);
+			
+		}
+		
+	}
+	
+	@Test
+	public void testTimerLookAheadDeletedBeforeDue() throws Exception {
+		
+		ProcessEngine processEngine = null;
+		
+		try {
+			
+			processEngine = createProcessEngine(true, null, 60 * 1000);
+			processEngine.getProcessEngineConfiguration().getClock().reset();
+			deploy(processEngine, "AsyncExecutorTest.testTimerLookAhead.bpmn20.xml");
+			
+			// The timer is in memory, but the process instance is deleted before the timer is due
+			String processInstanceId = processEngine.getRuntimeService().startProcessInstanceByKey("timerLookAhead").getId();
+			processEngine.getRuntimeService().deleteProcessInstance(processInstanceId, "test");
+			Assert.assertEquals(0, processEngine.getManagementService().createJobQuery().count());
+			
+			// The timer is read again when it is due, so it is never offered to the async executor
+			Thread.sleep(3000L);
+			Assert.assertEquals(0, getAsyncExecutorJobCount(processEngine));
+			
+		} finally {
+			
+			// Clean up
+			cleanup(processEngine);
+			
+		}
+		
+	}
+	
 	// Helpers
 	
 	private ProcessEngine createProcessEngine(boolean enableAsyncExecutor) {
@@ -263,6 +392,10 @@ public class AsyncExecutorTest {
 	}
 	
 	private ProcessEngine createProcessEngine(boolean enableAsyncExecutor, Date time) {
+		return createProcessEngine(enableAsyncExecutor, time, 0);
+	}
+	
+	private ProcessEngine createProcessEngine(boolean enableAsyncExecutor, Date time, int timerLookAheadTime) {
 		ProcessEngineConfigurationImpl processEngineConfiguration = new StandaloneInMemProcessEngineConfiguration();
 		processEngineConfiguration.setJdbcUrl("jdbc:h2:mem:activiti-AsyncExecutorTest;DB_CLOSE_DELAY=1000");
 		processEngineConfiguration.setDatabaseSchemaUpdate("true");
@@ -275,6 +408,7 @@ public class AsyncExecutorTest {
 			CountingAsyncExecutor countingAsyncExecutor = new CountingAsyncExecutor();
 			countingAsyncExecutor.setDefaultAsyncJobAcquireWaitTimeInMillis(50); // To avoid waiting too long when a retry happens
 			countingAsyncExecutor.setDefaultTimerJobAcquireWaitTimeInMillis(50);
+			countingAsyncExecutor.setTimerLookAheadTimeInMillis(timerLookAheadTime);
 			processEngineConfiguration.setAsyncExecutor(countingAsyncExecutor);
 		}
 
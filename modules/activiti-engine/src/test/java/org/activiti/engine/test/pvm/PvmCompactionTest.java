@@ -0,0 +1,97 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.pvm;
+
+import org.activiti.engine.impl.persistence.deploy.ProcessDefinitionSizeEstimator;
+import org.activiti.engine.impl.pvm.ProcessDefinitionBuilder;
+import org.activiti.engine.impl.pvm.PvmEvent;
+import org.activiti.engine.impl.pvm.PvmExecution;
+import org.activiti.engine.impl.pvm.PvmProcessInstance;
+import org.activiti.engine.impl.pvm.process.ActivityImpl;
+import org.activiti.engine.impl.pvm.process.ProcessDefinitionImpl;
+import org.activiti.engine.impl.test.PvmTestCase;
+import org.activiti.engine.test.pvm.activities.Automatic;
+import org.activiti.engine.test.pvm.activities.End;
+import org.activiti.engine.test.pvm.activities.WaitState;
+
+public class PvmCompactionTest extends PvmTestCase {
+
+  /**
+   * +-------+   +------+   +-----+
+   * | start |-->| wait |-->| end |
+   * +-------+   +------+   +-----+
+   */
+  public void testCompactedProcessDefinition() {
+    EventCollector eventCollector = new EventCollector();
+    ProcessDefinitionImpl processDefinition = (ProcessDefinitionImpl) new ProcessDefinitionBuilder("compacted")
+      .createActivity("start")
+        .initial()
+        .behavior(new Automatic())
+        .transition("wait", "startToWait")
+      .endActivity()
+      .createActivity("wait")
+        .behavior(new WaitState())
+        .property("type", "waitState")
+        .executionListener(PvmEvent.EVENTNAME_START, eventCollector)
+        .transition("end", "waitToEnd")
+      .endActivity()
+      .createActivity("end")
+        .behavior(new End())
+      .endActivity()
+    .buildProcessDefinition();
+    
+    long sizeBeforeCompaction = new ProcessDefinitionSizeEstimator().estimateRetainedSize(processDefinition);
+    processDefinition.compact();
+    long sizeAfterCompaction = new ProcessDefinitionSizeEstimator().estimateRetainedSize(processDefinition);
+    assertTrue(sizeAfterCompaction < sizeBeforeCompaction);
+    
+    ActivityImpl waitActivity = processDefinition.findActivity("wait");
+    assertNotNull(waitActivity);
+    assertEquals("waitState", waitActivity.getProperty("type"));
+    assertEquals(1, waitActivity.getProperties().size());
+    assertEquals("end", waitActivity.findOutgoingTransition("waitToEnd").getDestination().getId());
+    assertNull(waitActivity.findOutgoingTransition("startToWait"));
+    assertEquals(1, waitActivity.getIncomingTransitions().size());
+    assertNull(processDefinition.findActivity("unexisting"));
+    
+    try {
+      processDefinition.createActivity("other");
+      fail("UnsupportedOperationException expected");
+    } catch (UnsupportedOperationException e) {
+      // expected: a compacted definition can't be changed
+    }
+    
+    PvmProcessInstance processInstance = processDefinition.createProcessInstance();
+    processInstance.start();
+    PvmExecution execution = processInstance.findExecution("wait");
+    assertNotNull(execution);
+    assertEquals(1, eventCollector.events.size());
+    
+    execution.signal(null, null);
+    assertTrue(processInstance.isEnded());
+  }
+  
+  public void testEstimatorCountsSharedObjectsOnce() {
+    ProcessDefinitionImpl processDefinition = (ProcessDefinitionImpl) new ProcessDefinitionBuilder("estimated")
+      .createActivity("start")
+        .initial()
+        .behavior(new End())
+      .endActivity()
+    .buildProcessDefinition();
+    
+    ProcessDefinitionSizeEstimator estimator = new ProcessDefinitionSizeEstimator();
+    assertTrue(estimator.estimateRetainedSize(processDefinition) > 0);
+    assertEquals(0, estimator.estimateRetainedSize(processDefinition));
+  }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.standalone.calendar;
+
+import static org.junit.Assert.*;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.activiti.engine.impl.calendar.CronExpression;
+import org.activiti.engine.impl.calendar.DurationHelper;
+import org.activiti.engine.impl.calendar.ParsedScheduleCache;
+import org.activiti.engine.impl.util.DefaultClockImpl;
+import org.activiti.engine.runtime.Clock;
+import org.junit.Test;
+
+public class ParsedScheduleCacheTest {
+
+  @Test
+  public void shouldReuseParsedCronExpression() throws Exception {
+    Clock testingClock = new DefaultClockImpl();
+    ParsedScheduleCache cache = new ParsedScheduleCache(10);
+
+    TimeZone utc = TimeZone.getTimeZone("UTC");
+    CronExpression first = cache.getCronExpression("0 0 12 * * ?", utc, testingClock);
+    CronExpression second = cache.getCronExpression("0 0 12 * * ?", utc, testingClock);
+    assertSame(first, second);
+
+    CronExpression otherTimeZone = cache.getCronExpression("0 0 12 * * ?", TimeZone.getTimeZone("Europe/Brussels"), testingClock);
+    assertNotSame(first, otherTimeZone);
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void shouldUseCurrentTimeOfClockForCachedDuration() throws Exception {
+    Clock testingClock = new DefaultClockImpl();
+    ParsedScheduleCache cache = new ParsedScheduleCache(10);
+
+    testingClock.setCurrentTime(new Date(0));
+    assertEquals(10000, cache.getDurationHelper("R2/PT10S", -1, testingClock).getDateAfter().getTime());
+
+    // the start of the cached expression is not fixed to the time it was parsed at
+    testingClock.setCurrentTime(new Date(60000));
+    DurationHelper dh = cache.getDurationHelper("R2/PT10S", -1, testingClock);
+    assertEquals(70000, dh.getDateAfter().getTime());
+    assertEquals(2, dh.getTimes());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void shouldKeepExplicitStartOfCachedDuration() throws Exception {
+    Clock testingClock = new DefaultClockImpl();
+    ParsedScheduleCache cache = new ParsedScheduleCache(10);
+
+    testingClock.setCurrentTime(new Date(0));
+    cache.getDurationHelper("R2/1970-01-01T00:00:00Z/PT10S", -1, testingClock);
+
+    testingClock.setCurrentTime(new Date(15000));
+    assertEquals(20000, cache.getDurationHelper("R2/1970-01-01T00:00:00Z/PT10S", -1, testingClock).getDateAfter().getTime());
+  }
+
+  @Test
+  public void shouldNotUseClockOfFirstCaller() throws Exception {
+    ClosableClock firstClock = new ClosableClock();
+    firstClock.setCurrentTime(new Date(0));
+    ParsedScheduleCache cache = new ParsedScheduleCache(10);
+    cache.getCronExpression("0 0 12 * * ?", null, firstClock);
+    cache.getDurationHelper("R2/PT10S", -1, firstClock);
+    
+    // eg. the process engine that parsed the expressions first is closed
+    firstClock.closed = true;
+    
+    Clock testingClock = new DefaultClockImpl();
+    testingClock.setCurrentTime(new Date(60000));
+    CronExpression cronExpression = cache.getCronExpression("0 0 12 * * ?", null, testingClock);
+    assertEquals(testingClock.getCurrentTimeZone(), cronExpression.getTimeZone());
+    assertNotNull(cronExpression.getTimeAfter(testingClock.getCurrentCalendar()));
+    assertEquals(70000, cache.getDurationHelper("R2/PT10S", -1, testingClock).getDateAfter().getTime());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsed() throws Exception {
+    Clock testingClock = new DefaultClockImpl();
+    ParsedScheduleCache cache = new ParsedScheduleCache(2);
+
+    CronExpression first = cache.getCronExpression("0 0 1 * * ?", null, testingClock);
+    cache.getCronExpression("0 0 2 * * ?", null, testingClock);
+    cache.getCronExpression("0 0 1 * * ?", null, testingClock);
+    cache.getCronExpression("0 0 3 * * ?", null, testingClock);
+
+    assertEquals(2, cache.size());
+    assertSame(first, cache.getCronExpression("0 0 1 * * ?", null, testingClock));
+  }
+
+  protected static class ClosableClock extends DefaultClockImpl {
+    
+    protected boolean closed;
+    
+    public Calendar getCurrentCalendar() {
+      checkNotClosed();
+      return super.getCurrentCalendar();
+    }
+    
+    public TimeZone getCurrentTimeZone() {
+      checkNotClosed();
+      return super.getCurrentTimeZone();
+    }
+    
+    protected void checkNotClosed() {
+      if (closed) {
+        throw new IllegalStateException("clock is closed");
+      }
+    }
+  }
+
+}
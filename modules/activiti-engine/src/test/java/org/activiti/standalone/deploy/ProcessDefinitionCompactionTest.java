@@ -0,0 +1,81 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.standalone.deploy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.activiti.engine.impl.test.ResourceActivitiTestCase;
+import org.activiti.engine.repository.Deployment;
+import org.activiti.engine.repository.ProcessDefinition;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.task.Task;
+
+public class ProcessDefinitionCompactionTest extends ResourceActivitiTestCase {
+  
+  public ProcessDefinitionCompactionTest() {
+    super("org/activiti/standalone/deploy/process.definition.compaction.test.activiti.cfg.xml");
+  }
+
+  public void testCompactedProcessDefinitions() {
+    for (int i = 0; i < 2; i++) {
+      repositoryService.createDeployment()
+        .addClasspathResource("org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml")
+        .deploy();
+    }
+    
+    try {
+      ProcessDefinition firstVersion = repositoryService.createProcessDefinitionQuery().processDefinitionVersion(1).singleResult();
+      ProcessDefinition secondVersion = repositoryService.createProcessDefinitionQuery().processDefinitionVersion(2).singleResult();
+      
+      // the compacted definitions share their strings
+      ProcessDefinitionEntity firstDefinition = processEngineConfiguration.getDeploymentManager().findDeployedProcessDefinitionById(firstVersion.getId());
+      ProcessDefinitionEntity secondDefinition = processEngineConfiguration.getDeploymentManager().findDeployedProcessDefinitionById(secondVersion.getId());
+      assertSame(firstDefinition.findActivity("theTask").getId(), secondDefinition.findActivity("theTask").getId());
+      
+      ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+      Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+      assertEquals("my task", task.getName());
+      taskService.complete(task.getId());
+      assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+      
+      Map<String, Long> retainedSizes = processEngineConfiguration.getDeploymentManager().getProcessDefinitionRetainedSizes();
+      assertEquals(2, retainedSizes.size());
+      assertTrue(retainedSizes.get(firstVersion.getId()) > 0);
+      assertTrue(retainedSizes.get(secondVersion.getId()) < retainedSizes.get(firstVersion.getId()));
+      
+      // version 10 is estimated after version 9, although its id sorts before it
+      for (int i = 0; i < 8; i++) {
+        repositoryService.createDeployment()
+          .addClasspathResource("org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml")
+          .deploy();
+      }
+      List<String> processDefinitionIds = new ArrayList<String>();
+      for (ProcessDefinition processDefinition : repositoryService.createProcessDefinitionQuery().orderByProcessDefinitionVersion().asc().list()) {
+        processEngineConfiguration.getDeploymentManager().findDeployedProcessDefinitionById(processDefinition.getId());
+        processDefinitionIds.add(processDefinition.getId());
+      }
+      retainedSizes = processEngineConfiguration.getDeploymentManager().getProcessDefinitionRetainedSizes();
+      assertEquals(processDefinitionIds, new ArrayList<String>(retainedSizes.keySet()));
+      assertTrue(retainedSizes.get(processDefinitionIds.get(9)) < retainedSizes.get(firstVersion.getId()));
+      
+    } finally {
+      for (Deployment deployment : repositoryService.createDeploymentQuery().list()) {
+        repositoryService.deleteDeployment(deployment.getId(), true);
+      }
+    }
+  }
+  
+}
@@ -0,0 +1,118 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.standalone.gateway;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.impl.cmd.CompleteTaskCmd;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.test.ResourceActivitiTestCase;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.task.Task;
+import org.activiti.engine.task.TaskQuery;
+import org.activiti.engine.test.Deployment;
+
+public class ParallelGatewayJoinRowLockTest extends ResourceActivitiTestCase {
+
+  public ParallelGatewayJoinRowLockTest() {
+    super("org/activiti/standalone/gateway/join-row-lock.activiti.cfg.xml");
+  }
+
+  @Deployment(resources = "org/activiti/engine/test/bpmn/gateway/ParallelGatewayTest.testNestedForkJoin.bpmn20.xml")
+  public void testNestedForkJoin() {
+    assertTrue(processEngineConfiguration.isEnableParallelGatewayJoinRowLock());
+    runtimeService.startProcessInstanceByKey("nestedForkJoin");
+
+    TaskQuery query = taskService.createTaskQuery().orderByTaskName().asc();
+    taskService.complete(query.singleResult().getId());
+
+    List<Task> tasks = query.list();
+    assertEquals(2, tasks.size());
+    taskService.complete(tasks.get(0).getId());
+    assertEquals("Task B", query.singleResult().getName());
+
+    taskService.complete(query.singleResult().getId());
+    tasks = query.list();
+    assertEquals(2, tasks.size());
+    assertEquals("Task B1", tasks.get(0).getName());
+    assertEquals("Task B2", tasks.get(1).getName());
+
+    taskService.complete(tasks.get(0).getId());
+    taskService.complete(tasks.get(1).getId());
+    assertEquals("Task C", query.singleResult().getName());
+  }
+
+  @Deployment(resources = "org/activiti/engine/test/bpmn/gateway/ParallelGatewayTest.testAsyncBehavior.bpmn20.xml")
+  public void testConcurrentJoin() {
+    for (int i = 0; i < 10; i++) {
+      runtimeService.startProcessInstanceByKey("async");
+    }
+    assertEquals(20, managementService.createJobQuery().count());
+    
+    waitForJobExecutorToProcessAllJobs(20000, 200);
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+  }
+  
+  @Deployment
+  public void testJoinOfBranchLoadedBeforeArrival() throws Exception {
+    final String processInstanceId = runtimeService.startProcessInstanceByKey("forkJoin").getId();
+    final String taskAId = taskService.createTaskQuery().taskDefinitionKey("taskA").singleResult().getId();
+    final String taskBId = taskService.createTaskQuery().taskDefinitionKey("taskB").singleResult().getId();
+    
+    final AtomicReference<Throwable> otherBranchException = new AtomicReference<Throwable>();
+    try {
+      managementService.executeCommand(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          
+          // The executions of both branches are loaded while both are still active
+          ExecutionEntity processInstance = commandContext.getExecutionEntityManager().findExecutionById(processInstanceId);
+          assertEquals(2, processInstance.getExecutions().size());
+          
+          // Meanwhile, the other branch arrives in the join and is committed
+          Thread otherBranch = new Thread(new Runnable() {
+            public void run() {
+              try {
+                taskService.complete(taskBId);
+              } catch (Throwable e) {
+                otherBranchException.set(e);
+              }
+            }
+          });
+          otherBranch.start();
+          try {
+            otherBranch.join();
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+          
+          // The loaded execution of the other branch is stale, so it must not be flushed
+          new CompleteTaskCmd(taskAId, null).execute(commandContext);
+          return null;
+        }
+      });
+      fail("ActivitiOptimisticLockingException expected");
+    } catch (ActivitiOptimisticLockingException e) {
+      // expected
+    }
+    assertNull(otherBranchException.get());
+    
+    // The retried command joins the branch that arrived before
+    taskService.complete(taskAId);
+    assertEquals("afterJoin", taskService.createTaskQuery().processInstanceId(processInstanceId).singleResult().getTaskDefinitionKey());
+  }
+
+}
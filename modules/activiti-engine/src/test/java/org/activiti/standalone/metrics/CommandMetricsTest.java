@@ -0,0 +1,101 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.standalone.metrics;
+
+import java.util.Map;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.cmd.CompleteTaskCmd;
+import org.activiti.engine.impl.cmd.StartProcessInstanceCmd;
+import org.activiti.engine.impl.metrics.CommandMetrics;
+import org.activiti.engine.impl.metrics.CommandStatistics;
+import org.activiti.engine.impl.metrics.CommandStatistics.StatementType;
+import org.activiti.engine.impl.metrics.LatencyHistogram;
+import org.activiti.engine.impl.test.ResourceActivitiTestCase;
+import org.activiti.engine.test.Deployment;
+
+public class CommandMetricsTest extends ResourceActivitiTestCase {
+
+  public CommandMetricsTest() {
+    super("org/activiti/standalone/metrics/command-metrics.activiti.cfg.xml");
+  }
+
+  @Deployment(resources = "org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml")
+  public void testCommandStatistics() {
+    CommandMetrics commandMetrics = processEngineConfiguration.getCommandMetrics();
+    assertNotNull(commandMetrics);
+    commandMetrics.reset();
+    long statementCountBefore = commandMetrics.getCurrentThreadStatementCount();
+
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    taskService.complete(taskService.createTaskQuery().singleResult().getId());
+
+    CommandStatistics startStatistics = commandMetrics.getCommandStatistics(StartProcessInstanceCmd.class);
+    assertEquals(1, startStatistics.getInvocationCount());
+    assertEquals(0, startStatistics.getFailureCount());
+    assertTrue(startStatistics.getStatementCount(StatementType.INSERT) > 0);
+    assertTrue(startStatistics.getFlushedEntityCount() >= startStatistics.getStatementCount(StatementType.INSERT));
+    assertTrue(startStatistics.getStatementCounts(StatementType.SELECT).containsKey("selectLatestProcessDefinitionByKey"));
+
+    CommandStatistics completeStatistics = commandMetrics.getCommandStatistics(CompleteTaskCmd.class);
+    assertEquals(1, completeStatistics.getInvocationCount());
+    Map<String, Long> selects = completeStatistics.getStatementCounts(StatementType.SELECT);
+    assertEquals(Long.valueOf(1), selects.get("selectTask"));
+    assertTrue(completeStatistics.getStatementCount(StatementType.DELETE) > 0);
+
+    assertTrue(commandMetrics.getAllCommandStatistics().contains(startStatistics));
+    assertTrue(commandMetrics.getAllCommandStatistics().contains(completeStatistics));
+
+    long statementCount = 0;
+    for (CommandStatistics statistics : commandMetrics.getAllCommandStatistics()) {
+      statementCount += statistics.getStatementCount();
+    }
+    assertEquals(statementCount, commandMetrics.getCurrentThreadStatementCount() - statementCountBefore);
+
+    try {
+      taskService.complete("unexisting");
+      fail("ActivitiException expected");
+    } catch (ActivitiException e) {
+      // expected
+    }
+    assertEquals(2, completeStatistics.getInvocationCount());
+    assertEquals(1, completeStatistics.getFailureCount());
+
+    commandMetrics.reset();
+    assertEquals(0, completeStatistics.getInvocationCount());
+    assertEquals(0, completeStatistics.getStatementCount());
+    assertFalse(commandMetrics.getAllCommandStatistics().contains(completeStatistics));
+  }
+
+  public void testLatencyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getValueAtPercentile(50.0));
+
+    for (long value = 1; value <= 1000; value++) {
+      histogram.recordValue(value);
+    }
+    histogram.recordValue(1000000);
+
+    assertEquals(1001, histogram.getTotalCount());
+    assertEquals(1000000, histogram.getMaxValue());
+    assertEquals(1000000, histogram.getValueAtPercentile(100.0));
+    assertEquals(1, histogram.getValueAtPercentile(0.0));
+
+    // values are reported with a relative error of at most 12.5%
+    long median = histogram.getValueAtPercentile(50.0);
+    assertTrue(median >= 501 && median <= 501 * 1.125);
+    long p99 = histogram.getValueAtPercentile(99.0);
+    assertTrue(p99 >= 991 && p99 <= 991 * 1.125);
+  }
+
+}
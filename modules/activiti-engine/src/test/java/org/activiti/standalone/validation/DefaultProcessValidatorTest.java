@@ -28,6 +28,7 @@ import org.activiti.bpmn.model.BpmnModel;
 import org.activiti.engine.test.util.TestProcessUtil;
 import org.activiti.validation.ProcessValidator;
 import org.activiti.validation.ProcessValidatorFactory;
+import org.activiti.validation.ProcessValidatorImpl;
 import org.activiti.validation.ValidationError;
 import org.activiti.validation.validator.Problems;
 import org.activiti.validation.validator.ValidatorSetNames;
@@ -318,6 +319,33 @@ public class DefaultProcessValidatorTest {
 		}
 	}
 	
+	@Test
+	public void testParallelValidation() throws Exception {
+		BpmnModel bpmnModel = readInvalidProcess();
+		
+		// add a few processes, so process level validators are split up
+		for (int i=0; i<3; i++) {
+			bpmnModel.addProcess(TestProcessUtil.createOneTaskProcess());
+		}
+		List<ValidationError> sequentialErrors = processValidator.validate(bpmnModel);
+		
+		ProcessValidatorImpl parallelProcessValidator = (ProcessValidatorImpl) new ProcessValidatorFactory().createDefaultProcessValidator();
+		parallelProcessValidator.setParallelValidationThreshold(0);
+		parallelProcessValidator.setParallelValidationThreads(4);
+		List<ValidationError> parallelErrors = parallelProcessValidator.validate(bpmnModel);
+		
+		Assert.assertEquals(sequentialErrors.size(), parallelErrors.size());
+		for (int i=0; i<sequentialErrors.size(); i++) {
+			Assert.assertEquals(sequentialErrors.get(i).toString(), parallelErrors.get(i).toString());
+			Assert.assertEquals(sequentialErrors.get(i).getValidatorSetName(), parallelErrors.get(i).getValidatorSetName());
+		}
+	}
+	
+	protected BpmnModel readInvalidProcess() throws Exception {
+		InputStream xmlStream = this.getClass().getClassLoader().getResourceAsStream("org/activiti/engine/test/validation/invalidProcess.bpmn20.xml");
+		XMLStreamReader xtr = XMLInputFactory.newInstance().createXMLStreamReader(new InputStreamReader(xmlStream, "UTF-8"));
+		return new BpmnXMLConverter().convertToBpmnModel(xtr);
+	}
 	
 	protected void assertCommonProblemFieldForActivity(ValidationError error) {
 		assertProcessElementError(error);
@@ -0,0 +1,98 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.standalone.validation;
+
+import java.util.List;
+
+import org.activiti.bpmn.model.BpmnModel;
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+import org.activiti.validation.ProcessValidator;
+import org.activiti.validation.ValidationError;
+import org.activiti.validation.validator.ValidatorSet;
+
+public class ProcessValidationCacheTest extends PluggableActivitiTestCase {
+
+  protected ProcessValidator originalProcessValidator;
+  protected CountingProcessValidator countingProcessValidator;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    originalProcessValidator = processEngineConfiguration.getProcessValidator();
+    countingProcessValidator = new CountingProcessValidator(originalProcessValidator);
+    processEngineConfiguration.setProcessValidator(countingProcessValidator);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    processEngineConfiguration.setProcessValidator(originalProcessValidator);
+    for (org.activiti.engine.repository.Deployment deployment : repositoryService.createDeploymentQuery().list()) {
+      repositoryService.deleteDeployment(deployment.getId(), true);
+    }
+    super.tearDown();
+  }
+
+  public void testIdenticalResourceValidatedOnce() {
+    String resource = "org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml";
+    repositoryService.createDeployment().addClasspathResource(resource).deploy();
+    assertEquals(1, countingProcessValidator.validations);
+
+    repositoryService.createDeployment().addClasspathResource(resource).deploy();
+    assertEquals(1, countingProcessValidator.validations);
+    assertEquals(2, repositoryService.createProcessDefinitionQuery().processDefinitionKey("oneTaskProcess").count());
+
+    // reloading the process definition into the cache doesn't validate either
+    processEngineConfiguration.getProcessDefinitionCache().clear();
+    runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    assertEquals(1, countingProcessValidator.validations);
+
+    repositoryService.createDeployment().addClasspathResource("org/activiti/engine/test/api/twoTasksProcess.bpmn20.xml").deploy();
+    assertEquals(2, countingProcessValidator.validations);
+  }
+
+  public void testInvalidResourceAlwaysValidated() {
+    String resource = "org/activiti/engine/test/validation/invalidProcess.bpmn20.xml";
+    for (int i = 1; i <= 2; i++) {
+      try {
+        repositoryService.createDeployment().addClasspathResource(resource).disableSchemaValidation().deploy();
+        fail("ActivitiException expected");
+      } catch (ActivitiException e) {
+        // expected
+      }
+      assertEquals(i, countingProcessValidator.validations);
+    }
+  }
+
+  protected static class CountingProcessValidator implements ProcessValidator {
+
+    protected ProcessValidator processValidator;
+    protected int validations;
+
+    public CountingProcessValidator(ProcessValidator processValidator) {
+      this.processValidator = processValidator;
+    }
+
+    @Override
+    public List<ValidationError> validate(BpmnModel bpmnModel) {
+      validations++;
+      return processValidator.validate(bpmnModel);
+    }
+
+    @Override
+    public List<ValidatorSet> getValidatorSets() {
+      return processValidator.getValidatorSets();
+    }
+  }
+
+}
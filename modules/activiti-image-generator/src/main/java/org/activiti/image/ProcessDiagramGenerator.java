@@ -30,7 +30,7 @@ public interface ProcessDiagramGenerator {
    * Generates a diagram of the given process definition, using the
    * diagram interchange information of the process.
    * @param bpmnModel bpmn model to get diagram for
-   * @param imageType type of the image to generate.
+   * @param imageType type of the image to generate: an image format supported by ImageIO, or svg.
    * @param highLightedActivities activities to highlight
    * @param highLightedFlows flows to highlight
    * @param activityFontName override the default activity font
@@ -41,6 +41,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
 import java.text.AttributedCharacterIterator;
 import java.text.AttributedString;
 import java.util.ArrayList;
@@ -131,6 +132,10 @@ public class DefaultProcessDiagramCanvas {
   protected static BufferedImage MESSAGE_CATCH_IMAGE;
   protected static BufferedImage SIGNAL_CATCH_IMAGE;
   protected static BufferedImage SIGNAL_THROW_IMAGE;
+  
+  // the class loader the icons were loaded with, they are only loaded again for another class loader
+  protected static ClassLoader iconsClassLoader;
+  protected static boolean iconsLoaded;
 
   protected int canvasWidth = -1;
   protected int canvasHeight = -1;
@@ -194,19 +199,53 @@ public class DefaultProcessDiagramCanvas {
     initialize(imageType);
   }
   
-  public void initialize(String imageType) {
-    if ("png".equalsIgnoreCase(imageType)) {
-      this.processDiagram = new BufferedImage(canvasWidth, canvasHeight, BufferedImage.TYPE_INT_ARGB);
+  /**
+   * Creates a canvas to draw on top of a copy of what is drawn on the given canvas, which is not changed.
+   * Used to draw the highlights of a process instance on the cached diagram of its process definition.
+   */
+  public DefaultProcessDiagramCanvas(DefaultProcessDiagramCanvas baseCanvas) {
+    this.canvasWidth = baseCanvas.canvasWidth;
+    this.canvasHeight = baseCanvas.canvasHeight;
+    this.minX = baseCanvas.minX;
+    this.minY = baseCanvas.minY;
+    this.activityFontName = baseCanvas.activityFontName;
+    this.labelFontName = baseCanvas.labelFontName;
+    this.customClassLoader = baseCanvas.customClassLoader;
+    
+    if (baseCanvas.g instanceof SvgGraphics2D) {
+      this.g = new SvgGraphics2D((SvgGraphics2D) baseCanvas.g);
     } else {
-      this.processDiagram = new BufferedImage(canvasWidth, canvasHeight, BufferedImage.TYPE_INT_RGB);
+      BufferedImage baseDiagram = baseCanvas.processDiagram;
+      this.processDiagram = new BufferedImage(baseDiagram.getColorModel(), baseDiagram.copyData(null), 
+          baseDiagram.isAlphaPremultiplied(), null);
+      this.g = processDiagram.createGraphics();
     }
-    
-    this.g = processDiagram.createGraphics();
-    if ("png".equalsIgnoreCase(imageType) == false) {
-      this.g.setBackground(new Color(255, 255, 255, 0));
-      this.g.clearRect(0, 0, canvasWidth, canvasHeight);
+    initializeGraphics();
+  }
+  
+  public void initialize(String imageType) {
+    if ("svg".equalsIgnoreCase(imageType)) {
+      this.g = new SvgGraphics2D(canvasWidth, canvasHeight);
+      
+    } else {
+      if ("png".equalsIgnoreCase(imageType)) {
+        this.processDiagram = new BufferedImage(canvasWidth, canvasHeight, BufferedImage.TYPE_INT_ARGB);
+      } else {
+        this.processDiagram = new BufferedImage(canvasWidth, canvasHeight, BufferedImage.TYPE_INT_RGB);
+      }
+      
+      this.g = processDiagram.createGraphics();
+      if ("png".equalsIgnoreCase(imageType) == false) {
+        this.g.setBackground(new Color(255, 255, 255, 0));
+        this.g.clearRect(0, 0, canvasWidth, canvasHeight);
+      }
     }
 
+    initializeGraphics();
+    loadIcons();
+  }
+  
+  protected void initializeGraphics() {
     g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
     g.setPaint(Color.black);
     
@@ -215,30 +254,44 @@ public class DefaultProcessDiagramCanvas {
     this.fontMetrics = g.getFontMetrics();
 
     LABEL_FONT = new Font(labelFontName, Font.ITALIC, 10);
-    
-    try {
-      USERTASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/userTask.png", customClassLoader));
-      SCRIPTTASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/scriptTask.png", customClassLoader));
-      SERVICETASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/serviceTask.png", customClassLoader));
-      RECEIVETASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/receiveTask.png", customClassLoader));
-      SENDTASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/sendTask.png", customClassLoader));
-      MANUALTASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/manualTask.png", customClassLoader));
-      BUSINESS_RULE_TASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/businessRuleTask.png", customClassLoader));
-      SHELL_TASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/shellTask.png", customClassLoader));
-      CAMEL_TASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/camelTask.png", customClassLoader));
-      MULE_TASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/muleTask.png", customClassLoader));
+  }
+  
+  /**
+   * Loads the icons once per class loader, instead of decoding them for every diagram.
+   */
+  protected void loadIcons() {
+    synchronized (DefaultProcessDiagramCanvas.class) {
+      if (iconsLoaded && iconsClassLoader == customClassLoader) {
+        return;
+      }
       
-      TIMER_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/timer.png", customClassLoader));
-      COMPENSATE_THROW_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/compensate-throw.png", customClassLoader));
-      COMPENSATE_CATCH_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/compensate.png", customClassLoader));
-      ERROR_THROW_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/error-throw.png", customClassLoader));
-      ERROR_CATCH_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/error.png", customClassLoader));
-      MESSAGE_THROW_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/message-throw.png", customClassLoader));
-      MESSAGE_CATCH_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/message.png", customClassLoader));
-      SIGNAL_THROW_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/signal-throw.png", customClassLoader));
-      SIGNAL_CATCH_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/signal.png", customClassLoader));
-    } catch (IOException e) {
-      LOGGER.warn("Could not load image for process diagram creation: {}", e.getMessage());
+      try {
+        USERTASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/userTask.png", customClassLoader));
+        SCRIPTTASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/scriptTask.png", customClassLoader));
+        SERVICETASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/serviceTask.png", customClassLoader));
+        RECEIVETASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/receiveTask.png", customClassLoader));
+        SENDTASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/sendTask.png", customClassLoader));
+        MANUALTASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/manualTask.png", customClassLoader));
+        BUSINESS_RULE_TASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/businessRuleTask.png", customClassLoader));
+        SHELL_TASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/shellTask.png", customClassLoader));
+        CAMEL_TASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/camelTask.png", customClassLoader));
+        MULE_TASK_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/muleTask.png", customClassLoader));
+      
+        TIMER_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/timer.png", customClassLoader));
+        COMPENSATE_THROW_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/compensate-throw.png", customClassLoader));
+        COMPENSATE_CATCH_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/compensate.png", customClassLoader));
+        ERROR_THROW_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/error-throw.png", customClassLoader));
+        ERROR_CATCH_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/error.png", customClassLoader));
+        MESSAGE_THROW_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/message-throw.png", customClassLoader));
+        MESSAGE_CATCH_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/message.png", customClassLoader));
+        SIGNAL_THROW_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/signal-throw.png", customClassLoader));
+        SIGNAL_CATCH_IMAGE = ImageIO.read(ReflectUtil.getResource("org/activiti/icons/signal.png", customClassLoader));
+        
+        iconsClassLoader = customClassLoader;
+        iconsLoaded = true;
+      } catch (IOException e) {
+        LOGGER.warn("Could not load image for process diagram creation: {}", e.getMessage());
+      }
     }
   }
 
@@ -252,6 +305,14 @@ public class DefaultProcessDiagramCanvas {
     if (closed) {
       throw new ActivitiImageException("ProcessDiagramGenerator already closed");
     }
+    
+    if (g instanceof SvgGraphics2D) {
+      try {
+        return new ByteArrayInputStream(((SvgGraphics2D) g).getSvgDocument().getBytes("UTF-8"));
+      } catch (UnsupportedEncodingException e) {
+        throw new ActivitiImageException("Error while generating process image", e);
+      }
+    }
 
     ByteArrayOutputStream out = new ByteArrayOutputStream();
     try {
@@ -281,6 +342,9 @@ public class DefaultProcessDiagramCanvas {
     if (closed) {
       throw new ActivitiImageException("ProcessDiagramGenerator already closed");
     }
+    if (g instanceof SvgGraphics2D) {
+      throw new ActivitiImageException("An svg diagram can't be generated as buffered image");
+    }
 
     // Try to remove white space
     minX = (minX <= 5) ? 5 : minX;
@@ -14,6 +14,9 @@
 package org.activiti.image.impl;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -21,6 +24,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.activiti.bpmn.model.Activity;
 import org.activiti.bpmn.model.Artifact;
@@ -67,6 +72,7 @@ import org.activiti.bpmn.model.ThrowEvent;
 import org.activiti.bpmn.model.TimerEventDefinition;
 import org.activiti.bpmn.model.UserTask;
 import org.activiti.image.ProcessDiagramGenerator;
+import org.activiti.image.exception.ActivitiImageException;
 
 /**
  * Class to generate an image based the diagram interchange information in a
@@ -80,6 +86,11 @@ public class DefaultProcessDiagramGenerator implements ProcessDiagramGenerator {
   protected Map<Class<? extends BaseElement>, ActivityDrawInstruction> activityDrawInstructions = new HashMap<Class<? extends BaseElement>, ActivityDrawInstruction>();
   protected Map<Class<? extends BaseElement>, ArtifactDrawInstruction> artifactDrawInstructions = new HashMap<Class<? extends BaseElement>, ArtifactDrawInstruction>();
   
+  // The diagrams without highlights, rendered once per bpmn model and rendering options.
+  // Highlights of a process instance are drawn on a copy of such a diagram.
+  protected boolean diagramCacheEnabled = true;
+  protected Map<BpmnModel, Map<DiagramKey, CachedDiagram>> diagramCache = Collections.synchronizedMap(new WeakHashMap<BpmnModel, Map<DiagramKey, CachedDiagram>>());
+  
   public DefaultProcessDiagramGenerator() {
     this(1.0);
   }
@@ -401,8 +412,19 @@ public class DefaultProcessDiagramGenerator implements ProcessDiagramGenerator {
   public InputStream generateDiagram(BpmnModel bpmnModel, String imageType, List<String> highLightedActivities, List<String> highLightedFlows,
       String activityFontName, String labelFontName, ClassLoader customClassLoader, double scaleFactor) {
     
-    return generateProcessDiagram(bpmnModel, imageType, highLightedActivities, highLightedFlows, 
-        activityFontName, labelFontName, customClassLoader, scaleFactor).generateImage(imageType);
+    if (!diagramCacheEnabled) {
+      return generateHighLightedDiagram(bpmnModel, imageType, highLightedActivities, highLightedFlows, 
+          activityFontName, labelFontName, customClassLoader, scaleFactor).generateImage(imageType);
+    }
+    
+    CachedDiagram cachedDiagram = getCachedDiagram(bpmnModel, imageType, activityFontName, labelFontName, customClassLoader, scaleFactor);
+    if (isEmpty(highLightedActivities) && isEmpty(highLightedFlows)) {
+      return new ByteArrayInputStream(cachedDiagram.getImage(imageType));
+    }
+    
+    DefaultProcessDiagramCanvas processDiagramCanvas = new DefaultProcessDiagramCanvas(cachedDiagram.getProcessDiagramCanvas());
+    drawHighLights(processDiagramCanvas, bpmnModel, highLightedActivities, highLightedFlows, scaleFactor);
+    return processDiagramCanvas.generateImage(imageType);
   }
   
   public InputStream generateDiagram(BpmnModel bpmnModel, String imageType, List<String> highLightedActivities, List<String> highLightedFlows) {
@@ -453,8 +475,16 @@ public class DefaultProcessDiagramGenerator implements ProcessDiagramGenerator {
   public BufferedImage generateImage(BpmnModel bpmnModel, String imageType, List<String> highLightedActivities, List<String> highLightedFlows,
       String activityFontName, String labelFontName, ClassLoader customClassLoader, double scaleFactor) {
     
-    return generateProcessDiagram(bpmnModel, imageType, highLightedActivities, highLightedFlows, 
-        activityFontName, labelFontName, customClassLoader, scaleFactor).generateBufferedImage(imageType);
+    if (!diagramCacheEnabled) {
+      return generateHighLightedDiagram(bpmnModel, imageType, highLightedActivities, highLightedFlows, 
+          activityFontName, labelFontName, customClassLoader, scaleFactor).generateBufferedImage(imageType);
+    }
+    
+    // the image is handed out to the caller, so it's always drawn on a copy of the cached diagram
+    CachedDiagram cachedDiagram = getCachedDiagram(bpmnModel, imageType, activityFontName, labelFontName, customClassLoader, scaleFactor);
+    DefaultProcessDiagramCanvas processDiagramCanvas = new DefaultProcessDiagramCanvas(cachedDiagram.getProcessDiagramCanvas());
+    drawHighLights(processDiagramCanvas, bpmnModel, highLightedActivities, highLightedFlows, scaleFactor);
+    return processDiagramCanvas.generateBufferedImage(imageType);
   }
   
   public BufferedImage generateImage(BpmnModel bpmnModel, String imageType, 
@@ -504,6 +534,90 @@ public class DefaultProcessDiagramGenerator implements ProcessDiagramGenerator {
     return processDiagramCanvas;
   }
   
+  /**
+   * Renders the diagram without using the cache. The highlights are drawn on top of the 
+   * finished diagram, exactly like they are drawn on a copy of a cached diagram, so the 
+   * output doesn't depend on whether the cache is enabled.
+   */
+  protected DefaultProcessDiagramCanvas generateHighLightedDiagram(BpmnModel bpmnModel, String imageType, 
+      List<String> highLightedActivities, List<String> highLightedFlows,
+      String activityFontName, String labelFontName, ClassLoader customClassLoader, double scaleFactor) {
+    
+    DefaultProcessDiagramCanvas processDiagramCanvas = generateProcessDiagram(bpmnModel, imageType, 
+        Collections.<String>emptyList(), Collections.<String>emptyList(), activityFontName, labelFontName, customClassLoader, scaleFactor);
+    drawHighLights(processDiagramCanvas, bpmnModel, highLightedActivities, highLightedFlows, scaleFactor);
+    return processDiagramCanvas;
+  }
+  
+  /**
+   * Returns the diagram of the given model without highlights, rendering it
+   * when it isn't cached yet for the given rendering options.
+   */
+  protected CachedDiagram getCachedDiagram(BpmnModel bpmnModel, String imageType, 
+      String activityFontName, String labelFontName, ClassLoader customClassLoader, double scaleFactor) {
+    
+    Map<DiagramKey, CachedDiagram> modelDiagrams;
+    synchronized (diagramCache) {
+      modelDiagrams = diagramCache.get(bpmnModel);
+      if (modelDiagrams == null) {
+        modelDiagrams = new ConcurrentHashMap<DiagramKey, CachedDiagram>();
+        diagramCache.put(bpmnModel, modelDiagrams);
+      }
+    }
+    
+    DiagramKey diagramKey = new DiagramKey(imageType, activityFontName, labelFontName, customClassLoader, scaleFactor);
+    CachedDiagram cachedDiagram = modelDiagrams.get(diagramKey);
+    if (cachedDiagram == null) {
+      // concurrent callers may both render the diagram, the last one wins
+      DefaultProcessDiagramCanvas processDiagramCanvas = generateProcessDiagram(bpmnModel, imageType, 
+          Collections.<String>emptyList(), Collections.<String>emptyList(), activityFontName, labelFontName, customClassLoader, scaleFactor);
+      cachedDiagram = new CachedDiagram(processDiagramCanvas);
+      modelDiagrams.put(diagramKey, cachedDiagram);
+    }
+    return cachedDiagram;
+  }
+  
+  /**
+   * Draws the highlighted activities and sequence flows on top of an already rendered diagram.
+   */
+  protected void drawHighLights(DefaultProcessDiagramCanvas processDiagramCanvas, BpmnModel bpmnModel, 
+      List<String> highLightedActivities, List<String> highLightedFlows, double scaleFactor) {
+    
+    if (isEmpty(highLightedActivities) && isEmpty(highLightedFlows)) {
+      return;
+    }
+    
+    for (FlowNode flowNode : bpmnModel.getProcesses().get(0).findFlowElementsOfType(FlowNode.class)) {
+      if (!isEmpty(highLightedFlows)) {
+        for (SequenceFlow sequenceFlow : flowNode.getOutgoingFlows()) {
+          if (highLightedFlows.contains(sequenceFlow.getId())) {
+            drawSequenceFlow(processDiagramCanvas, bpmnModel, flowNode, sequenceFlow, true, scaleFactor);
+          }
+        }
+      }
+      if (!isEmpty(highLightedActivities) && highLightedActivities.contains(flowNode.getId()) 
+          && activityDrawInstructions.containsKey(flowNode.getClass())) {
+        drawHighLight(processDiagramCanvas, bpmnModel.getGraphicInfo(flowNode.getId()));
+      }
+    }
+  }
+  
+  protected static boolean isEmpty(List<String> ids) {
+    return ids == null || ids.isEmpty();
+  }
+  
+  public void clearDiagramCache() {
+    diagramCache.clear();
+  }
+  
+  public boolean isDiagramCacheEnabled() {
+    return diagramCacheEnabled;
+  }
+  
+  public void setDiagramCacheEnabled(boolean diagramCacheEnabled) {
+    this.diagramCacheEnabled = diagramCacheEnabled;
+  }
+  
   protected void prepareBpmnModel(BpmnModel bpmnModel) {
   
   	// Need to make sure all elements have positive x and y. 
@@ -610,50 +724,7 @@ public class DefaultProcessDiagramGenerator implements ProcessDiagramGenerator {
     // Outgoing transitions of activity
     for (SequenceFlow sequenceFlow : flowNode.getOutgoingFlows()) {
       boolean highLighted = (highLightedFlows.contains(sequenceFlow.getId()));
-      String defaultFlow = null;
-      if (flowNode instanceof Activity) {
-        defaultFlow = ((Activity) flowNode).getDefaultFlow();
-      } else if (flowNode instanceof Gateway) {
-        defaultFlow = ((Gateway) flowNode).getDefaultFlow();
-      }
-      
-      boolean isDefault = false;
-      if (defaultFlow != null && defaultFlow.equalsIgnoreCase(sequenceFlow.getId())) {
-        isDefault = true;
-      }
-      boolean drawConditionalIndicator = sequenceFlow.getConditionExpression() != null && !(flowNode instanceof Gateway);
-      
-      String sourceRef = sequenceFlow.getSourceRef();
-      String targetRef = sequenceFlow.getTargetRef();
-      FlowElement sourceElement = bpmnModel.getFlowElement(sourceRef);
-      FlowElement targetElement = bpmnModel.getFlowElement(targetRef);
-      List<GraphicInfo> graphicInfoList = bpmnModel.getFlowLocationGraphicInfo(sequenceFlow.getId());
-      if (graphicInfoList != null && graphicInfoList.size() > 0) {
-        graphicInfoList = connectionPerfectionizer(processDiagramCanvas, bpmnModel, sourceElement, targetElement, graphicInfoList);
-        int xPoints[]= new int[graphicInfoList.size()];
-        int yPoints[]= new int[graphicInfoList.size()];
-        
-        for (int i=1; i<graphicInfoList.size(); i++) {
-          GraphicInfo graphicInfo = graphicInfoList.get(i);
-          GraphicInfo previousGraphicInfo = graphicInfoList.get(i-1);
-          
-          if (i == 1) {
-            xPoints[0] = (int) previousGraphicInfo.getX();
-            yPoints[0] = (int) previousGraphicInfo.getY();
-          }
-          xPoints[i] = (int) graphicInfo.getX();
-          yPoints[i] = (int) graphicInfo.getY();
-          
-        }
-  
-        processDiagramCanvas.drawSequenceflow(xPoints, yPoints, drawConditionalIndicator, isDefault, highLighted, scaleFactor);
-  
-        // Draw sequenceflow label
-        GraphicInfo labelGraphicInfo = bpmnModel.getLabelGraphicInfo(sequenceFlow.getId());
-        if (labelGraphicInfo != null) {
-          processDiagramCanvas.drawLabel(sequenceFlow.getName(), labelGraphicInfo, false);
-        }
-      }
+      drawSequenceFlow(processDiagramCanvas, bpmnModel, flowNode, sequenceFlow, highLighted, scaleFactor);
     }
 
     // Nested elements
@@ -667,6 +738,55 @@ public class DefaultProcessDiagramGenerator implements ProcessDiagramGenerator {
     }
   }
   
+  protected void drawSequenceFlow(DefaultProcessDiagramCanvas processDiagramCanvas, BpmnModel bpmnModel, 
+      FlowNode flowNode, SequenceFlow sequenceFlow, boolean highLighted, double scaleFactor) {
+    
+    String defaultFlow = null;
+    if (flowNode instanceof Activity) {
+      defaultFlow = ((Activity) flowNode).getDefaultFlow();
+    } else if (flowNode instanceof Gateway) {
+      defaultFlow = ((Gateway) flowNode).getDefaultFlow();
+    }
+    
+    boolean isDefault = false;
+    if (defaultFlow != null && defaultFlow.equalsIgnoreCase(sequenceFlow.getId())) {
+      isDefault = true;
+    }
+    boolean drawConditionalIndicator = sequenceFlow.getConditionExpression() != null && !(flowNode instanceof Gateway);
+    
+    String sourceRef = sequenceFlow.getSourceRef();
+    String targetRef = sequenceFlow.getTargetRef();
+    FlowElement sourceElement = bpmnModel.getFlowElement(sourceRef);
+    FlowElement targetElement = bpmnModel.getFlowElement(targetRef);
+    List<GraphicInfo> graphicInfoList = bpmnModel.getFlowLocationGraphicInfo(sequenceFlow.getId());
+    if (graphicInfoList != null && graphicInfoList.size() > 0) {
+      graphicInfoList = connectionPerfectionizer(processDiagramCanvas, bpmnModel, sourceElement, targetElement, graphicInfoList);
+      int xPoints[]= new int[graphicInfoList.size()];
+      int yPoints[]= new int[graphicInfoList.size()];
+      
+      for (int i=1; i<graphicInfoList.size(); i++) {
+        GraphicInfo graphicInfo = graphicInfoList.get(i);
+        GraphicInfo previousGraphicInfo = graphicInfoList.get(i-1);
+        
+        if (i == 1) {
+          xPoints[0] = (int) previousGraphicInfo.getX();
+          yPoints[0] = (int) previousGraphicInfo.getY();
+        }
+        xPoints[i] = (int) graphicInfo.getX();
+        yPoints[i] = (int) graphicInfo.getY();
+        
+      }
+
+      processDiagramCanvas.drawSequenceflow(xPoints, yPoints, drawConditionalIndicator, isDefault, highLighted, scaleFactor);
+
+      // Draw sequenceflow label
+      GraphicInfo labelGraphicInfo = bpmnModel.getLabelGraphicInfo(sequenceFlow.getId());
+      if (labelGraphicInfo != null) {
+        processDiagramCanvas.drawLabel(sequenceFlow.getName(), labelGraphicInfo, false);
+      }
+    }
+  }
+  
   /**
    * This method makes coordinates of connection flow better.
    * @param processDiagramCanvas
@@ -968,4 +1088,89 @@ public class DefaultProcessDiagramGenerator implements ProcessDiagramGenerator {
   protected interface ArtifactDrawInstruction {
     void draw(DefaultProcessDiagramCanvas processDiagramCanvas, BpmnModel bpmnModel, Artifact artifact);
   }
+  
+  /**
+   * The options a diagram is rendered with. The class loader is compared by identity,
+   * as it determines the icons on the diagram.
+   */
+  protected static class DiagramKey {
+    
+    protected final String imageType;
+    protected final String activityFontName;
+    protected final String labelFontName;
+    protected final ClassLoader customClassLoader;
+    protected final double scaleFactor;
+    
+    public DiagramKey(String imageType, String activityFontName, String labelFontName, ClassLoader customClassLoader, double scaleFactor) {
+      this.imageType = imageType != null ? imageType.toLowerCase() : null;
+      this.activityFontName = activityFontName;
+      this.labelFontName = labelFontName;
+      this.customClassLoader = customClassLoader;
+      this.scaleFactor = scaleFactor;
+    }
+    
+    @Override
+    public boolean equals(Object object) {
+      if (!(object instanceof DiagramKey)) {
+        return false;
+      }
+      DiagramKey other = (DiagramKey) object;
+      return equals(imageType, other.imageType) && equals(activityFontName, other.activityFontName)
+          && equals(labelFontName, other.labelFontName) && customClassLoader == other.customClassLoader
+          && Double.compare(scaleFactor, other.scaleFactor) == 0;
+    }
+    
+    protected static boolean equals(String value, String otherValue) {
+      return value == null ? otherValue == null : value.equals(otherValue);
+    }
+    
+    @Override
+    public int hashCode() {
+      int hashCode = imageType != null ? imageType.hashCode() : 0;
+      hashCode = 31 * hashCode + (activityFontName != null ? activityFontName.hashCode() : 0);
+      hashCode = 31 * hashCode + (labelFontName != null ? labelFontName.hashCode() : 0);
+      hashCode = 31 * hashCode + System.identityHashCode(customClassLoader);
+      long scaleBits = Double.doubleToLongBits(scaleFactor);
+      return 31 * hashCode + (int) (scaleBits ^ (scaleBits >>> 32));
+    }
+  }
+  
+  /**
+   * A rendered diagram without highlights. The canvas is only used as the base of
+   * copies, the encoded image is created once when it is first requested.
+   */
+  protected static class CachedDiagram {
+    
+    protected final DefaultProcessDiagramCanvas processDiagramCanvas;
+    protected volatile byte[] image;
+    
+    public CachedDiagram(DefaultProcessDiagramCanvas processDiagramCanvas) {
+      this.processDiagramCanvas = processDiagramCanvas;
+    }
+    
+    public DefaultProcessDiagramCanvas getProcessDiagramCanvas() {
+      return processDiagramCanvas;
+    }
+    
+    public byte[] getImage(String imageType) {
+      byte[] result = image;
+      if (result == null) {
+        // concurrent callers may both encode the image, which only reads the canvas
+        InputStream imageStream = processDiagramCanvas.generateImage(imageType);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+          byte[] buffer = new byte[4096];
+          int read;
+          while ((read = imageStream.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+          }
+        } catch (IOException e) {
+          throw new ActivitiImageException("Error while reading the generated image", e);
+        }
+        result = out.toByteArray();
+        image = result;
+      }
+      return result;
+    }
+  }
 }
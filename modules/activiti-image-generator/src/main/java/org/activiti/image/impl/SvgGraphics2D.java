@@ -0,0 +1,736 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.image.impl;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Paint;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.text.AttributedCharacterIterator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.imageio.ImageIO;
+import javax.xml.bind.DatatypeConverter;
+
+import org.activiti.image.exception.ActivitiImageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link Graphics2D} that writes what is drawn as SVG elements instead of rasterizing it,
+ * for the subset of Java2D used by the {@link DefaultProcessDiagramCanvas}: shapes, text, images,
+ * colors, basic strokes and transformations. Clipping, composites, XOR mode and copyArea are ignored.
+ *
+ * Text is measured with the fonts of the JVM, so it's laid out like on a raster diagram.
+ * Text drawn through a {@link java.awt.font.TextLayout} is written as text when its glyphs can be mapped
+ * back to characters, and as the outline of the glyphs otherwise.
+ */
+public class SvgGraphics2D extends Graphics2D {
+
+  protected static final Logger LOGGER = LoggerFactory.getLogger(SvgGraphics2D.class);
+
+  // the icons are static images, so they are encoded once
+  protected static final Map<Image, String> IMAGE_DATA = Collections.synchronizedMap(new WeakHashMap<Image, String>());
+  protected static final Map<Font, Map<Integer, Character>> GLYPH_CHARACTERS = Collections.synchronizedMap(new WeakHashMap<Font, Map<Integer, Character>>());
+
+  protected int width;
+  protected int height;
+  protected StringBuilder elements;
+
+  // used to measure text, with the same rendering hints
+  protected Graphics2D measuringGraphics;
+
+  protected AffineTransform transform = new AffineTransform();
+  protected Paint paint = Color.BLACK;
+  protected Color background = Color.WHITE;
+  protected Stroke stroke = new BasicStroke();
+  protected Font font;
+  protected Shape clip;
+
+  public SvgGraphics2D(int width, int height) {
+    this.width = width;
+    this.height = height;
+    this.elements = new StringBuilder(8192);
+    this.measuringGraphics = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    this.font = measuringGraphics.getFont();
+  }
+
+  /**
+   * Creates a graphics that draws on top of the elements drawn on the given graphics, without changing it.
+   */
+  public SvgGraphics2D(SvgGraphics2D baseGraphics) {
+    this(baseGraphics.width, baseGraphics.height);
+    elements.append(baseGraphics.elements);
+    measuringGraphics.setRenderingHints(baseGraphics.measuringGraphics.getRenderingHints());
+    setFont(baseGraphics.font);
+  }
+
+  public String getSvgDocument() {
+    StringBuilder document = new StringBuilder(elements.length() + 256);
+    document.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+    document.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" version=\"1.1\"");
+    document.append(" width=\"").append(width).append("\" height=\"").append(height).append("\"");
+    document.append(" viewBox=\"0 0 ").append(width).append(' ').append(height).append("\">\n");
+    document.append(elements);
+    document.append("</svg>\n");
+    return document.toString();
+  }
+
+  // shapes ///////////////////////////////////////////////////////////////////
+
+  public void draw(Shape shape) {
+    elements.append("<path d=\"");
+    appendPathData(transform.createTransformedShape(shape));
+    elements.append("\" fill=\"none\"");
+    appendPaint("stroke");
+    appendStroke();
+    elements.append("/>\n");
+  }
+
+  public void fill(Shape shape) {
+    elements.append("<path d=\"");
+    appendPathData(transform.createTransformedShape(shape));
+    elements.append('"');
+    appendPaint("fill");
+    elements.append("/>\n");
+  }
+
+  public void drawLine(int x1, int y1, int x2, int y2) {
+    draw(new Line2D.Double(x1, y1, x2, y2));
+  }
+
+  public void drawRect(int x, int y, int width, int height) {
+    draw(new Rectangle(x, y, width, height));
+  }
+
+  public void fillRect(int x, int y, int width, int height) {
+    fill(new Rectangle(x, y, width, height));
+  }
+
+  public void clearRect(int x, int y, int width, int height) {
+    Paint originalPaint = paint;
+    paint = background;
+    fill(new Rectangle(x, y, width, height));
+    paint = originalPaint;
+  }
+
+  public void drawRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+    draw(new RoundRectangle2D.Double(x, y, width, height, arcWidth, arcHeight));
+  }
+
+  public void fillRoundRect(int x, int y, int width, int height, int arcWidth, int arcHeight) {
+    fill(new RoundRectangle2D.Double(x, y, width, height, arcWidth, arcHeight));
+  }
+
+  public void drawOval(int x, int y, int width, int height) {
+    draw(new Ellipse2D.Double(x, y, width, height));
+  }
+
+  public void fillOval(int x, int y, int width, int height) {
+    fill(new Ellipse2D.Double(x, y, width, height));
+  }
+
+  public void drawArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+    draw(new Arc2D.Double(x, y, width, height, startAngle, arcAngle, Arc2D.OPEN));
+  }
+
+  public void fillArc(int x, int y, int width, int height, int startAngle, int arcAngle) {
+    fill(new Arc2D.Double(x, y, width, height, startAngle, arcAngle, Arc2D.PIE));
+  }
+
+  public void drawPolyline(int[] xPoints, int[] yPoints, int nPoints) {
+    if (nPoints > 0) {
+      Path2D path = new Path2D.Double();
+      path.moveTo(xPoints[0], yPoints[0]);
+      for (int i = 1; i < nPoints; i++) {
+        path.lineTo(xPoints[i], yPoints[i]);
+      }
+      draw(path);
+    }
+  }
+
+  public void drawPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+    draw(new Polygon(xPoints, yPoints, nPoints));
+  }
+
+  public void fillPolygon(int[] xPoints, int[] yPoints, int nPoints) {
+    fill(new Polygon(xPoints, yPoints, nPoints));
+  }
+
+  // text /////////////////////////////////////////////////////////////////////
+
+  public void drawString(String text, int x, int y) {
+    drawString(text, (float) x, (float) y);
+  }
+
+  public void drawString(String text, float x, float y) {
+    appendText(text, font, x, y);
+  }
+
+  public void drawString(AttributedCharacterIterator iterator, int x, int y) {
+    drawString(iterator, (float) x, (float) y);
+  }
+
+  public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+    StringBuilder text = new StringBuilder();
+    for (char c = iterator.first(); c != AttributedCharacterIterator.DONE; c = iterator.next()) {
+      text.append(c);
+    }
+    drawString(text.toString(), x, y);
+  }
+
+  public void drawGlyphVector(GlyphVector glyphVector, float x, float y) {
+    String text = getText(glyphVector);
+    if (text != null) {
+      appendText(text, glyphVector.getFont(), x, y);
+    } else {
+      fill(glyphVector.getOutline(x, y));
+    }
+  }
+
+  /**
+   * @return the characters of the glyphs, or null if a glyph doesn't map to a single character
+   */
+  protected String getText(GlyphVector glyphVector) {
+    Map<Integer, Character> glyphCharacters = getGlyphCharacters(glyphVector.getFont());
+    char[] text = new char[glyphVector.getNumGlyphs()];
+    for (int i = 0; i < text.length; i++) {
+      Character character = glyphCharacters.get(glyphVector.getGlyphCode(i));
+      if (character == null) {
+        return null;
+      }
+      text[i] = character;
+    }
+    return new String(text);
+  }
+
+  /**
+   * Maps the glyphs of the Latin characters of a font back to their characters.
+   */
+  protected Map<Integer, Character> getGlyphCharacters(Font font) {
+    Map<Integer, Character> glyphCharacters = GLYPH_CHARACTERS.get(font);
+    if (glyphCharacters == null) {
+      glyphCharacters = new HashMap<Integer, Character>();
+      char[] characters = new char[0x250 - 0x20];
+      for (int i = 0; i < characters.length; i++) {
+        characters[i] = (char) (0x20 + i);
+      }
+      GlyphVector glyphVector = font.createGlyphVector(getFontRenderContext(), characters);
+      int missingGlyphCode = font.getMissingGlyphCode();
+      for (int i = 0; i < glyphVector.getNumGlyphs(); i++) {
+        int glyphCode = glyphVector.getGlyphCode(i);
+        if (glyphCode != missingGlyphCode && !glyphCharacters.containsKey(glyphCode)) {
+          glyphCharacters.put(glyphCode, characters[i]);
+        }
+      }
+      GLYPH_CHARACTERS.put(font, glyphCharacters);
+    }
+    return glyphCharacters;
+  }
+
+  protected void appendText(String text, Font font, float x, float y) {
+    elements.append("<text x=\"");
+    appendNumber(x);
+    elements.append("\" y=\"");
+    appendNumber(y);
+    elements.append("\" font-family=\"");
+    appendEscaped(font.getFamily());
+    elements.append("\" font-size=\"");
+    appendNumber(font.getSize2D());
+    elements.append('"');
+    if (font.isBold()) {
+      elements.append(" font-weight=\"bold\"");
+    }
+    if (font.isItalic()) {
+      elements.append(" font-style=\"italic\"");
+    }
+    appendPaint("fill");
+    appendTransform();
+    elements.append(" xml:space=\"preserve\">");
+    appendEscaped(text);
+    elements.append("</text>\n");
+  }
+
+  // images ///////////////////////////////////////////////////////////////////
+
+  public boolean drawImage(Image image, int x, int y, int width, int height, ImageObserver observer) {
+    if (image == null) {
+      return true;
+    }
+    elements.append("<image x=\"").append(x).append("\" y=\"").append(y);
+    elements.append("\" width=\"").append(width).append("\" height=\"").append(height).append('"');
+    appendTransform();
+    elements.append(" xlink:href=\"").append(getImageData(image)).append("\"/>\n");
+    return true;
+  }
+
+  public boolean drawImage(Image image, int x, int y, ImageObserver observer) {
+    if (image == null) {
+      return true;
+    }
+    return drawImage(image, x, y, image.getWidth(observer), image.getHeight(observer), observer);
+  }
+
+  public boolean drawImage(Image image, int x, int y, Color bgcolor, ImageObserver observer) {
+    return drawImage(image, x, y, observer);
+  }
+
+  public boolean drawImage(Image image, int x, int y, int width, int height, Color bgcolor, ImageObserver observer) {
+    return drawImage(image, x, y, width, height, observer);
+  }
+
+  public boolean drawImage(Image image, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2, ImageObserver observer) {
+    return drawImage(image, dx1, dy1, dx2 - dx1, dy2 - dy1, observer);
+  }
+
+  public boolean drawImage(Image image, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2, Color bgcolor, ImageObserver observer) {
+    return drawImage(image, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, observer);
+  }
+
+  public boolean drawImage(Image image, AffineTransform imageTransform, ImageObserver observer) {
+    AffineTransform originalTransform = transform;
+    transform = new AffineTransform(transform);
+    if (imageTransform != null) {
+      transform.concatenate(imageTransform);
+    }
+    drawImage(image, 0, 0, observer);
+    transform = originalTransform;
+    return true;
+  }
+
+  public void drawImage(BufferedImage image, BufferedImageOp op, int x, int y) {
+    drawImage(op != null ? op.filter(image, null) : image, x, y, null);
+  }
+
+  public void drawRenderedImage(RenderedImage image, AffineTransform imageTransform) {
+    if (image instanceof Image) {
+      drawImage((Image) image, imageTransform, null);
+    }
+  }
+
+  public void drawRenderableImage(RenderableImage image, AffineTransform imageTransform) {
+    drawRenderedImage(image.createDefaultRendering(), imageTransform);
+  }
+
+  protected String getImageData(Image image) {
+    String imageData = IMAGE_DATA.get(image);
+    if (imageData == null) {
+      BufferedImage bufferedImage;
+      if (image instanceof BufferedImage) {
+        bufferedImage = (BufferedImage) image;
+      } else {
+        bufferedImage = new BufferedImage(image.getWidth(null), image.getHeight(null), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D imageGraphics = bufferedImage.createGraphics();
+        imageGraphics.drawImage(image, 0, 0, null);
+        imageGraphics.dispose();
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try {
+        ImageIO.write(bufferedImage, "png", out);
+      } catch (IOException e) {
+        throw new ActivitiImageException("Error while encoding image for svg", e);
+      }
+      imageData = "data:image/png;base64," + DatatypeConverter.printBase64Binary(out.toByteArray());
+      IMAGE_DATA.put(image, imageData);
+    }
+    return imageData;
+  }
+
+  // svg attributes ///////////////////////////////////////////////////////////
+
+  protected void appendPathData(Shape shape) {
+    PathIterator iterator = shape.getPathIterator(null);
+    double[] coordinates = new double[6];
+    boolean first = true;
+    while (!iterator.isDone()) {
+      if (!first) {
+        elements.append(' ');
+      }
+      first = false;
+      switch (iterator.currentSegment(coordinates)) {
+      case PathIterator.SEG_MOVETO:
+        elements.append('M');
+        appendCoordinates(coordinates, 2);
+        break;
+      case PathIterator.SEG_LINETO:
+        elements.append('L');
+        appendCoordinates(coordinates, 2);
+        break;
+      case PathIterator.SEG_QUADTO:
+        elements.append('Q');
+        appendCoordinates(coordinates, 4);
+        break;
+      case PathIterator.SEG_CUBICTO:
+        elements.append('C');
+        appendCoordinates(coordinates, 6);
+        break;
+      case PathIterator.SEG_CLOSE:
+        elements.append('Z');
+        break;
+      }
+      iterator.next();
+    }
+  }
+
+  protected void appendCoordinates(double[] coordinates, int count) {
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        elements.append(i % 2 == 1 ? ',' : ' ');
+      }
+      appendNumber(coordinates[i]);
+    }
+  }
+
+  /**
+   * Appends the number rounded to two decimals, without trailing zeros.
+   */
+  protected void appendNumber(double number) {
+    long hundredths = Math.round(number * 100.0);
+    if (hundredths < 0) {
+      elements.append('-');
+      hundredths = -hundredths;
+    }
+    elements.append(hundredths / 100);
+    long fraction = hundredths % 100;
+    if (fraction != 0) {
+      elements.append('.');
+      if (fraction < 10) {
+        elements.append('0').append(fraction);
+      } else if (fraction % 10 == 0) {
+        elements.append(fraction / 10);
+      } else {
+        elements.append(fraction);
+      }
+    }
+  }
+
+  protected void appendPaint(String attribute) {
+    Color color = paint instanceof Color ? (Color) paint : Color.BLACK;
+    elements.append(' ').append(attribute).append("=\"#");
+    appendHex(color.getRed());
+    appendHex(color.getGreen());
+    appendHex(color.getBlue());
+    elements.append('"');
+    if (color.getAlpha() < 255) {
+      elements.append(' ').append(attribute).append("-opacity=\"");
+      appendNumber(color.getAlpha() / 255.0);
+      elements.append('"');
+    }
+  }
+
+  protected void appendHex(int value) {
+    elements.append(Character.forDigit(value >> 4, 16)).append(Character.forDigit(value & 0xF, 16));
+  }
+
+  protected void appendStroke() {
+    if (!(stroke instanceof BasicStroke)) {
+      return;
+    }
+    BasicStroke basicStroke = (BasicStroke) stroke;
+    if (basicStroke.getLineWidth() != 1.0f) {
+      elements.append(" stroke-width=\"");
+      appendNumber(basicStroke.getLineWidth());
+      elements.append('"');
+    }
+    float[] dashArray = basicStroke.getDashArray();
+    if (dashArray != null && dashArray.length > 0) {
+      elements.append(" stroke-dasharray=\"");
+      for (int i = 0; i < dashArray.length; i++) {
+        if (i > 0) {
+          elements.append(',');
+        }
+        appendNumber(dashArray[i]);
+      }
+      elements.append('"');
+    }
+    switch (basicStroke.getEndCap()) {
+    case BasicStroke.CAP_ROUND:
+      elements.append(" stroke-linecap=\"round\"");
+      break;
+    case BasicStroke.CAP_SQUARE:
+      elements.append(" stroke-linecap=\"square\"");
+      break;
+    default:
+      break;
+    }
+    switch (basicStroke.getLineJoin()) {
+    case BasicStroke.JOIN_ROUND:
+      elements.append(" stroke-linejoin=\"round\"");
+      break;
+    case BasicStroke.JOIN_BEVEL:
+      elements.append(" stroke-linejoin=\"bevel\"");
+      break;
+    default:
+      break;
+    }
+  }
+
+  protected void appendTransform() {
+    if (!transform.isIdentity()) {
+      double[] matrix = new double[6];
+      transform.getMatrix(matrix);
+      elements.append(" transform=\"matrix(");
+      for (int i = 0; i < matrix.length; i++) {
+        if (i > 0) {
+          elements.append(' ');
+        }
+        elements.append(matrix[i]);
+      }
+      elements.append(")\"");
+    }
+  }
+
+  protected void appendEscaped(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+      case '<':
+        elements.append("&lt;");
+        break;
+      case '>':
+        elements.append("&gt;");
+        break;
+      case '&':
+        elements.append("&amp;");
+        break;
+      case '"':
+        elements.append("&quot;");
+        break;
+      default:
+        if (c < 0x20 && c != '\t' && c != '\n' && c != '\r') {
+          elements.append(' ');
+        } else {
+          elements.append(c);
+        }
+      }
+    }
+  }
+
+  // state ////////////////////////////////////////////////////////////////////
+
+  public Graphics create() {
+    SvgGraphics2D graphics = new SvgGraphics2D(width, height);
+    graphics.elements = elements;
+    graphics.measuringGraphics.setRenderingHints(measuringGraphics.getRenderingHints());
+    graphics.transform = new AffineTransform(transform);
+    graphics.paint = paint;
+    graphics.background = background;
+    graphics.stroke = stroke;
+    graphics.font = font;
+    graphics.clip = clip;
+    return graphics;
+  }
+
+  public void dispose() {
+    measuringGraphics.dispose();
+  }
+
+  public Paint getPaint() {
+    return paint;
+  }
+
+  public void setPaint(Paint paint) {
+    if (paint != null) {
+      this.paint = paint;
+    }
+  }
+
+  public Color getColor() {
+    return paint instanceof Color ? (Color) paint : Color.BLACK;
+  }
+
+  public void setColor(Color color) {
+    setPaint(color);
+  }
+
+  public Color getBackground() {
+    return background;
+  }
+
+  public void setBackground(Color background) {
+    this.background = background;
+  }
+
+  public Stroke getStroke() {
+    return stroke;
+  }
+
+  public void setStroke(Stroke stroke) {
+    this.stroke = stroke;
+  }
+
+  public Font getFont() {
+    return font;
+  }
+
+  public void setFont(Font font) {
+    if (font != null) {
+      this.font = font;
+      measuringGraphics.setFont(font);
+    }
+  }
+
+  public FontMetrics getFontMetrics(Font font) {
+    return measuringGraphics.getFontMetrics(font);
+  }
+
+  public FontRenderContext getFontRenderContext() {
+    return measuringGraphics.getFontRenderContext();
+  }
+
+  public void setRenderingHint(RenderingHints.Key hintKey, Object hintValue) {
+    measuringGraphics.setRenderingHint(hintKey, hintValue);
+  }
+
+  public Object getRenderingHint(RenderingHints.Key hintKey) {
+    return measuringGraphics.getRenderingHint(hintKey);
+  }
+
+  public void setRenderingHints(Map<?, ?> hints) {
+    measuringGraphics.setRenderingHints(hints);
+  }
+
+  public void addRenderingHints(Map<?, ?> hints) {
+    measuringGraphics.addRenderingHints(hints);
+  }
+
+  public RenderingHints getRenderingHints() {
+    return measuringGraphics.getRenderingHints();
+  }
+
+  public AffineTransform getTransform() {
+    return new AffineTransform(transform);
+  }
+
+  public void setTransform(AffineTransform transform) {
+    this.transform = new AffineTransform(transform);
+  }
+
+  public void transform(AffineTransform transform) {
+    this.transform.concatenate(transform);
+  }
+
+  public void translate(int x, int y) {
+    transform.translate(x, y);
+  }
+
+  public void translate(double x, double y) {
+    transform.translate(x, y);
+  }
+
+  public void rotate(double theta) {
+    transform.rotate(theta);
+  }
+
+  public void rotate(double theta, double x, double y) {
+    transform.rotate(theta, x, y);
+  }
+
+  public void scale(double sx, double sy) {
+    transform.scale(sx, sy);
+  }
+
+  public void shear(double shx, double shy) {
+    transform.shear(shx, shy);
+  }
+
+  public Composite getComposite() {
+    return measuringGraphics.getComposite();
+  }
+
+  public void setComposite(Composite composite) {
+    measuringGraphics.setComposite(composite);
+  }
+
+  public void setPaintMode() {
+  }
+
+  public void setXORMode(Color color) {
+  }
+
+  public GraphicsConfiguration getDeviceConfiguration() {
+    return measuringGraphics.getDeviceConfiguration();
+  }
+
+  public boolean hit(Rectangle rect, Shape shape, boolean onStroke) {
+    Shape deviceShape = transform.createTransformedShape(onStroke ? stroke.createStrokedShape(shape) : shape);
+    return deviceShape.intersects(rect);
+  }
+
+  public Shape getClip() {
+    return clip;
+  }
+
+  public void setClip(Shape clip) {
+    this.clip = clip;
+  }
+
+  public void setClip(int x, int y, int width, int height) {
+    setClip(new Rectangle(x, y, width, height));
+  }
+
+  public Rectangle getClipBounds() {
+    return clip != null ? clip.getBounds() : null;
+  }
+
+  public void clip(Shape shape) {
+    if (clip == null) {
+      clip = shape;
+    } else {
+      Rectangle2D intersection = new Rectangle2D.Double();
+      Rectangle2D.intersect(clip.getBounds2D(), shape.getBounds2D(), intersection);
+      clip = intersection;
+    }
+  }
+
+  public void clipRect(int x, int y, int width, int height) {
+    clip(new Rectangle(x, y, width, height));
+  }
+
+  public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+    // not used by the diagram canvas, there are no pixels to copy
+    LOGGER.warn("copyArea is not supported for svg, the area is not copied");
+  }
+
+}
@@ -0,0 +1,185 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.image.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.activiti.bpmn.model.BpmnModel;
+import org.activiti.bpmn.model.EndEvent;
+import org.activiti.bpmn.model.FlowNode;
+import org.activiti.bpmn.model.GraphicInfo;
+import org.activiti.bpmn.model.Process;
+import org.activiti.bpmn.model.SequenceFlow;
+import org.activiti.bpmn.model.StartEvent;
+import org.activiti.bpmn.model.UserTask;
+import org.junit.Test;
+
+public class DefaultProcessDiagramGeneratorTest {
+
+  @Test
+  public void testCachedDiagramWithHighLightsMatchesUncachedDiagram() {
+    List<String> highLightedActivities = Arrays.asList("task");
+    List<String> highLightedFlows = Arrays.asList("flow1");
+
+    DefaultProcessDiagramGenerator cachingGenerator = new DefaultProcessDiagramGenerator();
+    BpmnModel cachedModel = createModel();
+    // warm up the cache with the plain diagram first, the highlights are drawn on a copy of it
+    cachingGenerator.generatePngImage(cachedModel, 1.0);
+    BufferedImage cachedImage = cachingGenerator.generateImage(cachedModel, "png", highLightedActivities, highLightedFlows, 1.0);
+
+    DefaultProcessDiagramGenerator uncachedGenerator = new DefaultProcessDiagramGenerator();
+    uncachedGenerator.setDiagramCacheEnabled(false);
+    BufferedImage uncachedImage = uncachedGenerator.generateImage(createModel(), "png", highLightedActivities, highLightedFlows, 1.0);
+
+    assertSameImage(uncachedImage, cachedImage);
+
+    // the cached diagram itself must not have picked up the highlights
+    BufferedImage plainImage = uncachedGenerator.generatePngImage(createModel(), 1.0);
+    assertSameImage(plainImage, cachingGenerator.generatePngImage(cachedModel, 1.0));
+  }
+
+  @Test
+  public void testDiagramCacheDisabled() throws IOException {
+    DefaultProcessDiagramGenerator generator = new DefaultProcessDiagramGenerator();
+    generator.setDiagramCacheEnabled(false);
+
+    BpmnModel bpmnModel = createModel();
+    InputStream diagram = generator.generateDiagram(bpmnModel, "png", Arrays.asList("task"), Collections.<String>emptyList());
+    BufferedImage image = ImageIO.read(diagram);
+    assertNotNull(image);
+    assertTrue(image.getWidth() > 0);
+    assertTrue(image.getHeight() > 0);
+
+    assertTrue(generator.diagramCache.isEmpty());
+  }
+
+  @Test
+  public void testCachedDiagramWithoutHighLights() throws IOException {
+    DefaultProcessDiagramGenerator generator = new DefaultProcessDiagramGenerator();
+    BpmnModel bpmnModel = createModel();
+
+    byte[] first = read(generator.generatePngDiagram(bpmnModel));
+    byte[] second = read(generator.generatePngDiagram(bpmnModel));
+    assertArrayEquals(first, second);
+    assertEquals(1, generator.diagramCache.size());
+    assertEquals(1, generator.diagramCache.get(bpmnModel).size());
+
+    generator.clearDiagramCache();
+    assertTrue(generator.diagramCache.isEmpty());
+  }
+
+  @Test
+  public void testCachedSvgDiagramWithHighLightsMatchesUncachedDiagram() throws IOException {
+    List<String> highLightedActivities = Arrays.asList("task");
+
+    DefaultProcessDiagramGenerator cachingGenerator = new DefaultProcessDiagramGenerator();
+    BpmnModel cachedModel = createModel();
+    String plainSvg = new String(read(cachingGenerator.generateDiagram(cachedModel, "svg", Collections.<String>emptyList())), "UTF-8");
+    String cachedSvg = new String(read(cachingGenerator.generateDiagram(cachedModel, "svg", highLightedActivities)), "UTF-8");
+
+    DefaultProcessDiagramGenerator uncachedGenerator = new DefaultProcessDiagramGenerator();
+    uncachedGenerator.setDiagramCacheEnabled(false);
+    String uncachedSvg = new String(read(uncachedGenerator.generateDiagram(createModel(), "svg", highLightedActivities)), "UTF-8");
+
+    assertEquals(uncachedSvg, cachedSvg);
+    assertTrue(cachedSvg.length() > plainSvg.length());
+    assertEquals(plainSvg, new String(read(cachingGenerator.generateDiagram(cachedModel, "svg", Collections.<String>emptyList())), "UTF-8"));
+  }
+
+  protected void assertSameImage(BufferedImage expected, BufferedImage actual) {
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    for (int x = 0; x < expected.getWidth(); x++) {
+      for (int y = 0; y < expected.getHeight(); y++) {
+        assertEquals("pixel " + x + "," + y, expected.getRGB(x, y), actual.getRGB(x, y));
+      }
+    }
+  }
+
+  protected byte[] read(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      outputStream.write(buffer, 0, read);
+    }
+    return outputStream.toByteArray();
+  }
+
+  protected BpmnModel createModel() {
+    BpmnModel bpmnModel = new BpmnModel();
+    Process process = new Process();
+    process.setId("process");
+    bpmnModel.addProcess(process);
+
+    StartEvent start = new StartEvent();
+    start.setId("start");
+    addFlowNode(bpmnModel, process, start, 20, 65, 30, 30);
+
+    UserTask task = new UserTask();
+    task.setId("task");
+    task.setName("Review");
+    addFlowNode(bpmnModel, process, task, 100, 50, 100, 60);
+
+    EndEvent end = new EndEvent();
+    end.setId("end");
+    addFlowNode(bpmnModel, process, end, 250, 66, 28, 28);
+
+    addSequenceFlow(bpmnModel, process, "flow1", start, task, 50, 80, 100, 80);
+    addSequenceFlow(bpmnModel, process, "flow2", task, end, 200, 80, 250, 80);
+    return bpmnModel;
+  }
+
+  protected void addFlowNode(BpmnModel bpmnModel, Process process, FlowNode flowNode, double x, double y, double width, double height) {
+    process.addFlowElement(flowNode);
+    bpmnModel.addGraphicInfo(flowNode.getId(), createGraphicInfo(x, y, width, height));
+  }
+
+  protected void addSequenceFlow(BpmnModel bpmnModel, Process process, String id, FlowNode source, FlowNode target,
+      double x1, double y1, double x2, double y2) {
+
+    SequenceFlow sequenceFlow = new SequenceFlow(source.getId(), target.getId());
+    sequenceFlow.setId(id);
+    process.addFlowElement(sequenceFlow);
+    source.getOutgoingFlows().add(sequenceFlow);
+    target.getIncomingFlows().add(sequenceFlow);
+
+    List<GraphicInfo> waypoints = new ArrayList<GraphicInfo>();
+    waypoints.add(createGraphicInfo(x1, y1, 0, 0));
+    waypoints.add(createGraphicInfo(x2, y2, 0, 0));
+    bpmnModel.addFlowGraphicInfoList(id, waypoints);
+  }
+
+  protected GraphicInfo createGraphicInfo(double x, double y, double width, double height) {
+    GraphicInfo graphicInfo = new GraphicInfo();
+    graphicInfo.setX(x);
+    graphicInfo.setY(y);
+    graphicInfo.setWidth(width);
+    graphicInfo.setHeight(height);
+    return graphicInfo;
+  }
+}
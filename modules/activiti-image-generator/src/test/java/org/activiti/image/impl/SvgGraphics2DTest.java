@@ -0,0 +1,89 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.image.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+public class SvgGraphics2DTest {
+
+  @Test
+  public void testSvgDocument() throws Exception {
+    SvgGraphics2D graphics = new SvgGraphics2D(200, 100);
+    graphics.setColor(Color.RED);
+    graphics.setStroke(new BasicStroke(2.0f));
+    graphics.draw(new Rectangle2D.Double(10, 10, 50, 20));
+    graphics.fill(new Ellipse2D.Double(100, 10, 20, 20));
+    graphics.setFont(new Font("Arial", Font.BOLD, 11));
+    graphics.drawString("a < b & \"c\"", 10, 60);
+    graphics.drawImage(new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB), 150, 50, null);
+
+    Document document = parse(graphics.getSvgDocument());
+    Element svg = document.getDocumentElement();
+    assertEquals("svg", svg.getNodeName());
+    assertEquals("200", svg.getAttribute("width"));
+    assertEquals("100", svg.getAttribute("height"));
+    assertEquals(2, document.getElementsByTagName("path").getLength());
+    assertEquals(1, document.getElementsByTagName("image").getLength());
+    assertEquals(1, document.getElementsByTagName("text").getLength());
+    assertEquals("a < b & \"c\"", document.getElementsByTagName("text").item(0).getTextContent());
+  }
+
+  @Test
+  public void testCopyLeavesBaseUnchanged() throws Exception {
+    SvgGraphics2D base = new SvgGraphics2D(100, 100);
+    base.draw(new Rectangle2D.Double(10, 10, 20, 20));
+    String baseDocument = base.getSvgDocument();
+
+    SvgGraphics2D copy = new SvgGraphics2D(base);
+    copy.fill(new Rectangle2D.Double(50, 50, 20, 20));
+
+    assertEquals(baseDocument, base.getSvgDocument());
+    assertEquals(1, parse(base.getSvgDocument()).getElementsByTagName("path").getLength());
+    assertEquals(2, parse(copy.getSvgDocument()).getElementsByTagName("path").getLength());
+  }
+
+  @Test
+  public void testCopyAreaIsIgnored() throws Exception {
+    SvgGraphics2D graphics = new SvgGraphics2D(100, 100);
+    graphics.draw(new Rectangle2D.Double(10, 10, 20, 20));
+    String document = graphics.getSvgDocument();
+
+    graphics.copyArea(0, 0, 50, 50, 50, 50);
+
+    assertEquals(document, graphics.getSvgDocument());
+    assertFalse(graphics.getSvgDocument().contains("<use"));
+    assertTrue(parse(graphics.getSvgDocument()) != null);
+  }
+
+  protected Document parse(String svgDocument) throws Exception {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    return factory.newDocumentBuilder().parse(new ByteArrayInputStream(svgDocument.getBytes("UTF-8")));
+  }
+}
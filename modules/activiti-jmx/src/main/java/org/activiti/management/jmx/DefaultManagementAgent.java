@@ -32,7 +32,10 @@ import javax.management.remote.JMXConnectorServer;
 import javax.management.remote.JMXConnectorServerFactory;
 import javax.management.remote.JMXServiceURL;
 
+import org.activiti.management.jmx.mbeans.AsyncExecutorMBean;
+import org.activiti.management.jmx.mbeans.CommandMetricsMBean;
 import org.activiti.management.jmx.mbeans.JobExecutorMBean;
+import org.activiti.management.jmx.mbeans.OptimisticLockingMBean;
 import org.activiti.management.jmx.mbeans.ProcessDefinitionsMBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -178,6 +181,9 @@ public class DefaultManagementAgent implements ManagementAgent {
   public void findAndRegisterMbeans() throws Exception {
 	  register(new ProcessDefinitionsMBean(jmxConfigurator.getProcessEngineConfig()), new ObjectName(jmxConfigurator.getDomain(), "type", "Deployments"));
 	  register(new JobExecutorMBean(jmxConfigurator.getProcessEngineConfig()), new ObjectName(jmxConfigurator.getDomain(), "type", "JobExecutor"));
+	  register(new AsyncExecutorMBean(jmxConfigurator.getProcessEngineConfig()), new ObjectName(jmxConfigurator.getDomain(), "type", "AsyncExecutor"));
+	  register(new CommandMetricsMBean(jmxConfigurator.getProcessEngineConfig()), new ObjectName(jmxConfigurator.getDomain(), "type", "CommandMetrics"));
+	  register(new OptimisticLockingMBean(jmxConfigurator.getProcessEngineConfig()), new ObjectName(jmxConfigurator.getDomain(), "type", "OptimisticLocking"));
 
   }
   public void createJmxConnector(String host) throws IOException {
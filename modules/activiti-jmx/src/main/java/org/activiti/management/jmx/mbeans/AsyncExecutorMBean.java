@@ -0,0 +1,149 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.management.jmx.mbeans;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.activiti.engine.ProcessEngineConfiguration;
+import org.activiti.engine.impl.asyncexecutor.AbstractAsyncJobExecutor;
+import org.activiti.engine.impl.asyncexecutor.AsyncExecutor;
+import org.activiti.engine.impl.asyncexecutor.DefaultAsyncJobExecutor;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics.AcquisitionType;
+import org.activiti.engine.impl.metrics.JobHandlerStatistics;
+import org.activiti.engine.impl.metrics.LatencyHistogram;
+import org.activiti.management.jmx.annotations.ManagedAttribute;
+import org.activiti.management.jmx.annotations.ManagedOperation;
+import org.activiti.management.jmx.annotations.ManagedResource;
+
+/**
+ * Exposes the metrics of the async executor of the process engine.
+ * The metrics are only available once the async executor is started.
+ */
+@ManagedResource(description = "Async executor MBean")
+public class AsyncExecutorMBean {
+
+  AsyncExecutor asyncExecutor;
+
+  public AsyncExecutorMBean(ProcessEngineConfiguration processEngineConfig) {
+    asyncExecutor = processEngineConfig.getAsyncExecutor();
+  }
+
+  @ManagedAttribute(description = "check if the async executor is active")
+  public boolean isAsyncExecutorActive() {
+    return asyncExecutor != null && asyncExecutor.isActive();
+  }
+
+  @ManagedAttribute(description = "number of jobs waiting in the queue of the job execution thread pool")
+  public int getThreadPoolQueueDepth() {
+    if (asyncExecutor instanceof DefaultAsyncJobExecutor) {
+      return ((DefaultAsyncJobExecutor) asyncExecutor).getThreadPoolQueueDepth();
+    }
+    return 0;
+  }
+
+  @ManagedAttribute(description = "number of threads executing jobs")
+  public int getActiveThreadCount() {
+    if (asyncExecutor instanceof DefaultAsyncJobExecutor) {
+      return ((DefaultAsyncJobExecutor) asyncExecutor).getActiveThreadCount();
+    }
+    return 0;
+  }
+
+  @ManagedAttribute(description = "number of acquired jobs that were rejected by the job execution thread pool")
+  public long getRejectedJobCount() {
+    AsyncExecutorMetrics metrics = getAsyncExecutorMetrics();
+    return metrics != null ? metrics.getRejectedJobCount() : 0L;
+  }
+
+  @ManagedAttribute(description = "List of job acquisitions: type, acquisition cycles, acquired jobs, mean acquired jobs per cycle, optimistic locking conflicts")
+  public List<List<String>> getAcquisitionStatistics() {
+    List<List<String>> result = new ArrayList<List<String>>();
+    AsyncExecutorMetrics metrics = getAsyncExecutorMetrics();
+    if (metrics == null) {
+      return result;
+    }
+    for (AcquisitionType acquisitionType : AcquisitionType.values()) {
+      long acquisitionCount = metrics.getAcquisitionCount(acquisitionType);
+      long acquiredJobCount = metrics.getAcquiredJobCount(acquisitionType);
+      List<String> item = new ArrayList<String>(5);
+      item.add(acquisitionType.name());
+      item.add(Long.toString(acquisitionCount));
+      item.add(Long.toString(acquiredJobCount));
+      item.add(Double.toString(acquisitionCount > 0 ? (double) acquiredJobCount / acquisitionCount : 0.0));
+      item.add(Long.toString(metrics.getAcquisitionConflictCount(acquisitionType)));
+      result.add(item);
+    }
+    return result;
+  }
+
+  @ManagedAttribute(description = "Time between due date and execution start of the jobs: executed jobs, mean, p50, p99 and max wait time (milliseconds)")
+  public List<String> getJobWaitTime() {
+    List<String> result = new ArrayList<String>(5);
+    AsyncExecutorMetrics metrics = getAsyncExecutorMetrics();
+    if (metrics == null) {
+      return result;
+    }
+    LatencyHistogram waitTime = metrics.getJobWaitTime();
+    result.add(Long.toString(waitTime.getTotalCount()));
+    result.add(Long.toString(Math.round(waitTime.getMean())));
+    result.add(Long.toString(waitTime.getValueAtPercentile(50.0)));
+    result.add(Long.toString(waitTime.getValueAtPercentile(99.0)));
+    result.add(Long.toString(waitTime.getMaxValue()));
+    return result;
+  }
+
+  @ManagedAttribute(description = "List of executed job handler types: type, executions, failures, retries, mean, p50, p99 and max duration (microseconds)")
+  public List<List<String>> getJobHandlerStatistics() {
+    List<List<String>> result = new ArrayList<List<String>>();
+    AsyncExecutorMetrics metrics = getAsyncExecutorMetrics();
+    if (metrics == null) {
+      return result;
+    }
+    for (JobHandlerStatistics statistics : metrics.getAllJobHandlerStatistics()) {
+      LatencyHistogram duration = statistics.getDuration();
+      List<String> item = new ArrayList<String>(8);
+      item.add(statistics.getJobHandlerType());
+      item.add(Long.toString(statistics.getExecutionCount()));
+      item.add(Long.toString(statistics.getFailureCount()));
+      item.add(Long.toString(statistics.getRetryCount()));
+      item.add(Long.toString(Math.round(duration.getMean())));
+      item.add(Long.toString(duration.getValueAtPercentile(50.0)));
+      item.add(Long.toString(duration.getValueAtPercentile(99.0)));
+      item.add(Long.toString(duration.getMaxValue()));
+      result.add(item);
+    }
+    return result;
+  }
+
+  @ManagedOperation(description = "reset the metrics of the async executor")
+  public void resetAsyncExecutorMetrics() {
+    AsyncExecutorMetrics metrics = getAsyncExecutorMetrics();
+    if (metrics != null) {
+      metrics.reset();
+    }
+  }
+
+  /**
+   * Async executors that delegate to other async executors, like the one per tenant,
+   * have no metrics of their own.
+   */
+  protected AsyncExecutorMetrics getAsyncExecutorMetrics() {
+    if (asyncExecutor instanceof AbstractAsyncJobExecutor) {
+      return asyncExecutor.getAsyncExecutorMetrics();
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,105 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.management.jmx.mbeans;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.ProcessEngineConfiguration;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.metrics.CommandMetrics;
+import org.activiti.engine.impl.metrics.CommandStatistics;
+import org.activiti.engine.impl.metrics.CommandStatistics.StatementType;
+import org.activiti.engine.impl.metrics.LatencyHistogram;
+import org.activiti.management.jmx.annotations.ManagedAttribute;
+import org.activiti.management.jmx.annotations.ManagedOperation;
+import org.activiti.management.jmx.annotations.ManagedResource;
+
+/**
+ * Exposes the command metrics of the process engine, which are recorded when
+ * enableCommandMetrics is set on the process engine configuration.
+ */
+@ManagedResource(description = "Command metrics MBean")
+public class CommandMetricsMBean {
+
+  CommandMetrics commandMetrics;
+
+  public CommandMetricsMBean(ProcessEngineConfiguration processEngineConfig) {
+    if (processEngineConfig instanceof ProcessEngineConfigurationImpl) {
+      commandMetrics = ((ProcessEngineConfigurationImpl) processEngineConfig).getCommandMetrics();
+    }
+  }
+
+  @ManagedAttribute(description = "check if command metrics are recorded")
+  public boolean isCommandMetricsEnabled() {
+    return commandMetrics != null;
+  }
+
+  @ManagedAttribute(description = "List of executed commands: name, invocations, failures, mean, p50, p99 and max latency (microseconds), selects, inserts, updates, deletes, flushed entities")
+  public List<List<String>> getCommandStatistics() {
+    List<List<String>> result = new ArrayList<List<String>>();
+    if (commandMetrics == null) {
+      return result;
+    }
+    for (CommandStatistics statistics : commandMetrics.getAllCommandStatistics()) {
+      LatencyHistogram latency = statistics.getLatency();
+      List<String> item = new ArrayList<String>(12);
+      item.add(statistics.getCommandName());
+      item.add(Long.toString(statistics.getInvocationCount()));
+      item.add(Long.toString(statistics.getFailureCount()));
+      item.add(Long.toString(Math.round(latency.getMean())));
+      item.add(Long.toString(latency.getValueAtPercentile(50.0)));
+      item.add(Long.toString(latency.getValueAtPercentile(99.0)));
+      item.add(Long.toString(latency.getMaxValue()));
+      item.add(Long.toString(statistics.getStatementCount(StatementType.SELECT)));
+      item.add(Long.toString(statistics.getStatementCount(StatementType.INSERT)));
+      item.add(Long.toString(statistics.getStatementCount(StatementType.UPDATE)));
+      item.add(Long.toString(statistics.getStatementCount(StatementType.DELETE)));
+      item.add(Long.toString(statistics.getFlushedEntityCount()));
+      result.add(item);
+    }
+    return result;
+  }
+
+  @ManagedOperation(description = "get the executions per SQL statement of a specific command: statement type, statement id, count")
+  public List<List<String>> getStatementCounts(String commandName) {
+    List<List<String>> result = new ArrayList<List<String>>();
+    if (commandMetrics == null) {
+      return result;
+    }
+    // doesn't register unknown command names, which can be passed in by any JMX client
+    CommandStatistics statistics = commandMetrics.findCommandStatistics(commandName);
+    if (statistics == null) {
+      return result;
+    }
+    for (StatementType statementType : StatementType.values()) {
+      for (Map.Entry<String, Long> statementCount : statistics.getStatementCounts(statementType).entrySet()) {
+        List<String> item = new ArrayList<String>(3);
+        item.add(statementType.name());
+        item.add(statementCount.getKey());
+        item.add(Long.toString(statementCount.getValue()));
+        result.add(item);
+      }
+    }
+    return result;
+  }
+
+  @ManagedOperation(description = "reset the statistics of all commands")
+  public void resetCommandStatistics() {
+    if (commandMetrics != null) {
+      commandMetrics.reset();
+    }
+  }
+
+}
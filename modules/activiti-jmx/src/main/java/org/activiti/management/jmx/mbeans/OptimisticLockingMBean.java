@@ -0,0 +1,91 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.management.jmx.mbeans;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.ProcessEngineConfiguration;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.metrics.OptimisticLockingStatistics;
+import org.activiti.management.jmx.annotations.ManagedAttribute;
+import org.activiti.management.jmx.annotations.ManagedOperation;
+import org.activiti.management.jmx.annotations.ManagedResource;
+
+/**
+ * Exposes the optimistic locking conflicts seen by the retry interceptors of the process engine.
+ * The statistics are only available when a RetryInterceptor is part of the command interceptor chain.
+ */
+@ManagedResource(description = "Optimistic locking MBean")
+public class OptimisticLockingMBean {
+
+  OptimisticLockingStatistics optimisticLockingStatistics;
+
+  public OptimisticLockingMBean(ProcessEngineConfiguration processEngineConfig) {
+    if (processEngineConfig instanceof ProcessEngineConfigurationImpl) {
+      optimisticLockingStatistics = ((ProcessEngineConfigurationImpl) processEngineConfig).getOptimisticLockingStatistics();
+    }
+  }
+
+  @ManagedAttribute(description = "check if optimistic locking conflicts are recorded")
+  public boolean isOptimisticLockingStatisticsEnabled() {
+    return optimisticLockingStatistics != null;
+  }
+
+  @ManagedAttribute(description = "List of retried commands: name, attempts, conflicts, conflict rate")
+  public List<List<String>> getCommandConflicts() {
+    List<List<String>> result = new ArrayList<List<String>>();
+    if (optimisticLockingStatistics == null) {
+      return result;
+    }
+    for (Map.Entry<String, Long> attemptCount : optimisticLockingStatistics.getAttemptCounts().entrySet()) {
+      String commandName = attemptCount.getKey();
+      List<String> item = new ArrayList<String>(4);
+      item.add(commandName);
+      item.add(Long.toString(attemptCount.getValue()));
+      item.add(Long.toString(optimisticLockingStatistics.getConflictCount(commandName)));
+      item.add(Double.toString(optimisticLockingStatistics.getConflictRate(commandName)));
+      result.add(item);
+    }
+    return result;
+  }
+
+  @ManagedAttribute(description = "List of entity types changed concurrently: table, conflicts")
+  public List<List<String>> getEntityConflicts() {
+    List<List<String>> result = new ArrayList<List<String>>();
+    if (optimisticLockingStatistics == null) {
+      return result;
+    }
+    for (Map.Entry<String, Long> conflictCount : optimisticLockingStatistics.getEntityConflictCounts().entrySet()) {
+      List<String> item = new ArrayList<String>(2);
+      item.add(conflictCount.getKey());
+      item.add(Long.toString(conflictCount.getValue()));
+      result.add(item);
+    }
+    return result;
+  }
+
+  @ManagedAttribute(description = "number of retries executed without their process instance lock because it wasn't acquired in time")
+  public long getSerializationTimeoutCount() {
+    return optimisticLockingStatistics != null ? optimisticLockingStatistics.getSerializationTimeoutCount() : 0L;
+  }
+
+  @ManagedOperation(description = "reset the optimistic locking statistics")
+  public void resetOptimisticLockingStatistics() {
+    if (optimisticLockingStatistics != null) {
+      optimisticLockingStatistics.reset();
+    }
+  }
+
+}
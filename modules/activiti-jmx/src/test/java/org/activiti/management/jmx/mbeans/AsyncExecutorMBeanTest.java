@@ -0,0 +1,133 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.management.jmx.mbeans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.modelmbean.ModelMBean;
+
+import org.activiti.engine.impl.asyncexecutor.DefaultAsyncJobExecutor;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.metrics.AsyncExecutorMetrics.AcquisitionType;
+import org.activiti.engine.impl.metrics.DefaultAsyncExecutorMetrics;
+import org.activiti.management.jmx.DefaultManagementMBeanAssembler;
+import org.activiti.management.jmx.ManagementMBeanAssembler;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class AsyncExecutorMBeanTest {
+
+  protected AsyncExecutorMBean asyncExecutorMBean;
+
+  protected DefaultAsyncJobExecutor asyncExecutor = new DefaultAsyncJobExecutor();
+
+  protected DefaultAsyncExecutorMetrics metrics = new DefaultAsyncExecutorMetrics();
+
+  @Mock
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+
+  @Before
+  public void initMocks() {
+    MockitoAnnotations.initMocks(this);
+    asyncExecutor.setAsyncExecutorMetrics(metrics);
+    when(processEngineConfiguration.getAsyncExecutor()).thenReturn(asyncExecutor);
+    asyncExecutorMBean = new AsyncExecutorMBean(processEngineConfiguration);
+  }
+
+  @Test
+  public void testAsyncExecutorMetrics() {
+    assertFalse(asyncExecutorMBean.isAsyncExecutorActive());
+    assertEquals(0, asyncExecutorMBean.getThreadPoolQueueDepth());
+    assertEquals(0, asyncExecutorMBean.getJobHandlerStatistics().size());
+
+    metrics.recordAcquisition(AcquisitionType.ASYNC, 3);
+    metrics.recordAcquisition(AcquisitionType.ASYNC, 1);
+    metrics.recordAcquisitionConflict(AcquisitionType.TIMER);
+    metrics.recordRejectedJob();
+    metrics.recordJobExecution("async-continuation", 20, 100, false, false);
+    metrics.recordJobExecution("async-continuation", 40, 300, true, true);
+
+    List<List<String>> acquisitions = asyncExecutorMBean.getAcquisitionStatistics();
+    assertEquals(2, acquisitions.size());
+    assertEquals("ASYNC", acquisitions.get(0).get(0));
+    assertEquals("2", acquisitions.get(0).get(1));
+    assertEquals("4", acquisitions.get(0).get(2));
+    assertEquals("2.0", acquisitions.get(0).get(3));
+    assertEquals("TIMER", acquisitions.get(1).get(0));
+    assertEquals("1", acquisitions.get(1).get(4));
+
+    assertEquals(1, asyncExecutorMBean.getRejectedJobCount());
+
+    List<String> waitTime = asyncExecutorMBean.getJobWaitTime();
+    assertEquals("2", waitTime.get(0));
+    assertEquals("30", waitTime.get(1));
+    assertEquals("40", waitTime.get(4));
+
+    List<List<String>> jobHandlers = asyncExecutorMBean.getJobHandlerStatistics();
+    assertEquals(1, jobHandlers.size());
+    List<String> item = jobHandlers.get(0);
+    assertEquals("async-continuation", item.get(0));
+    assertEquals("2", item.get(1));
+    assertEquals("1", item.get(2));
+    assertEquals("1", item.get(3));
+    assertEquals("200", item.get(4));
+    assertEquals("300", item.get(7));
+
+    asyncExecutorMBean.resetAsyncExecutorMetrics();
+    assertEquals(0, asyncExecutorMBean.getJobHandlerStatistics().size());
+    assertEquals(0, asyncExecutorMBean.getRejectedJobCount());
+  }
+
+  @Test
+  public void testNoAsyncExecutor() {
+    when(processEngineConfiguration.getAsyncExecutor()).thenReturn(null);
+    asyncExecutorMBean = new AsyncExecutorMBean(processEngineConfiguration);
+    assertFalse(asyncExecutorMBean.isAsyncExecutorActive());
+    assertEquals(0, asyncExecutorMBean.getAcquisitionStatistics().size());
+    assertEquals(0, asyncExecutorMBean.getJobWaitTime().size());
+    assertEquals(0, asyncExecutorMBean.getRejectedJobCount());
+  }
+
+  ManagementMBeanAssembler assembler = new DefaultManagementMBeanAssembler();
+
+  @Test
+  public void testAnnotations() throws JMException {
+    ModelMBean modelBean = assembler.assemble(asyncExecutorMBean, new ObjectName("domain", "key", "value"));
+    assertNotNull(modelBean);
+    MBeanInfo beanInfo = modelBean.getMBeanInfo();
+    assertNotNull(beanInfo);
+    assertEquals(7, beanInfo.getAttributes().length);
+
+    boolean resetFound = false;
+    for (MBeanOperationInfo op : beanInfo.getOperations()) {
+      if (op.getName().equals("resetAsyncExecutorMetrics")) {
+        resetFound = true;
+        assertEquals("void", op.getReturnType());
+      }
+    }
+    assertTrue(resetFound);
+  }
+
+}
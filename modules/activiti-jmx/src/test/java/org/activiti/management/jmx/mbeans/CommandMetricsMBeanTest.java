@@ -0,0 +1,133 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.management.jmx.mbeans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.modelmbean.ModelMBean;
+
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.metrics.CommandMetrics;
+import org.activiti.engine.impl.metrics.CommandStatistics;
+import org.activiti.engine.impl.metrics.CommandStatistics.StatementType;
+import org.activiti.management.jmx.DefaultManagementMBeanAssembler;
+import org.activiti.management.jmx.ManagementMBeanAssembler;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class CommandMetricsMBeanTest {
+
+  protected CommandMetricsMBean commandMetricsMBean;
+
+  protected CommandMetrics commandMetrics = new CommandMetrics();
+
+  @Mock
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+
+  @Before
+  public void initMocks() {
+    MockitoAnnotations.initMocks(this);
+    when(processEngineConfiguration.getCommandMetrics()).thenReturn(commandMetrics);
+    commandMetricsMBean = new CommandMetricsMBean(processEngineConfiguration);
+  }
+
+  @Test
+  public void testCommandStatistics() {
+    assertTrue(commandMetricsMBean.isCommandMetricsEnabled());
+    assertEquals(0, commandMetricsMBean.getCommandStatistics().size());
+
+    CommandStatistics statistics = commandMetrics.getCommandStatistics("myCommand");
+    statistics.recordInvocation(100, false);
+    statistics.recordInvocation(300, true);
+    statistics.recordStatement(StatementType.SELECT, "selectTask");
+    statistics.recordStatement(StatementType.SELECT, "selectTask");
+    statistics.recordStatement(StatementType.INSERT, "insertTask");
+    statistics.recordFlushedEntities(1);
+
+    List<List<String>> result = commandMetricsMBean.getCommandStatistics();
+    assertEquals(1, result.size());
+    List<String> item = result.get(0);
+    assertEquals("myCommand", item.get(0));
+    assertEquals("2", item.get(1));
+    assertEquals("1", item.get(2));
+    assertEquals("200", item.get(3));
+    assertEquals("300", item.get(6));
+    assertEquals("2", item.get(7));
+    assertEquals("1", item.get(8));
+    assertEquals("1", item.get(11));
+
+    List<List<String>> statementCounts = commandMetricsMBean.getStatementCounts("myCommand");
+    assertEquals(2, statementCounts.size());
+    assertEquals("SELECT", statementCounts.get(0).get(0));
+    assertEquals("selectTask", statementCounts.get(0).get(1));
+    assertEquals("2", statementCounts.get(0).get(2));
+    assertEquals("insertTask", statementCounts.get(1).get(1));
+
+    commandMetricsMBean.resetCommandStatistics();
+    assertEquals(0, commandMetricsMBean.getCommandStatistics().size());
+  }
+
+  @Test
+  public void testStatementCountsOfUnknownCommand() {
+    assertEquals(0, commandMetricsMBean.getStatementCounts("unknownCommand").size());
+    assertEquals(0, commandMetricsMBean.getStatementCounts(null).size());
+    assertNull(commandMetrics.findCommandStatistics("unknownCommand"));
+  }
+
+  @Test
+  public void testCommandMetricsDisabled() {
+    when(processEngineConfiguration.getCommandMetrics()).thenReturn(null);
+    commandMetricsMBean = new CommandMetricsMBean(processEngineConfiguration);
+    assertFalse(commandMetricsMBean.isCommandMetricsEnabled());
+    assertEquals(0, commandMetricsMBean.getCommandStatistics().size());
+    assertEquals(0, commandMetricsMBean.getStatementCounts("myCommand").size());
+  }
+
+  ManagementMBeanAssembler assembler = new DefaultManagementMBeanAssembler();
+
+  @Test
+  public void testAnnotations() throws JMException {
+    ModelMBean modelBean = assembler.assemble(commandMetricsMBean, new ObjectName("domain", "key", "value"));
+    assertNotNull(modelBean);
+    MBeanInfo beanInfo = modelBean.getMBeanInfo();
+    assertNotNull(beanInfo);
+    assertEquals(2, beanInfo.getAttributes().length);
+
+    int counter = 0;
+    for (MBeanOperationInfo op : beanInfo.getOperations()) {
+      if (op.getName().equals("getStatementCounts")) {
+        counter++;
+        assertEquals(1, op.getSignature().length);
+        assertEquals("java.lang.String", op.getSignature()[0].getType());
+      } else if (op.getName().equals("resetCommandStatistics")) {
+        counter++;
+        assertEquals("void", op.getReturnType());
+      }
+    }
+    assertEquals(2, counter);
+  }
+
+}
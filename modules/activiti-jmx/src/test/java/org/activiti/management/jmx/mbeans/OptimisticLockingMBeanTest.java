@@ -0,0 +1,114 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.management.jmx.mbeans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+import javax.management.modelmbean.ModelMBean;
+
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.metrics.OptimisticLockingStatistics;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.management.jmx.DefaultManagementMBeanAssembler;
+import org.activiti.management.jmx.ManagementMBeanAssembler;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class OptimisticLockingMBeanTest {
+
+  protected OptimisticLockingMBean optimisticLockingMBean;
+
+  protected OptimisticLockingStatistics optimisticLockingStatistics = new OptimisticLockingStatistics();
+
+  @Mock
+  protected ProcessEngineConfigurationImpl processEngineConfiguration;
+
+  @Before
+  public void initMocks() {
+    MockitoAnnotations.initMocks(this);
+    when(processEngineConfiguration.getOptimisticLockingStatistics()).thenReturn(optimisticLockingStatistics);
+    optimisticLockingMBean = new OptimisticLockingMBean(processEngineConfiguration);
+  }
+
+  @Test
+  public void testOptimisticLockingStatistics() {
+    assertTrue(optimisticLockingMBean.isOptimisticLockingStatisticsEnabled());
+    assertEquals(0, optimisticLockingMBean.getCommandConflicts().size());
+
+    optimisticLockingStatistics.recordAttempt("myCommand");
+    optimisticLockingStatistics.recordConflict("myCommand", ExecutionEntity.class);
+    optimisticLockingStatistics.recordAttempt("myCommand");
+    optimisticLockingStatistics.recordSerializationTimeout();
+
+    List<List<String>> commandConflicts = optimisticLockingMBean.getCommandConflicts();
+    assertEquals(1, commandConflicts.size());
+    assertEquals("myCommand", commandConflicts.get(0).get(0));
+    assertEquals("2", commandConflicts.get(0).get(1));
+    assertEquals("1", commandConflicts.get(0).get(2));
+    assertEquals("0.5", commandConflicts.get(0).get(3));
+
+    List<List<String>> entityConflicts = optimisticLockingMBean.getEntityConflicts();
+    assertEquals(1, entityConflicts.size());
+    assertEquals("ACT_RU_EXECUTION", entityConflicts.get(0).get(0));
+    assertEquals("1", entityConflicts.get(0).get(1));
+    assertEquals(1L, optimisticLockingMBean.getSerializationTimeoutCount());
+
+    optimisticLockingMBean.resetOptimisticLockingStatistics();
+    assertEquals(0, optimisticLockingMBean.getCommandConflicts().size());
+    assertEquals(0, optimisticLockingMBean.getEntityConflicts().size());
+    assertEquals(0L, optimisticLockingMBean.getSerializationTimeoutCount());
+  }
+
+  @Test
+  public void testOptimisticLockingStatisticsDisabled() {
+    when(processEngineConfiguration.getOptimisticLockingStatistics()).thenReturn(null);
+    optimisticLockingMBean = new OptimisticLockingMBean(processEngineConfiguration);
+    assertFalse(optimisticLockingMBean.isOptimisticLockingStatisticsEnabled());
+    assertEquals(0, optimisticLockingMBean.getCommandConflicts().size());
+    assertEquals(0, optimisticLockingMBean.getEntityConflicts().size());
+    assertEquals(0L, optimisticLockingMBean.getSerializationTimeoutCount());
+  }
+
+  ManagementMBeanAssembler assembler = new DefaultManagementMBeanAssembler();
+
+  @Test
+  public void testAnnotations() throws JMException {
+    ModelMBean modelBean = assembler.assemble(optimisticLockingMBean, new ObjectName("domain", "key", "value"));
+    assertNotNull(modelBean);
+    MBeanInfo beanInfo = modelBean.getMBeanInfo();
+    assertNotNull(beanInfo);
+    assertEquals(4, beanInfo.getAttributes().length);
+
+    int counter = 0;
+    for (MBeanOperationInfo op : beanInfo.getOperations()) {
+      if (op.getName().equals("resetOptimisticLockingStatistics")) {
+        counter++;
+        assertEquals("void", op.getReturnType());
+      }
+    }
+    assertEquals(1, counter);
+  }
+
+}
@@ -74,6 +74,8 @@ public abstract class BaseBpmnJsonConverter implements EditorJsonConstants, Sten
     protected ObjectMapper objectMapper = new ObjectMapper();
     protected ActivityProcessor processor;
     protected BpmnModel model;
+    /** json shapes by the resource ids in their outgoing list, when indexed for the conversion */
+    protected Map<String, JsonNode> sourceRefMap;
     protected ObjectNode flowElementNode;
     protected double subProcessX;
     protected double subProcessY;
@@ -282,6 +284,13 @@ public abstract class BaseBpmnJsonConverter implements EditorJsonConstants, Sten
         shapesArrayNode.add(flowNode);
     }
 
+    public void convertToBpmnModel(JsonNode elementNode, JsonNode modelNode, ActivityProcessor processor, BaseElement parentElement, 
+            Map<String, JsonNode> shapeMap, Map<String, JsonNode> sourceRefMap, BpmnModel bpmnModel) {
+      
+        this.sourceRefMap = sourceRefMap;
+        convertToBpmnModel(elementNode, modelNode, processor, parentElement, shapeMap, bpmnModel);
+    }
+
     public void convertToBpmnModel(JsonNode elementNode, JsonNode modelNode, ActivityProcessor processor, BaseElement parentElement, 
             Map<String, JsonNode> shapeMap, BpmnModel bpmnModel) {
 
@@ -381,6 +390,24 @@ public abstract class BaseBpmnJsonConverter implements EditorJsonConstants, Sten
 
     protected abstract void convertElementToJson(ObjectNode propertiesNode, BaseElement baseElement);
 
+    /**
+     * Converts the child shapes of this element with the processor, passing the source ref index when the processor takes it.
+     */
+    protected void processJsonElements(JsonNode childShapesArray, JsonNode modelNode, BaseElement parentElement, Map<String, JsonNode> shapeMap) {
+        if (sourceRefMap != null && processor instanceof SourceRefAwareActivityProcessor) {
+            ((SourceRefAwareActivityProcessor) processor).processJsonElements(childShapesArray, modelNode, parentElement, shapeMap, sourceRefMap, model);
+        } else {
+            processor.processJsonElements(childShapesArray, modelNode, parentElement, shapeMap, model);
+        }
+    }
+
+    protected String lookForSourceRef(String flowId, JsonNode childShapesNode) {
+        if (sourceRefMap != null) {
+            return BpmnJsonConverterUtil.lookForSourceRef(flowId, sourceRefMap);
+        }
+        return BpmnJsonConverterUtil.lookForSourceRef(flowId, childShapesNode);
+    }
+
     protected abstract BaseElement convertJsonToElement(JsonNode elementNode, JsonNode modelNode, Map<String, JsonNode> shapeMap);
 
     protected abstract String getStencilId(BaseElement baseElement);
@@ -12,6 +12,9 @@
  */
 package org.activiti.editor.language.json.converter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -59,6 +62,8 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -67,7 +72,7 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 /**
  * @author Tijs Rademakers
  */
-public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants, ActivityProcessor {
+public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants, SourceRefAwareActivityProcessor {
 
     protected static final Logger LOGGER = LoggerFactory.getLogger(BpmnJsonConverter.class);
 
@@ -182,6 +187,76 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
     }
 
     public ObjectNode convertToJson(BpmnModel model) {
+        ObjectNode modelNode = createModelNode(model);
+        ArrayNode shapesArrayNode = objectMapper.createArrayNode();
+
+        if (hasPoolDI(model)) {
+            for (Pool pool : model.getPools()) {
+                processPool(pool, model, shapesArrayNode);
+            }
+        } else {
+            processFlowElements(model.getMainProcess(), model, shapesArrayNode, 0.0, 0.0);
+        }
+        processMessageFlows(model, shapesArrayNode);
+
+        modelNode.put(EDITOR_CHILD_SHAPES, shapesArrayNode);
+        return modelNode;
+    }
+
+    /**
+     * Writes the same json as {@link #convertToJson(BpmnModel)} to the output stream, without building the
+     * complete json tree first: the shapes are written as soon as their flow element is converted.
+     * The output stream is flushed, but not closed.
+     */
+    public void convertToJson(BpmnModel model, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        convertToJson(model, generator);
+    }
+
+    public void convertToJson(BpmnModel model, JsonGenerator generator) throws IOException {
+        ObjectNode modelNode = createModelNode(model);
+        generator.writeStartObject();
+        Iterator<Map.Entry<String, JsonNode>> fieldIterator = modelNode.fields();
+        while (fieldIterator.hasNext()) {
+            Map.Entry<String, JsonNode> field = fieldIterator.next();
+            generator.writeFieldName(field.getKey());
+            objectMapper.writeTree(generator, field.getValue());
+        }
+
+        generator.writeArrayFieldStart(EDITOR_CHILD_SHAPES);
+        if (hasPoolDI(model)) {
+            for (Pool pool : model.getPools()) {
+                ArrayNode shapesArrayNode = objectMapper.createArrayNode();
+                processPool(pool, model, shapesArrayNode);
+                writeShapes(shapesArrayNode, generator);
+            }
+        } else {
+            Process mainProcess = model.getMainProcess();
+            for (FlowElement flowElement : mainProcess.getFlowElements()) {
+                ArrayNode shapesArrayNode = objectMapper.createArrayNode();
+                processFlowElement(flowElement, mainProcess, model, shapesArrayNode, 0.0, 0.0);
+                writeShapes(shapesArrayNode, generator);
+            }
+            ArrayNode artifactShapesArrayNode = objectMapper.createArrayNode();
+            processArtifacts(mainProcess, model, artifactShapesArrayNode, 0.0, 0.0);
+            writeShapes(artifactShapesArrayNode, generator);
+        }
+        ArrayNode messageFlowShapesArrayNode = objectMapper.createArrayNode();
+        processMessageFlows(model, messageFlowShapesArrayNode);
+        writeShapes(messageFlowShapesArrayNode, generator);
+        generator.writeEndArray();
+
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    protected void writeShapes(ArrayNode shapesArrayNode, JsonGenerator generator) throws IOException {
+        for (JsonNode shapeNode : shapesArrayNode) {
+            objectMapper.writeTree(generator, shapeNode);
+        }
+    }
+
+    protected ObjectNode createModelNode(BpmnModel model) {
         ObjectNode modelNode = objectMapper.createObjectNode();
         double maxX = 0.0;
         double maxY = 0.0;
@@ -217,8 +292,6 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
         stencilsetNode.put("url", "../editor/stencilsets/bpmn2.0/bpmn2.0.json");
         modelNode.put("stencilset", stencilsetNode);
         
-        ArrayNode shapesArrayNode = objectMapper.createArrayNode();
-
         Process mainProcess = null;
         if (model.getPools().size() > 0) {
             mainProcess = model.getProcess(model.getPools().get(0).getId());
@@ -255,116 +328,113 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
         }
         
         modelNode.put(EDITOR_SHAPE_PROPERTIES, propertiesNode);
+        return modelNode;
+    }
 
-        boolean poolHasDI = false;
-        if (model.getPools().size() > 0) {
-            for (Pool pool : model.getPools()) {
-                GraphicInfo graphicInfo = model.getGraphicInfo(pool.getId());
-                if (graphicInfo != null) {
-                    poolHasDI = true;
-                    break;
-                }
+    protected boolean hasPoolDI(BpmnModel model) {
+        for (Pool pool : model.getPools()) {
+            if (model.getGraphicInfo(pool.getId()) != null) {
+                return true;
             }
         }
+        return false;
+    }
+
+    protected void processPool(Pool pool, BpmnModel model, ArrayNode shapesArrayNode) {
+        GraphicInfo graphicInfo = model.getGraphicInfo(pool.getId());
+        if (graphicInfo == null) {
+            return;
+        }
+        ObjectNode poolNode = BpmnJsonConverterUtil.createChildShape(pool.getId(), STENCIL_POOL, 
+                graphicInfo.getX() + graphicInfo.getWidth(), graphicInfo.getY() + graphicInfo.getHeight(),
+                graphicInfo.getX(), graphicInfo.getY());
+        shapesArrayNode.add(poolNode);
+        ObjectNode poolPropertiesNode = objectMapper.createObjectNode();
+        poolPropertiesNode.put(PROPERTY_OVERRIDE_ID, pool.getId());
+        poolPropertiesNode.put(PROPERTY_PROCESS_ID, pool.getProcessRef());
+        if (pool.isExecutable() == false) {
+          poolPropertiesNode.put(PROPERTY_PROCESS_EXECUTABLE, PROPERTY_VALUE_NO);
+        }
+        if (StringUtils.isNotEmpty(pool.getName())) {
+            poolPropertiesNode.put(PROPERTY_NAME, pool.getName());
+        }
+        poolNode.put(EDITOR_SHAPE_PROPERTIES, poolPropertiesNode);
+
+        ArrayNode laneShapesArrayNode = objectMapper.createArrayNode();
+        poolNode.put(EDITOR_CHILD_SHAPES, laneShapesArrayNode);
         
-        if (model.getPools().size() > 0 && poolHasDI) {
-            for (Pool pool : model.getPools()) {
-                GraphicInfo graphicInfo = model.getGraphicInfo(pool.getId());
-                if (graphicInfo == null) continue;
-                ObjectNode poolNode = BpmnJsonConverterUtil.createChildShape(pool.getId(), STENCIL_POOL, 
-                        graphicInfo.getX() + graphicInfo.getWidth(), graphicInfo.getY() + graphicInfo.getHeight(),
-                        graphicInfo.getX(), graphicInfo.getY());
-                shapesArrayNode.add(poolNode);
-                ObjectNode poolPropertiesNode = objectMapper.createObjectNode();
-                poolPropertiesNode.put(PROPERTY_OVERRIDE_ID, pool.getId());
-                poolPropertiesNode.put(PROPERTY_PROCESS_ID, pool.getProcessRef());
-                if (pool.isExecutable() == false) {
-                  poolPropertiesNode.put(PROPERTY_PROCESS_EXECUTABLE, PROPERTY_VALUE_NO);
+        ArrayNode outgoingArrayNode = objectMapper.createArrayNode();
+        poolNode.put("outgoing", outgoingArrayNode);
+
+        Process process = model.getProcess(pool.getId());
+        if (process != null) {
+            Map<String, ArrayNode> laneMap = new HashMap<String, ArrayNode>();
+            // an element is drawn in the first lane referencing it
+            Map<String, Lane> elementLaneMap = new HashMap<String, Lane>();
+            for (Lane lane : process.getLanes()) {
+                for (String flowReference : lane.getFlowReferences()) {
+                    if (elementLaneMap.containsKey(flowReference) == false) {
+                        elementLaneMap.put(flowReference, lane);
+                    }
                 }
-                if (StringUtils.isNotEmpty(pool.getName())) {
-                    poolPropertiesNode.put(PROPERTY_NAME, pool.getName());
+            }
+            for (Lane lane : process.getLanes()) {
+                GraphicInfo laneGraphicInfo = model.getGraphicInfo(lane.getId());
+                if (laneGraphicInfo == null) continue;
+                ObjectNode laneNode = BpmnJsonConverterUtil.createChildShape(lane.getId(), STENCIL_LANE, 
+                        laneGraphicInfo.getX() + laneGraphicInfo.getWidth(), laneGraphicInfo.getY() + 
+                        laneGraphicInfo.getHeight(), laneGraphicInfo.getX(), laneGraphicInfo.getY());
+                laneShapesArrayNode.add(laneNode);
+                ObjectNode lanePropertiesNode = objectMapper.createObjectNode();
+                lanePropertiesNode.put(PROPERTY_OVERRIDE_ID, lane.getId());
+                if (StringUtils.isNotEmpty(lane.getName())) {
+                    lanePropertiesNode.put(PROPERTY_NAME, lane.getName());
                 }
-                poolNode.put(EDITOR_SHAPE_PROPERTIES, poolPropertiesNode);
+                laneNode.put(EDITOR_SHAPE_PROPERTIES, lanePropertiesNode);
 
-                ArrayNode laneShapesArrayNode = objectMapper.createArrayNode();
-                poolNode.put(EDITOR_CHILD_SHAPES, laneShapesArrayNode);
+                ArrayNode elementShapesArrayNode = objectMapper.createArrayNode();
+                laneNode.put(EDITOR_CHILD_SHAPES, elementShapesArrayNode);
+                laneNode.put("outgoing", objectMapper.createArrayNode());
                 
-                ArrayNode outgoingArrayNode = objectMapper.createArrayNode();
-                poolNode.put("outgoing", outgoingArrayNode);
-
-                Process process = model.getProcess(pool.getId());
-                if (process != null) {
-                    Map<String, ArrayNode> laneMap = new HashMap<String, ArrayNode>();
-                    for (Lane lane : process.getLanes()) {
-                        GraphicInfo laneGraphicInfo = model.getGraphicInfo(lane.getId());
-                        if (laneGraphicInfo == null) continue;
-                        ObjectNode laneNode = BpmnJsonConverterUtil.createChildShape(lane.getId(), STENCIL_LANE, 
-                                laneGraphicInfo.getX() + laneGraphicInfo.getWidth(), laneGraphicInfo.getY() + 
-                                laneGraphicInfo.getHeight(), laneGraphicInfo.getX(), laneGraphicInfo.getY());
-                        laneShapesArrayNode.add(laneNode);
-                        ObjectNode lanePropertiesNode = objectMapper.createObjectNode();
-                        lanePropertiesNode.put(PROPERTY_OVERRIDE_ID, lane.getId());
-                        if (StringUtils.isNotEmpty(lane.getName())) {
-                            lanePropertiesNode.put(PROPERTY_NAME, lane.getName());
-                        }
-                        laneNode.put(EDITOR_SHAPE_PROPERTIES, lanePropertiesNode);
-
-                        ArrayNode elementShapesArrayNode = objectMapper.createArrayNode();
-                        laneNode.put(EDITOR_CHILD_SHAPES, elementShapesArrayNode);
-                        laneNode.put("outgoing", objectMapper.createArrayNode());
-                        
-                        laneMap.put(lane.getId(), elementShapesArrayNode);
-                    }
+                laneMap.put(lane.getId(), elementShapesArrayNode);
+            }
 
-                    for (FlowElement flowElement : process.getFlowElements()) {
-                        
-                        Lane laneForElement = null;
-                        GraphicInfo laneGraphicInfo = null;
-                        
-                        FlowElement lookForElement = null;
-                        if (flowElement instanceof SequenceFlow) {
-                            SequenceFlow sequenceFlow = (SequenceFlow) flowElement;
-                            lookForElement = model.getFlowElement(sequenceFlow.getSourceRef());
-                            
-                        } else {
-                            lookForElement = flowElement;
-                        }
-                        
-                        for (Lane lane : process.getLanes()) {
-                            if (lane.getFlowReferences().contains(lookForElement.getId())) {
-                                laneGraphicInfo = model.getGraphicInfo(lane.getId());
-                                if (laneGraphicInfo != null) {
-                                    laneForElement = lane;
-                                }
-                                break;
-                            }
-                        }
-                        
-                        if (flowElement instanceof SequenceFlow || laneForElement != null) { 
-                            processFlowElement(flowElement, process, model, laneMap.get(laneForElement.getId()), 
-                                    laneGraphicInfo.getX(), laneGraphicInfo.getY());
-                        }
-                    }
+            for (FlowElement flowElement : process.getFlowElements()) {
+                
+                Lane laneForElement = null;
+                GraphicInfo laneGraphicInfo = null;
+                
+                FlowElement lookForElement = null;
+                if (flowElement instanceof SequenceFlow) {
+                    SequenceFlow sequenceFlow = (SequenceFlow) flowElement;
+                    lookForElement = model.getFlowElement(sequenceFlow.getSourceRef());
                     
-                    processArtifacts(process, model, shapesArrayNode, 0.0, 0.0);
+                } else {
+                    lookForElement = flowElement;
                 }
                 
-                for (MessageFlow messageFlow : model.getMessageFlows().values()) {
-                    if (messageFlow.getSourceRef().equals(pool.getId())) {
-                        outgoingArrayNode.add(BpmnJsonConverterUtil.createResourceNode(messageFlow.getId()));
+                Lane lane = elementLaneMap.get(lookForElement.getId());
+                if (lane != null) {
+                    laneGraphicInfo = model.getGraphicInfo(lane.getId());
+                    if (laneGraphicInfo != null) {
+                        laneForElement = lane;
                     }
                 }
+                
+                if (flowElement instanceof SequenceFlow || laneForElement != null) { 
+                    processFlowElement(flowElement, process, model, laneMap.get(laneForElement.getId()), 
+                            laneGraphicInfo.getX(), laneGraphicInfo.getY());
+                }
             }
             
-            processMessageFlows(model, shapesArrayNode);
-            
-        } else {
-            processFlowElements(model.getMainProcess(), model, shapesArrayNode, 0.0, 0.0);
-            processMessageFlows(model, shapesArrayNode);
+            processArtifacts(process, model, shapesArrayNode, 0.0, 0.0);
+        }
+        
+        for (MessageFlow messageFlow : model.getMessageFlows().values()) {
+            if (messageFlow.getSourceRef().equals(pool.getId())) {
+                outgoingArrayNode.add(BpmnJsonConverterUtil.createResourceNode(messageFlow.getId()));
+            }
         }
-
-        modelNode.put(EDITOR_CHILD_SHAPES, shapesArrayNode);
-        return modelNode;
     }
 
     public void processFlowElements(FlowElementsContainer container, BpmnModel model, ArrayNode shapesArrayNode, 
@@ -428,10 +498,28 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
         filterAllEdges(modelNode, edgeMap, sourceAndTargetMap, shapeMap, sourceRefMap);
         readEdgeDI(edgeMap, sourceAndTargetMap, bpmnModel);
 
+        convertShapesToBpmnModel(modelNode, shapeMap, sourceRefMap, edgeMap, bpmnModel);
+        return bpmnModel;
+    }
+
+    /**
+     * Reads the editor json from the input stream and converts it, see {@link #convertToBpmnModel(JsonNode)}.
+     */
+    public BpmnModel convertToBpmnModel(InputStream inputStream) throws IOException {
+        return convertToBpmnModel(objectMapper.readTree(inputStream));
+    }
+
+    /**
+     * @param sourceRefMap the shapes by the resource ids in their outgoing list, so that the source of every flow 
+     *        is looked up instead of searching all child shapes for it
+     */
+    protected void convertShapesToBpmnModel(JsonNode modelNode, Map<String, JsonNode> shapeMap, Map<String, JsonNode> sourceRefMap, 
+            Map<String, JsonNode> edgeMap, BpmnModel bpmnModel) {
+
         ArrayNode shapesArrayNode = (ArrayNode) modelNode.get(EDITOR_CHILD_SHAPES);
 
         if (shapesArrayNode == null || shapesArrayNode.size() == 0)
-            return bpmnModel;
+            return;
 
         boolean nonEmptyPoolFound = false;
         Map<String, Lane> elementInLaneMap = new HashMap<String, Lane>();
@@ -464,7 +552,7 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
                         lane.setParentProcess(process);
                         process.getLanes().add(lane);
 
-                        processJsonElements(laneNode.get(EDITOR_CHILD_SHAPES), modelNode, lane, shapeMap, bpmnModel);
+                        processJsonElements(laneNode.get(EDITOR_CHILD_SHAPES), modelNode, lane, shapeMap, sourceRefMap, bpmnModel);
                         if (CollectionUtils.isNotEmpty(lane.getFlowReferences())) {
                             for (String elementRef : lane.getFlowReferences()) {
                                 elementInLaneMap.put(elementRef, lane);
@@ -530,7 +618,7 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
               process.getFlowElements().addAll(dataObjects);
             }
 
-            processJsonElements(shapesArrayNode, modelNode, process, shapeMap, bpmnModel);
+            processJsonElements(shapesArrayNode, modelNode, process, shapeMap, sourceRefMap, bpmnModel);
 
         } else {
             // sequence flows are on root level so need additional parsing for pools
@@ -538,14 +626,14 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
                 if (STENCIL_SEQUENCE_FLOW.equalsIgnoreCase(BpmnJsonConverterUtil.getStencilId(shapeNode)) ||
                         STENCIL_ASSOCIATION.equalsIgnoreCase(BpmnJsonConverterUtil.getStencilId(shapeNode))) {
 
-                    String sourceRef = BpmnJsonConverterUtil.lookForSourceRef(shapeNode.get(EDITOR_SHAPE_ID).asText(), modelNode.get(EDITOR_CHILD_SHAPES));
+                    String sourceRef = BpmnJsonConverterUtil.lookForSourceRef(shapeNode.get(EDITOR_SHAPE_ID).asText(), sourceRefMap);
                     if (sourceRef != null) {
                         Lane lane = elementInLaneMap.get(sourceRef);
                         SequenceFlowJsonConverter flowConverter = new SequenceFlowJsonConverter();
                         if (lane != null) {
-                            flowConverter.convertToBpmnModel(shapeNode, modelNode, this, lane, shapeMap, bpmnModel);
+                            flowConverter.convertToBpmnModel(shapeNode, modelNode, this, lane, shapeMap, sourceRefMap, bpmnModel);
                         } else {
-                            flowConverter.convertToBpmnModel(shapeNode, modelNode, this, bpmnModel.getProcesses().get(0), shapeMap, bpmnModel);
+                            flowConverter.convertToBpmnModel(shapeNode, modelNode, this, bpmnModel.getProcesses().get(0), shapeMap, sourceRefMap, bpmnModel);
                         }
                     }
                 }
@@ -602,19 +690,23 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
           }
           gateway.getExtensionElements().remove("EDITOR_FLOW_ORDER");
         }
-
-        return bpmnModel;
     }
 
     public void processJsonElements(JsonNode shapesArrayNode, JsonNode modelNode, BaseElement parentElement, Map<String, JsonNode> shapeMap, 
             BpmnModel bpmnModel) {
+      
+      processJsonElements(shapesArrayNode, modelNode, parentElement, shapeMap, null, bpmnModel);
+    }
+
+    public void processJsonElements(JsonNode shapesArrayNode, JsonNode modelNode, BaseElement parentElement, Map<String, JsonNode> shapeMap, 
+            Map<String, JsonNode> sourceRefMap, BpmnModel bpmnModel) {
 
       for (JsonNode shapeNode : shapesArrayNode) {
         String stencilId = BpmnJsonConverterUtil.getStencilId(shapeNode);
         Class<? extends BaseBpmnJsonConverter> converter = convertersToBpmnMap.get(stencilId);
         try {
           BaseBpmnJsonConverter converterInstance = converter.newInstance();
-          converterInstance.convertToBpmnModel(shapeNode, modelNode, this, parentElement, shapeMap, bpmnModel);
+          converterInstance.convertToBpmnModel(shapeNode, modelNode, this, parentElement, shapeMap, sourceRefMap, bpmnModel);
         } catch (Exception e) {
             LOGGER.error("Error converting {}", BpmnJsonConverterUtil.getStencilId(shapeNode), e);
         }
@@ -636,6 +728,14 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
     private void postProcessElements(FlowElementsContainer parentContainer,  Collection<FlowElement> flowElementList, 
             Map<String, JsonNode> edgeMap, BpmnModel bpmnModel, Map<String, FlowWithContainer> allFlowMap, List<Gateway> gatewayWithOrderList) {
 
+        // looking up the source and target of every sequence flow in the container is quadratic for large models
+        Map<String, FlowElement> flowElementMap = new HashMap<String, FlowElement>();
+        for (FlowElement flowElement : parentContainer.getFlowElements()) {
+            if (flowElement.getId() != null && flowElementMap.containsKey(flowElement.getId()) == false) {
+                flowElementMap.put(flowElement.getId(), flowElement);
+            }
+        }
+
         for (FlowElement flowElement : flowElementList) {
             
             if (flowElement instanceof Event) {
@@ -683,7 +783,7 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
                 
             } else if (flowElement instanceof SequenceFlow) {
                 SequenceFlow sequenceFlow = (SequenceFlow) flowElement;
-                FlowElement sourceFlowElement = parentContainer.getFlowElement(sequenceFlow.getSourceRef());
+                FlowElement sourceFlowElement = flowElementMap.get(sequenceFlow.getSourceRef());
                 if (sourceFlowElement != null && sourceFlowElement instanceof FlowNode) {
                     
                     FlowWithContainer flowWithContainer = new FlowWithContainer(sequenceFlow, parentContainer);
@@ -705,7 +805,7 @@ public class BpmnJsonConverter implements EditorJsonConstants, StencilConstants,
                       }
                     }
                 }
-                FlowElement targetFlowElement = parentContainer.getFlowElement(sequenceFlow.getTargetRef());
+                FlowElement targetFlowElement = flowElementMap.get(sequenceFlow.getTargetRef());
                 if (targetFlowElement != null && targetFlowElement instanceof FlowNode) {
                     ((FlowNode) targetFlowElement).getIncomingFlows().add(sequenceFlow);
                 }
@@ -15,6 +15,7 @@ package org.activiti.editor.language.json.converter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.activiti.bpmn.model.ActivitiListener;
 import org.activiti.bpmn.model.BaseElement;
@@ -469,6 +470,15 @@ public class BpmnJsonConverterUtil implements EditorJsonConstants, StencilConsta
       }
     }
   
+  /**
+   * @return the element id of the shape having the flow in its outgoing list, looked up in 
+   *         the shapes indexed by the resource ids in their outgoing list.
+   */
+  public static String lookForSourceRef(String flowId, Map<String, JsonNode> sourceRefMap) {
+    JsonNode sourceRefNode = sourceRefMap.get(flowId);
+    return sourceRefNode != null ? getElementId(sourceRefNode) : null;
+  }
+  
   public static String lookForSourceRef(String flowId, JsonNode childShapesNode) {
     String sourceRef = null;
     
@@ -62,7 +62,7 @@ public class EventSubProcessJsonConverter extends BaseBpmnJsonConverter {
     protected FlowElement convertJsonToElement(JsonNode elementNode, JsonNode modelNode, Map<String, JsonNode> shapeMap) {
         EventSubProcess subProcess = new EventSubProcess();
         JsonNode childShapesArray = elementNode.get(EDITOR_CHILD_SHAPES);
-        processor.processJsonElements(childShapesArray, modelNode, subProcess, shapeMap, model);
+        processJsonElements(childShapesArray, modelNode, subProcess, shapeMap);
         return subProcess;
     }
 }
@@ -101,7 +101,7 @@ public class MessageFlowJsonConverter extends BaseBpmnJsonConverter {
   protected BaseElement convertJsonToElement(JsonNode elementNode, JsonNode modelNode, Map<String, JsonNode> shapeMap) {
     MessageFlow flow = new MessageFlow();
     
-    String sourceRef = BpmnJsonConverterUtil.lookForSourceRef(elementNode.get(EDITOR_SHAPE_ID).asText(), 
+    String sourceRef = lookForSourceRef(elementNode.get(EDITOR_SHAPE_ID).asText(), 
     		modelNode.get(EDITOR_CHILD_SHAPES));
     if (sourceRef != null) {
       flow.setSourceRef(sourceRef);
@@ -136,7 +136,7 @@ public class SequenceFlowJsonConverter extends BaseBpmnJsonConverter {
   protected FlowElement convertJsonToElement(JsonNode elementNode, JsonNode modelNode, Map<String, JsonNode> shapeMap) {
     SequenceFlow flow = new SequenceFlow();
     
-    String sourceRef = BpmnJsonConverterUtil.lookForSourceRef(elementNode.get(EDITOR_SHAPE_ID).asText(), modelNode.get(EDITOR_CHILD_SHAPES));
+    String sourceRef = lookForSourceRef(elementNode.get(EDITOR_SHAPE_ID).asText(), modelNode.get(EDITOR_CHILD_SHAPES));
     if (sourceRef != null) {
       flow.setSourceRef(sourceRef);
       JsonNode targetNode = elementNode.get("target");
@@ -0,0 +1,35 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.editor.language.json.converter;
+
+import java.util.Map;
+
+import org.activiti.bpmn.model.BaseElement;
+import org.activiti.bpmn.model.BpmnModel;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * An {@link ActivityProcessor} that takes the index of the shapes by their outgoing flows along with the shape map, 
+ * so the element converters find the source of the flows in nested elements without searching all shapes.
+ * The element converters fall back to {@link ActivityProcessor#processJsonElements(JsonNode, JsonNode, BaseElement, Map, BpmnModel)}
+ * for processors that don't implement this interface.
+ */
+public interface SourceRefAwareActivityProcessor extends ActivityProcessor {
+
+  /**
+   * @param sourceRefMap the shapes by the resource ids in their outgoing list, used to find the source of the flows
+   */
+  public void processJsonElements(JsonNode shapesArrayNode, JsonNode modelNode, BaseElement parentElement, 
+      Map<String, JsonNode> shapeMap, Map<String, JsonNode> sourceRefMap, BpmnModel bpmnModel);
+}
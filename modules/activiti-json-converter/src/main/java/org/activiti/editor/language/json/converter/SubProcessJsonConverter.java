@@ -79,7 +79,7 @@ public class SubProcessJsonConverter extends BaseBpmnJsonConverter {
       }
       
       JsonNode childShapesArray = elementNode.get(EDITOR_CHILD_SHAPES);
-      processor.processJsonElements(childShapesArray, modelNode, subProcess, shapeMap, model);
+      processJsonElements(childShapesArray, modelNode, subProcess, shapeMap);
       
       JsonNode processDataPropertiesNode = elementNode.get(EDITOR_SHAPE_PROPERTIES).get(PROPERTY_DATA_PROPERTIES);
       if (processDataPropertiesNode != null) {
@@ -1,9 +1,12 @@
 package org.activiti.editor.language;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 
 import org.activiti.bpmn.model.BpmnModel;
@@ -31,6 +34,18 @@ public abstract class AbstractConverterTest {
     return bpmnModel;
   }
   
+  protected BpmnModel convertToJsonStreamAndBack(BpmnModel bpmnModel) throws Exception {
+    ByteArrayOutputStream jsonStream = new ByteArrayOutputStream();
+    new BpmnJsonConverter().convertToJson(bpmnModel, jsonStream);
+    byte[] json = jsonStream.toByteArray();
+    
+    // the streamed json is the same as the json tree
+    assertEquals(new BpmnJsonConverter().convertToJson(bpmnModel), new ObjectMapper().readTree(json));
+    
+    bpmnModel = new BpmnJsonConverter().convertToBpmnModel(new ByteArrayInputStream(json));
+    return bpmnModel;
+  }
+  
   protected EventDefinition extractEventDefinition(FlowElement flowElement) {
     assertNotNull(flowElement);
     assertTrue(flowElement instanceof Event);
@@ -4,15 +4,28 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.activiti.bpmn.model.BpmnModel;
 import org.activiti.bpmn.model.FlowElement;
 import org.activiti.bpmn.model.IntermediateCatchEvent;
 import org.activiti.bpmn.model.ReceiveTask;
+import org.activiti.bpmn.model.SequenceFlow;
 import org.activiti.bpmn.model.SignalEventDefinition;
 import org.activiti.bpmn.model.SubProcess;
 import org.activiti.bpmn.model.UserTask;
+import org.activiti.editor.language.json.converter.BpmnJsonConverter;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 public class CompleteConverterTest extends AbstractConverterTest {
   
   @Test
@@ -28,6 +41,58 @@ public class CompleteConverterTest extends AbstractConverterTest {
     validateModel(bpmnModel);
   }
   
+  @Test 
+  public void streamingConversionValidation() throws Exception {
+    BpmnModel bpmnModel = readJsonFile();
+    bpmnModel = convertToJsonStreamAndBack(bpmnModel);
+    validateModel(bpmnModel);
+  }
+  
+  @Test
+  public void concurrentConversionValidation() throws Exception {
+    final JsonNode completeModelNode = readJsonNode(getResource());
+    final JsonNode poolModelNode = readJsonNode("test.poolmodel.json");
+    final int poolFlowCount = new BpmnJsonConverter().convertToBpmnModel(poolModelNode)
+        .getMainProcess().findFlowElementsOfType(SequenceFlow.class).size();
+    
+    // a converter instance is shared by threads converting different models
+    final BpmnJsonConverter converter = new BpmnJsonConverter();
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<BpmnModel>> completeModels = new ArrayList<Future<BpmnModel>>();
+      List<Future<BpmnModel>> poolModels = new ArrayList<Future<BpmnModel>>();
+      for (int i = 0; i < 50; i++) {
+        completeModels.add(executorService.submit(new Callable<BpmnModel>() {
+          public BpmnModel call() {
+            return converter.convertToBpmnModel(completeModelNode);
+          }
+        }));
+        poolModels.add(executorService.submit(new Callable<BpmnModel>() {
+          public BpmnModel call() {
+            return converter.convertToBpmnModel(poolModelNode);
+          }
+        }));
+      }
+      for (Future<BpmnModel> completeModel : completeModels) {
+        validateModel(completeModel.get());
+      }
+      for (Future<BpmnModel> poolModel : poolModels) {
+        assertEquals(poolFlowCount, poolModel.get().getMainProcess().findFlowElementsOfType(SequenceFlow.class).size());
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+  
+  protected JsonNode readJsonNode(String resource) throws Exception {
+    InputStream jsonStream = this.getClass().getClassLoader().getResourceAsStream(resource);
+    try {
+      return new ObjectMapper().readTree(jsonStream);
+    } finally {
+      jsonStream.close();
+    }
+  }
+  
   protected String getResource() {
     return "test.completemodel.json";
   }
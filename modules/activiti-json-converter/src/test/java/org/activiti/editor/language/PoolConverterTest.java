@@ -25,6 +25,13 @@ public class PoolConverterTest extends AbstractConverterTest {
     validateModel(bpmnModel);
   }
   
+  @Test 
+  public void streamingConversionValidation() throws Exception {
+    BpmnModel bpmnModel = readJsonFile();
+    bpmnModel = convertToJsonStreamAndBack(bpmnModel);
+    validateModel(bpmnModel);
+  }
+  
   protected String getResource() {
     return "test.poolmodel.json";
   }
@@ -31,6 +31,9 @@ import org.activiti.engine.runtime.ClockReader;
  * 
  * Experimental: can have a listener for cache events, and instance of  {@link LDAPGroupCacheListener}.
  * 
+ * The cache is accessed concurrently by all threads querying tasks, so access to the (access-ordered) map 
+ * is synchronized.
+ * 
  * @author Joram Barrez
  */
 public class LDAPGroupCache {
@@ -63,11 +66,11 @@ public class LDAPGroupCache {
     this.expirationTime = expirationTime;
   }
   
-  public void add(String userId, List<Group> groups) {
+  public synchronized void add(String userId, List<Group> groups) {
     this.groupCache.put(userId, new LDAPGroupCacheEntry(clockReader.getCurrentTime(), groups));
   }
   
-  public List<Group> get(String userId) {
+  public synchronized List<Group> get(String userId) {
     LDAPGroupCacheEntry cacheEntry = groupCache.get(userId);
     if (cacheEntry != null) {
       if ((clockReader.getCurrentTime().getTime() - cacheEntry.getTimestamp().getTime()) < expirationTime) {
@@ -97,7 +100,7 @@ public class LDAPGroupCache {
     return null;
   }
   
-  public void clear() {
+  public synchronized void clear() {
     groupCache.clear();
   }
   
@@ -14,37 +14,133 @@ package org.activiti.validation;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.activiti.bpmn.model.BpmnModel;
+import org.activiti.bpmn.model.FlowElement;
+import org.activiti.bpmn.model.Process;
+import org.activiti.validation.validator.ProcessLevelValidator;
 import org.activiti.validation.validator.Validator;
 import org.activiti.validation.validator.ValidatorSet;
 
 /**
+ * Runs the validators of all validator sets over a {@link BpmnModel}.
+ * 
+ * Models with at least parallelValidationThreshold flow elements are validated in parallel:
+ * every validator runs as a separate task, and a {@link ProcessLevelValidator} runs as a task per process.
+ * The errors are returned in the same order as with sequential validation. 
+ * Validators must be stateless to be run in parallel, like the default ones.
+ * 
  * @author jbarrez
  */
 public class ProcessValidatorImpl implements ProcessValidator {
 	
 	protected List<ValidatorSet> validatorSets;
 	
+	protected int parallelValidationThreshold = 500;
+	protected int parallelValidationThreads = Runtime.getRuntime().availableProcessors();
+	protected ExecutorService executorService;
+	
 	@Override
 	public List<ValidationError> validate(BpmnModel bpmnModel) {
 		
-		List<ValidationError> allErrors = new ArrayList<ValidationError>();
-		
-		for (ValidatorSet validatorSet : validatorSets) {
-			for (Validator validator : validatorSet.getValidators()) {
-			  List<ValidationError> validatorErrors = new ArrayList<ValidationError>();
-				validator.validate(bpmnModel, validatorErrors);
-				if (!validatorErrors.isEmpty()) {
-					for (ValidationError error : validatorErrors) {
-						error.setValidatorSetName(validatorSet.getName());
+		List<ValidationTask> validationTasks = new ArrayList<ValidationTask>();
+		if (isParallelValidation(bpmnModel)) {
+			for (ValidatorSet validatorSet : validatorSets) {
+				for (Validator validator : validatorSet.getValidators()) {
+					if (isValidatedPerProcess(validator)) {
+						for (Process process : bpmnModel.getProcesses()) {
+							validationTasks.add(new ValidationTask(validatorSet.getName(), validator, bpmnModel, process));
+						}
+					} else {
+						validationTasks.add(new ValidationTask(validatorSet.getName(), validator, bpmnModel, null));
 					}
-					allErrors.addAll(validatorErrors);
+				}
+			}
+			executeInParallel(validationTasks);
+			
+		} else {
+			for (ValidatorSet validatorSet : validatorSets) {
+				for (Validator validator : validatorSet.getValidators()) {
+					ValidationTask validationTask = new ValidationTask(validatorSet.getName(), validator, bpmnModel, null);
+					validationTask.call();
+					validationTasks.add(validationTask);
 				}
 			}
 		}
+		
+		List<ValidationError> allErrors = new ArrayList<ValidationError>();
+		for (ValidationTask validationTask : validationTasks) {
+			allErrors.addAll(validationTask.getErrors());
+		}
 		return allErrors;
 	}
+	
+	protected boolean isParallelValidation(BpmnModel bpmnModel) {
+		if (parallelValidationThreads < 2 && executorService == null) {
+			return false;
+		}
+		int flowElementCount = 0;
+		for (Process process : bpmnModel.getProcesses()) {
+			flowElementCount += process.findFlowElementsOfType(FlowElement.class).size();
+		}
+		return flowElementCount >= parallelValidationThreshold;
+	}
+	
+	/**
+	 * A process level validator is split up per process, unless it changed how the processes are iterated.
+	 */
+	protected boolean isValidatedPerProcess(Validator validator) {
+		if (!(validator instanceof ProcessLevelValidator)) {
+			return false;
+		}
+		try {
+			return validator.getClass().getMethod("validate", BpmnModel.class, List.class).getDeclaringClass() == ProcessLevelValidator.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+	
+	protected void executeInParallel(List<ValidationTask> validationTasks) {
+		try {
+			for (Future<List<ValidationError>> future : getExecutorService().invokeAll(validationTasks)) {
+				future.get();
+			}
+			
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while validating the process definitions", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException("Validation of the process definitions failed", e.getCause());
+		}
+	}
+	
+	/**
+	 * Returns the configured executor service, or creates one with daemon threads which
+	 * end when they're idle, so the validator doesn't need to be shut down.
+	 */
+	protected synchronized ExecutorService getExecutorService() {
+		if (executorService == null) {
+			ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(parallelValidationThreads, parallelValidationThreads, 
+					30L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ValidationThreadFactory());
+			threadPoolExecutor.allowCoreThreadTimeOut(true);
+			executorService = threadPoolExecutor;
+		}
+		return executorService;
+	}
 
 	public List<ValidatorSet> getValidatorSets() {
 		return validatorSets;
@@ -61,4 +157,75 @@ public class ProcessValidatorImpl implements ProcessValidator {
 		validatorSets.add(validatorSet);
 	}
 	
+	public int getParallelValidationThreshold() {
+		return parallelValidationThreshold;
+	}
+
+	/**
+	 * Models with fewer flow elements are validated sequentially, as the tasks cost more than they save.
+	 */
+	public void setParallelValidationThreshold(int parallelValidationThreshold) {
+		this.parallelValidationThreshold = parallelValidationThreshold;
+	}
+
+	public int getParallelValidationThreads() {
+		return parallelValidationThreads;
+	}
+
+	/**
+	 * Number of threads of the executor service created by the validator; less than 2 disables parallel validation.
+	 */
+	public void setParallelValidationThreads(int parallelValidationThreads) {
+		this.parallelValidationThreads = parallelValidationThreads;
+	}
+
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+	
+	protected static class ValidationTask implements Callable<List<ValidationError>> {
+		
+		protected final String validatorSetName;
+		protected final Validator validator;
+		protected final BpmnModel bpmnModel;
+		protected final Process process;
+		protected final List<ValidationError> errors = new ArrayList<ValidationError>();
+		
+		public ValidationTask(String validatorSetName, Validator validator, BpmnModel bpmnModel, Process process) {
+			this.validatorSetName = validatorSetName;
+			this.validator = validator;
+			this.bpmnModel = bpmnModel;
+			this.process = process;
+		}
+		
+		@Override
+		public List<ValidationError> call() {
+			if (process != null) {
+				((ProcessLevelValidator) validator).validate(bpmnModel, process, errors);
+			} else {
+				validator.validate(bpmnModel, errors);
+			}
+			for (ValidationError error : errors) {
+				error.setValidatorSetName(validatorSetName);
+			}
+			return errors;
+		}
+		
+		public List<ValidationError> getErrors() {
+			return errors;
+		}
+	}
+	
+	protected static class ValidationThreadFactory implements ThreadFactory {
+		
+		protected final AtomicInteger threadNumber = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "activiti-process-validation-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+	
 }
@@ -30,6 +30,13 @@ public abstract class ProcessLevelValidator extends ValidatorImpl {
 		}
 	}
 	
+	/**
+	 * Validates a single process of the model, used to validate the processes in parallel.
+	 */
+	public void validate(BpmnModel bpmnModel, Process process, List<ValidationError> errors) {
+		executeValidation(bpmnModel, process, errors);
+	}
+	
 	protected abstract void executeValidation(BpmnModel bpmnModel, Process process, List<ValidationError> errors);
 	
 }
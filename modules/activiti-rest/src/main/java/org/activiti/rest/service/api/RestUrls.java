@@ -43,6 +43,7 @@ public final class RestUrls {
   public static final String SEGMENT_PROCESS_INSTANCE_RESOURCE = "process-instances";
   public static final String SEGMENT_VARIABLES = "variables";
   public static final String SEGMENT_SUBTASKS = "subtasks";
+  public static final String SEGMENT_BATCH = "batch";
   public static final String SEGMENT_IDENTITYLINKS = "identitylinks";
   public static final String SEGMENT_COMMENTS = "comments";
   public static final String SEGMENT_EVENTS = "events";
@@ -171,6 +172,11 @@ public final class RestUrls {
    */
   public static final String[] URL_TASK_QUERY = {SEGMENT_QUERY_RESOURCES, SEGMENT_TASK_RESOURCE};
   
+  /**
+   * URL template for actions on a batch of tasks: <i>runtime/tasks/batch</i>
+   */
+  public static final String[] URL_TASK_BATCH = {SEGMENT_RUNTIME_RESOURCES, SEGMENT_TASK_RESOURCE, SEGMENT_BATCH};
+  
   /**
    * URL template for a single task: <i>runtime/tasks/{0:taskId}</i>
    */
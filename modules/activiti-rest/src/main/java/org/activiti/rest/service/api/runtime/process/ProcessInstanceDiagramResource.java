@@ -33,6 +33,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -48,20 +49,31 @@ public class ProcessInstanceDiagramResource extends BaseProcessInstanceResource
   protected ProcessEngineConfiguration processEngineConfiguration;
   
   @RequestMapping(value="/runtime/process-instances/{processInstanceId}/diagram", method = RequestMethod.GET)
-  public ResponseEntity<byte[]> getProcessInstanceDiagram(@PathVariable String processInstanceId, HttpServletResponse response) {
+  public ResponseEntity<byte[]> getProcessInstanceDiagram(@PathVariable String processInstanceId, 
+      @RequestParam(value="format", required=false) String format, HttpServletResponse response) {
+    
     ProcessInstance processInstance = getProcessInstanceFromRequest(processInstanceId);
     
+    String imageType = "png";
+    String contentType = "image/png";
+    if ("svg".equalsIgnoreCase(format)) {
+      imageType = "svg";
+      contentType = "image/svg+xml";
+    } else if (format != null && !"png".equalsIgnoreCase(format)) {
+      throw new ActivitiIllegalArgumentException("Unsupported diagram format '" + format + "', use png or svg.");
+    }
+    
     ProcessDefinition pde = repositoryService.getProcessDefinition(processInstance.getProcessDefinitionId());
 
     if (pde != null && pde.hasGraphicalNotation()) {
       BpmnModel bpmnModel = repositoryService.getBpmnModel(pde.getId());
       ProcessDiagramGenerator diagramGenerator = processEngineConfiguration.getProcessDiagramGenerator();
-      InputStream resource = diagramGenerator.generateDiagram(bpmnModel, "png", runtimeService.getActiveActivityIds(processInstance.getId()),
+      InputStream resource = diagramGenerator.generateDiagram(bpmnModel, imageType, runtimeService.getActiveActivityIds(processInstance.getId()),
           Collections.<String>emptyList(), processEngineConfiguration.getActivityFontName(), processEngineConfiguration.getLabelFontName(),
           processEngineConfiguration.getClassLoader(), 1.0);
 
       HttpHeaders responseHeaders = new HttpHeaders();
-      responseHeaders.set("Content-Type", "image/png");
+      responseHeaders.set("Content-Type", contentType);
       try {
         return new ResponseEntity<byte[]>(IOUtils.toByteArray(resource), responseHeaders, HttpStatus.OK);
       } catch(Exception e) {
@@ -0,0 +1,83 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.rest.service.api.runtime.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.ActivitiIllegalArgumentException;
+import org.activiti.engine.task.TaskBatchResult;
+import org.activiti.rest.service.api.engine.variable.RestVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Completes or claims a batch of tasks. The tasks are processed in chunked transactions, 
+ * and the response contains the outcome for every task.
+ */
+@RestController
+public class TaskBatchResource extends TaskBaseResource {
+
+  @RequestMapping(value="/runtime/tasks/batch", method = RequestMethod.POST, produces="application/json")
+  public List<TaskBatchResultResponse> executeTaskBatchAction(@RequestBody TaskBatchActionRequest actionRequest) {
+    if (actionRequest == null) {
+      throw new ActivitiException("A request body was expected when executing a task batch action.");
+    }
+    if (actionRequest.getTaskIds() == null) {
+      throw new ActivitiIllegalArgumentException("The taskIds of the batch are required.");
+    }
+    
+    List<TaskBatchResult> results = null;
+    if (TaskActionRequest.ACTION_COMPLETE.equals(actionRequest.getAction())) {
+      results = taskService.completeTasks(actionRequest.getTaskIds(), getVariablesToSet(actionRequest));
+      
+    } else if (TaskActionRequest.ACTION_CLAIM.equals(actionRequest.getAction())) {
+      results = taskService.claimTasks(actionRequest.getTaskIds(), actionRequest.getAssignee());
+      
+    } else {
+      throw new ActivitiIllegalArgumentException("Invalid batch action: '" + actionRequest.getAction() + "'.");
+    }
+    
+    List<TaskBatchResultResponse> responses = new ArrayList<TaskBatchResultResponse>(results.size());
+    for (TaskBatchResult result : results) {
+      TaskBatchResultResponse response = new TaskBatchResultResponse();
+      response.setTaskId(result.getTaskId());
+      response.setSuccessful(result.isSuccessful());
+      if (result.getException() != null) {
+        response.setErrorMessage(result.getException().getMessage());
+      }
+      responses.add(response);
+    }
+    return responses;
+  }
+  
+  protected Map<String, Object> getVariablesToSet(TaskActionRequest actionRequest) {
+    if (actionRequest.getVariables() == null) {
+      return null;
+    }
+    
+    Map<String, Object> variablesToSet = new HashMap<String, Object>();
+    for (RestVariable var : actionRequest.getVariables()) {
+      if (var.getName() == null) {
+        throw new ActivitiIllegalArgumentException("Variable name is required");
+      }
+      variablesToSet.put(var.getName(), restResponseFactory.getVariableValue(var));
+    }
+    return variablesToSet;
+  }
+}
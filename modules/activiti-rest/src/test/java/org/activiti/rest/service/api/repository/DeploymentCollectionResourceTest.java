@@ -4,6 +4,7 @@ import java.util.Calendar;
 import java.util.List;
 
 import org.activiti.engine.repository.Deployment;
+import org.activiti.rest.common.api.AbstractPaginateList;
 import org.activiti.rest.service.BaseSpringRestTestCase;
 import org.activiti.rest.service.api.RestUrls;
 import org.apache.http.HttpStatus;
@@ -125,4 +126,64 @@ public class DeploymentCollectionResourceTest extends BaseSpringRestTestCase {
       }
     }
   }
+  
+  /**
+   * Test the total parameter of paginated lists.
+   * GET repository/deployments?total=none
+   */
+  public void testGetDeploymentsTotal() throws Exception {
+    try {
+      AbstractPaginateList.getDefaultQueryCountCache().clear();
+      repositoryService.createDeployment().name("Deployment 1")
+          .addClasspathResource("org/activiti/rest/service/api/repository/oneTaskProcess.bpmn20.xml")
+          .deploy();
+      repositoryService.createDeployment().name("Deployment 2")
+          .addClasspathResource("org/activiti/rest/service/api/repository/oneTaskProcess.bpmn20.xml")
+          .deploy();
+      
+      String baseUrl = RestUrls.createRelativeResourceUrl(RestUrls.URL_DEPLOYMENT_COLLECTION);
+      
+      // Without total, there is a next page
+      JsonNode responseNode = getResponseNode(baseUrl + "?size=1&total=none");
+      assertEquals(1L, responseNode.get("data").size());
+      assertEquals(-1L, responseNode.get("total").longValue());
+      assertTrue(responseNode.get("hasMore").booleanValue());
+      
+      // The last page gives the total without counting
+      responseNode = getResponseNode(baseUrl + "?start=1&size=1&total=none");
+      assertEquals(1L, responseNode.get("data").size());
+      assertEquals(2L, responseNode.get("total").longValue());
+      assertFalse(responseNode.get("hasMore").booleanValue());
+      
+      // The estimate is cached, so it doesn't include a new deployment
+      responseNode = getResponseNode(baseUrl + "?size=1&total=estimate");
+      assertEquals(2L, responseNode.get("total").longValue());
+      repositoryService.createDeployment().name("Deployment 3")
+          .addClasspathResource("org/activiti/rest/service/api/repository/oneTaskProcess.bpmn20.xml")
+          .deploy();
+      responseNode = getResponseNode(baseUrl + "?size=1&total=estimate");
+      assertEquals(2L, responseNode.get("total").longValue());
+      
+      // The exact total is always counted
+      responseNode = getResponseNode(baseUrl + "?size=1");
+      assertEquals(3L, responseNode.get("total").longValue());
+      assertTrue(responseNode.get("hasMore").booleanValue());
+      
+      closeResponse(executeRequest(new HttpGet(SERVER_URL_PREFIX + baseUrl + "?total=unknown"), HttpStatus.SC_BAD_REQUEST));
+      
+    } finally {
+      AbstractPaginateList.getDefaultQueryCountCache().clear();
+      List<Deployment> deployments = repositoryService.createDeploymentQuery().list();
+      for(Deployment deployment : deployments) {
+        repositoryService.deleteDeployment(deployment.getId(), true);
+      }
+    }
+  }
+  
+  protected JsonNode getResponseNode(String url) throws Exception {
+    CloseableHttpResponse response = executeRequest(new HttpGet(SERVER_URL_PREFIX + url), HttpStatus.SC_OK);
+    JsonNode responseNode = objectMapper.readTree(response.getEntity().getContent());
+    closeResponse(response);
+    return responseNode;
+  }
 }
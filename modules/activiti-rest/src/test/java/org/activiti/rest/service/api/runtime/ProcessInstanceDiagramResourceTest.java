@@ -13,10 +13,15 @@
 
 package org.activiti.rest.service.api.runtime;
 
+import java.util.Collections;
+
+import org.activiti.bpmn.model.BpmnModel;
 import org.activiti.engine.runtime.ProcessInstance;
 import org.activiti.engine.test.Deployment;
 import org.activiti.rest.service.BaseSpringRestTestCase;
+import org.activiti.image.impl.DefaultProcessDiagramGenerator;
 import org.activiti.rest.service.api.RestUrls;
+import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -38,6 +43,44 @@ public class ProcessInstanceDiagramResourceTest extends BaseSpringRestTestCase {
     closeResponse(response);
   }
   
+  @Deployment(resources = "org/activiti/rest/service/api/runtime/ProcessInstanceDiagramResourceTest.testGetProcessDiagram.bpmn20.xml")
+  public void testGetProcessDiagramAsSvg() throws Exception {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("simpleProcess");
+    String url = SERVER_URL_PREFIX + RestUrls.createRelativeResourceUrl(RestUrls.URL_PROCESS_INSTANCE_DIAGRAM, processInstance.getId());
+    
+    CloseableHttpResponse response = executeRequest(new HttpGet(url + "?format=svg"), HttpStatus.SC_OK);
+    assertEquals("image/svg+xml", response.getEntity().getContentType().getValue());
+    String svg = IOUtils.toString(response.getEntity().getContent(), "UTF-8");
+    closeResponse(response);
+    assertTrue(svg.contains("<svg"));
+    assertTrue(svg.trim().endsWith("</svg>"));
+    
+    // the highlights are drawn on the cached diagram of the process definition, 
+    // which must give the same result as rendering the diagram without the cache
+    BpmnModel bpmnModel = repositoryService.getBpmnModel(processInstance.getProcessDefinitionId());
+    DefaultProcessDiagramGenerator uncachedGenerator = new DefaultProcessDiagramGenerator();
+    uncachedGenerator.setDiagramCacheEnabled(false);
+    String uncachedSvg = IOUtils.toString(uncachedGenerator.generateDiagram(bpmnModel, "svg", 
+        runtimeService.getActiveActivityIds(processInstance.getId()), Collections.<String>emptyList(), 
+        processEngineConfiguration.getActivityFontName(), processEngineConfiguration.getLabelFontName(), 
+        processEngineConfiguration.getClassLoader(), 1.0), "UTF-8");
+    assertEquals(uncachedSvg, svg);
+    
+    // the highlights must not end up in the cached diagram itself
+    String plainSvg = IOUtils.toString(uncachedGenerator.generateDiagram(bpmnModel, "svg", 
+        Collections.<String>emptyList(), Collections.<String>emptyList(), 
+        processEngineConfiguration.getActivityFontName(), processEngineConfiguration.getLabelFontName(), 
+        processEngineConfiguration.getClassLoader(), 1.0), "UTF-8");
+    assertFalse(plainSvg.equals(svg));
+    String cachedPlainSvg = IOUtils.toString(processEngineConfiguration.getProcessDiagramGenerator().generateDiagram(bpmnModel, "svg", 
+        Collections.<String>emptyList(), Collections.<String>emptyList(), 
+        processEngineConfiguration.getActivityFontName(), processEngineConfiguration.getLabelFontName(), 
+        processEngineConfiguration.getClassLoader(), 1.0), "UTF-8");
+    assertEquals(plainSvg, cachedPlainSvg);
+    
+    closeResponse(executeRequest(new HttpGet(url + "?format=bmp"), HttpStatus.SC_BAD_REQUEST));
+  }
+  
   @Deployment
   public void testGetProcessDiagramWithoutDiagram() throws Exception {
     ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
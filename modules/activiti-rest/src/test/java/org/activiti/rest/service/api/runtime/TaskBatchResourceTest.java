@@ -0,0 +1,108 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.rest.service.api.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.activiti.engine.task.Task;
+import org.activiti.engine.test.Deployment;
+import org.activiti.rest.service.BaseSpringRestTestCase;
+import org.activiti.rest.service.api.RestUrls;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Test for the batch actions on tasks.
+ */
+public class TaskBatchResourceTest extends BaseSpringRestTestCase {
+
+  /**
+   * Test claiming and completing a batch of tasks.
+   * POST runtime/tasks/batch
+   */
+  @Deployment(resources = "org/activiti/rest/service/api/oneTaskProcess.bpmn20.xml")
+  public void testClaimAndCompleteTasks() throws Exception {
+    List<String> taskIds = new ArrayList<String>();
+    for (int i = 0; i < 3; i++) {
+      runtimeService.startProcessInstanceByKey("oneTaskProcess");
+    }
+    for (Task task : taskService.createTaskQuery().list()) {
+      taskIds.add(task.getId());
+    }
+    taskService.claim(taskIds.get(0), "fozzie");
+    
+    // Claim
+    ObjectNode requestNode = objectMapper.createObjectNode();
+    requestNode.put("action", "claim");
+    requestNode.put("assignee", "kermit");
+    ArrayNode taskIdsNode = requestNode.putArray("taskIds");
+    for (String taskId : taskIds) {
+      taskIdsNode.add(taskId);
+    }
+    
+    HttpPost httpPost = new HttpPost(SERVER_URL_PREFIX + RestUrls.createRelativeResourceUrl(RestUrls.URL_TASK_BATCH));
+    httpPost.setEntity(new StringEntity(requestNode.toString()));
+    CloseableHttpResponse response = executeRequest(httpPost, HttpStatus.SC_OK);
+    JsonNode resultNode = objectMapper.readTree(response.getEntity().getContent());
+    closeResponse(response);
+    
+    assertEquals(3, resultNode.size());
+    assertEquals(taskIds.get(0), resultNode.get(0).get("taskId").asText());
+    assertFalse(resultNode.get(0).get("successful").asBoolean());
+    assertNotNull(resultNode.get(0).get("errorMessage").textValue());
+    assertTrue(resultNode.get(1).get("successful").asBoolean());
+    assertTrue(resultNode.get(2).get("successful").asBoolean());
+    assertEquals(2L, taskService.createTaskQuery().taskAssignee("kermit").count());
+    
+    // Complete, with a variable
+    requestNode.put("action", "complete");
+    requestNode.remove("assignee");
+    ArrayNode variablesNode = requestNode.putArray("variables");
+    ObjectNode variableNode = variablesNode.addObject();
+    variableNode.put("name", "approved");
+    variableNode.put("value", true);
+    
+    httpPost.setEntity(new StringEntity(requestNode.toString()));
+    response = executeRequest(httpPost, HttpStatus.SC_OK);
+    resultNode = objectMapper.readTree(response.getEntity().getContent());
+    closeResponse(response);
+    
+    assertEquals(3, resultNode.size());
+    for (JsonNode taskResultNode : resultNode) {
+      assertTrue(taskResultNode.get("successful").asBoolean());
+    }
+    assertEquals(0L, taskService.createTaskQuery().count());
+    assertEquals(0L, runtimeService.createProcessInstanceQuery().count());
+  }
+  
+  /**
+   * Test an invalid batch action.
+   * POST runtime/tasks/batch
+   */
+  public void testInvalidBatchAction() throws Exception {
+    ObjectNode requestNode = objectMapper.createObjectNode();
+    requestNode.put("action", "delegate");
+    requestNode.putArray("taskIds").add("123");
+    
+    HttpPost httpPost = new HttpPost(SERVER_URL_PREFIX + RestUrls.createRelativeResourceUrl(RestUrls.URL_TASK_BATCH));
+    httpPost.setEntity(new StringEntity(requestNode.toString()));
+    closeResponse(executeRequest(httpPost, HttpStatus.SC_BAD_REQUEST));
+  }
+}